@@ -0,0 +1,247 @@
+package fi.fmi.avi.converter.tac.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.util.StreamUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import fi.fmi.avi.converter.AviMessageConverter;
+import fi.fmi.avi.converter.ConversionResult;
+import fi.fmi.avi.converter.ConversionSpecification;
+import fi.fmi.avi.model.PartialOrCompleteTimeInstant;
+import fi.fmi.avi.model.bulletin.BulletinHeading;
+import fi.fmi.avi.model.bulletin.DataTypeDesignatorT2;
+import fi.fmi.avi.model.bulletin.immutable.BulletinHeadingImpl;
+import fi.fmi.avi.model.metar.immutable.METARImpl;
+import fi.fmi.avi.model.metar.immutable.SPECIImpl;
+import fi.fmi.avi.model.sigmet.AIRMET;
+import fi.fmi.avi.model.sigmet.SIGMET;
+import fi.fmi.avi.model.sigmet.immutable.AIRMETBulletinImpl;
+import fi.fmi.avi.model.sigmet.immutable.AIRMETImpl;
+import fi.fmi.avi.model.sigmet.immutable.SIGMETBulletinImpl;
+import fi.fmi.avi.model.sigmet.immutable.SIGMETImpl;
+import fi.fmi.avi.model.swx.amd79.SpaceWeatherAdvisoryAmd79;
+import fi.fmi.avi.model.swx.amd79.immutable.SpaceWeatherAmd79BulletinImpl;
+import fi.fmi.avi.model.swx.amd82.SpaceWeatherAdvisoryAmd82;
+import fi.fmi.avi.model.swx.amd82.immutable.SpaceWeatherAmd82BulletinImpl;
+import fi.fmi.avi.model.taf.TAF;
+import fi.fmi.avi.model.taf.immutable.TAFBulletinImpl;
+import fi.fmi.avi.model.taf.immutable.TAFImpl;
+
+/**
+ * Benchmark input built from the test fixtures in <code>src/test/resources</code>.
+ *
+ * For each {@link MessageKind} the corpus contains the messages as TAC and as model objects:
+ * <ul>
+ *     <li>METAR, SPECI, TAF, SIGMET and AIRMET are read from the JSON fixtures and serialized to TAC</li>
+ *     <li>Space weather advisories are parsed from the valid <code>.tac</code> fixtures</li>
+ *     <li>Each bulletin type contains all the messages of the corresponding message type in a single bulletin</li>
+ *     <li>The generic bulletins are the above bulletins parsed from TAC</li>
+ * </ul>
+ * Fixtures that cannot be converted are left out, so the corpus only contains messages the converters accept.
+ */
+public final class BenchmarkCorpus {
+    private static final String FIXTURE_ROOT = "classpath*:fi/fmi/avi/converter/tac/";
+
+    private final AviMessageConverter converter;
+    private final ObjectMapper objectMapper;
+    private final Map<MessageKind, List<String>> messages = new EnumMap<>(MessageKind.class);
+    private final Map<MessageKind, List<Object>> models = new EnumMap<>(MessageKind.class);
+
+    private BenchmarkCorpus(final AviMessageConverter converter) {
+        this.converter = converter;
+        this.objectMapper = new ObjectMapper();
+        this.objectMapper.registerModule(new Jdk8Module());
+        this.objectMapper.registerModule(new JavaTimeModule());
+        for (final MessageKind kind : MessageKind.values()) {
+            messages.put(kind, new ArrayList<>());
+            models.put(kind, new ArrayList<>());
+        }
+    }
+
+    /**
+     * Builds the corpus, using the given converter to convert the fixtures.
+     *
+     * @param converter the converter with the TAC conversions configured
+     * @return the corpus
+     * @throws IOException if the fixtures cannot be read
+     */
+    public static BenchmarkCorpus load(final AviMessageConverter converter) throws IOException {
+        final BenchmarkCorpus corpus = new BenchmarkCorpus(converter);
+        corpus.addJsonFixtures(MessageKind.METAR, "metar/metar*.json", METARImpl.class);
+        corpus.addJsonFixtures(MessageKind.SPECI, "metar/speci*.json", SPECIImpl.class);
+        corpus.addJsonFixtures(MessageKind.TAF, "taf/*.json", TAFImpl.class);
+        corpus.addJsonFixtures(MessageKind.SIGMET, "sigmet/*.json", SIGMETImpl.class);
+        corpus.addJsonFixtures(MessageKind.AIRMET, "airmet/*.json", AIRMETImpl.class);
+        corpus.addTacFixtures(MessageKind.SWX_AMD79, "swx/amd79/*.tac");
+        corpus.addTacFixtures(MessageKind.SWX_AMD82, "swx/amd82/*.tac");
+        corpus.addBulletins();
+        return corpus;
+    }
+
+    private static BulletinHeading heading(final DataTypeDesignatorT2 dataType) {
+        return BulletinHeadingImpl.builder()//
+                .setLocationIndicator("EFKL")//
+                .setBulletinNumber(1)//
+                .setGeographicalDesignator("FI")//
+                .setDataTypeDesignatorT2(dataType)//
+                .setIssueTime(PartialOrCompleteTimeInstant.createIssueTime("020500"))//
+                .build();
+    }
+
+    private static Resource[] findFixtures(final String pattern) throws IOException {
+        final Resource[] resources = new PathMatchingResourcePatternResolver().getResources(FIXTURE_ROOT + pattern);
+        Arrays.sort(resources, Comparator.comparing(Resource::getFilename));
+        return resources;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <S, T> ConversionResult<T> convert(final AviMessageConverter converter, final Object input, final ConversionSpecification<S, T> spec) {
+        return converter.convertMessage((S) input, spec);
+    }
+
+    private static boolean isConverted(final ConversionResult<?> result) {
+        return result.getStatus() != ConversionResult.Status.FAIL && result.getConvertedMessage().isPresent();
+    }
+
+    private void addJsonFixtures(final MessageKind kind, final String pattern, final Class<?> modelClass) throws IOException {
+        for (final Resource resource : findFixtures(pattern)) {
+            final Object model;
+            try (InputStream in = resource.getInputStream()) {
+                model = objectMapper.readValue(in, modelClass);
+            } catch (final IOException e) {
+                // Not all the fixtures are complete messages
+                continue;
+            }
+            addModel(kind, model);
+        }
+    }
+
+    private void addTacFixtures(final MessageKind kind, final String pattern) throws IOException {
+        for (final Resource resource : findFixtures(pattern)) {
+            if (resource.getFilename() == null || resource.getFilename().contains("invalid")) {
+                continue;
+            }
+            final String tac;
+            try (InputStream in = resource.getInputStream()) {
+                tac = StreamUtils.copyToString(in, StandardCharsets.UTF_8);
+            }
+            addMessage(kind, tac);
+        }
+    }
+
+    private void addBulletins() {
+        final TAFBulletinImpl.Builder tafBulletin = TAFBulletinImpl.builder()//
+                .setHeading(heading(DataTypeDesignatorT2.ForecastsDataTypeDesignatorT2.FCT_AERODROME_VT_SHORT));
+        for (final TAF taf : getModels(MessageKind.TAF, TAF.class)) {
+            tafBulletin.addMessages(taf);
+        }
+        addModel(MessageKind.TAF_BULLETIN, tafBulletin.build());
+
+        final SIGMETBulletinImpl.Builder sigmetBulletin = SIGMETBulletinImpl.builder()//
+                .setHeading(heading(DataTypeDesignatorT2.WarningsDataTypeDesignatorT2.WRN_SIGMET));
+        for (final SIGMET sigmet : getModels(MessageKind.SIGMET, SIGMET.class)) {
+            sigmetBulletin.addMessages(sigmet);
+        }
+        addModel(MessageKind.SIGMET_BULLETIN, sigmetBulletin.build());
+
+        final AIRMETBulletinImpl.Builder airmetBulletin = AIRMETBulletinImpl.builder()//
+                .setHeading(heading(DataTypeDesignatorT2.WarningsDataTypeDesignatorT2.WRN_AIRMET));
+        for (final AIRMET airmet : getModels(MessageKind.AIRMET, AIRMET.class)) {
+            airmetBulletin.addMessages(airmet);
+        }
+        addModel(MessageKind.AIRMET_BULLETIN, airmetBulletin.build());
+
+        final SpaceWeatherAmd79BulletinImpl.Builder swxAmd79Bulletin = SpaceWeatherAmd79BulletinImpl.builder()//
+                .setHeading(heading(DataTypeDesignatorT2.ForecastsDataTypeDesignatorT2.FCT_SPACE_WEATHER));
+        for (final SpaceWeatherAdvisoryAmd79 advisory : getModels(MessageKind.SWX_AMD79, SpaceWeatherAdvisoryAmd79.class)) {
+            swxAmd79Bulletin.addMessages(advisory);
+        }
+        addModel(MessageKind.SWX_AMD79_BULLETIN, swxAmd79Bulletin.build());
+
+        final SpaceWeatherAmd82BulletinImpl.Builder swxAmd82Bulletin = SpaceWeatherAmd82BulletinImpl.builder()//
+                .setHeading(heading(DataTypeDesignatorT2.ForecastsDataTypeDesignatorT2.FCT_SPACE_WEATHER));
+        for (final SpaceWeatherAdvisoryAmd82 advisory : getModels(MessageKind.SWX_AMD82, SpaceWeatherAdvisoryAmd82.class)) {
+            swxAmd82Bulletin.addMessages(advisory);
+        }
+        addModel(MessageKind.SWX_AMD82_BULLETIN, swxAmd82Bulletin.build());
+
+        for (final MessageKind kind : Arrays.asList(MessageKind.TAF_BULLETIN, MessageKind.SIGMET_BULLETIN, MessageKind.AIRMET_BULLETIN,
+                MessageKind.SWX_AMD79_BULLETIN, MessageKind.SWX_AMD82_BULLETIN)) {
+            for (final String tac : getMessages(kind)) {
+                addMessage(MessageKind.GENERIC_BULLETIN, tac);
+            }
+        }
+    }
+
+    /*
+     * Adds the model and its serialized TAC, if the model can be serialized.
+     */
+    private void addModel(final MessageKind kind, final Object model) {
+        final ConversionResult<String> result = convert(converter, model, kind.getSerializationSpecification());
+        if (isConverted(result)) {
+            models.get(kind).add(model);
+            messages.get(kind).add(result.getConvertedMessage().get());
+        }
+    }
+
+    /*
+     * Adds the TAC and its parsed model, if the TAC can be parsed.
+     */
+    private void addMessage(final MessageKind kind, final String tac) {
+        final ConversionResult<?> result = converter.convertMessage(tac, kind.getParsingSpecification());
+        if (isConverted(result)) {
+            messages.get(kind).add(tac);
+            models.get(kind).add(result.getConvertedMessage().get());
+        }
+    }
+
+    /**
+     * @param kind the message type
+     * @return the messages of the given type as TAC
+     */
+    public List<String> getMessages(final MessageKind kind) {
+        return Collections.unmodifiableList(messages.get(kind));
+    }
+
+    /**
+     * @param kind the message type
+     * @return the messages of the given type as model objects accepted by the serializer of the type
+     */
+    public List<Object> getModels(final MessageKind kind) {
+        return Collections.unmodifiableList(models.get(kind));
+    }
+
+    private <T> List<T> getModels(final MessageKind kind, final Class<T> modelClass) {
+        final List<T> retval = new ArrayList<>();
+        for (final Object model : models.get(kind)) {
+            retval.add(modelClass.cast(model));
+        }
+        return retval;
+    }
+
+    /**
+     * Serializes the given model with the serializer of the message type.
+     *
+     * @param kind the message type
+     * @param model the model object from {@link #getModels(MessageKind)}
+     * @return the conversion result
+     */
+    public ConversionResult<String> serialize(final MessageKind kind, final Object model) {
+        return convert(converter, model, kind.getSerializationSpecification());
+    }
+}
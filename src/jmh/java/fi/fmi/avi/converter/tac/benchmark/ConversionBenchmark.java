@@ -0,0 +1,49 @@
+package fi.fmi.avi.converter.tac.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Lexing, parsing and serialization of the benchmark corpus.
+ *
+ * Each operation processes all the messages of {@link ConverterState#messageKind} in the corpus once, so the scores
+ * are comparable between runs of the same corpus only.
+ *
+ * Run with <code>mvn -Pbenchmark verify</code>, see the README for the options.
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConversionBenchmark {
+
+    @Benchmark
+    public void lex(final ConverterState state, final Blackhole blackhole) {
+        for (final String message : state.getMessages()) {
+            blackhole.consume(state.getLexer().lexMessage(message));
+        }
+    }
+
+    @Benchmark
+    public void parse(final ConverterState state, final Blackhole blackhole) {
+        for (final String message : state.getMessages()) {
+            blackhole.consume(state.getConverter().convertMessage(message, state.messageKind.getParsingSpecification()));
+        }
+    }
+
+    @Benchmark
+    public void serialize(final ConverterState state, final Blackhole blackhole) {
+        for (final Object model : state.getModels()) {
+            blackhole.consume(state.getCorpus().serialize(state.messageKind, model));
+        }
+    }
+}
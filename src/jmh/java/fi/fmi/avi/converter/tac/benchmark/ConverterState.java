@@ -0,0 +1,71 @@
+package fi.fmi.avi.converter.tac.benchmark;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import fi.fmi.avi.converter.AviMessageConverter;
+import fi.fmi.avi.converter.tac.TACTestConfiguration;
+import fi.fmi.avi.converter.tac.lexer.AviMessageLexer;
+
+/**
+ * Converters and the benchmark corpus of a single message type, shared by all the benchmark threads.
+ */
+@State(Scope.Benchmark)
+public class ConverterState {
+
+    @Param
+    public MessageKind messageKind;
+
+    private AnnotationConfigApplicationContext context;
+    private AviMessageConverter converter;
+    private AviMessageLexer lexer;
+    private List<String> messages;
+    private List<Object> models;
+    private BenchmarkCorpus corpus;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        context = new AnnotationConfigApplicationContext(TACTestConfiguration.class);
+        converter = context.getBean(AviMessageConverter.class);
+        lexer = context.getBean(AviMessageLexer.class);
+        corpus = BenchmarkCorpus.load(converter);
+        messages = corpus.getMessages(messageKind);
+        models = corpus.getModels(messageKind);
+        if (messages.isEmpty()) {
+            throw new IllegalStateException("No " + messageKind + " messages in the benchmark corpus");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    public AviMessageConverter getConverter() {
+        return converter;
+    }
+
+    public AviMessageLexer getLexer() {
+        return lexer;
+    }
+
+    public BenchmarkCorpus getCorpus() {
+        return corpus;
+    }
+
+    public List<String> getMessages() {
+        return messages;
+    }
+
+    public List<Object> getModels() {
+        return models;
+    }
+}
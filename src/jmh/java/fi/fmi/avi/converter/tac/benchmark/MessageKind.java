@@ -0,0 +1,41 @@
+package fi.fmi.avi.converter.tac.benchmark;
+
+import fi.fmi.avi.converter.ConversionSpecification;
+import fi.fmi.avi.converter.tac.conf.TACConverter;
+
+/**
+ * Message types covered by the benchmarks, with the conversions used for them.
+ *
+ * The bulletins are parsed with the generic bulletin parser, as there are no type specific bulletin parsers.
+ */
+public enum MessageKind {
+    METAR(TACConverter.TAC_TO_METAR_POJO, TACConverter.METAR_POJO_TO_TAC),
+    SPECI(TACConverter.TAC_TO_SPECI_POJO, TACConverter.SPECI_POJO_TO_TAC),
+    TAF(TACConverter.TAC_TO_TAF_POJO, TACConverter.TAF_POJO_TO_TAC),
+    SIGMET(TACConverter.TAC_TO_SIGMET_POJO, TACConverter.SIGMET_POJO_TO_TAC),
+    AIRMET(TACConverter.TAC_TO_AIRMET_POJO, TACConverter.AIRMET_POJO_TO_TAC),
+    SWX_AMD79(TACConverter.TAC_TO_SWX_AMD79_POJO, TACConverter.SWX_AMD79_POJO_TO_TAC),
+    SWX_AMD82(TACConverter.TAC_TO_SWX_AMD82_POJO, TACConverter.SWX_AMD82_POJO_TO_TAC),
+    TAF_BULLETIN(TACConverter.TAC_TO_GENERIC_BULLETIN_POJO, TACConverter.TAF_BULLETIN_POJO_TO_TAC),
+    SIGMET_BULLETIN(TACConverter.TAC_TO_GENERIC_BULLETIN_POJO, TACConverter.SIGMET_BULLETIN_POJO_TO_TAC),
+    AIRMET_BULLETIN(TACConverter.TAC_TO_GENERIC_BULLETIN_POJO, TACConverter.AIRMET_BULLETIN_POJO_TO_TAC),
+    SWX_AMD79_BULLETIN(TACConverter.TAC_TO_GENERIC_BULLETIN_POJO, TACConverter.SWX_AMD79_BULLETIN_POJO_TO_TAC),
+    SWX_AMD82_BULLETIN(TACConverter.TAC_TO_GENERIC_BULLETIN_POJO, TACConverter.SWX_AMD82_BULLETIN_POJO_TO_TAC),
+    GENERIC_BULLETIN(TACConverter.TAC_TO_GENERIC_BULLETIN_POJO, TACConverter.GENERIC_BULLETIN_POJO_TO_TAC);
+
+    private final ConversionSpecification<String, ?> parsingSpecification;
+    private final ConversionSpecification<?, String> serializationSpecification;
+
+    MessageKind(final ConversionSpecification<String, ?> parsingSpecification, final ConversionSpecification<?, String> serializationSpecification) {
+        this.parsingSpecification = parsingSpecification;
+        this.serializationSpecification = serializationSpecification;
+    }
+
+    public ConversionSpecification<String, ?> getParsingSpecification() {
+        return parsingSpecification;
+    }
+
+    public ConversionSpecification<?, String> getSerializationSpecification() {
+        return serializationSpecification;
+    }
+}
@@ -6,12 +6,12 @@ import static fi.fmi.avi.model.immutable.WeatherImpl.WEATHER_CODES;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import fi.fmi.avi.converter.ConversionHints;
@@ -19,11 +19,15 @@ import fi.fmi.avi.converter.ConversionIssue;
 import fi.fmi.avi.converter.ConversionResult;
 import fi.fmi.avi.converter.tac.lexer.Lexeme;
 import fi.fmi.avi.converter.tac.lexer.LexemeIdentity;
+import fi.fmi.avi.converter.tac.lexer.LexemeIdentitySet;
 import fi.fmi.avi.converter.tac.lexer.LexemeSequence;
+import fi.fmi.avi.converter.tac.lexer.impl.LexemeUtils;
 import fi.fmi.avi.converter.tac.lexer.impl.token.CloudLayer;
 import fi.fmi.avi.converter.tac.lexer.impl.token.CloudLayer.CloudCover;
+import fi.fmi.avi.converter.tac.metrics.ConversionMetricsListener;
 import fi.fmi.avi.model.AviationCodeListUser;
 import fi.fmi.avi.model.AviationWeatherMessageOrCollection;
+import fi.fmi.avi.model.MessageType;
 import fi.fmi.avi.model.PartialDateTime;
 import fi.fmi.avi.model.PartialOrCompleteTimeInstant;
 import fi.fmi.avi.model.immutable.CloudLayerImpl;
@@ -37,6 +41,8 @@ import fi.fmi.avi.model.immutable.WeatherImpl;
  */
 public abstract class AbstractTACParser<T extends AviationWeatherMessageOrCollection> implements TACParser<T> {
 
+    private ConversionMetricsListener metricsListener = ConversionMetricsListener.NO_OP;
+
     /**
      * Finds the next {@link Lexeme} identified as <code>needle</code> in the sequence of Lexemes starting from <code>from</code>.
      *
@@ -118,23 +124,48 @@ public abstract class AbstractTACParser<T extends AviationWeatherMessageOrCollec
         return from.findNext(needle, found, notFound);
     }
 
+    public ConversionMetricsListener getMetricsListener() {
+        return this.metricsListener;
+    }
+
+    @Override
+    public void setMetricsListener(final ConversionMetricsListener metricsListener) {
+        this.metricsListener = Objects.requireNonNull(metricsListener, "metricsListener");
+    }
+
+    /**
+     * Runs the parsing and reports its duration and issues to the metrics listener, unless the listener is
+     * {@link ConversionMetricsListener#NO_OP}.
+     *
+     * @param type the type of the message parsed
+     * @param parsing the parsing to run
+     * @param <R> the type of the parsed message
+     *
+     * @return the result of the parsing
+     */
+    protected <R> ConversionResult<R> measureParsing(final MessageType type, final Supplier<ConversionResult<R>> parsing) {
+        final ConversionMetricsListener metrics = this.metricsListener;
+        if (metrics == ConversionMetricsListener.NO_OP) {
+            return parsing.get();
+        }
+        final long start = System.nanoTime();
+        final ConversionResult<R> result = parsing.get();
+        metrics.messageParsed(type, System.nanoTime() - start, result.getConversionIssues());
+        return result;
+    }
+
     protected static ConversionIssue checkBeforeAnyOf(final Lexeme lexeme, final LexemeIdentity... toMatch) {
-        return lexeme == null || toMatch == null || toMatch.length == 0 ? null : checkBeforeAnyOf(lexeme, new HashSet<>(Arrays.asList(toMatch)));
+        return lexeme == null || toMatch == null || toMatch.length == 0 ? null : checkBeforeAnyOf(lexeme, LexemeIdentitySet.of(toMatch));
     }
 
     protected static ConversionIssue checkBeforeAnyOf(final Lexeme lexeme, final Set<LexemeIdentity> toMatch) {
-        ConversionIssue retval = null;
         if (lexeme != null && toMatch != null && !toMatch.isEmpty()) {
-            Lexeme toCheck = lexeme;
-            while (toCheck.hasPrevious()) {
-                toCheck = toCheck.getPrevious();
-                final LexemeIdentity identity = toCheck.getIdentity();
-                if (toMatch.contains(identity)) {
-                    retval = new ConversionIssue(ConversionIssue.Type.SYNTAX, "Invalid token order: '" + lexeme + "' was found after one of type " + identity);
-                }
+            final Lexeme found = LexemeUtils.findFirstPreviousLexeme(lexeme, toMatch);
+            if (found != null) {
+                return new ConversionIssue(ConversionIssue.Type.SYNTAX, "Invalid token order: '" + lexeme + "' was found after one of type " + found.getIdentity());
             }
         }
-        return retval;
+        return null;
     }
 
     /**
@@ -147,7 +178,10 @@ public abstract class AbstractTACParser<T extends AviationWeatherMessageOrCollec
      *         the identities to verify
      *
      * @return list the ParsingIssues to report for found extra Lexemes
+     *
+     * @deprecated declare the rules of the message type as a {@link MessageGrammar} instead
      */
+    @Deprecated
     protected static List<ConversionIssue> checkZeroOrOne(final LexemeSequence lexed, final LexemeIdentity[] ids) {
         final List<ConversionIssue> retval = new ArrayList<>();
         checkZeroOrOne(lexed, ids, retval, new boolean[ids.length]);
@@ -155,11 +189,10 @@ public abstract class AbstractTACParser<T extends AviationWeatherMessageOrCollec
     }
 
     private static void checkZeroOrOne(final LexemeSequence lexed, final LexemeIdentity[] ids, final List<ConversionIssue> issues, final boolean[] oneFound) {
-        final List<Lexeme> recognizedLexemes = lexed.getLexemes()
-                .stream()
-                .filter((lexeme) -> Lexeme.Status.UNRECOGNIZED != lexeme.getStatus())
-                .collect(Collectors.toList());
-        for (final Lexeme l : recognizedLexemes) {
+        for (final Lexeme l : lexed.getLexemes()) {
+            if (Lexeme.Status.UNRECOGNIZED == l.getStatus()) {
+                continue;
+            }
             for (int i = 0; i < ids.length; i++) {
                 if (ids[i].equals(l.getIdentity())) {
                     if (!oneFound[i]) {
@@ -172,6 +205,20 @@ public abstract class AbstractTACParser<T extends AviationWeatherMessageOrCollec
         }
     }
 
+    /**
+     * Convenience method for verifying that the {@link LexemeSequence} given contains exactly one of each of the
+     * {@link Lexeme}s identified as one of <code>ids</code>.
+     *
+     * @param lexed
+     *         sequence to check
+     * @param ids
+     *         the identities to verify
+     *
+     * @return list the ParsingIssues to report for extra and missing Lexemes
+     *
+     * @deprecated declare the rules of the message type as a {@link MessageGrammar} instead
+     */
+    @Deprecated
     protected static List<ConversionIssue> checkExactlyOne(final LexemeSequence lexed, final LexemeIdentity[] ids) {
         final List<ConversionIssue> retval = new ArrayList<>();
         final boolean[] oneFound = new boolean[ids.length];
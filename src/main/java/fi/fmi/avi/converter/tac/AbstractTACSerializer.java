@@ -7,14 +7,21 @@ import fi.fmi.avi.converter.ConversionResult;
 import fi.fmi.avi.converter.tac.lexer.*;
 import fi.fmi.avi.converter.tac.lexer.impl.ReconstructorContext;
 import fi.fmi.avi.converter.tac.lexer.impl.TACTokenReconstructor;
+import fi.fmi.avi.converter.tac.metrics.ConversionMetricsListener;
 import fi.fmi.avi.model.AviationWeatherMessage;
 import fi.fmi.avi.model.AviationWeatherMessageOrCollection;
 import fi.fmi.avi.model.CloudLayer;
+import fi.fmi.avi.model.MessageType;
 import fi.fmi.avi.model.bulletin.MeteorologicalBulletinSpecialCharacter;
 
-import java.util.HashMap;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
 
 /**
  * Created by rinne on 07/06/17.
@@ -22,10 +29,15 @@ import java.util.Map;
 public abstract class AbstractTACSerializer<S extends AviationWeatherMessageOrCollection>
         implements AviMessageSpecificConverter<S, String>, AviMessageTACTokenizer {
 
-    private final Map<LexemeIdentity, TACTokenReconstructor> reconstructors = new HashMap<>();
+    private static final TACTokenReconstructor[] NO_RECONSTRUCTORS = new TACTokenReconstructor[0];
+
+    // Indexed by the LexemeIdentity ordinal
+    private TACTokenReconstructor[] reconstructors = NO_RECONSTRUCTORS;
 
     private LexingFactory factory;
 
+    private ConversionMetricsListener metricsListener = ConversionMetricsListener.NO_OP;
+
     public LexingFactory getLexingFactory() {
         return this.factory;
     }
@@ -34,13 +46,43 @@ public abstract class AbstractTACSerializer<S extends AviationWeatherMessageOrCo
         this.factory = factory;
     }
 
+    public ConversionMetricsListener getMetricsListener() {
+        return this.metricsListener;
+    }
+
+    /**
+     * Sets the listener receiving the serializing times and issues.
+     *
+     * @param metricsListener the listener, {@link ConversionMetricsListener#NO_OP} by default
+     */
+    public void setMetricsListener(final ConversionMetricsListener metricsListener) {
+        this.metricsListener = Objects.requireNonNull(metricsListener, "metricsListener");
+    }
+
+    /**
+     * The type of the messages serialized, as reported to the metrics listener.
+     *
+     * @return the message type, or null if not known
+     */
+    protected MessageType getMessageType() {
+        return null;
+    }
+
     public void addReconstructor(final LexemeIdentity id, final TACTokenReconstructor reconstructor) {
         reconstructor.setLexingFactory(this.factory);
-        this.reconstructors.put(id, reconstructor);
+        final int ordinal = id.ordinal();
+        if (ordinal >= this.reconstructors.length) {
+            this.reconstructors = Arrays.copyOf(this.reconstructors, ordinal + 1);
+        }
+        this.reconstructors[ordinal] = reconstructor;
     }
 
     public TACTokenReconstructor removeReconstructor(final LexemeIdentity id) {
-        return this.reconstructors.remove(id);
+        final TACTokenReconstructor retval = getReconstructor(id);
+        if (retval != null) {
+            this.reconstructors[id.ordinal()] = null;
+        }
+        return retval;
     }
 
     @Override
@@ -51,20 +93,16 @@ public abstract class AbstractTACSerializer<S extends AviationWeatherMessageOrCo
 
     @Override
     public ConversionResult<String> convertMessage(final S input, final ConversionHints hints) {
+        return measureSerializing(() -> serialize(input, hints));
+    }
+
+    private ConversionResult<String> serialize(final S input, final ConversionHints hints) {
         final ConversionResult<String> result = new ConversionResult<>();
         try {
             final LexemeSequence seq = tokenizeMessage(input, hints);
             seq.getLexemes().stream()
                     .filter(lexeme -> lexeme.getStatus() != Lexeme.Status.OK)
-                    .forEach(lexeme -> {
-                        final ConversionIssue.Type type = lexeme.getStatus() == Lexeme.Status.SYNTAX_ERROR
-                                ? ConversionIssue.Type.SYNTAX
-                                : ConversionIssue.Type.OTHER;
-                        final String message = lexeme.getLexerMessage() != null
-                                ? lexeme.getLexerMessage()
-                                : "Issue with token '" + lexeme.getTACToken() + "' <" + lexeme.getIdentity() + ">";
-                        result.addIssue(new ConversionIssue(ConversionIssue.Severity.WARNING, type, message));
-                    });
+                    .forEach(lexeme -> result.addIssue(toConversionIssue(lexeme)));
             result.setConvertedMessage(seq.getTAC());
         } catch (final SerializingException se) {
             result.addIssue(new ConversionIssue(ConversionIssue.Type.OTHER, se.getMessage()));
@@ -72,11 +110,129 @@ public abstract class AbstractTACSerializer<S extends AviationWeatherMessageOrCo
         return result;
     }
 
+    /**
+     * Serializes the message by writing the TAC tokens directly to <code>out</code> as they are produced, without
+     * constructing the complete {@link LexemeSequence} first.
+     *
+     * The issues are the same as reported by {@link #convertMessage(AviationWeatherMessageOrCollection, ConversionHints)}.
+     * If serializing fails with an issue of type {@link ConversionIssue.Type#OTHER}, the tokens written before the
+     * failure remain in <code>out</code>.
+     *
+     * @param input the message to serialize
+     * @param out the output to write to
+     * @param hints the conversion hints
+     * @return the issues found while serializing
+     * @throws IOException if writing to <code>out</code> fails
+     */
+    public List<ConversionIssue> writeMessage(final S input, final Appendable out, final ConversionHints hints) throws IOException {
+        final ConversionMetricsListener metrics = this.metricsListener;
+        final long start = metrics == ConversionMetricsListener.NO_OP ? 0L : System.nanoTime();
+        final List<ConversionIssue> issues = new ArrayList<>();
+        final AppendingLexemeSink sink = new AppendingLexemeSink(out, lexeme -> {
+            if (lexeme.getStatus() != Lexeme.Status.OK && !lexeme.isIgnored()) {
+                issues.add(toConversionIssue(lexeme));
+            }
+        });
+        try {
+            appendMessage(sink, input, hints);
+            sink.flush();
+        } catch (final SerializingException se) {
+            issues.add(new ConversionIssue(ConversionIssue.Type.OTHER, se.getMessage()));
+        } catch (final UncheckedIOException e) {
+            throw e.getCause();
+        }
+        if (metrics != ConversionMetricsListener.NO_OP) {
+            metrics.messageSerialized(getMessageType(), System.nanoTime() - start, issues);
+        }
+        return issues;
+    }
+
+    /**
+     * Serializes the message by writing the TAC encoded message directly to <code>out</code> as US-ASCII bytes.
+     * Characters outside US-ASCII are written as '?'.
+     *
+     * @param input the message to serialize
+     * @param out the buffer to write to
+     * @param hints the conversion hints
+     * @return the issues found while serializing
+     * @throws java.nio.BufferOverflowException if the message does not fit in the remaining space of the buffer
+     * @see #writeMessage(AviationWeatherMessageOrCollection, Appendable, ConversionHints)
+     */
+    public List<ConversionIssue> writeMessage(final S input, final ByteBuffer out, final ConversionHints hints) {
+        try {
+            return writeMessage(input, new ByteBufferAppendable(out), hints);
+        } catch (final IOException e) {
+            // ByteBufferAppendable never throws IOExceptions
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Appends the Lexemes of the TAC encoded message to <code>sink</code>. The sink may write the Lexemes out
+     * as soon as they are appended, so only the white space after the last non-whitespace Lexeme may be removed with
+     * {@link LexemeSink#removeLast()}.
+     *
+     * The default implementation appends the Lexemes of {@link #tokenizeMessage(AviationWeatherMessageOrCollection, ConversionHints)}.
+     *
+     * @param sink the sink to append to
+     * @param msg the message to serialize
+     * @param hints the conversion hints
+     * @throws SerializingException if the message cannot be serialized
+     */
+    protected void appendMessage(final LexemeSink sink, final AviationWeatherMessageOrCollection msg, final ConversionHints hints)
+            throws SerializingException {
+        sink.appendAll(tokenizeMessage(msg, hints).getLexemes(true));
+    }
+
+    /**
+     * Creates the builder for {@link #tokenizeMessage(AviationWeatherMessageOrCollection, ConversionHints)} and
+     * appends the message to it with {@link #appendMessage(LexemeSink, AviationWeatherMessageOrCollection, ConversionHints)}.
+     *
+     * @param msg the message to serialize
+     * @param hints the conversion hints
+     * @return the complete sequence
+     * @throws SerializingException if the message cannot be serialized
+     */
+    protected LexemeSequence tokenizeWithBuilder(final AviationWeatherMessageOrCollection msg, final ConversionHints hints) throws SerializingException {
+        final LexemeSequenceBuilder builder = this.factory.createLexemeSequenceBuilder(true);
+        appendMessage(builder, msg, hints);
+        return builder.build();
+    }
+
+    /**
+     * Runs the serializing and reports its duration and issues to the metrics listener, unless the listener is
+     * {@link ConversionMetricsListener#NO_OP}.
+     *
+     * @param serializing the serializing to run
+     * @return the result of the serializing
+     */
+    protected ConversionResult<String> measureSerializing(final Supplier<ConversionResult<String>> serializing) {
+        final ConversionMetricsListener metrics = this.metricsListener;
+        if (metrics == ConversionMetricsListener.NO_OP) {
+            return serializing.get();
+        }
+        final long start = System.nanoTime();
+        final ConversionResult<String> result = serializing.get();
+        metrics.messageSerialized(getMessageType(), System.nanoTime() - start, result.getConversionIssues());
+        return result;
+    }
+
+    private static ConversionIssue toConversionIssue(final Lexeme lexeme) {
+        final ConversionIssue.Type type = lexeme.getStatus() == Lexeme.Status.SYNTAX_ERROR
+                ? ConversionIssue.Type.SYNTAX
+                : ConversionIssue.Type.OTHER;
+        final String message = lexeme.getLexerMessage() != null
+                ? lexeme.getLexerMessage()
+                : "Issue with token '" + lexeme.getTACToken() + "' <" + lexeme.getIdentity() + ">";
+        return new ConversionIssue(ConversionIssue.Severity.WARNING, type, message);
+    }
+
     public TACTokenReconstructor getReconstructor(final LexemeIdentity id) {
-        return this.reconstructors.get(id);
+        final int ordinal = id.ordinal();
+        return ordinal < this.reconstructors.length ? this.reconstructors[ordinal] : null;
     }
 
-    protected <V extends AviationWeatherMessage> int appendCloudLayers(final LexemeSequenceBuilder builder, final V msg, final Class<V> clz,
+    protected <V extends AviationWeatherMessage> int appendCloudLayers(final LexemeSink builder, final V msg, final Class<V> clz,
                                                                        final List<? extends CloudLayer> layers, final ReconstructorContext<V> ctx) throws SerializingException {
         int retval = 0;
         if (layers != null) {
@@ -89,9 +245,9 @@ public abstract class AbstractTACSerializer<S extends AviationWeatherMessageOrCo
         return retval;
     }
 
-    protected <V extends AviationWeatherMessageOrCollection> int appendToken(final LexemeSequenceBuilder builder, final LexemeIdentity id, final V msg,
+    protected <V extends AviationWeatherMessageOrCollection> int appendToken(final LexemeSink builder, final LexemeIdentity id, final V msg,
                                                                              final Class<V> clz, final ReconstructorContext<V> ctx) throws SerializingException {
-        final TACTokenReconstructor rec = this.reconstructors.get(id);
+        final TACTokenReconstructor rec = getReconstructor(id);
         int retval = 0;
         if (rec != null) {
             final List<Lexeme> list = rec.getAsLexemes(msg, clz, ctx);
@@ -105,11 +261,11 @@ public abstract class AbstractTACSerializer<S extends AviationWeatherMessageOrCo
         return retval;
     }
 
-    protected int appendWhitespace(final LexemeSequenceBuilder builder, final MeteorologicalBulletinSpecialCharacter toAppend) {
+    protected int appendWhitespace(final LexemeSink builder, final MeteorologicalBulletinSpecialCharacter toAppend) {
         return appendWhitespace(builder, toAppend, 1);
     }
 
-    protected int appendWhitespace(final LexemeSequenceBuilder builder, final MeteorologicalBulletinSpecialCharacter toAppend, final int count) {
+    protected int appendWhitespace(final LexemeSink builder, final MeteorologicalBulletinSpecialCharacter toAppend, final int count) {
         for (int i = 0; i < count; i++) {
             final Lexeme l = factory.createLexeme(toAppend.getContent(), LexemeIdentity.WHITE_SPACE);
             l.setParsedValue(Lexeme.ParsedValueName.TYPE, toAppend);
@@ -118,4 +274,31 @@ public abstract class AbstractTACSerializer<S extends AviationWeatherMessageOrCo
         return count;
     }
 
+    private static final class ByteBufferAppendable implements Appendable {
+        private final ByteBuffer out;
+
+        ByteBufferAppendable(final ByteBuffer out) {
+            this.out = out;
+        }
+
+        @Override
+        public Appendable append(final CharSequence csq) {
+            return append(csq, 0, csq.length());
+        }
+
+        @Override
+        public Appendable append(final CharSequence csq, final int start, final int end) {
+            for (int i = start; i < end; i++) {
+                append(csq.charAt(i));
+            }
+            return this;
+        }
+
+        @Override
+        public Appendable append(final char c) {
+            this.out.put(c < 0x80 ? (byte) c : (byte) '?');
+            return this;
+        }
+    }
+
 }
@@ -0,0 +1,97 @@
+package fi.fmi.avi.converter.tac;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import fi.fmi.avi.converter.tac.lexer.Lexeme;
+import fi.fmi.avi.converter.tac.lexer.LexemeIdentity;
+import fi.fmi.avi.converter.tac.lexer.LexemeSequence;
+import fi.fmi.avi.converter.tac.lexer.LexemeSink;
+
+/**
+ * A {@link LexemeSink} writing the TAC tokens of the appended Lexemes to an {@link Appendable} instead of
+ * collecting them into a {@link LexemeSequence}.
+ *
+ * The serializers remove trailing white space with {@link #removeLast()} and look at the last token with
+ * {@link #getLast()}, so the last non-whitespace Lexeme and any white space after it are held back until the next
+ * non-whitespace Lexeme is appended or {@link #flush()} is called. Removing more Lexemes than that is not supported.
+ *
+ * I/O errors of the output are thrown as {@link UncheckedIOException}s, as the sink methods cannot throw checked
+ * exceptions.
+ */
+final class AppendingLexemeSink implements LexemeSink {
+    private final Appendable out;
+    private final Consumer<Lexeme> writtenLexemeConsumer;
+    private final Deque<Lexeme> pending = new ArrayDeque<>();
+    private Lexeme lastWritten;
+
+    /**
+     * @param out the output to write the TAC tokens to
+     * @param writtenLexemeConsumer called with each Lexeme after writing its token
+     */
+    AppendingLexemeSink(final Appendable out, final Consumer<Lexeme> writtenLexemeConsumer) {
+        this.out = out;
+        this.writtenLexemeConsumer = writtenLexemeConsumer;
+    }
+
+    @Override
+    public LexemeSink append(final Lexeme lexeme) {
+        if (!LexemeIdentity.WHITE_SPACE.equals(lexeme.getIdentity())) {
+            this.flush();
+        }
+        this.pending.addLast(lexeme);
+        return this;
+    }
+
+    @Override
+    public LexemeSink appendAll(final List<Lexeme> lexemes) {
+        if (lexemes != null) {
+            for (final Lexeme l : lexemes) {
+                this.append(l);
+            }
+        }
+        return this;
+    }
+
+    @Override
+    public LexemeSink removeLast() {
+        if (this.pending.pollLast() == null && this.lastWritten != null) {
+            throw new IllegalStateException("Cannot remove Lexeme '" + this.lastWritten.getTACToken() + "', it has already been written");
+        }
+        return this;
+    }
+
+    @Override
+    public Optional<Lexeme> getLast() {
+        if (this.pending.isEmpty()) {
+            return Optional.ofNullable(this.lastWritten);
+        }
+        return Optional.of(this.pending.getLast());
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return this.pending.isEmpty() && this.lastWritten == null;
+    }
+
+    /**
+     * Writes all the Lexemes held back.
+     */
+    void flush() {
+        Lexeme l;
+        while ((l = this.pending.pollFirst()) != null) {
+            try {
+                this.out.append(l.getTACToken());
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            this.lastWritten = l;
+            this.writtenLexemeConsumer.accept(l);
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package fi.fmi.avi.converter.tac;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+import fi.fmi.avi.converter.ConversionHints;
+import fi.fmi.avi.converter.ConversionResult;
+import fi.fmi.avi.converter.tac.lexer.AviMessageLexer;
+import fi.fmi.avi.converter.tac.metrics.ConversionMetricsListener;
+import fi.fmi.avi.model.AviationWeatherMessageOrCollection;
+
+/**
+ * A {@link TACParser} decorator returning the earlier parsing result for a message already parsed.
+ *
+ * The messages are compared ignoring the amount and the kind of white space between the tokens, together with the
+ * conversion hints given. The same message instance is returned for every copy of the message, so only parsers
+ * producing immutable messages, such as {@link fi.fmi.avi.converter.tac.metar.ImmutableMETARTACParser} or
+ * {@link fi.fmi.avi.converter.tac.taf.ImmutableTAFTACParser}, should be decorated. The translated TAC of the returned
+ * message is that of the first copy parsed.
+ *
+ * The cache holds at most <code>maxSize</code> results, evicting the least recently used one, and a result is
+ * parsed again once it is older than <code>timeToLive</code>. Messages parsed with the translation time set to
+ * {@link ConversionHints#VALUE_TRANSLATION_TIME_AUTO} are not cached, as the result depends on the time of parsing.
+ *
+ * Instances are thread-safe once configured, see {@link #setTACLexer(AviMessageLexer)}.
+ *
+ * <pre>
+ * &#64;Bean
+ * AviMessageSpecificConverter&lt;String, METARImpl&gt; immutableMetarTACParser() {
+ *     final TACParser&lt;METARImpl&gt; p = new ImmutableMETARTACParser();
+ *     p.setTACLexer(aviMessageLexer);
+ *     return new CachingTACParser&lt;&gt;(p, 10000, Duration.ofMinutes(10));
+ * }
+ * </pre>
+ *
+ * @param <T> the type of the parsed messages
+ */
+public class CachingTACParser<T extends AviationWeatherMessageOrCollection> implements TACParser<T> {
+
+    private final TACParser<T> delegate;
+    private final int maxSize;
+    private final long timeToLiveMillis;
+    private final Clock clock;
+    private final Map<Key, Entry<T>> cache;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * @param delegate the parser to cache the results of
+     * @param maxSize the maximum number of results to cache
+     * @param timeToLive the time to cache each result for
+     */
+    public CachingTACParser(final TACParser<T> delegate, final int maxSize, final Duration timeToLive) {
+        this(delegate, maxSize, timeToLive, Clock.systemUTC());
+    }
+
+    CachingTACParser(final TACParser<T> delegate, final int maxSize, final Duration timeToLive, final Clock clock) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be positive: " + maxSize);
+        }
+        this.delegate = Objects.requireNonNull(delegate, "delegate");
+        this.maxSize = maxSize;
+        this.timeToLiveMillis = timeToLive.toMillis();
+        this.clock = clock;
+        this.cache = new LinkedHashMap<Key, Entry<T>>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<Key, Entry<T>> eldest) {
+                return size() > CachingTACParser.this.maxSize;
+            }
+        };
+    }
+
+    /**
+     * Normalizes the white space of the TAC encoded message: the tokens are separated by a single space, with no
+     * white space at the beginning or the end.
+     *
+     * @param input the TAC encoded message
+     * @return the normalized message
+     */
+    static String normalizeWhiteSpace(final String input) {
+        final StringBuilder sb = new StringBuilder(input.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < input.length(); i++) {
+            final char c = input.charAt(i);
+            if (Character.isWhitespace(c)) {
+                pendingSpace = sb.length() > 0;
+            } else {
+                if (pendingSpace) {
+                    sb.append(' ');
+                    pendingSpace = false;
+                }
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public void setTACLexer(final AviMessageLexer lexer) {
+        this.delegate.setTACLexer(lexer);
+    }
+
+    /**
+     * Sets the listener of the decorated parser. Only the cache misses are parsed and reported.
+     *
+     * @param metricsListener the listener
+     */
+    @Override
+    public void setMetricsListener(final ConversionMetricsListener metricsListener) {
+        this.delegate.setMetricsListener(metricsListener);
+    }
+
+    @Override
+    public ConversionResult<T> convertMessage(final String input, final ConversionHints hints) {
+        if (input == null || isTranslationTimeAuto(hints)) {
+            this.misses.incrementAndGet();
+            return this.delegate.convertMessage(input, hints);
+        }
+        final Key key = new Key(normalizeWhiteSpace(input), hints);
+        final long now = this.clock.millis();
+        Entry<T> entry;
+        synchronized (this.cache) {
+            entry = this.cache.get(key);
+            if (entry != null && now - entry.created > this.timeToLiveMillis) {
+                this.cache.remove(key);
+                entry = null;
+            }
+        }
+        if (entry != null) {
+            this.hits.incrementAndGet();
+        } else {
+            this.misses.incrementAndGet();
+            entry = new Entry<>(this.delegate.convertMessage(input, hints), now);
+            synchronized (this.cache) {
+                this.cache.put(key, entry);
+            }
+        }
+        return entry.copyOfResult();
+    }
+
+    /**
+     * @return the number of conversions answered from the cache
+     */
+    public long getHitCount() {
+        return this.hits.get();
+    }
+
+    /**
+     * @return the number of conversions parsed by the decorated parser
+     */
+    public long getMissCount() {
+        return this.misses.get();
+    }
+
+    /**
+     * @return the number of results currently cached, including the ones expired but not yet evicted
+     */
+    public int size() {
+        synchronized (this.cache) {
+            return this.cache.size();
+        }
+    }
+
+    /**
+     * Removes all the cached results.
+     */
+    public void clear() {
+        synchronized (this.cache) {
+            this.cache.clear();
+        }
+    }
+
+    private static boolean isTranslationTimeAuto(final ConversionHints hints) {
+        return hints != null && ConversionHints.VALUE_TRANSLATION_TIME_AUTO.equals(hints.get(ConversionHints.KEY_TRANSLATION_TIME));
+    }
+
+    private static final class Key {
+        private final String tac;
+        private final Map<Object, Object> hints;
+        private final int hashCode;
+
+        Key(final String tac, final ConversionHints hints) {
+            this.tac = tac;
+            this.hints = hints == null || hints.isEmpty() ? null : new HashMap<>(hints);
+            this.hashCode = 31 * tac.hashCode() + Objects.hashCode(this.hints);
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            final Key other = (Key) o;
+            return this.hashCode == other.hashCode && this.tac.equals(other.tac) && Objects.equals(this.hints, other.hints);
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hashCode;
+        }
+    }
+
+    private static final class Entry<T extends AviationWeatherMessageOrCollection> {
+        private final ConversionResult<T> result;
+        private final long created;
+
+        Entry(final ConversionResult<T> result, final long created) {
+            this.result = result;
+            this.created = created;
+        }
+
+        // The results are mutable, so each caller gets its own copy sharing the message
+        ConversionResult<T> copyOfResult() {
+            final ConversionResult<T> retval = new ConversionResult<>();
+            this.result.getConvertedMessage().ifPresent(retval::setConvertedMessage);
+            retval.addIssue(this.result.getConversionIssues());
+            return retval;
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package fi.fmi.avi.converter.tac;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import fi.fmi.avi.converter.ConversionIssue;
+import fi.fmi.avi.converter.tac.lexer.Lexeme;
+import fi.fmi.avi.converter.tac.lexer.LexemeIdentity;
+import fi.fmi.avi.converter.tac.lexer.LexemeSequence;
+
+/**
+ * A declarative description of the token order and cardinality rules of a message type, validated in a single
+ * forward pass over a {@link LexemeSequence}.
+ *
+ * The grammar consists of
+ * <ul>
+ *     <li>the <em>ordered</em> identities: a Lexeme of an ordered identity must not be preceded by a Lexeme of any
+ *     identity declared after it,</li>
+ *     <li>the <em>zero or one</em> identities, which may occur at most once, and</li>
+ *     <li>the <em>exactly one</em> identities, which must occur once.</li>
+ * </ul>
+ * The identities not declared may occur anywhere any number of times.
+ *
+ * The issues reported are the same as those reported by {@link AbstractTACParser#checkZeroOrOne(LexemeSequence,
+ * LexemeIdentity[])}, {@link AbstractTACParser#checkExactlyOne(LexemeSequence, LexemeIdentity[])} and
+ * {@link AbstractTACParser#checkBeforeAnyOf(Lexeme, java.util.Set)} given all the identities declared after the
+ * Lexeme's identity.
+ *
+ * <pre>
+ * private static final MessageGrammar GRAMMAR = MessageGrammar.builder()
+ *         .inOrder(LexemeIdentity.ISSUE_TIME, LexemeIdentity.SWX_CENTRE, LexemeIdentity.REMARKS_START)
+ *         .exactlyOne(LexemeIdentity.ISSUE_TIME, LexemeIdentity.SWX_CENTRE)
+ *         .build();
+ * ...
+ * final MessageGrammar.Validation validation = GRAMMAR.validate(lexed);
+ * </pre>
+ *
+ * Instances are immutable and thread-safe.
+ */
+public final class MessageGrammar {
+    private static final int UNDECLARED = -1;
+    private static final int ZERO_OR_ONE = 0;
+    private static final int EXACTLY_ONE = 1;
+
+    private final int orderedCount;
+    private final int[] ranks;
+    private final int[] cardinalities;
+    private final LexemeIdentity[] counted;
+
+    private MessageGrammar(final Builder builder) {
+        this.orderedCount = builder.ordered.size();
+        this.counted = builder.counted.toArray(new LexemeIdentity[0]);
+        int maxOrdinal = -1;
+        for (final LexemeIdentity identity : builder.ordered) {
+            maxOrdinal = Math.max(maxOrdinal, identity.ordinal());
+        }
+        for (final LexemeIdentity identity : this.counted) {
+            maxOrdinal = Math.max(maxOrdinal, identity.ordinal());
+        }
+        this.ranks = new int[maxOrdinal + 1];
+        Arrays.fill(this.ranks, UNDECLARED);
+        for (int i = 0; i < this.orderedCount; i++) {
+            this.ranks[builder.ordered.get(i).ordinal()] = i;
+        }
+        this.cardinalities = new int[maxOrdinal + 1];
+        Arrays.fill(this.cardinalities, UNDECLARED);
+        for (int i = 0; i < this.counted.length; i++) {
+            final int ordinal = this.counted[i].ordinal();
+            this.cardinalities[ordinal] = Math.max(this.cardinalities[ordinal], builder.cardinalities.get(i));
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    private static int lookup(final int[] table, final LexemeIdentity identity) {
+        if (identity == null) {
+            return UNDECLARED;
+        }
+        final int ordinal = identity.ordinal();
+        return ordinal < table.length ? table[ordinal] : UNDECLARED;
+    }
+
+    /**
+     * Validates the given sequence against this grammar.
+     *
+     * Unlike {@link AbstractTACParser#checkBeforeAnyOf(Lexeme, java.util.Set)}, which looks back to the start of the
+     * message, the order of each Lexeme is checked against the preceding Lexemes of the sequence only. The
+     * cardinalities are counted over the Lexemes which are not {@link Lexeme.Status#UNRECOGNIZED}.
+     *
+     * @param lexed
+     *         the sequence to validate
+     *
+     * @return the result of the validation
+     */
+    public Validation validate(final LexemeSequence lexed) {
+        final List<ConversionIssue> cardinalityIssues = new ArrayList<>();
+        final Map<Lexeme, ConversionIssue> orderIssues = new IdentityHashMap<>();
+        final List<ConversionIssue> orderIssueList = new ArrayList<>();
+        final boolean[] found = new boolean[this.cardinalities.length];
+
+        // The Lexemes each of which has a greater rank than any Lexeme before it. The earliest Lexeme ranked
+        // after a given rank is always one of these.
+        final Lexeme[] leaders = new Lexeme[this.orderedCount];
+        final int[] leaderRanks = new int[leaders.length];
+        int leaderCount = 0;
+
+        for (final Lexeme lexeme : lexed.getLexemes()) {
+            final LexemeIdentity identity = lexeme.getIdentity();
+            final int rank = lookup(this.ranks, identity);
+            if (rank != UNDECLARED) {
+                if (leaderCount == 0 || leaderRanks[leaderCount - 1] < rank) {
+                    leaders[leaderCount] = lexeme;
+                    leaderRanks[leaderCount] = rank;
+                    leaderCount++;
+                } else {
+                    int i = 0;
+                    while (leaderRanks[i] <= rank) {
+                        i++;
+                    }
+                    final ConversionIssue issue = new ConversionIssue(ConversionIssue.Type.SYNTAX,
+                            "Invalid token order: '" + lexeme + "' was found after one of type " + leaders[i].getIdentity());
+                    orderIssues.put(lexeme, issue);
+                    orderIssueList.add(issue);
+                }
+            }
+            if (Lexeme.Status.UNRECOGNIZED != lexeme.getStatus() && lookup(this.cardinalities, identity) != UNDECLARED) {
+                final int ordinal = identity.ordinal();
+                if (!found[ordinal]) {
+                    found[ordinal] = true;
+                } else {
+                    cardinalityIssues.add(new ConversionIssue(ConversionIssue.Type.SYNTAX, "More than one of " + identity + " in " + lexed.getTAC()));
+                }
+            }
+        }
+        for (final LexemeIdentity identity : this.counted) {
+            final int ordinal = identity.ordinal();
+            if (this.cardinalities[ordinal] == EXACTLY_ONE && !found[ordinal]) {
+                found[ordinal] = true;
+                cardinalityIssues.add(new ConversionIssue(ConversionIssue.Type.MISSING_DATA, "One of " + identity + " required in message " + lexed.getTAC()));
+            }
+        }
+        return new Validation(cardinalityIssues, orderIssues, orderIssueList);
+    }
+
+    /**
+     * The issues found in one {@link LexemeSequence} by {@link MessageGrammar#validate(LexemeSequence)}.
+     */
+    public static final class Validation {
+        private final List<ConversionIssue> cardinalityIssues;
+        private final Map<Lexeme, ConversionIssue> orderIssues;
+        private final List<ConversionIssue> orderIssueList;
+
+        private Validation(final List<ConversionIssue> cardinalityIssues, final Map<Lexeme, ConversionIssue> orderIssues,
+                final List<ConversionIssue> orderIssueList) {
+            this.cardinalityIssues = Collections.unmodifiableList(cardinalityIssues);
+            this.orderIssues = orderIssues;
+            this.orderIssueList = Collections.unmodifiableList(orderIssueList);
+        }
+
+        /**
+         * Returns the extra occurrences of the zero or one and exactly one identities in the order they were found,
+         * followed by the missing exactly one identities in the order they were declared.
+         *
+         * @return the cardinality issues
+         */
+        public List<ConversionIssue> getCardinalityIssues() {
+            return cardinalityIssues;
+        }
+
+        /**
+         * Returns the order issues of all the Lexemes in the order they were found.
+         *
+         * @return the order issues
+         */
+        public List<ConversionIssue> getOrderIssues() {
+            return orderIssueList;
+        }
+
+        /**
+         * Returns the order issue of the given Lexeme, reporting the earliest preceding Lexeme of an identity declared
+         * after its identity.
+         *
+         * The Lexeme is looked up by instance. Sequences such as {@link Lexeme#getTailSequence()} and
+         * {@link LexemeSequence#splitBy(LexemeIdentity...)} hold copies of the Lexemes, so the Lexeme must be one of
+         * the validated sequence itself.
+         *
+         * @param lexeme
+         *         the Lexeme to check
+         *
+         * @return the issue, or null if the Lexeme is in order or not part of the validated sequence
+         */
+        public ConversionIssue getOrderIssue(final Lexeme lexeme) {
+            return lexeme == null ? null : orderIssues.get(lexeme);
+        }
+
+        public boolean hasIssues() {
+            return !cardinalityIssues.isEmpty() || !orderIssueList.isEmpty();
+        }
+    }
+
+    public static final class Builder {
+        private final List<LexemeIdentity> ordered = new ArrayList<>();
+        private final List<LexemeIdentity> counted = new ArrayList<>();
+        private final List<Integer> cardinalities = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        /**
+         * Appends the given identities to the order of the grammar. Each identity may be ordered only once.
+         *
+         * @param identities
+         *         the identities in the order they must appear in
+         *
+         * @return this builder
+         */
+        public Builder inOrder(final LexemeIdentity... identities) {
+            for (final LexemeIdentity identity : identities) {
+                requireNonNull(identity, "identity");
+                if (ordered.contains(identity)) {
+                    throw new IllegalArgumentException("Identity " + identity + " already ordered");
+                }
+                ordered.add(identity);
+            }
+            return this;
+        }
+
+        /**
+         * Declares the given identities to occur at most once.
+         *
+         * @param identities
+         *         the identities
+         *
+         * @return this builder
+         */
+        public Builder zeroOrOne(final LexemeIdentity... identities) {
+            return count(identities, ZERO_OR_ONE);
+        }
+
+        /**
+         * Declares the given identities to occur exactly once.
+         *
+         * @param identities
+         *         the identities
+         *
+         * @return this builder
+         */
+        public Builder exactlyOne(final LexemeIdentity... identities) {
+            return count(identities, EXACTLY_ONE);
+        }
+
+        private Builder count(final LexemeIdentity[] identities, final int cardinality) {
+            for (final LexemeIdentity identity : identities) {
+                counted.add(requireNonNull(identity, "identity"));
+                cardinalities.add(cardinality);
+            }
+            return this;
+        }
+
+        public MessageGrammar build() {
+            return new MessageGrammar(this);
+        }
+    }
+}
@@ -2,6 +2,7 @@ package fi.fmi.avi.converter.tac;
 
 import fi.fmi.avi.converter.AviMessageSpecificConverter;
 import fi.fmi.avi.converter.tac.lexer.AviMessageLexer;
+import fi.fmi.avi.converter.tac.metrics.ConversionMetricsListener;
 import fi.fmi.avi.model.AviationWeatherMessageOrCollection;
 
 /**
@@ -12,4 +13,12 @@ public interface TACParser<T extends AviationWeatherMessageOrCollection> extends
 
     void setTACLexer(AviMessageLexer lexer);
 
+    /**
+     * Sets the listener receiving the parsing times and issues. Ignored by default.
+     *
+     * @param metricsListener the listener
+     */
+    default void setMetricsListener(final ConversionMetricsListener metricsListener) {
+    }
+
 }
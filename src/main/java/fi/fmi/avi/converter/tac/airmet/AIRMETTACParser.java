@@ -3,6 +3,7 @@ package fi.fmi.avi.converter.tac.airmet;
 
 import fi.fmi.avi.converter.ConversionHints;
 import fi.fmi.avi.converter.ConversionResult;
+import fi.fmi.avi.model.MessageType;
 import fi.fmi.avi.model.sigmet.AIRMET;
 
 /**
@@ -13,7 +14,7 @@ public class AIRMETTACParser extends AIRMETTACParserBase<AIRMET> {
 
     @Override
     public ConversionResult<AIRMET> convertMessage(final String input, final ConversionHints hints) {
-        return new ConversionResult<>(convertMessageInternal(input, hints));
+        return measureParsing(MessageType.AIRMET, () -> new ConversionResult<>(convertMessageInternal(input, hints)));
     }
 
 }
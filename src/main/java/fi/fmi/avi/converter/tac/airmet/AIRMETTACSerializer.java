@@ -4,10 +4,11 @@ import fi.fmi.avi.converter.ConversionHints;
 import fi.fmi.avi.converter.tac.AbstractTACSerializer;
 import fi.fmi.avi.converter.tac.lexer.LexemeIdentity;
 import fi.fmi.avi.converter.tac.lexer.LexemeSequence;
-import fi.fmi.avi.converter.tac.lexer.LexemeSequenceBuilder;
+import fi.fmi.avi.converter.tac.lexer.LexemeSink;
 import fi.fmi.avi.converter.tac.lexer.SerializingException;
 import fi.fmi.avi.converter.tac.lexer.impl.ReconstructorContext;
 import fi.fmi.avi.model.AviationWeatherMessageOrCollection;
+import fi.fmi.avi.model.MessageType;
 import fi.fmi.avi.model.bulletin.MeteorologicalBulletinSpecialCharacter;
 import fi.fmi.avi.model.sigmet.AIRMET;
 
@@ -19,11 +20,16 @@ public class AIRMETTACSerializer extends AbstractTACSerializer<AIRMET> {
 
     @Override
     public LexemeSequence tokenizeMessage(final AviationWeatherMessageOrCollection msg, final ConversionHints hints) throws SerializingException {
+        return tokenizeWithBuilder(msg, hints);
+    }
+
+    @Override
+    protected void appendMessage(final LexemeSink retval, final AviationWeatherMessageOrCollection msg, final ConversionHints hints)
+            throws SerializingException {
         if (!(msg instanceof AIRMET)) {
             throw new SerializingException("I can only tokenize AIRMETs!");
         }
         final AIRMET input = (AIRMET) msg;
-        final LexemeSequenceBuilder retval = this.getLexingFactory().createLexemeSequenceBuilder();
         final ReconstructorContext<AIRMET> baseCtx = new ReconstructorContext<>(input, hints);
         appendToken(retval, LexemeIdentity.AIRMET_START, input, AIRMET.class, baseCtx);
         appendWhitespace(retval, MeteorologicalBulletinSpecialCharacter.SPACE);
@@ -52,7 +58,7 @@ public class AIRMETTACSerializer extends AbstractTACSerializer<AIRMET> {
 
         if (appendToken(retval,LexemeIdentity.AIRMET_CANCEL, input, AIRMET.class, baseCtx)>0) {
             appendToken(retval, LexemeIdentity.END_TOKEN, input, AIRMET.class, baseCtx);
-            return retval.build();
+            return;
         }
 
         if (appendToken(retval,LexemeIdentity.AIRMET_PHENOMENON, input, AIRMET.class, baseCtx)>0) {
@@ -107,6 +113,10 @@ public class AIRMETTACSerializer extends AbstractTACSerializer<AIRMET> {
             retval.removeLast();
         }
         appendToken(retval, LexemeIdentity.END_TOKEN, input, AIRMET.class, baseCtx);
-        return retval.build();
+    }
+
+    @Override
+    protected MessageType getMessageType() {
+        return MessageType.AIRMET;
     }
 }
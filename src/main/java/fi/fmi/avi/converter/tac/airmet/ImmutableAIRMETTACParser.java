@@ -2,6 +2,7 @@ package fi.fmi.avi.converter.tac.airmet;
 
 import fi.fmi.avi.converter.ConversionHints;
 import fi.fmi.avi.converter.ConversionResult;
+import fi.fmi.avi.model.MessageType;
 import fi.fmi.avi.model.sigmet.immutable.AIRMETImpl;
 
 /**
@@ -13,6 +14,6 @@ public class ImmutableAIRMETTACParser extends AIRMETTACParserBase<AIRMETImpl> {
 
     @Override
     public ConversionResult<AIRMETImpl> convertMessage(final String input, final ConversionHints hints) {
-        return convertMessageInternal(input, hints);
+        return measureParsing(MessageType.AIRMET, () -> convertMessageInternal(input, hints));
     }
 }
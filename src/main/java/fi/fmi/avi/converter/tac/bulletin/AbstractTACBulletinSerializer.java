@@ -6,6 +6,7 @@ import fi.fmi.avi.converter.tac.lexer.*;
 import fi.fmi.avi.converter.tac.lexer.impl.ReconstructorContext;
 import fi.fmi.avi.model.AviationWeatherMessage;
 import fi.fmi.avi.model.AviationWeatherMessageOrCollection;
+import fi.fmi.avi.model.MessageType;
 import fi.fmi.avi.model.bulletin.MeteorologicalBulletin;
 import fi.fmi.avi.model.bulletin.MeteorologicalBulletinSpecialCharacter;
 import fi.fmi.avi.model.swx.amd79.SpaceWeatherAdvisoryAmd79;
@@ -33,8 +34,13 @@ public abstract class AbstractTACBulletinSerializer<S extends AviationWeatherMes
 
     @Override
     public LexemeSequence tokenizeMessage(final AviationWeatherMessageOrCollection msg, final ConversionHints hints) throws SerializingException {
+        return tokenizeWithBuilder(msg, hints);
+    }
+
+    @Override
+    protected void appendMessage(final LexemeSink retval, final AviationWeatherMessageOrCollection msg, final ConversionHints hints)
+            throws SerializingException {
         final T input = accepts(msg);
-        final LexemeSequenceBuilder retval = this.getLexingFactory().createLexemeSequenceBuilder();
         final ReconstructorContext<T> baseCtx = new ReconstructorContext<>(input, hints);
         appendToken(retval, LexemeIdentity.BULLETIN_HEADING_DATA_DESIGNATORS, input, getBulletinClass(), baseCtx);
         appendWhitespace(retval, MeteorologicalBulletinSpecialCharacter.SPACE);
@@ -117,7 +123,6 @@ public abstract class AbstractTACBulletinSerializer<S extends AviationWeatherMes
 
             }
         }
-        return retval.build();
     }
 
     private boolean isAdvisory(final S message) {
@@ -131,7 +136,7 @@ public abstract class AbstractTACBulletinSerializer<S extends AviationWeatherMes
                 && lexeme.getParsedValue(Lexeme.ParsedValueName.TYPE, MeteorologicalBulletinSpecialCharacter.class).equals(specialCharacter);
     }
 
-    private void appendLineWrap(final LexemeSequenceBuilder builder, final int indentLength) {
+    private void appendLineWrap(final LexemeSink builder, final int indentLength) {
         appendWhitespace(builder, MeteorologicalBulletinSpecialCharacter.CARRIAGE_RETURN);
         appendWhitespace(builder, MeteorologicalBulletinSpecialCharacter.LINE_FEED);
         appendWhitespace(builder, MeteorologicalBulletinSpecialCharacter.SPACE, indentLength);
@@ -162,4 +167,9 @@ public abstract class AbstractTACBulletinSerializer<S extends AviationWeatherMes
             return defaultIndentation;
         }
     }
+
+    @Override
+    protected MessageType getMessageType() {
+        return MessageType.BULLETIN;
+    }
 }
@@ -36,6 +36,10 @@ public class GenericAviationWeatherMessageParser extends AbstractTACParser<Gener
 
     @Override
     public ConversionResult<GenericAviationWeatherMessage> convertMessage(final String input, final ConversionHints hints) {
+        return measureParsing(MessageType.GENERIC, () -> parse(input, hints));
+    }
+
+    private ConversionResult<GenericAviationWeatherMessage> parse(final String input, final ConversionHints hints) {
         if (this.lexer == null) {
             throw new IllegalStateException("TAC lexer not set");
         }
@@ -50,15 +54,62 @@ public class GenericAviationWeatherMessageParser extends AbstractTACParser<Gener
 
     protected GenericAviationWeatherMessage getGenericAvaitionWeatherMessage(String msg,
             ConversionHints hints, List<ConversionIssue> issues) {
-        Optional<MessageType> messageType = this.lexer.recognizeMessageType(msg, hints);
+        return getGenericAvaitionWeatherMessage(msg, hints, getFallbackHints(hints), issues);
+    }
 
+    /**
+     * Parses the message lexing it once. The message type is recognized from the beginning of the message first. If
+     * the type is not recognized, it is resolved from the hints, and the message is lexed with the fallback hints
+     * containing the resolved type.
+     *
+     * @param msg the message
+     * @param hints the parsing hints
+     * @param fallbackHints the hints returned by {@link #getFallbackHints(ConversionHints)} for the parsing hints
+     * @param issues the list to add the conversion issues to
+     * @return the message, or null if it cannot be parsed
+     */
+    GenericAviationWeatherMessage getGenericAvaitionWeatherMessage(final String msg, final ConversionHints hints, final ConversionHints fallbackHints,
+            final List<ConversionIssue> issues) {
+        Optional<MessageType> messageType = this.lexer.recognizeMessageTypeFromPrefix(msg, hints);
+        ConversionHints effectiveHints = hints;
         if (!messageType.isPresent() || MessageType.GENERIC.equals(messageType.get())) {
             messageType = getMessageType(issues, hints);
+            effectiveHints = fallbackHints;
         }
+        final LexemeSequence lexed = this.lexer.lexMessage(msg, effectiveHints);
 
-        LexemeSequence lexed = this.lexer.lexMessage(msg, hints);
+        return createGenericAvaitionWeatherMessage(lexed, messageType, effectiveHints, issues);
+    }
 
-        return createGenericAvaitionWeatherMessage(lexed, messageType, hints, issues);
+    /**
+     * Returns the hints for lexing the messages of unrecognized type. The message type resolved from
+     * {@link ConversionHints#KEY_CONTAINED_MESSAGE_TYPE}, or from the expected contained message type of
+     * {@link ConversionHints#KEY_BULLETING_HEADING} unless a message type is already given, is set as
+     * {@link ConversionHints#KEY_MESSAGE_TYPE} of a copy of the hints. The given hints are never modified, and are
+     * returned as such if they already contain the resolved type, so that the result may be shared between threads
+     * like the given hints.
+     *
+     * @param hints the parsing hints
+     * @return the hints with the resolved message type
+     */
+    static ConversionHints getFallbackHints(final ConversionHints hints) {
+        if (hints == null) {
+            return null;
+        }
+        final MessageType messageType;
+        if (hints.containsKey(ConversionHints.KEY_CONTAINED_MESSAGE_TYPE)) {
+            messageType = (MessageType) hints.get(ConversionHints.KEY_CONTAINED_MESSAGE_TYPE);
+        } else if (hints.containsKey(ConversionHints.KEY_BULLETING_HEADING) && !hints.containsKey(ConversionHints.KEY_MESSAGE_TYPE)) {
+            messageType = ((BulletinHeading) hints.get(ConversionHints.KEY_BULLETING_HEADING)).getExpectedContainedMessageType().orElse(null);
+        } else {
+            messageType = null;
+        }
+        if (messageType == null || messageType.equals(hints.get(ConversionHints.KEY_MESSAGE_TYPE))) {
+            return hints;
+        }
+        final ConversionHints retval = new ConversionHints(hints);
+        retval.put(ConversionHints.KEY_MESSAGE_TYPE, messageType);
+        return retval;
     }
 
     private Optional<MessageType> getMessageType(List<ConversionIssue> issues, ConversionHints hints) {
@@ -66,17 +117,12 @@ public class GenericAviationWeatherMessageParser extends AbstractTACParser<Gener
 
         if (hints != null && hints.containsKey(ConversionHints.KEY_CONTAINED_MESSAGE_TYPE)) {
             messageType = Optional.ofNullable((MessageType) hints.get(ConversionHints.KEY_CONTAINED_MESSAGE_TYPE));
-            messageType.ifPresent(mt -> hints.put(ConversionHints.KEY_MESSAGE_TYPE, mt));
         } else {
             //Fallback 2: try to determine message type from the bulletin heading:
             if(hints != null && hints.containsKey(ConversionHints.KEY_BULLETING_HEADING)) {
                 BulletinHeading bulletinHeading = (BulletinHeading) hints.get(ConversionHints.KEY_BULLETING_HEADING);
                 messageType = bulletinHeading.getExpectedContainedMessageType();
-                if (messageType.isPresent()) {
-                    if (!hints.containsKey(ConversionHints.KEY_MESSAGE_TYPE)) {
-                        hints.put(ConversionHints.KEY_MESSAGE_TYPE, messageType.get());
-                    }
-                } else {
+                if (!messageType.isPresent()) {
                     issues.add(new ConversionIssue(ConversionIssue.Severity.WARNING, ConversionIssue.Type.MISSING_DATA,
                             "Unable to determine contained message type for bulletin data designators " + bulletinHeading.getDataTypeDesignatorT1ForTAC() + " and " + bulletinHeading.getDataTypeDesignatorT2()));
                 }
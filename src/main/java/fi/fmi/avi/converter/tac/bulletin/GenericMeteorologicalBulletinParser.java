@@ -1,12 +1,17 @@
 package fi.fmi.avi.converter.tac.bulletin;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
 import fi.fmi.avi.converter.ConversionHints;
 import fi.fmi.avi.converter.ConversionIssue;
 import fi.fmi.avi.converter.ConversionResult;
 import fi.fmi.avi.converter.tac.AbstractTACParser;
+import fi.fmi.avi.converter.tac.MessageGrammar;
 import fi.fmi.avi.converter.tac.lexer.AviMessageLexer;
 import fi.fmi.avi.converter.tac.lexer.Lexeme;
 import fi.fmi.avi.converter.tac.lexer.LexemeIdentity;
@@ -20,8 +25,10 @@ import fi.fmi.avi.model.bulletin.immutable.GenericMeteorologicalBulletinImpl;
 import fi.fmi.avi.util.GTSExchangeFileInfo;
 
 public class GenericMeteorologicalBulletinParser extends AbstractTACParser<GenericMeteorologicalBulletin> {
-    private static final LexemeIdentity[] ZERO_OR_ONE_ALLOWED = { LexemeIdentity.BULLETIN_HEADING_DATA_DESIGNATORS,
-            LexemeIdentity.BULLETIN_HEADING_LOCATION_INDICATOR, LexemeIdentity.ISSUE_TIME, LexemeIdentity.BULLETIN_HEADING_BBB_INDICATOR };
+    private static final MessageGrammar BULLETIN_GRAMMAR = MessageGrammar.builder()
+            .zeroOrOne(LexemeIdentity.BULLETIN_HEADING_DATA_DESIGNATORS, LexemeIdentity.BULLETIN_HEADING_LOCATION_INDICATOR, LexemeIdentity.ISSUE_TIME,
+                    LexemeIdentity.BULLETIN_HEADING_BBB_INDICATOR)
+            .build();
 
     private AviMessageLexer lexer;
 
@@ -39,6 +46,27 @@ public class GenericMeteorologicalBulletinParser extends AbstractTACParser<Gener
      */
     @Override
     public ConversionResult<GenericMeteorologicalBulletin> convertMessage(final String input, final ConversionHints hints) {
+        return convertMessage(input, hints, null);
+    }
+
+    /**
+     * Converts a single bulletin, converting the contained messages using the given executor.
+     *
+     * The contained messages are converted concurrently and added to the bulletin in their original order. Without an
+     * executor the messages are converted one by one in the calling thread. The conversions share the same hints,
+     * which are only read. The message type expected from the bulletin heading is resolved once for the bulletin, into
+     * a copy of the hints shared by the conversions of the messages without a recognized message type.
+     *
+     * @param input input bulletin
+     * @param hints parsing hints
+     * @param executor executor for converting the contained messages, or null to convert them in the calling thread
+     * @return the {@link ConversionResult} with the converter message and the possible conversion issues
+     */
+    public ConversionResult<GenericMeteorologicalBulletin> convertMessage(final String input, final ConversionHints hints, final Executor executor) {
+        return measureParsing(MessageType.BULLETIN, () -> parse(input, hints, executor));
+    }
+
+    private ConversionResult<GenericMeteorologicalBulletin> parse(final String input, final ConversionHints hints, final Executor executor) {
         final ConversionResult<GenericMeteorologicalBulletin> result = new ConversionResult<>();
         if (this.lexer == null) {
             throw new IllegalStateException("TAC lexer not set");
@@ -54,7 +82,7 @@ public class GenericMeteorologicalBulletinParser extends AbstractTACParser<Gener
             return result;
         }
 
-        final List<ConversionIssue> issues = checkZeroOrOne(lexed, ZERO_OR_ONE_ALLOWED);
+        final List<ConversionIssue> issues = new ArrayList<>(BULLETIN_GRAMMAR.validate(lexed).getCardinalityIssues());
         if (!issues.isEmpty()) {
             result.addIssue(issues);
             return result;
@@ -78,8 +106,6 @@ public class GenericMeteorologicalBulletinParser extends AbstractTACParser<Gener
         bulletinBuilder.setHeading(bulletinHeading);
 
         //Lex each the contained message again individually to collect more info:
-        String msg;
-
         GTSExchangeFileInfo bulletinMetadata = null;
         if (hints != null && hints.containsKey(ConversionHints.KEY_BULLETIN_ID)) {
             String bulletinID = hints.get(ConversionHints.KEY_BULLETIN_ID, String.class);
@@ -95,18 +121,31 @@ public class GenericMeteorologicalBulletinParser extends AbstractTACParser<Gener
         }
         final ConversionHints messageSpecificHints = new ConversionHints(hints);
         messageSpecificHints.put(ConversionHints.KEY_BULLETING_HEADING, bulletinHeading);
+        // Resolved once, so that each contained message is lexed once with either the hints or the fallback hints
+        final ConversionHints fallbackHints = GenericAviationWeatherMessageParser.getFallbackHints(messageSpecificHints);
+        final List<String> messages = new ArrayList<>(subSequences.size());
         for (int i = 0; i < subSequences.size(); i++) {
-            if (i == 0) {
-                msg = lastHeadingToken.getTailSequence().trimWhiteSpace().getTAC();
-            } else {
-                msg = subSequences.get(i).trimWhiteSpace().getTAC();
+            final LexemeSequence subSequence = subSequences.get(i);
+            final Lexeme from = i == 0 ? lastHeadingToken.getNext(true) : subSequence.getFirstLexeme();
+            String msg = getTrimmedTAC(lexed.getTAC(), from, subSequence.getLastLexeme());
+            if (msg == null) {
+                if (i == 0) {
+                    msg = lastHeadingToken.getTailSequence().trimWhiteSpace().getTAC();
+                } else {
+                    msg = subSequence.trimWhiteSpace().getTAC();
+                }
             }
+            messages.add(msg);
+        }
 
-            GenericAviationWeatherMessageParser parser = new GenericAviationWeatherMessageParser(lexer);
-            GenericAviationWeatherMessage weatherMessage = parser.getGenericAvaitionWeatherMessage(msg,
-                    messageSpecificHints, issues);
-            if(weatherMessage != null) {
-                bulletinBuilder.addMessages(weatherMessage);
+        final GenericAviationWeatherMessageParser parser = new GenericAviationWeatherMessageParser(lexer);
+        final List<ContainedMessage> containedMessages = executor == null
+                ? convertContainedMessages(parser, messages, messageSpecificHints, fallbackHints)
+                : convertContainedMessages(parser, messages, messageSpecificHints, fallbackHints, executor);
+        for (final ContainedMessage containedMessage : containedMessages) {
+            issues.addAll(containedMessage.issues);
+            if (containedMessage.message != null) {
+                bulletinBuilder.addMessages(containedMessage.message);
             }
         }
         result.addIssue(issues);
@@ -114,4 +153,89 @@ public class GenericMeteorologicalBulletinParser extends AbstractTACParser<Gener
 
         return result;
     }
+
+    /**
+     * Returns the TAC of the given lexemes with the leading and trailing white space trimmed, as a substring of the bulletin TAC.
+     * Returns null if the lexemes are not contiguous tokens of the bulletin TAC.
+     */
+    private static String getTrimmedTAC(final String bulletinTAC, final Lexeme from, final Lexeme to) {
+        if (bulletinTAC == null || from == null || to == null) {
+            return null;
+        }
+        Lexeme first = null;
+        Lexeme last = null;
+        int expectedStart = from.getStartIndex();
+        Lexeme l = from;
+        while (true) {
+            final String token = l.getTACToken();
+            if (l.isSynthetic() || l.getStartIndex() != expectedStart || expectedStart < 0 || !bulletinTAC.startsWith(token, expectedStart)) {
+                return null;
+            }
+            expectedStart += token.length();
+            if (!LexemeIdentity.WHITE_SPACE.equals(l.getIdentity())) {
+                if (first == null) {
+                    first = l;
+                }
+                last = l;
+            }
+            if (l == to) {
+                break;
+            }
+            l = l.getNext(true);
+            if (l == null) {
+                return null;
+            }
+        }
+        if (first == null) {
+            return "";
+        }
+        return bulletinTAC.substring(first.getStartIndex(), last.getStartIndex() + last.getTACToken().length());
+    }
+
+    private static List<ContainedMessage> convertContainedMessages(final GenericAviationWeatherMessageParser parser, final List<String> messages,
+            final ConversionHints hints, final ConversionHints fallbackHints) {
+        final List<ContainedMessage> retval = new ArrayList<>(messages.size());
+        for (final String msg : messages) {
+            retval.add(convertContainedMessage(parser, msg, hints, fallbackHints));
+        }
+        return retval;
+    }
+
+    private static List<ContainedMessage> convertContainedMessages(final GenericAviationWeatherMessageParser parser, final List<String> messages,
+            final ConversionHints hints, final ConversionHints fallbackHints, final Executor executor) {
+        final List<CompletableFuture<ContainedMessage>> futures = new ArrayList<>(messages.size());
+        for (final String msg : messages) {
+            // The hints are only read by the parser, so they can be shared by the tasks
+            futures.add(CompletableFuture.supplyAsync(() -> convertContainedMessage(parser, msg, hints, fallbackHints), executor));
+        }
+        final List<ContainedMessage> retval = new ArrayList<>(futures.size());
+        for (final CompletableFuture<ContainedMessage> future : futures) {
+            try {
+                retval.add(future.join());
+            } catch (final CompletionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw e;
+            }
+        }
+        return retval;
+    }
+
+    private static ContainedMessage convertContainedMessage(final GenericAviationWeatherMessageParser parser, final String msg, final ConversionHints hints,
+            final ConversionHints fallbackHints) {
+        final List<ConversionIssue> issues = new ArrayList<>();
+        final GenericAviationWeatherMessage message = parser.getGenericAvaitionWeatherMessage(msg, hints, fallbackHints, issues);
+        return new ContainedMessage(message, issues);
+    }
+
+    private static final class ContainedMessage {
+        private final GenericAviationWeatherMessage message;
+        private final List<ConversionIssue> issues;
+
+        ContainedMessage(final GenericAviationWeatherMessage message, final List<ConversionIssue> issues) {
+            this.message = message;
+            this.issues = issues;
+        }
+    }
 }
@@ -20,6 +20,10 @@ public class GenericMeteorologicalBulletinTACSerializer extends AbstractTACBulle
 
     @Override
     public ConversionResult<String> convertMessage(final GenericMeteorologicalBulletin input, final ConversionHints hints) {
+        return measureSerializing(() -> serialize(input, hints));
+    }
+
+    private ConversionResult<String> serialize(final GenericMeteorologicalBulletin input, final ConversionHints hints) {
         final ConversionResult<String> result = new ConversionResult<>();
         try {
             final LexemeSequence seq = tokenizeMessage(input, hints);
@@ -12,7 +12,9 @@ import fi.fmi.avi.converter.tac.lexer.impl.PrioritizedLexemeVisitor.OccurrenceFr
 import fi.fmi.avi.converter.tac.lexer.impl.RecognizingAviMessageTokenLexer;
 import fi.fmi.avi.converter.tac.lexer.impl.token.*;
 import fi.fmi.avi.converter.tac.lexer.impl.util.DashVariant;
+import fi.fmi.avi.converter.tac.metrics.ConversionMetricsListener;
 import fi.fmi.avi.model.MessageType;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
@@ -37,11 +39,19 @@ public class Lexing {
     private static final MessageType WXREP = new MessageType("WXREP");
     private static final MessageType WX_WARNING = new MessageType("WX_WARNING");
 
+    @Autowired(required = false)
+    private ConversionMetricsListener conversionMetricsListener;
+
+    private ConversionMetricsListener metricsListener() {
+        return conversionMetricsListener != null ? conversionMetricsListener : ConversionMetricsListener.NO_OP;
+    }
+
     @Bean
     @Primary
     public AviMessageLexer aviMessageLexer() {
         final AviMessageLexerImpl l = new AviMessageLexerImpl();
         l.setLexingFactory(lexingFactory());
+        l.setMetricsListener(metricsListener());
         l.addTokenLexer(metarTokenLexer());
         l.addTokenLexer(speciTokenLexer());
         l.addTokenLexer(tafTokenLexer());
@@ -61,6 +71,7 @@ public class Lexing {
     @Bean
     public LexingFactory lexingFactory() {
         final LexingFactoryImpl f = new LexingFactoryImpl();
+        f.setMetricsListener(metricsListener());
         f.addTokenCombiningRule(fractionalHorizontalVisibilityCombinationRule());
         f.addTokenCombiningRule(windShearAllCombinationRule());
         f.addTokenCombiningRule(windShearCombinationRule());
@@ -616,13 +627,13 @@ public class Lexing {
     }
 
     private void teachMetarAndSpeciCommonTokens(final RecognizingAviMessageTokenLexer l) {
-        l.teach(new ICAOCode(OccurrenceFrequency.RARE));
+        l.teach(new ICAOCode(OccurrenceFrequency.RARE).pinned());
         l.teach(new IssueTime(OccurrenceFrequency.RARE));
         l.teach(new CloudLayer(OccurrenceFrequency.FREQUENT));
         l.teach(new Weather(OccurrenceFrequency.AVERAGE));
         l.teach(new SurfaceWind(OccurrenceFrequency.RARE));
         l.teach(new VariableSurfaceWind(OccurrenceFrequency.RARE));
-        l.teach(new MetricHorizontalVisibility(OccurrenceFrequency.AVERAGE));
+        l.teach(new MetricHorizontalVisibility(OccurrenceFrequency.AVERAGE).pinned());
         l.teach(new FractionalHorizontalVisibility(OccurrenceFrequency.AVERAGE));
         l.teach(new TrendChangeIndicator(OccurrenceFrequency.RARE));
         l.teach(new NoSignificantChanges(OccurrenceFrequency.RARE));
@@ -652,17 +663,17 @@ public class Lexing {
         l.setSuitabilityTester(RecognizingAviMessageTokenLexer.SuitabilityTester.firstLexemeEquals("TAF", MessageType.TAF));
 
         l.teach(new TAFStart(OccurrenceFrequency.FREQUENT));
-        l.teach(new ICAOCode(OccurrenceFrequency.RARE));
+        l.teach(new ICAOCode(OccurrenceFrequency.RARE).pinned());
         l.teach(new ValidTime(OccurrenceFrequency.RARE));
         l.teach(new IssueTime(OccurrenceFrequency.RARE));
         l.teach(new CloudLayer(OccurrenceFrequency.FREQUENT));
         l.teach(new Weather(OccurrenceFrequency.AVERAGE));
         l.teach(new SurfaceWind(OccurrenceFrequency.RARE));
         l.teach(new VariableSurfaceWind(OccurrenceFrequency.RARE));
-        l.teach(new MetricHorizontalVisibility(OccurrenceFrequency.AVERAGE));
+        l.teach(new MetricHorizontalVisibility(OccurrenceFrequency.AVERAGE).pinned());
         l.teach(new FractionalHorizontalVisibility(OccurrenceFrequency.AVERAGE));
         l.teach(new TAFForecastChangeIndicator(OccurrenceFrequency.RARE));
-        l.teach(new TAFChangeForecastTimeGroup(OccurrenceFrequency.RARE));
+        l.teach(new TAFChangeForecastTimeGroup(OccurrenceFrequency.RARE).pinned());
         l.teach(new Correction(OccurrenceFrequency.RARE));
         l.teach(new Amendment(OccurrenceFrequency.RARE));
         l.teach(new Nil(OccurrenceFrequency.FREQUENT));
@@ -705,7 +716,7 @@ public class Lexing {
         final RecognizingAviMessageTokenLexer l = new RecognizingAviMessageTokenLexer();
         l.setSuitabilityTester(RecognizingAviMessageTokenLexer.SuitabilityTester.firstLexemeMatches("^LOW\\s+WIND$", LOW_WIND));
         l.teach(new LowWindStart(OccurrenceFrequency.FREQUENT));
-        l.teach(new ICAOCode(OccurrenceFrequency.RARE));
+        l.teach(new ICAOCode(OccurrenceFrequency.RARE).pinned());
         l.teach(new IssueTime(OccurrenceFrequency.RARE));
         l.teach(new EndToken(OccurrenceFrequency.RARE));
         l.teach(new Whitespace(OccurrenceFrequency.FREQUENT));
@@ -716,7 +727,7 @@ public class Lexing {
         final RecognizingAviMessageTokenLexer l = new RecognizingAviMessageTokenLexer();
         l.setSuitabilityTester(RecognizingAviMessageTokenLexer.SuitabilityTester.firstLexemeMatches("^WX\\s+WRNG$", WX_WARNING));
         l.teach(new WXWarningStart(OccurrenceFrequency.FREQUENT));
-        l.teach(new ICAOCode(OccurrenceFrequency.RARE));
+        l.teach(new ICAOCode(OccurrenceFrequency.RARE).pinned());
         l.teach(new IssueTime(OccurrenceFrequency.RARE));
         l.teach(new EndToken(OccurrenceFrequency.RARE));
         l.teach(new Whitespace(OccurrenceFrequency.FREQUENT));
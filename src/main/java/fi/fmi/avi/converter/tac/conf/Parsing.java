@@ -10,6 +10,7 @@ import fi.fmi.avi.converter.tac.lexer.AviMessageLexer;
 import fi.fmi.avi.converter.tac.metar.ImmutableMETARTACParser;
 import fi.fmi.avi.converter.tac.metar.METARTACParser;
 import fi.fmi.avi.converter.tac.metar.SPECITACParser;
+import fi.fmi.avi.converter.tac.metrics.ConversionMetricsListener;
 import fi.fmi.avi.converter.tac.sigmet.ImmutableSIGMETTACParser;
 import fi.fmi.avi.converter.tac.sigmet.SIGMETTACParser;
 import fi.fmi.avi.converter.tac.swx.amd79.SWXAmd79TACParser;
@@ -44,10 +45,18 @@ public class Parsing {
     @Autowired
     private AviMessageLexer aviMessageLexer;
 
+    @Autowired(required = false)
+    private ConversionMetricsListener conversionMetricsListener;
+
+    private ConversionMetricsListener metricsListener() {
+        return conversionMetricsListener != null ? conversionMetricsListener : ConversionMetricsListener.NO_OP;
+    }
+
     @Bean
     AviMessageSpecificConverter<String, METAR> metarTACParser() {
         final TACParser<METAR> p = new METARTACParser();
         p.setTACLexer(aviMessageLexer);
+        p.setMetricsListener(metricsListener());
         return p;
     }
 
@@ -55,6 +64,7 @@ public class Parsing {
     AviMessageSpecificConverter<String, METARImpl> immutableMetarTACParser() {
         final TACParser<METARImpl> p = new ImmutableMETARTACParser();
         p.setTACLexer(aviMessageLexer);
+        p.setMetricsListener(metricsListener());
         return p;
     }
 
@@ -62,6 +72,7 @@ public class Parsing {
     AviMessageSpecificConverter<String, SPECI> speciTACParser() {
         final TACParser<SPECI> p = new SPECITACParser();
         p.setTACLexer(aviMessageLexer);
+        p.setMetricsListener(metricsListener());
         return p;
     }
 
@@ -69,6 +80,7 @@ public class Parsing {
     AviMessageSpecificConverter<String, TAF> tafTACParser() {
         final TACParser<TAF> p = new TAFTACParser();
         p.setTACLexer(aviMessageLexer);
+        p.setMetricsListener(metricsListener());
         return p;
     }
 
@@ -76,6 +88,7 @@ public class Parsing {
     AviMessageSpecificConverter<String, TAFImpl> immutableTafTACParser() {
         final TACParser<TAFImpl> p = new ImmutableTAFTACParser();
         p.setTACLexer(aviMessageLexer);
+        p.setMetricsListener(metricsListener());
         return p;
     }
 
@@ -83,6 +96,7 @@ public class Parsing {
     AviMessageSpecificConverter<String, SIGMET> sigmetTACParser() {
         final TACParser<SIGMET> p = new SIGMETTACParser();
         p.setTACLexer(aviMessageLexer);
+        p.setMetricsListener(metricsListener());
         return p;
     }
 
@@ -90,6 +104,7 @@ public class Parsing {
     AviMessageSpecificConverter<String, SIGMETImpl> immutableSigmetTACParser() {
         final TACParser<SIGMETImpl> p = new ImmutableSIGMETTACParser();
         p.setTACLexer(aviMessageLexer);
+        p.setMetricsListener(metricsListener());
         return p;
     }
 
@@ -97,6 +112,7 @@ public class Parsing {
     AviMessageSpecificConverter<String, AIRMET> airmetTACParser() {
         final TACParser<AIRMET> p = new AIRMETTACParser();
         p.setTACLexer(aviMessageLexer);
+        p.setMetricsListener(metricsListener());
         return p;
     }
 
@@ -104,6 +120,7 @@ public class Parsing {
     AviMessageSpecificConverter<String, AIRMETImpl> immutableAirmetTACParser() {
         final TACParser<AIRMETImpl> p = new ImmutableAIRMETTACParser();
         p.setTACLexer(aviMessageLexer);
+        p.setMetricsListener(metricsListener());
         return p;
     }
 
@@ -111,6 +128,7 @@ public class Parsing {
     AviMessageSpecificConverter<String, GenericMeteorologicalBulletin> genericBulletinTACParser() {
         final TACParser<GenericMeteorologicalBulletin> p = new GenericMeteorologicalBulletinParser();
         p.setTACLexer(aviMessageLexer);
+        p.setMetricsListener(metricsListener());
         return p;
     }
 
@@ -118,6 +136,7 @@ public class Parsing {
     AviMessageSpecificConverter<String, SpaceWeatherAdvisoryAmd82> swxAmd82TACParser() {
         final TACParser<SpaceWeatherAdvisoryAmd82> p = new SWXAmd82TACParser();
         p.setTACLexer(aviMessageLexer);
+        p.setMetricsListener(metricsListener());
         return p;
     }
 
@@ -125,12 +144,15 @@ public class Parsing {
     AviMessageSpecificConverter<String, SpaceWeatherAdvisoryAmd79> swxAmd79TACParser() {
         final TACParser<SpaceWeatherAdvisoryAmd79> p = new SWXAmd79TACParser();
         p.setTACLexer(aviMessageLexer);
+        p.setMetricsListener(metricsListener());
         return p;
     }
 
     @Bean
     AviMessageSpecificConverter<String, GenericAviationWeatherMessage> genericAviationWeatherMessageTACParser() {
-        return new GenericAviationWeatherMessageParser(aviMessageLexer);
+        final GenericAviationWeatherMessageParser p = new GenericAviationWeatherMessageParser(aviMessageLexer);
+        p.setMetricsListener(metricsListener());
+        return p;
     }
 
 }
@@ -13,6 +13,7 @@ import fi.fmi.avi.converter.tac.lexer.impl.AviMessageTACTokenizerImpl;
 import fi.fmi.avi.converter.tac.lexer.impl.token.*;
 import fi.fmi.avi.converter.tac.metar.METARTACSerializer;
 import fi.fmi.avi.converter.tac.metar.SPECITACSerializer;
+import fi.fmi.avi.converter.tac.metrics.ConversionMetricsListener;
 import fi.fmi.avi.converter.tac.sigmet.SIGMETBulletinTACSerializer;
 import fi.fmi.avi.converter.tac.sigmet.SIGMETTACSerializer;
 import fi.fmi.avi.converter.tac.swx.amd79.SWXAmd79BulletinTACSerializer;
@@ -54,6 +55,13 @@ public class Serializing {
     @Autowired
     private LexingFactory lexingFactory;
 
+    @Autowired(required = false)
+    private ConversionMetricsListener conversionMetricsListener;
+
+    private ConversionMetricsListener metricsListener() {
+        return conversionMetricsListener != null ? conversionMetricsListener : ConversionMetricsListener.NO_OP;
+    }
+
     @Bean
     AviMessageSpecificConverter<METAR, String> metarTACSerializer() {
         final METARTACSerializer s = new METARTACSerializer();
@@ -170,6 +178,7 @@ public class Serializing {
 
     private void addMetarAndSpeciCommonReconstructors(final AbstractTACSerializer<?> s) {
         s.setLexingFactory(lexingFactory);
+        s.setMetricsListener(metricsListener());
         s.addReconstructor(LexemeIdentity.CORRECTION, new Correction.Reconstructor());
         s.addReconstructor(LexemeIdentity.AERODROME_DESIGNATOR, new ICAOCode.Reconstructor());
         s.addReconstructor(LexemeIdentity.ISSUE_TIME, new IssueTime.Reconstructor());
@@ -205,6 +214,7 @@ public class Serializing {
     private TAFTACSerializer spawnTAFTACSerializer() {
         final TAFTACSerializer s = new TAFTACSerializer();
         s.setLexingFactory(lexingFactory);
+        s.setMetricsListener(metricsListener());
         s.addReconstructor(LexemeIdentity.TAF_START, new TAFStart.Reconstructor());
         s.addReconstructor(LexemeIdentity.AMENDMENT, new Amendment.Reconstructor());
         s.addReconstructor(LexemeIdentity.CORRECTION, new Correction.Reconstructor());
@@ -250,6 +260,7 @@ public class Serializing {
 
     private void addSWXCommonReconstructors(final AbstractTACSerializer<? extends AviationWeatherMessage> s) {
         s.setLexingFactory(lexingFactory);
+        s.setMetricsListener(metricsListener());
         s.addReconstructor(LexemeIdentity.SPACE_WEATHER_ADVISORY_START, new SWXAdvisoryStart.Reconstructor());
         s.addReconstructor(LexemeIdentity.DTG_ISSUE_TIME_LABEL, new DTGIssueTimeLabel.Reconstructor());
         s.addReconstructor(LexemeIdentity.ISSUE_TIME, new DTGIssueTime.Reconstructor());
@@ -279,6 +290,7 @@ public class Serializing {
 
     private void addCommonBulletinReconstructors(final AbstractTACSerializer<?> s) {
         s.setLexingFactory(lexingFactory);
+        s.setMetricsListener(metricsListener());
         s.addReconstructor(LexemeIdentity.BULLETIN_HEADING_DATA_DESIGNATORS, new BulletinHeaderDataDesignators.Reconstructor());
         s.addReconstructor(LexemeIdentity.BULLETIN_HEADING_LOCATION_INDICATOR, new BulletinLocationIndicator.Reconstructor());
         s.addReconstructor(LexemeIdentity.ISSUE_TIME, new IssueTime.Reconstructor());
@@ -290,6 +302,7 @@ public class Serializing {
     private SIGMETTACSerializer spawnSIGMETTACSerializer() {
         final SIGMETTACSerializer s = new SIGMETTACSerializer();
         s.setLexingFactory(lexingFactory);
+        s.setMetricsListener(metricsListener());
         s.addReconstructor(LexemeIdentity.SIGMET_START, new SigmetStart.Reconstructor());
         s.addReconstructor(LexemeIdentity.ISSUE_TIME, new IssueTime.Reconstructor());
         s.addReconstructor(LexemeIdentity.SEQUENCE_DESCRIPTOR, new SigmetSequenceDescriptor.Reconstructor());
@@ -325,6 +338,7 @@ public class Serializing {
     private AIRMETTACSerializer spawnAIRMETTACSerializer() {
         final AIRMETTACSerializer s = new AIRMETTACSerializer();
         s.setLexingFactory(lexingFactory);
+        s.setMetricsListener(metricsListener());
         s.addReconstructor(LexemeIdentity.AIRMET_START, new AirmetStart.Reconstructor());
         s.addReconstructor(LexemeIdentity.ISSUE_TIME, new IssueTime.Reconstructor());
         s.addReconstructor(LexemeIdentity.SEQUENCE_DESCRIPTOR, new SigmetSequenceDescriptor.Reconstructor());
@@ -22,6 +22,8 @@ import org.springframework.context.annotation.Import;
 
 /**
  * TAC converter Spring configuration
+ *
+ * The converter beans are thread-safe once the context has been created and may be shared by concurrent conversions.
  */
 @Configuration
 @Import({Parsing.class, Serializing.class})
@@ -2,8 +2,45 @@ package fi.fmi.avi.converter.tac.geoinfo;
 
 
 import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.prep.PreparedGeometry;
+import org.locationtech.jts.geom.prep.PreparedGeometryFactory;
 
 public interface FirInfoStore {
+    /**
+     * Returns the geometry of the given FIR. The returned geometry may be shared between callers and must not be
+     * modified: JTS geometries cannot be made immutable, so callers needing to modify the geometry in place must
+     * modify a {@link Geometry#copy() copy} of it instead.
+     *
+     * @param firName FIR name or ICAO code
+     * @param includeDelegatedAirspaces whether to merge the delegated airspaces into the FIR geometry
+     * @return the FIR geometry, or null if not found
+     */
     Geometry getFirGeometry(String firName, boolean includeDelegatedAirspaces);
+
+    /**
+     * Returns the geometry of the given FIR prepared for repeated predicate tests such as
+     * {@link PreparedGeometry#contains(Geometry)}. The default implementation prepares the geometry on every call,
+     * implementations should override this to cache the prepared geometries along with the plain ones.
+     *
+     * @param firName FIR name or ICAO code
+     * @param includeDelegatedAirspaces whether to merge the delegated airspaces into the FIR geometry
+     * @return the prepared FIR geometry, or null if not found
+     */
+    default PreparedGeometry getPreparedFirGeometry(final String firName, final boolean includeDelegatedAirspaces) {
+        final Geometry geometry = getFirGeometry(firName, includeDelegatedAirspaces);
+        return geometry == null ? null : PreparedGeometryFactory.prepare(geometry);
+    }
+
     String getFirName(String icaoCode);
+
+    /**
+     * Returns the revision of the geometries of this store. The revision must change whenever the geometries
+     * returned by the store change, such as after reloading them, so that geometries derived from them and cached
+     * by revision are no longer used. The default implementation returns a constant for stores that never change.
+     *
+     * @return the revision of the geometries
+     */
+    default long getRevision() {
+        return 0L;
+    }
 }
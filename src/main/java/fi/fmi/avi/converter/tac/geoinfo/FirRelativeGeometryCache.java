@@ -0,0 +1,225 @@
+package fi.fmi.avi.converter.tac.geoinfo;
+
+import static fi.fmi.avi.converter.tac.lexer.Lexeme.ParsedValueName.APRX_LINE_WIDTH;
+import static fi.fmi.avi.converter.tac.lexer.Lexeme.ParsedValueName.APRX_LINE_WIDTH_UNIT;
+import static fi.fmi.avi.converter.tac.lexer.Lexeme.ParsedValueName.APRX_POINT1;
+import static fi.fmi.avi.converter.tac.lexer.Lexeme.ParsedValueName.APRX_POINT2;
+import static fi.fmi.avi.converter.tac.lexer.Lexeme.ParsedValueName.APRX_POINT3;
+import static fi.fmi.avi.converter.tac.lexer.Lexeme.ParsedValueName.APRX_POINT4;
+import static fi.fmi.avi.converter.tac.lexer.Lexeme.ParsedValueName.LINE2_POINT1;
+import static fi.fmi.avi.converter.tac.lexer.Lexeme.ParsedValueName.LINE2_POINT2;
+import static fi.fmi.avi.converter.tac.lexer.Lexeme.ParsedValueName.LINE2_POINT3;
+import static fi.fmi.avi.converter.tac.lexer.Lexeme.ParsedValueName.LINE2_POINT4;
+import static fi.fmi.avi.converter.tac.lexer.Lexeme.ParsedValueName.LINE_POINT1;
+import static fi.fmi.avi.converter.tac.lexer.Lexeme.ParsedValueName.LINE_POINT2;
+import static fi.fmi.avi.converter.tac.lexer.Lexeme.ParsedValueName.LINE_POINT3;
+import static fi.fmi.avi.converter.tac.lexer.Lexeme.ParsedValueName.LINE_POINT4;
+import static fi.fmi.avi.converter.tac.lexer.Lexeme.ParsedValueName.RELATEDLINE;
+import static fi.fmi.avi.converter.tac.lexer.Lexeme.ParsedValueName.RELATEDLINE2;
+import static fi.fmi.avi.converter.tac.lexer.Lexeme.ParsedValueName.RELATIONTYPE;
+import static fi.fmi.avi.converter.tac.lexer.Lexeme.ParsedValueName.RELATIONTYPE2;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import fi.fmi.avi.converter.tac.lexer.Lexeme;
+import fi.fmi.avi.converter.tac.lexer.Lexeme.ParsedValueName;
+import fi.fmi.avi.converter.tac.lexer.LexemeIdentity;
+import fi.fmi.avi.converter.tac.lexer.LexemeIdentitySet;
+import fi.fmi.avi.model.PolygonGeometry;
+
+/**
+ * A size-bounded LRU cache of the FIR-relative SIGMET and AIRMET areas computed by {@link GeoUtilsTac}, such as
+ * "N OF N60 AND E OF E020" or "APRX 50KM WID LINE BTN ...".
+ *
+ * The areas are keyed by the FIR info store and its {@link FirInfoStore#getRevision() revision}, the FIR designator,
+ * the lexeme identity and the parsed values of the lexeme the area computation uses. The coordinate values are
+ * normalised to numbers, so "N60" and "N6000" give the same area. The stores are identified by a serial number
+ * assigned to each store instance, so the cache does not keep the stores from being garbage collected, and the
+ * areas of a reloaded store are no longer used once its revision changes. The areas no longer used are evicted as
+ * the least recently used ones. The cached {@link PolygonGeometry} instances are immutable and shared between all
+ * the callers.
+ *
+ * This class is thread-safe. Concurrent misses for the same area may compute it more than once.
+ */
+public class FirRelativeGeometryCache {
+    public static final int DEFAULT_MAXIMUM_SIZE = 1000;
+
+    private static final FirRelativeGeometryCache INSTANCE = new FirRelativeGeometryCache(DEFAULT_MAXIMUM_SIZE);
+    private static final Set<LexemeIdentity> AREA_IDENTITIES = Collections.unmodifiableSet(
+            LexemeIdentitySet.of(LexemeIdentity.SIGMET_OUTSIDE_LATLON, LexemeIdentity.SIGMET_APRX_LINE, LexemeIdentity.SIGMET_LINE,
+                    LexemeIdentity.SIGMET_2_LINES));
+    private static final Map<ParsedValueName, Function<String, Object>> NORMALIZERS = new EnumMap<>(ParsedValueName.class);
+
+    static {
+        for (final ParsedValueName name : Arrays.asList(RELATIONTYPE, RELATIONTYPE2, APRX_LINE_WIDTH_UNIT)) {
+            NORMALIZERS.put(name, value -> value);
+        }
+        for (final ParsedValueName name : Arrays.asList(RELATEDLINE, RELATEDLINE2)) {
+            NORMALIZERS.put(name, GeoUtilsTac::getLatLon);
+        }
+        for (final ParsedValueName name : Arrays.asList(LINE_POINT1, LINE_POINT2, LINE_POINT3, LINE_POINT4, LINE2_POINT1, LINE2_POINT2, LINE2_POINT3,
+                LINE2_POINT4, APRX_POINT1, APRX_POINT2, APRX_POINT3, APRX_POINT4)) {
+            NORMALIZERS.put(name, GeoUtilsTac::getCoordinate);
+        }
+        NORMALIZERS.put(APRX_LINE_WIDTH, Double::valueOf);
+    }
+
+    private final int maximumSize;
+    private final Map<List<Object>, PolygonGeometry> entries;
+    // Guarded by entries
+    private final Map<FirInfoStore, Long> storeIds = new WeakHashMap<>();
+    private long nextStoreId;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public FirRelativeGeometryCache(final int maximumSize) {
+        if (maximumSize < 0) {
+            throw new IllegalArgumentException("maximumSize must not be negative: " + maximumSize);
+        }
+        this.maximumSize = maximumSize;
+        this.entries = new LinkedHashMap<List<Object>, PolygonGeometry>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<List<Object>, PolygonGeometry> eldest) {
+                if (size() > FirRelativeGeometryCache.this.maximumSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Returns the cache shared by the SIGMET and AIRMET parsers by default.
+     *
+     * @return the shared instance
+     */
+    public static FirRelativeGeometryCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the area given relative to the FIR by the lexeme, computing it with {@link GeoUtilsTac} if not cached.
+     * Supported lexeme identities are {@link LexemeIdentity#SIGMET_OUTSIDE_LATLON},
+     * {@link LexemeIdentity#SIGMET_APRX_LINE}, {@link LexemeIdentity#SIGMET_LINE} and
+     * {@link LexemeIdentity#SIGMET_2_LINES}.
+     *
+     * @param lexeme the area lexeme
+     * @param firName the FIR designator
+     * @param firInfo the store to look the FIR geometry from
+     * @return the area, or null if it cannot be computed
+     * @throws IllegalArgumentException if the lexeme does not describe a FIR-relative area
+     */
+    public PolygonGeometry getGeometry(final Lexeme lexeme, final String firName, final FirInfoStore firInfo) {
+        final LexemeIdentity identity = lexeme.getIdentity();
+        if (!AREA_IDENTITIES.contains(identity)) {
+            throw new IllegalArgumentException("Not a FIR-relative area: " + identity);
+        }
+        final List<Object> key;
+        try {
+            key = keyOf(lexeme, firName, storeIdOf(firInfo), firInfo.getRevision());
+        } catch (final RuntimeException e) {
+            // Leave malformed values for the computation to handle, as it always has
+            return compute(identity, lexeme, firName, firInfo);
+        }
+        PolygonGeometry retval;
+        synchronized (entries) {
+            retval = entries.get(key);
+        }
+        if (retval != null) {
+            hits.increment();
+            return retval;
+        }
+        misses.increment();
+        retval = compute(identity, lexeme, firName, firInfo);
+        if (retval != null && maximumSize > 0) {
+            synchronized (entries) {
+                entries.put(key, retval);
+            }
+        }
+        return retval;
+    }
+
+    private Long storeIdOf(final FirInfoStore firInfo) {
+        synchronized (entries) {
+            return storeIds.computeIfAbsent(Objects.requireNonNull(firInfo, "firInfo"), store -> nextStoreId++);
+        }
+    }
+
+    /**
+     * Returns the cache key of the area of the lexeme.
+     *
+     * @param lexeme the area lexeme
+     * @param firName the FIR designator
+     * @param storeId the serial number of the FIR info store
+     * @param revision the revision of the FIR info store
+     * @return the key
+     * @throws RuntimeException if the parsed values of the lexeme cannot be normalised
+     */
+    static List<Object> keyOf(final Lexeme lexeme, final String firName, final long storeId, final long revision) {
+        final Map<ParsedValueName, Object> values = new EnumMap<>(ParsedValueName.class);
+        for (final Map.Entry<ParsedValueName, Object> entry : lexeme.getParsedValues().entrySet()) {
+            final Function<String, Object> normalizer = NORMALIZERS.get(entry.getKey());
+            if (normalizer != null && entry.getValue() != null) {
+                values.put(entry.getKey(), Objects.requireNonNull(normalizer.apply(entry.getValue().toString())));
+            }
+        }
+        return Arrays.asList(storeId, revision, firName, lexeme.getIdentity(), values);
+    }
+
+    private static PolygonGeometry compute(final LexemeIdentity identity, final Lexeme lexeme, final String firName, final FirInfoStore firInfo) {
+        if (LexemeIdentity.SIGMET_OUTSIDE_LATLON.equals(identity)) {
+            return GeoUtilsTac.getPolygonOutside(lexeme, firName, firInfo);
+        } else if (LexemeIdentity.SIGMET_APRX_LINE.equals(identity)) {
+            return GeoUtilsTac.getPolygonAprxWidth(lexeme, firName, firInfo);
+        } else if (LexemeIdentity.SIGMET_LINE.equals(identity)) {
+            return GeoUtilsTac.getRelativeToLine(lexeme, firName, firInfo);
+        } else {
+            return GeoUtilsTac.getRelativeTo2Lines(lexeme, firName, firInfo);
+        }
+    }
+
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * Removes all the cached areas. The hit, miss and eviction counts are not reset.
+     */
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+}
@@ -17,24 +17,25 @@ import static fi.fmi.avi.converter.tac.lexer.Lexeme.ParsedValueName.RDOACT_LON;
 import static fi.fmi.avi.converter.tac.lexer.Lexeme.ParsedValueName.RDOACT_RADIUS;
 import static fi.fmi.avi.converter.tac.lexer.Lexeme.ParsedValueName.RDOACT_RADIUS_UNIT;
 
-import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Locale;
+import java.util.function.Predicate;
 
-import com.fasterxml.jackson.core.JsonParseException;
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import org.geojson.Feature;
 import org.locationtech.jts.algorithm.Orientation;
 import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
 import org.locationtech.jts.geom.Geometry;
 import org.locationtech.jts.geom.GeometryCollection;
 import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.Polygon;
 import org.locationtech.jts.geom.PrecisionModel;
+import org.locationtech.jts.geom.prep.PreparedGeometry;
 import org.locationtech.jts.geom.util.LineStringExtracter;
 import org.locationtech.jts.io.geojson.GeoJsonReader;
 import org.locationtech.jts.io.geojson.GeoJsonWriter;
@@ -46,42 +47,27 @@ import fi.fmi.avi.model.CircleByCenterPoint;
 import fi.fmi.avi.model.PolygonGeometry;
 import fi.fmi.avi.model.Winding;
 import fi.fmi.avi.model.immutable.CircleByCenterPointImpl;
-import fi.fmi.avi.model.immutable.CoordinateReferenceSystemImpl;
 import fi.fmi.avi.model.immutable.NumericMeasureImpl;
-import fi.fmi.avi.model.immutable.PolygonGeometryImpl;
 import fi.fmi.avi.util.JtsTools;
 import fi.fmi.avi.util.JtsToolsException;
 
 
 public class GeoUtilsTac {
 
-	private static GeometryFactory gf;
-	private static ObjectMapper om;
+	// Both are thread-safe, so they are created eagerly and shared by all the callers
+	private static final GeometryFactory gf = new GeometryFactory(new PrecisionModel(PrecisionModel.FLOATING));
+	private static final ObjectMapper om = new ObjectMapper();
 
 	private static GeometryFactory getGeometryFactory() {
-		if (gf==null) {
-			gf=new GeometryFactory(new PrecisionModel(PrecisionModel.FLOATING));
-		}
 		return gf;
 	}
 
 	private static ObjectMapper getObjectMapper() {
-		if (om==null) {
-			om=new ObjectMapper();
-		}
 		return om;
 	}
 
     public static PolygonGeometry jts2PolygonGeometry(Geometry geom) {
-        PolygonGeometryImpl.Builder bldr = PolygonGeometryImpl.builder();
-        bldr.setCrs(CoordinateReferenceSystemImpl.wgs84());
-        List<Double> coords = new ArrayList<>();
-        for (Coordinate c: geom.getCoordinates()) {
-            coords.add(c.getY());
-            coords.add(c.getX());
-        }
-        bldr.addAllExteriorRingPositions(coords);
-        return bldr.build();
+        return JtsGeometryConverter.toPolygonGeometry(geom);
     }
 
     public static PolygonGeometry getPolygonOutside(Lexeme lexeme, String firName, FirInfoStore firInfo) {
@@ -96,6 +82,10 @@ public class GeoUtilsTac {
         String relationValue2 = lexeme.getParsedValue(RELATEDLINE2, String.class);
         if (relationOperator2==null) {
             double limit = getLatLon(relationValue);
+            Geometry clipped = clipToSide(fir, relationOperator, limit);
+            if (clipped != null) {
+                return jts2PolygonGeometry(clipped);
+            }
             Coordinate[] coords = firEnvelope.getCoordinates();
             switch (relationOperator) {
             case "N":
@@ -179,21 +169,61 @@ public class GeoUtilsTac {
         return null;
     }
 
-    public static org.locationtech.jts.geom.Geometry PolygonGeometry2jtsGeometry(PolygonGeometry geometry) throws JtsToolsException {
-        String json=toGeoJSON(geometry);
-        Feature feature;
-
-        try {
-            feature = getObjectMapper().readValue(json, Feature.class);
-            return JtsTools.jsonFeature2jtsGeometry(feature);
-        } catch (JsonParseException e) {
-            e.printStackTrace();
-        } catch (JsonMappingException e) {
-            e.printStackTrace();
-        } catch (IOException e) {
-            e.printStackTrace();
+    /**
+     * Fast path for the single "N OF", "S OF", "E OF" and "W OF" limits: the box intersected with the FIR in
+     * {@link #getPolygonOutside(Lexeme, String, FirInfoStore)} spans the whole FIR envelope, so the intersection is
+     * the part of the FIR on one side of the limit line. Returns null if the FIR cannot be clipped without the overlay.
+     */
+    private static Geometry clipToSide(Geometry fir, String relationOperator, double limit) {
+        if (!(fir instanceof Polygon)) {
+            return null;
         }
-        return null;
+        Envelope env = fir.getEnvelopeInternal();
+        Coordinate[] line;
+        int side;
+        switch (relationOperator) {
+            case "N":
+                line = new Coordinate[] { new Coordinate(env.getMinX(), limit), new Coordinate(env.getMaxX(), limit) };
+                side = Orientation.LEFT;
+                break;
+            case "S":
+                line = new Coordinate[] { new Coordinate(env.getMinX(), limit), new Coordinate(env.getMaxX(), limit) };
+                side = Orientation.RIGHT;
+                break;
+            case "E":
+                line = new Coordinate[] { new Coordinate(limit, env.getMinY()), new Coordinate(limit, env.getMaxY()) };
+                side = Orientation.RIGHT;
+                break;
+            case "W":
+                line = new Coordinate[] { new Coordinate(limit, env.getMinY()), new Coordinate(limit, env.getMaxY()) };
+                side = Orientation.LEFT;
+                break;
+            default:
+                return null;
+        }
+        Polygon clipped = HalfPlaneSplitter.clip((Polygon) fir, line, side);
+        if (clipped == null) {
+            return null;
+        }
+        // Same orientation as the overlay result
+        return Orientation.isCCW(clipped.getExteriorRing().getCoordinates()) ? clipped.reverse() : clipped;
+    }
+
+    /**
+     * Intersects the geometry with the FIR. The overlay is skipped if the FIR covers a polygon without holes, as is
+     * the case for most of the areas. The polygon is then returned with a clockwise exterior ring like the overlay
+     * result, but otherwise in its own vertex order, so the ring may start from a different vertex than the overlay
+     * result. The results are topologically equal either way.
+     */
+    static Geometry intersectWithFir(Geometry geometry, PreparedGeometry fir) {
+        if (geometry instanceof Polygon && ((Polygon) geometry).getNumInteriorRing() == 0 && geometry.isValid() && fir.covers(geometry)) {
+            return Orientation.isCCW(((Polygon) geometry).getExteriorRing().getCoordinates()) ? geometry.reverse() : geometry;
+        }
+        return geometry.intersection(fir.getGeometry());
+    }
+
+    public static org.locationtech.jts.geom.Geometry PolygonGeometry2jtsGeometry(PolygonGeometry geometry) throws JtsToolsException {
+        return JtsGeometryConverter.toJtsPolygon(geometry);
     }
 
     public static String toGeoJSON(fi.fmi.avi.model.Geometry g) {
@@ -286,7 +316,7 @@ public class GeoUtilsTac {
             coordinateList.get(3).setY(y2+1.1*dLat);
         }
         Geometry line = geomFact.createLineString(coordinateList.toArray(new Coordinate[0]));
-        Geometry split = splitPolygon(fir, line);
+        Geometry split = splitAlongLine(firInfo.getPreparedFirGeometry(firName, true), line);
 
         //Take end of first line segment, apply direction to that
         Coordinate testPoint = line.copy().getCoordinates()[1];
@@ -348,7 +378,30 @@ public class GeoUtilsTac {
         return geometry.getFactory().createGeometryCollection(polyArray);
     }
 
+    /**
+     * Splits the FIR along the line, using a half-plane split instead of the overlay when the line is straight and
+     * crosses the FIR boundary only twice.
+     */
+    private static Geometry splitAlongLine(PreparedGeometry fir, Geometry line) {
+        Geometry firGeometry = fir.getGeometry();
+        if (firGeometry instanceof Polygon) {
+            Polygon[] parts = HalfPlaneSplitter.split((Polygon) firGeometry, line.getCoordinates());
+            if (parts != null) {
+                return firGeometry.getFactory().createGeometryCollection(new Geometry[] { fixWinding(parts[0]), fixWinding(parts[1]) });
+            }
+        }
+        return splitPolygon(fir, line);
+    }
+
     public static Geometry splitPolygon(Geometry poly, Geometry line) {
+        return splitPolygon(poly, line, poly::contains);
+    }
+
+    public static Geometry splitPolygon(PreparedGeometry poly, Geometry line) {
+        return splitPolygon(poly.getGeometry(), line, poly::contains);
+    }
+
+    private static Geometry splitPolygon(Geometry poly, Geometry line, Predicate<Geometry> containsTest) {
         Geometry nodedLinework = poly.getBoundary().union(line);
         Geometry polys = polygonize(nodedLinework);
 
@@ -356,7 +409,7 @@ public class GeoUtilsTac {
         List<Geometry> output = new ArrayList<>();
         for (int i = 0; i < polys.getNumGeometries(); i++) {
             org.locationtech.jts.geom.Polygon candpoly = (org.locationtech.jts.geom.Polygon) polys.getGeometryN(i);
-            if (poly.contains(candpoly.getInteriorPoint())) {
+            if (containsTest.test(candpoly.getInteriorPoint())) {
                 output.add(candpoly);
             }
         }
@@ -375,7 +428,7 @@ public class GeoUtilsTac {
         //Construct a polygon by concatenating the 2 lines. If the polygon self intersects
         //reverse the coordinates of the second line.
         //intersect the resulting polygon with the fir to get the final Geometry
-        Geometry fir = firInfo.getFirGeometry(firName, true);
+        PreparedGeometry fir = firInfo.getPreparedFirGeometry(firName, true);
         GeometryFactory geomFact = getGeometryFactory();
         List<Coordinate> coordinateList = new ArrayList<>();
         String coord1 = lexeme.getParsedValue(LINE_POINT1, String.class);
@@ -442,13 +495,13 @@ public class GeoUtilsTac {
             coordinateList.add(coordinateList.get(0));
             poly = geomFact.createPolygon(coordinateList.toArray(new Coordinate[0]));
         }
-        Geometry intersected = poly.intersection(fir);
+        Geometry intersected = intersectWithFir(poly, fir);
         return jts2PolygonGeometry(intersected);
     }
 
     public static PolygonGeometry getPolygonAprxWidth(Lexeme lexeme, String firName, FirInfoStore firInfo) {
 
-        Geometry fir = firInfo.getFirGeometry(firName, true);
+        PreparedGeometry fir = firInfo.getPreparedFirGeometry(firName, true);
         GeometryFactory geomFact = getGeometryFactory();
         List<Coordinate> coordinateList = new ArrayList<>();
         String widthString = lexeme.getParsedValue(ParsedValueName.APRX_LINE_WIDTH, String.class);
@@ -484,7 +537,7 @@ public class GeoUtilsTac {
             double widthInDegrees = width/metersperdegree;
             //Generate a polygon as a buffer around that lineString
             Geometry poly = line.buffer(widthInDegrees);
-            poly=poly.intersection(fir);
+            poly=intersectWithFir(poly, fir);
             return jts2PolygonGeometry(poly);
         }
         return null;
@@ -563,13 +616,6 @@ public class GeoUtilsTac {
             circleBuilder.setRadius(radiusBuilder.build());
             double []pts = {lexeme.getParsedValue(RDOACT_LAT, Double.class), lexeme.getParsedValue(RDOACT_LON, Double.class)};
             circleBuilder.addCenterPointCoordinates(pts);
-            ObjectMapper om = new ObjectMapper();
-            try {
-                System.out.println("CIRCLE:"+om.writeValueAsString(circleBuilder.build()));
-            } catch (JsonProcessingException e) {
-                // TODO Auto-generated catch block
-                e.printStackTrace();
-            }
             return circleBuilder.build();
     }
 }
@@ -0,0 +1,128 @@
+package fi.fmi.avi.converter.tac.geoinfo;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.locationtech.jts.algorithm.LineIntersector;
+import org.locationtech.jts.algorithm.Orientation;
+import org.locationtech.jts.algorithm.RobustLineIntersector;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.CoordinateArrays;
+import org.locationtech.jts.geom.Polygon;
+
+/**
+ * Splits a simple polygon in two along a straight line in a single pass over its exterior ring, in the manner of
+ * Sutherland-Hodgman clipping.
+ *
+ * This is a fast path for the general overlay operations, so it only accepts the easy cases where the result is known
+ * to be exactly two simple polygons: the polygon has no holes, none of its vertices is on the line, and its boundary
+ * crosses the line exactly twice, both times in the interior of the splitting line. For anything else the methods
+ * return null and the caller is expected to fall back to the JTS overlay. The crossing points are computed with the
+ * same {@link RobustLineIntersector} the overlay uses, so the results are topologically equal to the overlay results.
+ */
+final class HalfPlaneSplitter {
+
+    private HalfPlaneSplitter() {
+        throw new AssertionError();
+    }
+
+    /**
+     * Splits the polygon with a line given as a list of points. The points must all be on the same straight line and
+     * advance in the same direction, such as the extended lines of "N OF LINE" type of SIGMET areas.
+     *
+     * @param polygon the polygon to split
+     * @param line the splitting line
+     * @return the parts on the left and on the right side of the line respectively, or null if the polygon cannot
+     * be split with this fast path
+     */
+    static Polygon[] split(final Polygon polygon, final Coordinate[] line) {
+        if (polygon.isEmpty() || polygon.getNumInteriorRing() > 0 || !isStraight(line)) {
+            return null;
+        }
+        final Coordinate first = line[0];
+        final Coordinate last = line[line.length - 1];
+        final Coordinate[] ring = polygon.getExteriorRing().getCoordinates();
+        final int[] sides = new int[ring.length];
+        for (int i = 0; i < ring.length; i++) {
+            sides[i] = Orientation.index(first, last, ring[i]);
+            if (sides[i] == Orientation.COLLINEAR) {
+                return null;
+            }
+        }
+        final LineIntersector intersector = new RobustLineIntersector();
+        final List<Coordinate> left = new ArrayList<>();
+        final List<Coordinate> right = new ArrayList<>();
+        int crossings = 0;
+        for (int i = 0; i < ring.length - 1; i++) {
+            (sides[i] == Orientation.LEFT ? left : right).add(ring[i]);
+            if (sides[i] != sides[i + 1]) {
+                final Coordinate crossing = crossing(intersector, line, ring[i], ring[i + 1]);
+                if (crossing == null || ++crossings > 2) {
+                    return null;
+                }
+                left.add(crossing);
+                right.add(new Coordinate(crossing));
+            }
+        }
+        if (crossings != 2) {
+            return null;
+        }
+        return new Polygon[] { toPolygon(polygon, left), toPolygon(polygon, right) };
+    }
+
+    /**
+     * Returns the part of the polygon on the given side of the line, or null if the polygon cannot be split with this
+     * fast path. See {@link #split(Polygon, Coordinate[])}.
+     *
+     * @param polygon the polygon to clip
+     * @param line the clipping line
+     * @param side {@link Orientation#LEFT} or {@link Orientation#RIGHT}
+     * @return the part of the polygon on the given side of the line
+     */
+    static Polygon clip(final Polygon polygon, final Coordinate[] line, final int side) {
+        final Polygon[] parts = split(polygon, line);
+        if (parts == null) {
+            return null;
+        }
+        return side == Orientation.LEFT ? parts[0] : parts[1];
+    }
+
+    private static boolean isStraight(final Coordinate[] line) {
+        if (line.length < 2) {
+            return false;
+        }
+        final Coordinate first = line[0];
+        final Coordinate last = line[line.length - 1];
+        final double dx = last.x - first.x;
+        final double dy = last.y - first.y;
+        for (int i = 1; i < line.length; i++) {
+            if (i < line.length - 1 && Orientation.index(first, last, line[i]) != Orientation.COLLINEAR) {
+                return false;
+            }
+            // Each segment must advance along the line, otherwise the line would cover some part of itself twice
+            if ((line[i].x - line[i - 1].x) * dx + (line[i].y - line[i - 1].y) * dy <= 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Coordinate crossing(final LineIntersector intersector, final Coordinate[] line, final Coordinate p0, final Coordinate p1) {
+        for (int i = 0; i < line.length - 1; i++) {
+            intersector.computeIntersection(line[i], line[i + 1], p0, p1);
+            if (intersector.isProper()) {
+                return new Coordinate(intersector.getIntersection(0));
+            }
+            if (intersector.hasIntersection()) {
+                // Crosses at a vertex of the line, leave it for the overlay
+                return null;
+            }
+        }
+        return null;
+    }
+
+    private static Polygon toPolygon(final Polygon template, final List<Coordinate> coordinates) {
+        coordinates.add(new Coordinate(coordinates.get(0)));
+        return template.getFactory().createPolygon(CoordinateArrays.toCoordinateArray(coordinates));
+    }
+}
@@ -0,0 +1,156 @@
+package fi.fmi.avi.converter.tac.geoinfo;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.locationtech.jts.geom.CoordinateSequence;
+import org.locationtech.jts.geom.CoordinateSequenceFilter;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.Point;
+import org.locationtech.jts.geom.Polygon;
+import org.locationtech.jts.geom.PrecisionModel;
+import org.locationtech.jts.geom.impl.PackedCoordinateSequenceFactory;
+
+import fi.fmi.avi.model.CircleByCenterPoint;
+import fi.fmi.avi.model.NumericMeasure;
+import fi.fmi.avi.model.PointGeometry;
+import fi.fmi.avi.model.PolygonGeometry;
+import fi.fmi.avi.model.Winding;
+import fi.fmi.avi.model.immutable.CircleByCenterPointImpl;
+import fi.fmi.avi.model.immutable.CoordinateReferenceSystemImpl;
+import fi.fmi.avi.model.immutable.PointGeometryImpl;
+import fi.fmi.avi.model.immutable.PolygonGeometryImpl;
+
+/**
+ * Converts between the {@link fi.fmi.avi.model.Geometry} model geometries and JTS geometries directly, without going
+ * through GeoJSON.
+ *
+ * The model geometries are in the WGS84 lat, lon axis order, the JTS geometries have the longitude as x and the
+ * latitude as y, as in the FIR geometries of {@link FirInfoStore}. The JTS geometries created here store their
+ * coordinates in packed <code>double</code> arrays.
+ */
+public final class JtsGeometryConverter {
+    private static final GeometryFactory PACKED_FACTORY = new GeometryFactory(new PrecisionModel(PrecisionModel.FLOATING), 0,
+            PackedCoordinateSequenceFactory.DOUBLE_FACTORY);
+
+    private JtsGeometryConverter() {
+        throw new AssertionError();
+    }
+
+    /**
+     * Creates a JTS polygon of the exterior ring of the given polygon geometry, taking the positions in
+     * {@link Winding#CLOCKWISE} order. The ring is closed if the positions do not repeat the first position as the last
+     * one.
+     *
+     * @param geometry the polygon geometry
+     * @return the JTS polygon
+     */
+    public static Polygon toJtsPolygon(final PolygonGeometry geometry) {
+        final List<Double> positions = geometry.getExteriorRingPositions(Winding.CLOCKWISE);
+        final int size = positions.size() & ~1;
+        if (size == 0) {
+            return PACKED_FACTORY.createPolygon();
+        }
+        final boolean closed = positions.get(0).equals(positions.get(size - 2)) && positions.get(1).equals(positions.get(size - 1));
+        final double[] packed = new double[closed ? size : size + 2];
+        for (int i = 0; i < size; i += 2) {
+            packed[i] = positions.get(i + 1);
+            packed[i + 1] = positions.get(i);
+        }
+        if (!closed) {
+            packed[size] = packed[0];
+            packed[size + 1] = packed[1];
+        }
+        return PACKED_FACTORY.createPolygon(PackedCoordinateSequenceFactory.DOUBLE_FACTORY.create(packed, 2));
+    }
+
+    /**
+     * Creates a JTS point of the given point geometry.
+     *
+     * @param geometry the point geometry
+     * @return the JTS point
+     */
+    public static Point toJtsPoint(final PointGeometry geometry) {
+        final List<Double> coordinates = geometry.getCoordinates();
+        return createPoint(coordinates.get(0), coordinates.get(1));
+    }
+
+    /**
+     * Creates a JTS point of the center point of the given circle. JTS has no circle geometry, the radius is available
+     * from {@link CircleByCenterPoint#getRadius()} as is.
+     *
+     * @param geometry the circle
+     * @return the center point as a JTS point
+     */
+    public static Point toJtsPoint(final CircleByCenterPoint geometry) {
+        final List<Double> coordinates = geometry.getCenterPointCoordinates();
+        return createPoint(coordinates.get(0), coordinates.get(1));
+    }
+
+    private static Point createPoint(final double lat, final double lon) {
+        return PACKED_FACTORY.createPoint(PackedCoordinateSequenceFactory.DOUBLE_FACTORY.create(new double[] { lon, lat }, 2));
+    }
+
+    /**
+     * Creates a polygon geometry of all the coordinates of the given JTS geometry, in the order
+     * {@link Geometry#getCoordinates()} would return them. For anything but a polygon without holes this does not
+     * produce a meaningful polygon, but matches what {@link GeoUtilsTac#jts2PolygonGeometry(Geometry)} has always done.
+     *
+     * @param geometry the JTS geometry
+     * @return the polygon geometry
+     */
+    public static PolygonGeometry toPolygonGeometry(final Geometry geometry) {
+        final Double[] positions = new Double[geometry.getNumPoints() * 2];
+        geometry.apply(new CoordinateSequenceFilter() {
+            private int index;
+
+            @Override
+            public void filter(final CoordinateSequence seq, final int i) {
+                positions[index++] = seq.getY(i);
+                positions[index++] = seq.getX(i);
+            }
+
+            @Override
+            public boolean isDone() {
+                return false;
+            }
+
+            @Override
+            public boolean isGeometryChanged() {
+                return false;
+            }
+        });
+        return PolygonGeometryImpl.builder()//
+                .setCrs(CoordinateReferenceSystemImpl.wgs84())//
+                .addAllExteriorRingPositions(Arrays.asList(positions))//
+                .build();
+    }
+
+    /**
+     * Creates a point geometry of the given JTS point.
+     *
+     * @param point the JTS point
+     * @return the point geometry
+     */
+    public static PointGeometry toPointGeometry(final Point point) {
+        return PointGeometryImpl.builder()//
+                .setCrs(CoordinateReferenceSystemImpl.wgs84())//
+                .addCoordinates(point.getY(), point.getX())//
+                .build();
+    }
+
+    /**
+     * Creates a circle geometry around the given JTS point.
+     *
+     * @param center the center point
+     * @param radius the radius
+     * @return the circle geometry
+     */
+    public static CircleByCenterPoint toCircleByCenterPoint(final Point center, final NumericMeasure radius) {
+        return CircleByCenterPointImpl.builder()//
+                .addCenterPointCoordinates(center.getY(), center.getX())//
+                .setRadius(radius)//
+                .build();
+    }
+}
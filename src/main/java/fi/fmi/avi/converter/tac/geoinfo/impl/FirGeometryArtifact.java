@@ -0,0 +1,214 @@
+package fi.fmi.avi.converter.tac.geoinfo.impl;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.PrecisionModel;
+import org.locationtech.jts.io.ParseException;
+import org.locationtech.jts.io.WKBReader;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.util.StreamUtils;
+
+/**
+ * Precompiled FIR geometries, created at build time by {@link FirGeometryArtifactCompiler} from the GeoJSON resources
+ * used by {@link FirInfoStoreImpl}.
+ *
+ * The artifact contains the FIR geometries as WKB, both with and without the delegated airspaces merged, followed by
+ * an index from FIR names and ICAO codes to the geometries. Only the index is decoded when loading; each geometry is
+ * decoded from the (memory-mapped when possible) buffer on request.
+ *
+ * Format, all integers big-endian:
+ * <pre>
+ * int magic, int version
+ * int geometry count, {int WKB length, WKB bytes} * geometry count
+ * int key count, {string key, string FIR name property, int geometry, int geometry with delegated airspaces,
+ *                 byte flags} * key count
+ * </pre>
+ * where strings are written as int UTF-8 byte length (-1 for null) followed by the bytes, and missing geometries as
+ * index -1.
+ */
+final class FirGeometryArtifact {
+    static final String RESOURCE_NAME = "fir_geometries.bin";
+
+    static final int FLAG_WORLD_FIR_ICAO_CODE = 1;
+
+    private static final int MAGIC = 0x46495242;
+    private static final int VERSION = 1;
+    static final int NO_GEOMETRY = -1;
+
+    private final ByteBuffer buffer;
+    private final int[] geometryOffsets;
+    private final int[] geometryLengths;
+    private final Map<String, Entry> entries;
+    private final List<String> worldFirIcaoCodes;
+    private final GeometryFactory geometryFactory = new GeometryFactory(new PrecisionModel(PrecisionModel.FLOATING));
+
+    private FirGeometryArtifact(final ByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        if (buffer.getInt() != MAGIC) {
+            throw new IOException("Not a FIR geometry artifact");
+        }
+        final int version = buffer.getInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported FIR geometry artifact version " + version);
+        }
+        final int geometryCount = buffer.getInt();
+        this.geometryOffsets = new int[geometryCount];
+        this.geometryLengths = new int[geometryCount];
+        for (int i = 0; i < geometryCount; i++) {
+            geometryLengths[i] = buffer.getInt();
+            geometryOffsets[i] = buffer.position();
+            buffer.position(buffer.position() + geometryLengths[i]);
+        }
+        final int keyCount = buffer.getInt();
+        final Map<String, Entry> entries = new HashMap<>(keyCount * 2);
+        final List<String> worldFirIcaoCodes = new ArrayList<>();
+        for (int i = 0; i < keyCount; i++) {
+            final String key = readString(buffer);
+            final Entry entry = new Entry(readString(buffer), buffer.getInt(), buffer.getInt(), buffer.get());
+            entries.put(key, entry);
+            if ((entry.flags & FLAG_WORLD_FIR_ICAO_CODE) != 0) {
+                worldFirIcaoCodes.add(key);
+            }
+        }
+        this.entries = entries;
+        this.worldFirIcaoCodes = Collections.unmodifiableList(worldFirIcaoCodes);
+    }
+
+    /**
+     * Loads the artifact from a class path resource. Resources located in the file system are memory-mapped, others
+     * are read into memory.
+     *
+     * @param resourceName class path resource name
+     * @return the artifact, or null if the resource does not exist
+     * @throws IOException if the resource cannot be read or is not a valid artifact
+     */
+    static FirGeometryArtifact load(final String resourceName) throws IOException {
+        final ClassPathResource resource = new ClassPathResource(resourceName);
+        if (!resource.exists()) {
+            return null;
+        }
+        if (resource.isFile()) {
+            try (FileChannel channel = FileChannel.open(resource.getFile().toPath(), StandardOpenOption.READ)) {
+                // The mapping stays valid after closing the channel
+                return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+            }
+        }
+        try (InputStream in = resource.getInputStream()) {
+            return read(ByteBuffer.wrap(StreamUtils.copyToByteArray(in)));
+        }
+    }
+
+    static FirGeometryArtifact read(final ByteBuffer buffer) throws IOException {
+        try {
+            return new FirGeometryArtifact(buffer);
+        } catch (final BufferUnderflowException | IllegalArgumentException e) {
+            throw new IOException("Truncated FIR geometry artifact", e);
+        }
+    }
+
+    static void write(final OutputStream output, final List<byte[]> geometries, final Map<String, Entry> keys) throws IOException {
+        final DataOutputStream out = new DataOutputStream(output);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(geometries.size());
+        for (final byte[] wkb : geometries) {
+            out.writeInt(wkb.length);
+            out.write(wkb);
+        }
+        out.writeInt(keys.size());
+        for (final Map.Entry<String, Entry> key : keys.entrySet()) {
+            final Entry entry = key.getValue();
+            writeString(out, key.getKey());
+            writeString(out, entry.firName);
+            out.writeInt(entry.geometry);
+            out.writeInt(entry.geometryWithDelegated);
+            out.writeByte(entry.flags);
+        }
+        out.flush();
+    }
+
+    private static String readString(final ByteBuffer buffer) {
+        final int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        final byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeString(final DataOutputStream out, final String s) throws IOException {
+        if (s == null) {
+            out.writeInt(-1);
+        } else {
+            final byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Decodes the geometry of the given FIR. Each call returns a new geometry instance.
+     *
+     * @param key FIR name or ICAO code
+     * @param includeDelegatedAirspaces whether to return the geometry with the delegated airspaces merged
+     * @return the geometry, or null if not available
+     */
+    Geometry readGeometry(final String key, final boolean includeDelegatedAirspaces) {
+        final Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        final int index = includeDelegatedAirspaces ? entry.geometryWithDelegated : entry.geometry;
+        if (index == NO_GEOMETRY) {
+            return null;
+        }
+        final byte[] wkb = new byte[geometryLengths[index]];
+        final ByteBuffer view = buffer.duplicate();
+        view.position(geometryOffsets[index]);
+        view.get(wkb);
+        try {
+            return new WKBReader(geometryFactory).read(wkb);
+        } catch (final ParseException e) {
+            throw new IllegalStateException("Corrupted FIR geometry artifact for " + key, e);
+        }
+    }
+
+    String getFirNameProperty(final String key) {
+        final Entry entry = entries.get(key);
+        return entry == null ? null : entry.firName;
+    }
+
+    List<String> getWorldFirIcaoCodes() {
+        return worldFirIcaoCodes;
+    }
+
+    static final class Entry {
+        private final String firName;
+        private final int geometry;
+        private final int geometryWithDelegated;
+        private final int flags;
+
+        Entry(final String firName, final int geometry, final int geometryWithDelegated, final int flags) {
+            this.firName = firName;
+            this.geometry = geometry;
+            this.geometryWithDelegated = geometryWithDelegated;
+            this.flags = flags;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package fi.fmi.avi.converter.tac.geoinfo.impl;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.io.WKBWriter;
+
+/**
+ * Build time tool compiling the GeoJSON FIR resources into the binary {@link FirGeometryArtifact} read by
+ * {@link FirInfoStoreImpl}.
+ *
+ * The geometries are produced with the same GeoJSON code path {@link FirInfoStoreImpl} uses as a fallback, so the
+ * precompiled geometries are identical to the ones created from the GeoJSON resources at runtime. Identical geometries
+ * (such as the ones found both by FIR name and ICAO code) are stored only once.
+ *
+ * Usage: <code>FirGeometryArtifactCompiler &lt;output file&gt;</code>
+ */
+public final class FirGeometryArtifactCompiler {
+    private FirGeometryArtifactCompiler() {
+        throw new AssertionError();
+    }
+
+    public static void main(final String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: " + FirGeometryArtifactCompiler.class.getName() + " <output file>");
+            System.exit(1);
+        }
+        final Path output = Paths.get(args[0]);
+        if (output.getParent() != null) {
+            Files.createDirectories(output.getParent());
+        }
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(output))) {
+            compile(out);
+        }
+    }
+
+    static void compile(final OutputStream out) throws IOException {
+        final FirInfoStoreImpl geoJsonStore = new FirInfoStoreImpl(null);
+        final WKBWriter wkbWriter = new WKBWriter(2, true);
+        final List<byte[]> geometries = new ArrayList<>();
+        final Map<ByteBuffer, Integer> geometryIndices = new HashMap<>();
+        final Map<String, FirGeometryArtifact.Entry> entries = new LinkedHashMap<>();
+        final Set<String> worldFirIcaoCodes = geoJsonStore.getWorldFirIcaoCodes();
+
+        for (final String key : geoJsonStore.getGeoJsonKeys()) {
+            final int geometry = addGeometry(geoJsonStore.getFirGeometry(key, false), wkbWriter, geometries, geometryIndices);
+            final int geometryWithDelegated = addGeometry(geoJsonStore.getFirGeometry(key, true), wkbWriter, geometries, geometryIndices);
+            final int flags = worldFirIcaoCodes.contains(key) ? FirGeometryArtifact.FLAG_WORLD_FIR_ICAO_CODE : 0;
+            entries.put(key, new FirGeometryArtifact.Entry(geoJsonStore.getFirNameProperty(key), geometry, geometryWithDelegated, flags));
+        }
+        FirGeometryArtifact.write(out, geometries, entries);
+    }
+
+    private static int addGeometry(final Geometry geometry, final WKBWriter wkbWriter, final List<byte[]> geometries,
+            final Map<ByteBuffer, Integer> geometryIndices) {
+        if (geometry == null) {
+            return FirGeometryArtifact.NO_GEOMETRY;
+        }
+        final byte[] wkb = wkbWriter.write(geometry);
+        return geometryIndices.computeIfAbsent(ByteBuffer.wrap(wkb), key -> {
+            geometries.add(wkb);
+            return geometries.size() - 1;
+        });
+    }
+}
@@ -11,9 +11,15 @@ import java.io.ObjectOutputStream;
 import java.io.OutputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import javax.annotation.PostConstruct;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -22,10 +28,9 @@ import org.geojson.Feature;
 import org.geojson.FeatureCollection;
 import org.geojson.GeoJsonObject;
 import org.locationtech.jts.geom.Geometry;
-import org.locationtech.jts.geom.GeometryFactory;
-import org.locationtech.jts.geom.PrecisionModel;
-import org.locationtech.jts.io.geojson.GeoJsonReader;
-import org.locationtech.jts.io.geojson.GeoJsonWriter;
+import org.locationtech.jts.geom.prep.PreparedGeometry;
+import org.locationtech.jts.geom.prep.PreparedGeometryFactory;
+import org.locationtech.jts.index.strtree.STRtree;
 import org.springframework.core.io.ClassPathResource;
 import fi.fmi.avi.converter.tac.geoinfo.FirInfoStore;
 import fi.fmi.avi.util.JtsTools;
@@ -34,22 +39,46 @@ import fi.fmi.avi.util.JtsToolsException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-
+/**
+ * FIR geometries read from the bundled resources.
+ *
+ * The geometries are read from the precompiled {@value FirGeometryArtifact#RESOURCE_NAME} created at build time by
+ * {@link FirGeometryArtifactCompiler}, falling back to parsing the GeoJSON resources if it is not available.
+ * The resources are read once per instance; use {@link #getInstance()} to share the parsed store instead
+ * of creating new instances. The JTS geometries are created on first request of each FIR and kept for later
+ * requests, with the delegated airspaces already merged when requested. The returned geometries are shared
+ * and must not be modified.
+ */
 public class FirInfoStoreImpl implements FirInfoStore {
     private static final Logger log = LoggerFactory.getLogger(FirInfoStoreImpl.class);
 
-    private static GeometryFactory gf;
-    private static ObjectMapper om;
-    private static GeoJsonReader reader;
-    private static GeoJsonWriter writer;
+    // ObjectMapper is thread-safe once configured
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
     private String worldFIRFile;
     private String delegatedFile;
     private String simplifiedFIRFile;
-    private Map<String, Feature> worldFIRInfos;
-    private Map<String, Feature> simplifiedFIRInfos;
-    private Map<String, List<Feature>> delegatedAirspaces;
+    private volatile Map<String, Feature> worldFIRInfos;
+    private volatile Map<String, Feature> simplifiedFIRInfos;
+    private volatile Map<String, List<Feature>> delegatedAirspaces;
+    private final ConcurrentMap<String, Optional<Geometry>> firGeometries = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Optional<Geometry>> firGeometriesWithDelegated = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Optional<PreparedGeometry>> preparedFirGeometries = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Optional<PreparedGeometry>> preparedFirGeometriesWithDelegated = new ConcurrentHashMap<>();
+    private volatile STRtree firIndex;
+    private final String artifactResourceName;
+    private volatile FirGeometryArtifact artifact;
+    private volatile long revision;
 
     public FirInfoStoreImpl() {
+        this(FirGeometryArtifact.RESOURCE_NAME);
+    }
+
+    /**
+     * @param artifactResourceName class path resource name of the precompiled geometries, or null to use the GeoJSON resources
+     */
+    FirInfoStoreImpl(final String artifactResourceName) {
+        this.artifactResourceName = artifactResourceName;
         this.worldFIRFile = "world_firs.json";
         this.delegatedFile = "delegated.json";
         this.simplifiedFIRFile = "simplified_firs.json";
@@ -60,6 +89,16 @@ public class FirInfoStoreImpl implements FirInfoStore {
             e.printStackTrace();
         }
     }
+
+    /**
+     * Returns the store instance shared by all the users within the class loader.
+     *
+     * @return the shared store
+     */
+    public static FirInfoStoreImpl getInstance() {
+        return SharedInstanceHolder.INSTANCE;
+    }
+
     public static String readResource(String name) throws IOException {
         StringBuilder result = new StringBuilder("");
         ClassPathResource resource = new ClassPathResource(name);
@@ -81,34 +120,6 @@ public class FirInfoStoreImpl implements FirInfoStore {
         return result.toString();
     }
 
-    private static GeometryFactory getGeometryFactory() {
-        if (gf == null) {
-            gf = new GeometryFactory(new PrecisionModel(PrecisionModel.FLOATING));
-        }
-        return gf;
-    }
-
-    private static GeoJsonWriter getWriter() {
-        if (writer == null) {
-            writer = new GeoJsonWriter();
-        }
-        return writer;
-    }
-
-    private static GeoJsonReader getReader() {
-        if (reader == null) {
-            reader = new GeoJsonReader(getGeometryFactory());
-        }
-        return reader;
-    }
-
-    private static ObjectMapper getObjectMapper() {
-        if (om == null) {
-            om = new ObjectMapper();
-        }
-        return om;
-    }
-
     private Feature lookup(final String name, final boolean includeDelegatedAirspaces) {
         if (worldFIRInfos == null) {
           try {
@@ -170,8 +181,39 @@ public class FirInfoStoreImpl implements FirInfoStore {
         }
       }
 
+    /**
+     * Returns the FIR geometry created on the first request and shared with all the later callers. JTS geometries
+     * are mutable, so the returned geometry must be treated as read-only: copy it with {@link Geometry#copy()}
+     * before any operation modifying it in place, such as {@link Geometry#normalize()}.
+     */
     @Override
     public Geometry getFirGeometry(String firName, boolean addDelegate) {
+        if (firName == null) {
+            return null;
+        }
+        final ConcurrentMap<String, Optional<Geometry>> geometries = addDelegate ? firGeometriesWithDelegated : firGeometries;
+        return geometries.computeIfAbsent(firName, name -> Optional.ofNullable(createFirGeometry(name, addDelegate))).orElse(null);
+    }
+
+    /**
+     * Returns the FIR geometry prepared for predicate tests. The prepared geometries are cached like the plain
+     * ones, so the indexes JTS builds lazily for them are built only once per FIR. Prepared geometries are
+     * thread-safe and may be shared.
+     */
+    @Override
+    public PreparedGeometry getPreparedFirGeometry(final String firName, final boolean addDelegate) {
+        if (firName == null) {
+            return null;
+        }
+        final ConcurrentMap<String, Optional<PreparedGeometry>> geometries = addDelegate ? preparedFirGeometriesWithDelegated : preparedFirGeometries;
+        return geometries.computeIfAbsent(firName, name -> Optional.ofNullable(getFirGeometry(name, addDelegate)).map(PreparedGeometryFactory::prepare))
+                .orElse(null);
+    }
+
+    private Geometry createFirGeometry(final String firName, final boolean addDelegate) {
+        if (artifact != null) {
+            return artifact.readGeometry(firName, addDelegate);
+        }
         Feature f = lookup(firName, addDelegate);
         if (f!=null) {
             try {
@@ -183,13 +225,103 @@ public class FirInfoStoreImpl implements FirInfoStore {
         return null;
     }
 
+    /**
+     * Finds the FIRs intersecting the given geometry, such as a point or a polygon. Delegated airspaces are
+     * not considered. The FIRs are looked up from an STRtree index of the FIR envelopes, built on the first query.
+     *
+     * @param geometry the geometry to look FIRs for
+     * @return ICAO codes of the intersecting FIRs in alphabetical order
+     */
+    public List<String> getIntersectingFirs(final Geometry geometry) {
+        final STRtree index = getFirIndex();
+        final Set<String> retval = new TreeSet<>();
+        for (final Object candidate : index.query(geometry.getEnvelopeInternal())) {
+            final IndexedFir fir = (IndexedFir) candidate;
+            if (fir.geometry.intersects(geometry)) {
+                retval.add(fir.icaoCode);
+            }
+        }
+        return new ArrayList<>(retval);
+    }
+
+    private STRtree getFirIndex() {
+        STRtree index = this.firIndex;
+        if (index == null) {
+            synchronized (this) {
+                index = this.firIndex;
+                if (index == null) {
+                    index = new STRtree();
+                    for (final String icaoCode : getWorldFirIcaoCodes()) {
+                        final PreparedGeometry geometry = getPreparedFirGeometry(icaoCode, false);
+                        if (geometry != null) {
+                            index.insert(geometry.getGeometry().getEnvelopeInternal(), new IndexedFir(icaoCode, geometry));
+                        }
+                    }
+                    // Building makes the index read-only and safe for concurrent queries
+                    index.build();
+                    this.firIndex = index;
+                }
+            }
+        }
+        return index;
+    }
+
+    Set<String> getWorldFirIcaoCodes() {
+        if (artifact != null) {
+            return new TreeSet<>(artifact.getWorldFirIcaoCodes());
+        }
+        final Set<String> retval = new TreeSet<>();
+        for (final Feature f : worldFIRInfos.values()) {
+            final String icaoCode = f.getProperty("ICAOCODE");
+            if (icaoCode != null) {
+                retval.add(icaoCode);
+            }
+        }
+        return retval;
+    }
+
+    /**
+     * @return all the FIR names and ICAO codes found in the GeoJSON resources, empty if read from the precompiled geometries
+     */
+    Set<String> getGeoJsonKeys() {
+        final Set<String> retval = new TreeSet<>();
+        for (final Map<String, ?> keys : Arrays.asList(worldFIRInfos, simplifiedFIRInfos, delegatedAirspaces)) {
+            for (final String key : keys.keySet()) {
+                if (key != null) {
+                    retval.add(key);
+                }
+            }
+        }
+        return retval;
+    }
+
+    /**
+     * (Re)reads the FIR resources. The new contents are read fully before replacing the previous ones, but the
+     * method is meant to be called during initialization only, not concurrently with the lookups.
+     *
+     * @throws IOException if the resources cannot be read
+     */
     @PostConstruct
-    public void initStore() throws IOException {
-        this.worldFIRInfos = new HashMap<String, Feature>();
-        this.delegatedAirspaces = new HashMap<String, List<Feature>>();
-        this.simplifiedFIRInfos = new HashMap<String, Feature>();
+    public synchronized void initStore() throws IOException {
+        final Map<String, Feature> worldFIRInfos = new HashMap<String, Feature>();
+        final Map<String, List<Feature>> delegatedAirspaces = new HashMap<String, List<Feature>>();
+        final Map<String, Feature> simplifiedFIRInfos = new HashMap<String, Feature>();
+        FirGeometryArtifact artifact = null;
+
+        if (this.artifactResourceName != null) {
+            try {
+                artifact = FirGeometryArtifact.load(this.artifactResourceName);
+            } catch (final IOException e) {
+                log.warn("Unable to read precompiled FIR geometries, using GeoJSON instead: " + e.getMessage());
+            }
+            if (artifact != null) {
+                log.debug("Using precompiled FIR geometries from " + this.artifactResourceName);
+                publish(worldFIRInfos, simplifiedFIRInfos, delegatedAirspaces, artifact);
+                return;
+            }
+        }
 
-        final ObjectMapper om = new ObjectMapper();
+        final ObjectMapper om = OBJECT_MAPPER;
 
         try {
           final GeoJsonObject FIRInfo = om.readValue(
@@ -246,27 +378,78 @@ public class FirInfoStoreImpl implements FirInfoStore {
         } catch (final IOException e) {
             log.error(e.getMessage());
         }
+        publish(worldFIRInfos, simplifiedFIRInfos, delegatedAirspaces, null);
+    }
+
+    private void publish(final Map<String, Feature> worldFIRInfos, final Map<String, Feature> simplifiedFIRInfos,
+            final Map<String, List<Feature>> delegatedAirspaces, final FirGeometryArtifact artifact) {
+        this.simplifiedFIRInfos = simplifiedFIRInfos;
+        this.delegatedAirspaces = delegatedAirspaces;
+        this.artifact = artifact;
+        // Written last, as lookup() uses it to check for initialization
+        this.worldFIRInfos = worldFIRInfos;
+        this.firGeometries.clear();
+        this.firGeometriesWithDelegated.clear();
+        this.preparedFirGeometries.clear();
+        this.preparedFirGeometriesWithDelegated.clear();
+        this.firIndex = null;
+        // Only written within initStore(), which is synchronized
+        this.revision++;
+    }
+
+    /**
+     * Returns the number of times the FIR resources have been (re)read by {@link #initStore()}.
+     */
+    @Override
+    public long getRevision() {
+        return revision;
     }
 
     @Override
     public String getFirName(String icaoCode) {
-        Feature f = lookup(icaoCode, false);
-        if (f!=null) {
-          String firName = f.getProperty("FIRname");
-          if (firName!=null) {
-            if (firName.startsWith("FIR ")) {
-              firName = firName.replaceFirst("FIR ", "");
-              return firName + " FIR";
-            } else if (firName.endsWith(" FIR")) {
-              return firName;
-            } else if (firName.endsWith(" UIR")) {
-              return firName;
-            } else if (firName.startsWith("UIR ")) {
-              firName = firName.replaceFirst("UIR ", "");
-              return firName + " UIR";
-            }
+        String firName = getFirNameProperty(icaoCode);
+        if (firName!=null) {
+          if (firName.startsWith("FIR ")) {
+            firName = firName.replaceFirst("FIR ", "");
+            return firName + " FIR";
+          } else if (firName.endsWith(" FIR")) {
+            return firName;
+          } else if (firName.endsWith(" UIR")) {
+            return firName;
+          } else if (firName.startsWith("UIR ")) {
+            firName = firName.replaceFirst("UIR ", "");
+            return firName + " UIR";
           }
         }
         return null;
     }
+
+    /**
+     * @return the FIRname property of the FIR with the given name or ICAO code
+     */
+    String getFirNameProperty(final String name) {
+        if (artifact != null) {
+            return artifact.getFirNameProperty(name);
+        }
+        // Only the properties are read, so the stored feature is used as is without cloning
+        Feature f = simplifiedFIRInfos.get(name);
+        if (f == null) {
+            f = worldFIRInfos.get(name);
+        }
+        return f == null ? null : f.getProperty("FIRname");
+    }
+
+    private static final class IndexedFir {
+        private final String icaoCode;
+        private final PreparedGeometry geometry;
+
+        IndexedFir(final String icaoCode, final PreparedGeometry geometry) {
+            this.icaoCode = icaoCode;
+            this.geometry = geometry;
+        }
+    }
+
+    private static final class SharedInstanceHolder {
+        private static final FirInfoStoreImpl INSTANCE = new FirInfoStoreImpl();
+    }
 }
@@ -57,4 +57,31 @@ public interface AviMessageLexer {
      */
     Optional<MessageType> recognizeMessageType(String input, ConversionHints hints);
 
+    /**
+     * Lexes the input String with the given parsing settings, and tells the message type recognized for it.
+     * The result is the same as calling both {@link #recognizeMessageType(String, ConversionHints)} and
+     * {@link #lexMessage(String, ConversionHints)}, but implementations may tokenize the input only once.
+     *
+     * @param input the TAC encoded message
+     * @param hints parsing hints to be passed to the lexer implementation
+     * @return the recognized type and the sequence of recognized or unrecognized {@link Lexeme}s
+     */
+    default RecognizedLexemeSequence lexAndRecognizeMessage(final String input, final ConversionHints hints) {
+        return new RecognizedLexemeSequence(recognizeMessageType(input, hints).orElse(null), lexMessage(input, hints));
+    }
+
+    /**
+     * Tries to recognize the given String as one of the aviation message types in {@link MessageType}
+     * by the beginning of the input only. Meant for cheap routing of messages by type; implementations may
+     * skip tokenizing the rest of the input. The default implementation delegates to
+     * {@link #recognizeMessageType(String, ConversionHints)}.
+     *
+     * @param input the TAC encoded message
+     * @param hints parsing hints to be passed to the lexer implementation
+     * @return the type if recognized
+     */
+    default Optional<MessageType> recognizeMessageTypeFromPrefix(final String input, final ConversionHints hints) {
+        return recognizeMessageType(input, hints);
+    }
+
 }
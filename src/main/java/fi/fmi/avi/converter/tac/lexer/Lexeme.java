@@ -159,6 +159,31 @@ public interface Lexeme {
      */
     <T> T getParsedValue(ParsedValueName name, Class<T> clz) throws ClassCastException, IllegalArgumentException;
 
+    /**
+     * Returns a particular additional information entry parsed from the original token as an int.
+     *
+     * Values of {@link ParsedValueName#DAY1}, {@link ParsedValueName#HOUR1}, {@link ParsedValueName#MINUTE1}
+     * and {@link ParsedValueName#VALUE} stored using {@link #setParsedIntValue(ParsedValueName, int)} are
+     * returned without boxing. The default implementation delegates to {@link #getParsedValue(ParsedValueName, Class)}.
+     *
+     * @param name
+     *         name of the value
+     * @param defaultValue
+     *         the value to return if no value is available
+     *
+     * @return a previously stored value or <code>defaultValue</code> if no value is available
+     *
+     * @throws ClassCastException
+     *         if the provided value exists, but is not an {@link Integer}
+     * @throws IllegalArgumentException
+     *         if the requested entity is not allowed to be used with the {@link Identity} of this Lexeme
+     * @see #getParsedValue(ParsedValueName, Class)
+     */
+    default int getParsedIntValue(final ParsedValueName name, final int defaultValue) throws ClassCastException, IllegalArgumentException {
+        final Integer value = getParsedValue(name, Integer.class);
+        return value != null ? value : defaultValue;
+    }
+
     /**
      * Returns this Lexeme as TAC encoded token.
      *
@@ -419,6 +444,26 @@ public interface Lexeme {
      */
     void setParsedValue(ParsedValueName name, Object value) throws IllegalArgumentException, IllegalStateException;
 
+    /**
+     * Stores an int value parsed from the token. Equivalent to {@link #setParsedValue(ParsedValueName, Object)}
+     * with an {@link Integer} value, except that the values of {@link ParsedValueName#DAY1},
+     * {@link ParsedValueName#HOUR1}, {@link ParsedValueName#MINUTE1} and {@link ParsedValueName#VALUE}
+     * are stored without boxing. The default implementation delegates to {@link #setParsedValue(ParsedValueName, Object)}.
+     *
+     * @param name
+     *         name of the stored value
+     * @param value
+     *         value to store
+     *
+     * @throws IllegalArgumentException
+     *         if the {@code name} is not allowed to be used with the current Lexeme identity
+     * @throws IllegalStateException
+     *         if the Lexeme has not yet been identified.
+     */
+    default void setParsedIntValue(final ParsedValueName name, final int value) throws IllegalArgumentException, IllegalStateException {
+        setParsedValue(name, value);
+    }
+
     /**
      * Provides access to a {@link LexemeVisitor} to refine this Lexeme.
      * Typically called by a {@link LexemeVisitor} to try to recognize
@@ -15,19 +15,47 @@ import java.io.IOException;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static fi.fmi.avi.converter.tac.lexer.Lexeme.ParsedValueName.*;
 import static java.util.Objects.requireNonNull;
 
+/**
+ * The identity of a {@link Lexeme}.
+ *
+ * The identities are registered by name as they are created, and each name is given a dense ordinal number in the
+ * order of registration. The first identity created with a name is the canonical one, returned by {@link #of(String)}
+ * and by the JSON deserialization. All the identities of the lexer are declared here, so that they are registered
+ * before any JSON is read. The JSON deserialization creates identities for unknown names too, but at most
+ * {@value #MAX_DESERIALIZED_IDENTITIES} of them, so that untrusted input cannot grow the registry without bound.
+ * Identities are equal if they have the same name, which is checked by comparing the references and the ordinals
+ * only. The ordinals allow indexing by identity with arrays and bit sets, see
+ * {@link LexemeIdentitySet}.
+ */
 @JsonDeserialize(using = LexemeIdentity.Deserializer.class)
 @JsonSerialize(using = LexemeIdentity.Serializer.class)
 public class LexemeIdentity {
+    // Declared before the identity constants to be initialized first
+    private static final ConcurrentMap<String, Integer> ORDINALS = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, LexemeIdentity> REGISTRY = new ConcurrentHashMap<>();
+    private static final List<LexemeIdentity> BY_ORDINAL = new CopyOnWriteArrayList<>();
+    static final int MAX_DESERIALIZED_IDENTITIES = 256;
+    private static final AtomicInteger DESERIALIZED_IDENTITIES = new AtomicInteger();
+
     public static final LexemeIdentity METAR_START = new LexemeIdentity("METAR_START");
     public static final LexemeIdentity SPECI_START = new LexemeIdentity("SPECI_START");
     public static final LexemeIdentity TAF_START = new LexemeIdentity("TAF_START");
     public static final LexemeIdentity ARS_START = new LexemeIdentity("ARS_START");
     public static final LexemeIdentity AIREP_START = new LexemeIdentity("AIREP_START");
+    public static final LexemeIdentity WX_WARNING_START = new LexemeIdentity("WX_WARNING_START");
+    public static final LexemeIdentity LOW_WIND_START = new LexemeIdentity("LOW_WIND_START");
+    public static final LexemeIdentity WXREP_START = new LexemeIdentity("WXREP_START");
 
     public static final LexemeIdentity US_SIGMET_START = new LexemeIdentity("US_SIGMET_START");
     public static final LexemeIdentity REP = new LexemeIdentity("REP");
@@ -168,6 +196,7 @@ public class LexemeIdentity {
     private final String name;
     private final Set<Lexeme.ParsedValueName> possibleParameters;
     private final Set<IdentityProperty> identityProperties;
+    private final int ordinal;
 
     public LexemeIdentity(final String name) {
         this(name, Collections.emptySet(), Collections.emptySet());
@@ -177,6 +206,58 @@ public class LexemeIdentity {
         this.name = requireNonNull(name, "name");
         this.possibleParameters = immutableEnumSetCopy(requireNonNull(possibleParameters, "possibleParameters"));
         this.identityProperties = immutableEnumSetCopy(requireNonNull(identityProperties, "identityProperties"));
+        this.ordinal = ordinalOf(name);
+        register(this);
+    }
+
+    private static synchronized int ordinalOf(final String name) {
+        Integer ordinal = ORDINALS.get(name);
+        if (ordinal == null) {
+            ordinal = ORDINALS.size();
+            ORDINALS.put(name, ordinal);
+            BY_ORDINAL.add(null);
+        }
+        return ordinal;
+    }
+
+    private static synchronized void register(final LexemeIdentity identity) {
+        if (REGISTRY.putIfAbsent(identity.name, identity) == null) {
+            BY_ORDINAL.set(identity.ordinal, identity);
+        }
+    }
+
+    /**
+     * Returns the canonical identity with the given name, creating a new one without possible parameters or identity
+     * properties if no identity with the name has been created yet.
+     *
+     * @param name the identity name
+     * @return the canonical identity
+     */
+    public static LexemeIdentity of(final String name) {
+        final LexemeIdentity canonical = REGISTRY.get(requireNonNull(name, "name"));
+        if (canonical != null) {
+            return canonical;
+        }
+        new LexemeIdentity(name);
+        return REGISTRY.get(name);
+    }
+
+    /**
+     * Returns the canonical identity with the given name, if an identity with the name has been created.
+     *
+     * @param name the identity name
+     * @return the canonical identity, or empty if there is none
+     */
+    public static Optional<LexemeIdentity> lookup(final String name) {
+        return Optional.ofNullable(REGISTRY.get(requireNonNull(name, "name")));
+    }
+
+    static LexemeIdentity ofOrdinal(final int ordinal) {
+        return BY_ORDINAL.get(ordinal);
+    }
+
+    static int registeredCount() {
+        return BY_ORDINAL.size();
     }
 
     private static <E extends Enum<E>> Set<E> immutableEnumSetCopy(final Collection<E> input) {
@@ -187,6 +268,13 @@ public class LexemeIdentity {
         return this.name;
     }
 
+    /**
+     * @return the dense ordinal number of the identity name, starting from zero
+     */
+    public int ordinal() {
+        return this.ordinal;
+    }
+
     @SuppressWarnings("AssignmentOrReturnOfFieldWithMutableType") // Is always product of immutableEnumSetCopy()
     public Set<Lexeme.ParsedValueName> getPossibleNames() {
         return this.possibleParameters;
@@ -201,9 +289,12 @@ public class LexemeIdentity {
         return this.identityProperties;
     }
 
+    @Override
     public boolean equals(final Object other) {
-        if (other instanceof LexemeIdentity) {
-            return name.equals(((LexemeIdentity) other).name());
+        if (this == other) {
+            return true;
+        } else if (other instanceof LexemeIdentity) {
+            return ordinal == ((LexemeIdentity) other).ordinal;
         } else {
             return false;
         }
@@ -216,7 +307,7 @@ public class LexemeIdentity {
 
     @Override
     public int hashCode() {
-        return name.hashCode();
+        return ordinal;
     }
 
     /**
@@ -244,7 +335,15 @@ public class LexemeIdentity {
         @Override
         public LexemeIdentity deserialize(final JsonParser jsonParser, final DeserializationContext deserializationContext) throws IOException {
             final String value = ((JsonNode) jsonParser.getCodec().readTree(jsonParser)).asText();
-            return new LexemeIdentity(value);
+            final Optional<LexemeIdentity> known = LexemeIdentity.lookup(value);
+            if (known.isPresent()) {
+                return known.get();
+            }
+            if (DESERIALIZED_IDENTITIES.incrementAndGet() > MAX_DESERIALIZED_IDENTITIES) {
+                throw deserializationContext.weirdStringException(value, LexemeIdentity.class,
+                        "not a known lexeme identity, and the maximum of " + MAX_DESERIALIZED_IDENTITIES + " deserialized identities was reached");
+            }
+            return LexemeIdentity.of(value);
         }
     }
 
@@ -0,0 +1,183 @@
+package fi.fmi.avi.converter.tac.lexer;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A set of {@link LexemeIdentity LexemeIdentities} stored as a bit set by the identity ordinals, similar to
+ * {@link java.util.EnumSet}.
+ *
+ * Checking for membership costs a single bit test, and the set takes one bit per registered identity. The iteration
+ * order is the order of the ordinals, which is the order the identities were created in. Like the other general
+ * purpose sets, this set is not thread-safe; wrap it with {@link java.util.Collections#unmodifiableSet(java.util.Set)}
+ * for sharing constant sets.
+ */
+public final class LexemeIdentitySet extends AbstractSet<LexemeIdentity> {
+    private static final long[] NO_WORDS = new long[0];
+
+    private long[] words;
+    private int size;
+    private int modCount;
+
+    private LexemeIdentitySet(final long[] words) {
+        this.words = words;
+    }
+
+    public static LexemeIdentitySet noneOf() {
+        return new LexemeIdentitySet(NO_WORDS);
+    }
+
+    public static LexemeIdentitySet of(final LexemeIdentity... identities) {
+        final LexemeIdentitySet retval = noneOf();
+        for (final LexemeIdentity identity : identities) {
+            retval.add(identity);
+        }
+        return retval;
+    }
+
+    public static LexemeIdentitySet copyOf(final Collection<LexemeIdentity> identities) {
+        if (identities instanceof LexemeIdentitySet) {
+            final LexemeIdentitySet other = (LexemeIdentitySet) identities;
+            final LexemeIdentitySet retval = new LexemeIdentitySet(other.words.clone());
+            retval.size = other.size;
+            return retval;
+        }
+        final LexemeIdentitySet retval = noneOf();
+        retval.addAll(identities);
+        return retval;
+    }
+
+    private static int wordIndex(final int ordinal) {
+        return ordinal >>> 6;
+    }
+
+    @Override
+    public boolean contains(final Object o) {
+        if (!(o instanceof LexemeIdentity)) {
+            return false;
+        }
+        final int ordinal = ((LexemeIdentity) o).ordinal();
+        final int index = wordIndex(ordinal);
+        return index < this.words.length && (this.words[index] & (1L << ordinal)) != 0;
+    }
+
+    @Override
+    public boolean add(final LexemeIdentity identity) {
+        final int ordinal = requireNonNull(identity, "identity").ordinal();
+        final int index = wordIndex(ordinal);
+        if (index >= this.words.length) {
+            this.words = Arrays.copyOf(this.words, Math.max(index + 1, wordIndex(LexemeIdentity.registeredCount() - 1) + 1));
+        }
+        final long word = this.words[index];
+        this.words[index] = word | (1L << ordinal);
+        if (word != this.words[index]) {
+            this.size++;
+            this.modCount++;
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public boolean remove(final Object o) {
+        if (!(o instanceof LexemeIdentity)) {
+            return false;
+        }
+        return removeOrdinal(((LexemeIdentity) o).ordinal());
+    }
+
+    private boolean removeOrdinal(final int ordinal) {
+        final int index = wordIndex(ordinal);
+        if (index >= this.words.length) {
+            return false;
+        }
+        final long word = this.words[index];
+        this.words[index] = word & ~(1L << ordinal);
+        if (word != this.words[index]) {
+            this.size--;
+            this.modCount++;
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(this.words, 0L);
+        this.size = 0;
+        this.modCount++;
+    }
+
+    @Override
+    public Iterator<LexemeIdentity> iterator() {
+        return new Iterator<LexemeIdentity>() {
+            private int next = nextOrdinal(0);
+            private int last = -1;
+            private int expectedModCount = modCount;
+
+            @Override
+            public boolean hasNext() {
+                return this.next >= 0;
+            }
+
+            @Override
+            public LexemeIdentity next() {
+                if (this.expectedModCount != modCount) {
+                    throw new ConcurrentModificationException();
+                }
+                if (this.next < 0) {
+                    throw new NoSuchElementException();
+                }
+                this.last = this.next;
+                this.next = nextOrdinal(this.last + 1);
+                return LexemeIdentity.ofOrdinal(this.last);
+            }
+
+            @Override
+            public void remove() {
+                if (this.last < 0) {
+                    throw new IllegalStateException();
+                }
+                if (this.expectedModCount != modCount) {
+                    throw new ConcurrentModificationException();
+                }
+                removeOrdinal(this.last);
+                this.last = -1;
+                this.expectedModCount = modCount;
+            }
+        };
+    }
+
+    private int nextOrdinal(final int from) {
+        int index = wordIndex(from);
+        if (index >= this.words.length) {
+            return -1;
+        }
+        long word = this.words[index] & (-1L << from);
+        while (true) {
+            if (word != 0) {
+                return index * Long.SIZE + Long.numberOfTrailingZeros(word);
+            }
+            if (++index == this.words.length) {
+                return -1;
+            }
+            word = this.words[index];
+        }
+    }
+}
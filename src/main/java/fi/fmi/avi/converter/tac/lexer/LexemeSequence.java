@@ -1,6 +1,9 @@
 package fi.fmi.avi.converter.tac.lexer;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 
 import fi.fmi.avi.converter.ConversionHints;
 import fi.fmi.avi.model.AviationWeatherMessageOrCollection;
@@ -76,6 +79,48 @@ public interface LexemeSequence {
      */
     List<Lexeme> getLexemes(boolean acceptIgnored);
 
+    /**
+     * List of all {@link Lexeme}s in the sequence identified as <code>id</code>, from the first to the last.
+     * Like with {@link Lexeme#findNext(LexemeIdentity)}, only the Lexemes with an acceptable status
+     * (see {@link Lexeme#getIdentityIfAcceptable()}) are returned, and ignored Lexemes are skipped.
+     *
+     * The default implementation filters the Lexemes of {@link #getLexemes()}; implementations may use an index instead.
+     *
+     * @param id
+     *         the identity of the Lexemes to return
+     *
+     * @return the matching Lexemes as a list, empty if none
+     */
+    default List<Lexeme> occurrencesOf(final LexemeIdentity id) {
+        final List<Lexeme> retval = new ArrayList<>();
+        for (final Lexeme l : getLexemes()) {
+            if (id.equals(l.getIdentityIfAcceptable())) {
+                retval.add(l);
+            }
+        }
+        return Collections.unmodifiableList(retval);
+    }
+
+    /**
+     * Returns the first {@link Lexeme} in the sequence identified as <code>id</code>. Unlike
+     * <code>getFirstLexeme().findNext(id)</code>, also the first Lexeme of the sequence is considered.
+     *
+     * @param id
+     *         the identity of the Lexeme to find
+     *
+     * @return the first match, empty if none
+     *
+     * @see #occurrencesOf(LexemeIdentity)
+     */
+    default Optional<Lexeme> firstOf(final LexemeIdentity id) {
+        for (final Lexeme l : getLexemes()) {
+            if (id.equals(l.getIdentityIfAcceptable())) {
+                return Optional.of(l);
+            }
+        }
+        return Optional.empty();
+    }
+
     /**
      * Returns a list of sub-sequences cut from the sequence split by given {@link LexemeIdentity} set.
      * A new sub-sequence starts at each found {@link Lexeme} identified as any of the given
@@ -7,10 +7,11 @@ import java.util.Optional;
  * Used for constructing {@link LexemeSequence}s one or more {@link Lexeme} at a time.
  *
  * An instance of this class can be created using {@link LexingFactory#createLexemeSequenceBuilder()}.
+ * All the Lexemes appended can be removed with {@link #removeLast()}.
  *
  * @author Ilkka Rinne / Spatineo 2017
  */
-public interface LexemeSequenceBuilder {
+public interface LexemeSequenceBuilder extends LexemeSink {
 
     /**
      * Adds one {@link Lexeme} as the last one in the constructed sequence.
@@ -20,6 +21,7 @@ public interface LexemeSequenceBuilder {
      *
      * @return the builder
      */
+    @Override
     LexemeSequenceBuilder append(Lexeme lexeme);
 
     /**
@@ -31,6 +33,7 @@ public interface LexemeSequenceBuilder {
      *
      * @return the builder
      */
+    @Override
     LexemeSequenceBuilder appendAll(List<Lexeme> lexemes);
 
     /**
@@ -38,6 +41,7 @@ public interface LexemeSequenceBuilder {
      *
      * @return the builder
      */
+    @Override
     LexemeSequenceBuilder removeLast();
 
     /**
@@ -45,8 +49,10 @@ public interface LexemeSequenceBuilder {
      *
      * @return the last lexeme in the sequence to build if one exists
      */
+    @Override
     Optional<Lexeme> getLast();
 
+    @Override
     boolean isEmpty();
 
     /**
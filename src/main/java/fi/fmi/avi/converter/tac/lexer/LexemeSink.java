@@ -0,0 +1,53 @@
+package fi.fmi.avi.converter.tac.lexer;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * A target the {@link Lexeme}s of a message are appended to one or more at a time, such as a
+ * {@link LexemeSequenceBuilder}.
+ *
+ * Only the last Lexemes appended are accessible. A sink may write the Lexemes out as they are appended, in which case
+ * {@link #removeLast()} may fail for Lexemes already written.
+ */
+public interface LexemeSink {
+
+    /**
+     * Adds one {@link Lexeme} as the last one.
+     *
+     * @param lexeme
+     *         to add
+     *
+     * @return the sink
+     */
+    LexemeSink append(Lexeme lexeme);
+
+    /**
+     * Adds all the {@link Lexeme} contained in <code>lexemes</code> to the end in the given order.
+     *
+     * @param lexemes
+     *         to add
+     *
+     * @return the sink
+     */
+    LexemeSink appendAll(List<Lexeme> lexemes);
+
+    /**
+     * Removes the last Lexeme appended if one exists.
+     *
+     * @return the sink
+     *
+     * @throws IllegalStateException
+     *         if the last Lexeme can no longer be removed
+     */
+    LexemeSink removeLast();
+
+    /**
+     * Returns the last lexeme appended if one exists.
+     *
+     * @return the last lexeme appended if one exists
+     */
+    Optional<Lexeme> getLast();
+
+    boolean isEmpty();
+}
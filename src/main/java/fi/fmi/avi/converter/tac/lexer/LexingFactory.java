@@ -39,6 +39,26 @@ public interface LexingFactory {
      */
     LexemeSequenceBuilder createLexemeSequenceBuilder();
 
+    /**
+     * Creates a new {@link LexemeSequenceBuilder} for constructing a new {@link LexemeSequence}
+     * one or more String token at a time.
+     *
+     * If <code>moveLexemes</code> is true, the appended {@link Lexeme}s created by this factory are linked
+     * into the constructed sequence as such instead of appending copies of them. A moved Lexeme is
+     * relinked to its new neighbours, so the sequence it was taken from must not be used after moving
+     * Lexemes out of it. This is intended for serializers appending newly created Lexemes and
+     * Lexemes of intermediate sequences not otherwise needed.
+     *
+     * Moving is an optimization only: the default implementation returns the copying builder of
+     * {@link #createLexemeSequenceBuilder()} regardless of <code>moveLexemes</code>.
+     *
+     * @param moveLexemes true to move the appended Lexemes instead of copying them
+     * @return the builder
+     */
+    default LexemeSequenceBuilder createLexemeSequenceBuilder(final boolean moveLexemes) {
+        return createLexemeSequenceBuilder();
+    }
+
     /**
      * Creates a single {@link Lexeme} containing the <code>token</code> as it's
      * {@link Lexeme#getTACToken()} with {@link Lexeme#getIdentity()} <code>null</code>
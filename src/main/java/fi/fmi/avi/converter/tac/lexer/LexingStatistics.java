@@ -0,0 +1,39 @@
+package fi.fmi.avi.converter.tac.lexer;
+
+/**
+ * Work done by the lexer while lexing a single message.
+ */
+public final class LexingStatistics {
+    public static final LexingStatistics EMPTY = new LexingStatistics(0, 0);
+
+    private final int passCount;
+    private final int visitCount;
+
+    public LexingStatistics(final int passCount, final int visitCount) {
+        this.passCount = passCount;
+        this.visitCount = visitCount;
+    }
+
+    /**
+     * Number of passes over the lexeme sequence needed until no more Lexemes changed.
+     *
+     * @return the pass count
+     */
+    public int getPassCount() {
+        return passCount;
+    }
+
+    /**
+     * Total number of Lexemes offered to the message type specific token lexer over all passes.
+     *
+     * @return the visit count
+     */
+    public int getVisitCount() {
+        return visitCount;
+    }
+
+    @Override
+    public String toString() {
+        return "passes:" + passCount + ", visits:" + visitCount;
+    }
+}
@@ -0,0 +1,42 @@
+package fi.fmi.avi.converter.tac.lexer;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.Optional;
+
+import fi.fmi.avi.model.MessageType;
+
+/**
+ * A {@link LexemeSequence} together with the message type recognized for it by an {@link AviMessageLexer}.
+ *
+ * @see AviMessageLexer#lexAndRecognizeMessage(String, fi.fmi.avi.converter.ConversionHints)
+ */
+public final class RecognizedLexemeSequence {
+    private final MessageType messageType;
+    private final LexemeSequence lexemeSequence;
+
+    public RecognizedLexemeSequence(final MessageType messageType, final LexemeSequence lexemeSequence) {
+        this.messageType = messageType;
+        this.lexemeSequence = requireNonNull(lexemeSequence, "lexemeSequence");
+    }
+
+    /**
+     * The recognized message type, as {@link AviMessageLexer#recognizeMessageType(String, fi.fmi.avi.converter.ConversionHints)}
+     * would return for the same input.
+     *
+     * @return the message type if recognized
+     */
+    public Optional<MessageType> getMessageType() {
+        return Optional.ofNullable(messageType);
+    }
+
+    /**
+     * The lexed sequence, as {@link AviMessageLexer#lexMessage(String, fi.fmi.avi.converter.ConversionHints)} would return for the
+     * same input.
+     *
+     * @return the lexed sequence
+     */
+    public LexemeSequence getLexemeSequence() {
+        return lexemeSequence;
+    }
+}
@@ -1,9 +1,13 @@
 package fi.fmi.avi.converter.tac.lexer.impl;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -13,6 +17,9 @@ import fi.fmi.avi.converter.tac.lexer.AviMessageLexer;
 import fi.fmi.avi.converter.tac.lexer.Lexeme;
 import fi.fmi.avi.converter.tac.lexer.LexemeSequence;
 import fi.fmi.avi.converter.tac.lexer.LexingFactory;
+import fi.fmi.avi.converter.tac.lexer.LexingStatistics;
+import fi.fmi.avi.converter.tac.lexer.RecognizedLexemeSequence;
+import fi.fmi.avi.converter.tac.metrics.ConversionMetricsListener;
 import fi.fmi.avi.model.MessageType;
 
 /**
@@ -25,6 +32,9 @@ public class AviMessageLexerImpl implements AviMessageLexer {
     final private List<RecognizingAviMessageTokenLexer> tokenLexers = new ArrayList<>();
 
     private LexingFactory factory;
+    private boolean tokenScanning;
+    private boolean adaptiveOrdering;
+    private ConversionMetricsListener metricsListener = ConversionMetricsListener.NO_OP;
 
     public void setLexingFactory(final LexingFactory factory) {
         this.factory = factory;
@@ -35,9 +45,101 @@ public class AviMessageLexerImpl implements AviMessageLexer {
     }
 
     public void addTokenLexer(final RecognizingAviMessageTokenLexer l) {
+        l.setTokenScanning(this.tokenScanning);
+        l.setAdaptiveOrdering(this.adaptiveOrdering);
+        l.setMetricsListener(this.metricsListener);
         this.tokenLexers.add(l);
     }
 
+    public ConversionMetricsListener getMetricsListener() {
+        return this.metricsListener;
+    }
+
+    /**
+     * Sets the listener receiving the lexer pass counts of each message, and the visitor invocations of the token
+     * lexers added to this lexer, including the ones added later.
+     *
+     * @param metricsListener the listener, {@link ConversionMetricsListener#NO_OP} by default
+     */
+    public void setMetricsListener(final ConversionMetricsListener metricsListener) {
+        this.metricsListener = Objects.requireNonNull(metricsListener, "metricsListener");
+        for (final RecognizingAviMessageTokenLexer l : this.tokenLexers) {
+            l.setMetricsListener(metricsListener);
+        }
+    }
+
+    public boolean isTokenScanning() {
+        return this.tokenScanning;
+    }
+
+    /**
+     * Selects how the most frequent METAR and TAF tokens are recognized. By default the tokens are matched with the
+     * regular expressions of the token visitors. When enabled, the {@link ScanningLexemeVisitor}s recognize them with
+     * hand-written scanners instead, producing the same Lexemes without the regular expression matching overhead.
+     *
+     * The setting applies to the token lexers added to this lexer, including the ones added later.
+     *
+     * @param tokenScanning true to use the hand-written scanners
+     */
+    public void setTokenScanning(final boolean tokenScanning) {
+        this.tokenScanning = tokenScanning;
+        for (final RecognizingAviMessageTokenLexer l : this.tokenLexers) {
+            l.setTokenScanning(tokenScanning);
+        }
+    }
+
+    public boolean isAdaptiveOrdering() {
+        return this.adaptiveOrdering;
+    }
+
+    /**
+     * Switches the adaptive visitor ordering of the token lexers on or off, see
+     * {@link RecognizingAviMessageTokenLexer#setAdaptiveOrdering(boolean)}. Each token lexer learns the order for its
+     * own message type.
+     *
+     * The setting applies to the token lexers added to this lexer, including the ones added later.
+     *
+     * @param adaptiveOrdering true to reorder the token visitors by the observed identifications
+     */
+    public void setAdaptiveOrdering(final boolean adaptiveOrdering) {
+        this.adaptiveOrdering = adaptiveOrdering;
+        for (final RecognizingAviMessageTokenLexer l : this.tokenLexers) {
+            l.setAdaptiveOrdering(adaptiveOrdering);
+        }
+    }
+
+    /**
+     * Returns the identification counts of the token visitors, by the message type and the visitor class name. The
+     * counts of the token lexers of the same message type are summed. Give the counts to
+     * {@link #setVisitorHitCounts(Map)} at startup to begin with the learned visitor order.
+     *
+     * @return the identification counts
+     */
+    public Map<MessageType, Map<String, Long>> getVisitorHitCounts() {
+        final Map<MessageType, Map<String, Long>> retval = new LinkedHashMap<>();
+        for (final RecognizingAviMessageTokenLexer l : this.tokenLexers) {
+            final Map<String, Long> counts = retval.computeIfAbsent(l.getMessageType(), type -> new LinkedHashMap<>());
+            l.getVisitorHitCounts().forEach((visitor, count) -> counts.merge(visitor, count, Long::sum));
+        }
+        return retval;
+    }
+
+    /**
+     * Sets the identification counts of the token visitors of each message type, reordering the visitors if the
+     * adaptive ordering is on. The token lexers of the message types not included are left as they are.
+     *
+     * @param hitCounts the identification counts by the message type and the visitor class name
+     */
+    public void setVisitorHitCounts(final Map<MessageType, Map<String, Long>> hitCounts) {
+        Objects.requireNonNull(hitCounts, "hitCounts");
+        for (final RecognizingAviMessageTokenLexer l : this.tokenLexers) {
+            final Map<String, Long> counts = hitCounts.get(l.getMessageType());
+            if (counts != null) {
+                l.setVisitorHitCounts(counts);
+            }
+        }
+    }
+
     @Override
     public LexemeSequence lexMessage(final String input) {
         return this.lexMessage(input, null);
@@ -45,35 +147,109 @@ public class AviMessageLexerImpl implements AviMessageLexer {
 
     @Override
     public LexemeSequence lexMessage(final String input, final ConversionHints hints) {
+        return this.lexMessage(input, hints, null);
+    }
+
+    /**
+     * Lexes the input String with the given parsing settings, and reports the amount of work done to
+     * <code>statisticsConsumer</code>.
+     *
+     * The Lexemes are first visited once in sequence order. After that, only the still
+     * unidentified Lexemes whose last visit happened before a change in some other Lexeme are re-visited,
+     * until a pass makes no more changes. Visitors may inspect any preceding or following Lexeme, so any
+     * change makes all the earlier visited, still unidentified Lexemes stale.
+     *
+     * @param input
+     *         the TAC encoded message
+     * @param hints
+     *         parsing hints to be passed to the lexer implementation
+     * @param statisticsConsumer
+     *         receives the pass and visit counts of this message, may be null
+     *
+     * @return sequence of recognized or unrecognized {@link Lexeme}s
+     */
+    public LexemeSequence lexMessage(final String input, final ConversionHints hints, final Consumer<LexingStatistics> statisticsConsumer) {
+        return lex(input, hints, statisticsConsumer).getLexemeSequence();
+    }
+
+    /**
+     * Lexes the input String with the given parsing settings, and tells the message type of the token lexer used.
+     * The input is tokenized only once.
+     *
+     * @param input
+     *         the TAC encoded message
+     * @param hints
+     *         parsing hints to be passed to the lexer implementation
+     *
+     * @return the recognized type and the sequence of recognized or unrecognized {@link Lexeme}s
+     */
+    @Override
+    public RecognizedLexemeSequence lexAndRecognizeMessage(final String input, final ConversionHints hints) {
+        return lex(input, hints, null);
+    }
+
+    private RecognizedLexemeSequence lex(final String input, final ConversionHints hints, final Consumer<LexingStatistics> statisticsConsumer) {
         if (this.factory == null) {
             throw new IllegalStateException("LexingFactory not injected");
         }
         final LexemeSequence result = this.factory.createLexemeSequence(input, hints);
         final Optional<RecognizingAviMessageTokenLexer> tokenLexer = this.tokenLexers.stream()
                 .filter((lexer) -> lexer.getSuitablityTester().test(result)).findFirst();
+        LexingStatistics statistics = LexingStatistics.EMPTY;
         if (tokenLexer.isPresent()) {
-            boolean lexemesChanged = true;
-            int iterationCount = 0;
-            while (lexemesChanged && iterationCount < MAX_ITERATIONS) {
-                lexemesChanged = false;
-                iterationCount++;
-                int oldHashCode;
-                final List<Lexeme> lexemes = result.getLexemes()
-                        .stream()
-                        .filter(l -> l.getIdentificationCertainty() < 1.0)
-                        .collect(Collectors.toList());
-                for (final Lexeme lexeme : lexemes) {
-                    oldHashCode = lexeme.hashCode();
-                    lexeme.accept(tokenLexer.get(), hints);
-                    lexemesChanged = lexemesChanged || oldHashCode != lexeme.hashCode();
-                }
-            }
-            if (iterationCount == MAX_ITERATIONS) {
+            statistics = visitUntilStable(result, tokenLexer.get(), hints);
+            tokenLexer.get().messageLexed();
+            if (statistics.getPassCount() == MAX_ITERATIONS) {
                 LOG.warn("Lexing result for {} did not stabilize within the maximum iteration count " + MAX_ITERATIONS + ", result may be incomplete",
                         result.getFirstLexeme().getIdentity());
             }
         }
-        return result;
+        if (statisticsConsumer != null) {
+            statisticsConsumer.accept(statistics);
+        }
+        final MessageType messageType = tokenLexer.map(RecognizingAviMessageTokenLexer::getMessageType).orElse(null);
+        this.metricsListener.messageLexed(messageType, statistics);
+        return new RecognizedLexemeSequence(messageType, result);
+    }
+
+    private static LexingStatistics visitUntilStable(final LexemeSequence sequence, final RecognizingAviMessageTokenLexer tokenLexer,
+            final ConversionHints hints) {
+        // The lexing does not change the structure of the sequence, only the state of the contained Lexemes
+        final List<Lexeme> lexemes = sequence.getLexemes(true);
+        final int[] lastVisitedAt = new int[lexemes.size()];
+        Arrays.fill(lastVisitedAt, -1);
+        int changeStamp = 0;
+        int passCount = 0;
+        int visitCount = 0;
+        boolean changed = true;
+        while (changed && passCount < MAX_ITERATIONS) {
+            passCount++;
+            final int changeStampAtPassStart = changeStamp;
+            for (int i = 0; i < lexemes.size(); i++) {
+                final Lexeme lexeme = lexemes.get(i);
+                if (lexeme.isIgnored() || lexeme.getIdentificationCertainty() >= 1.0 || lastVisitedAt[i] == changeStamp) {
+                    continue;
+                }
+                final int oldChangeCount = changeCountOf(lexeme);
+                lexeme.accept(tokenLexer, hints);
+                visitCount++;
+                lastVisitedAt[i] = changeStamp;
+                if (oldChangeCount != changeCountOf(lexeme)) {
+                    // Also leaves the changed Lexeme itself stale, it may still be affected by its own new state
+                    changeStamp++;
+                }
+            }
+            changed = changeStamp != changeStampAtPassStart;
+        }
+        return new LexingStatistics(passCount, visitCount);
+    }
+
+    private static int changeCountOf(final Lexeme lexeme) {
+        if (lexeme instanceof LexingFactoryImpl.LexemeImpl) {
+            return ((LexingFactoryImpl.LexemeImpl) lexeme).getChangeCount();
+        } else {
+            return lexeme.hashCode();
+        }
     }
 
     /**
@@ -104,4 +280,34 @@ public class AviMessageLexerImpl implements AviMessageLexer {
         return Optional.empty();
     }
 
+    /**
+     * Tries to recognize the given String as one of the aviation message types in {@link MessageType}
+     * by tokenizing only the beginning of the input. The result is the same as from
+     * {@link #recognizeMessageType(String, ConversionHints)} as long as token combinations do not cascade
+     * back to the first token, which none of the default combining rules do. If any of the suitability
+     * testers may need more than the first Lexeme, or the {@link LexingFactory} is not a
+     * {@link LexingFactoryImpl}, the whole input is tokenized.
+     *
+     * @param input
+     *         the TAC encoded message
+     * @param hints
+     *         parsing hints to be passed to the lexer implementation
+     *
+     * @return the type if recognized
+     */
+    @Override
+    public Optional<MessageType> recognizeMessageTypeFromPrefix(final String input, final ConversionHints hints) {
+        if (this.factory == null) {
+            throw new IllegalStateException("LexingFactory not injected");
+        }
+        if (!(this.factory instanceof LexingFactoryImpl) || !this.tokenLexers.stream().allMatch(lexer -> lexer.getSuitablityTester().testsFirstLexemeOnly())) {
+            return recognizeMessageType(input, hints);
+        }
+        final LexemeSequence leading = ((LexingFactoryImpl) this.factory).createLeadingLexemeSequence(input, hints);
+        return this.tokenLexers.stream()
+                .filter((lexer) -> lexer.getSuitablityTester().test(leading))
+                .findFirst()
+                .map(RecognizingAviMessageTokenLexer::getMessageType);
+    }
+
 }
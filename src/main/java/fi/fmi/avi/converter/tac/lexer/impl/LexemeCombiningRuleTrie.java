@@ -0,0 +1,187 @@
+package fi.fmi.avi.converter.tac.lexer.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import fi.fmi.avi.converter.tac.lexer.Lexeme;
+
+/**
+ * Token combining rules compiled into a suffix trie.
+ *
+ * Each rule is inserted into the trie in reverse order, so that walking backwards from the last
+ * token of a sequence follows all the rules ending with the same matchers at the same time. Rules
+ * sharing the same tail matchers share the trie nodes, so each matcher is tested at most once per
+ * token and trie path. {@link LexemeCombiningRules#equalityMatcher(String)} matchers are stored as
+ * exact String keyed edges, while the other matchers of the same rule position are grouped as a
+ * list of distinct edges of the node.
+ *
+ * The rules keep their original order: {@link #findFirstMatch(Lexeme, int)} returns the match
+ * of the first matching rule at or after the given rule index, as if the rules were tested one
+ * by one.
+ */
+final class LexemeCombiningRuleTrie {
+    private final Node root = new Node();
+    private final int maxRuleLength;
+
+    LexemeCombiningRuleTrie(final List<List<Predicate<String>>> rules) {
+        int maxRuleLength = 0;
+        for (int ruleIndex = 0; ruleIndex < rules.size(); ruleIndex++) {
+            final List<Predicate<String>> rule = rules.get(ruleIndex);
+            if (rule.isEmpty()) {
+                continue;
+            }
+            maxRuleLength = Math.max(maxRuleLength, rule.size());
+            Node node = root;
+            for (int i = rule.size() - 1; i >= 0; i--) {
+                node = node.getOrCreateChild(rule.get(i));
+            }
+            node.completedRules.add(ruleIndex);
+        }
+        root.freeze();
+        this.maxRuleLength = maxRuleLength;
+    }
+
+    /**
+     * @return the number of tokens in the longest rule
+     */
+    int getMaxRuleLength() {
+        return maxRuleLength;
+    }
+
+    /**
+     * Finds the first rule with index &gt;= <code>fromRule</code> matching the tokens ending with <code>last</code>.
+     * Whitespace and ignored Lexemes between the tokens are skipped.
+     *
+     * @param last
+     *         the last Lexeme of the sequence
+     * @param fromRule
+     *         index of the first rule to consider
+     *
+     * @return the match, or null if none of the rules match
+     */
+    Match findFirstMatch(final Lexeme last, final int fromRule) {
+        final Match best = new Match();
+        root.findFirstMatch(last, fromRule, best);
+        return best.start == null ? null : best;
+    }
+
+    static final class Match {
+        private int ruleIndex = Integer.MAX_VALUE;
+        private Lexeme start;
+
+        /**
+         * @return index of the matching rule in the original rule list
+         */
+        int getRuleIndex() {
+            return ruleIndex;
+        }
+
+        /**
+         * @return the Lexeme matching the first matcher of the rule
+         */
+        Lexeme getStart() {
+            return start;
+        }
+    }
+
+    private static final class Node {
+        private static final int[] NO_RULES = new int[0];
+        private static final Node[] NO_NODES = new Node[0];
+
+        private final List<Integer> completedRules = new ArrayList<>();
+        private final List<Predicate<String>> otherMatchers = new ArrayList<>();
+        private final List<Node> otherChildrenList = new ArrayList<>();
+        private Map<String, Node> equalityChildren = Collections.emptyMap();
+        private Predicate<String>[] otherChildMatchers;
+        private Node[] otherChildren = NO_NODES;
+        private int[] completed = NO_RULES;
+        private int minRule = Integer.MAX_VALUE;
+        private int maxRule = -1;
+
+        Node getOrCreateChild(final Predicate<String> matcher) {
+            if (matcher instanceof LexemeCombiningRules.EqualityMatcher) {
+                if (equalityChildren.isEmpty()) {
+                    equalityChildren = new HashMap<>();
+                }
+                return equalityChildren.computeIfAbsent(((LexemeCombiningRules.EqualityMatcher) matcher).getExpected(), key -> new Node());
+            }
+            final int existing = otherMatchers.indexOf(matcher);
+            if (existing >= 0) {
+                return otherChildrenList.get(existing);
+            }
+            final Node child = new Node();
+            otherMatchers.add(matcher);
+            otherChildrenList.add(child);
+            return child;
+        }
+
+        @SuppressWarnings("unchecked")
+        void freeze() {
+            completed = completedRules.stream().mapToInt(Integer::intValue).sorted().toArray();
+            if (completed.length > 0) {
+                minRule = completed[0];
+                maxRule = completed[completed.length - 1];
+            }
+            otherChildMatchers = otherMatchers.toArray(new Predicate[0]);
+            otherChildren = otherChildrenList.toArray(NO_NODES);
+            for (final Node child : equalityChildren.values()) {
+                child.freeze();
+                minRule = Math.min(minRule, child.minRule);
+                maxRule = Math.max(maxRule, child.maxRule);
+            }
+            for (final Node child : otherChildren) {
+                child.freeze();
+                minRule = Math.min(minRule, child.minRule);
+                maxRule = Math.max(maxRule, child.maxRule);
+            }
+        }
+
+        /*
+         * Called with the Lexeme to be matched against the children of this node. The rules completed at this node
+         * have been matched up to the Lexeme next to the given one.
+         */
+        private void findFirstMatch(final Lexeme lexeme, final int fromRule, final Match best) {
+            if (lexeme == null) {
+                return;
+            }
+            final String token = lexeme.getTACToken();
+            if (!equalityChildren.isEmpty()) {
+                final Node child = equalityChildren.get(token);
+                if (child != null) {
+                    child.visit(lexeme, fromRule, best);
+                }
+            }
+            for (int i = 0; i < otherChildren.length; i++) {
+                final Node child = otherChildren[i];
+                if (child.canImprove(fromRule, best) && otherChildMatchers[i].test(token)) {
+                    child.visit(lexeme, fromRule, best);
+                }
+            }
+        }
+
+        /*
+         * Called when the matcher leading to this node accepted the given Lexeme.
+         */
+        private void visit(final Lexeme matched, final int fromRule, final Match best) {
+            if (!canImprove(fromRule, best)) {
+                return;
+            }
+            final int index = Arrays.binarySearch(completed, fromRule);
+            final int firstCandidate = index >= 0 ? index : -index - 1;
+            if (firstCandidate < completed.length && completed[firstCandidate] < best.ruleIndex) {
+                best.ruleIndex = completed[firstCandidate];
+                best.start = matched;
+            }
+            findFirstMatch(matched.getPrevious(), fromRule, best);
+        }
+
+        private boolean canImprove(final int fromRule, final Match best) {
+            return maxRule >= fromRule && minRule < best.ruleIndex;
+        }
+    }
+}
@@ -43,20 +43,40 @@ public final class LexemeCombiningRules {
         return new EqualityMatcher(expectedToken);
     }
 
-    private static class EqualityMatcher implements Predicate<String> {
+    static class EqualityMatcher implements Predicate<String> {
         private final String expected;
 
         EqualityMatcher(final String expected) {
             this.expected = expected;
         }
 
+        String getExpected() {
+            return expected;
+        }
+
         @Override
         public boolean test(final String s) {
             return expected.equals(s);
         }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            return expected.equals(((EqualityMatcher) o).expected);
+        }
+
+        @Override
+        public int hashCode() {
+            return expected.hashCode();
+        }
     }
 
-    private static class RegexMatcher implements Predicate<String> {
+    static class RegexMatcher implements Predicate<String> {
         private final Pattern pattern;
 
         RegexMatcher(final Pattern pattern) {
@@ -67,5 +87,22 @@ public final class LexemeCombiningRules {
         public boolean test(final String s) {
             return pattern.matcher(s).matches();
         }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            final RegexMatcher other = (RegexMatcher) o;
+            return pattern.pattern().equals(other.pattern.pattern()) && pattern.flags() == other.pattern.flags();
+        }
+
+        @Override
+        public int hashCode() {
+            return pattern.pattern().hashCode();
+        }
     }
 }
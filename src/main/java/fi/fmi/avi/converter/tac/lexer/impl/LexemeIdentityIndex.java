@@ -0,0 +1,242 @@
+package fi.fmi.avi.converter.tac.lexer.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+
+import fi.fmi.avi.converter.tac.lexer.Lexeme;
+import fi.fmi.avi.converter.tac.lexer.LexemeIdentity;
+import fi.fmi.avi.converter.tac.lexer.impl.LexingFactoryImpl.LexemeImpl;
+import fi.fmi.avi.converter.tac.lexer.impl.LexingFactoryImpl.LexemeSequenceImpl;
+
+/**
+ * Index of the identities of the Lexemes of a single {@link LexemeSequenceImpl} by their position in the sequence.
+ *
+ * Answers the questions the token visitors and parsers ask about the Lexemes preceding a given Lexeme, such as whether
+ * a Lexeme of a given identity exists before it or where the current change group starts, without walking back the
+ * sequence, and finds the occurrences of an identity for {@link Lexeme#findNext(LexemeIdentity)} and the parsers. Like
+ * {@link Lexeme#getPrevious()}, only the Lexemes which are neither ignored nor white space are indexed.
+ *
+ * The index is rebuilt on the first query after the structure of the sequence has changed, and kept up to date
+ * incrementally when the Lexemes are identified or ignored after that. The positions of each identity are kept in a
+ * {@link BitSet} by the identity ordinal, so looking for the nearest preceding occurrence scans the bits a 64-bit word at a time.
+ */
+final class LexemeIdentityIndex {
+    private static final LexemeImpl[] NO_LEXEMES = new LexemeImpl[0];
+    private static final LexemeIdentity[] NO_IDENTITIES = new LexemeIdentity[0];
+    private static final BitSet[] NO_OCCURRENCES = new BitSet[0];
+
+    private final LexemeSequenceImpl sequence;
+    // Indexed by the LexemeIdentity ordinal
+    private BitSet[] occurrences = NO_OCCURRENCES;
+    private final BitSet indexed = new BitSet();
+    private final BitSet groupDelimiters = new BitSet();
+    private LexemeImpl[] lexemes = NO_LEXEMES;
+    private LexemeIdentity[] identities = NO_IDENTITIES;
+    private boolean stale = true;
+
+    LexemeIdentityIndex(final LexemeSequenceImpl sequence) {
+        this.sequence = sequence;
+    }
+
+    /**
+     * Returns the index of the sequence the given Lexeme currently belongs to.
+     *
+     * @param lexeme the Lexeme
+     * @return the index, or null if the Lexeme is not part of a sequence created by {@link LexingFactoryImpl}
+     */
+    static LexemeIdentityIndex of(final Lexeme lexeme) {
+        if (lexeme instanceof LexemeImpl) {
+            final LexemeIdentityIndex index = ((LexemeImpl) lexeme).getIdentityIndex();
+            if (index != null && index.positionOf(lexeme) >= 0) {
+                return index;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Marks the index to be rebuilt, to be called on every structural change of the sequence.
+     */
+    void invalidate() {
+        this.stale = true;
+    }
+
+    /**
+     * Updates the index after the identity or the ignored status of the given Lexeme has changed.
+     *
+     * @param lexeme the changed Lexeme
+     */
+    void update(final LexemeImpl lexeme) {
+        if (!this.stale) {
+            final int position = lexeme.getIdentityIndexPosition();
+            if (isAt(position, lexeme)) {
+                remove(position);
+                add(position, lexeme);
+            }
+        }
+    }
+
+    /**
+     * @param lexeme a Lexeme of the sequence
+     * @return the position of the Lexeme in the sequence, or -1 if it does not belong to the sequence
+     */
+    int positionOf(final Lexeme lexeme) {
+        refresh();
+        final int position = ((LexemeImpl) lexeme).getIdentityIndexPosition();
+        return isAt(position, lexeme) ? position : -1;
+    }
+
+    LexemeImpl get(final int position) {
+        return this.lexemes[position];
+    }
+
+    /**
+     * @param identity the identity to look for
+     * @param before the position to start looking backwards from, exclusive
+     * @return the position of the nearest indexed Lexeme with the given identity before the given position, or -1 if none
+     */
+    int previous(final LexemeIdentity identity, final int before) {
+        final BitSet positions = occurrencesOf(identity);
+        return positions == null || before <= 0 ? -1 : positions.previousSetBit(before - 1);
+    }
+
+    /**
+     * @param identity the identity to look for
+     * @param after the position to start looking forwards from, exclusive
+     * @return the position of the nearest indexed Lexeme with the given identity after the given position, or -1 if none
+     */
+    int next(final LexemeIdentity identity, final int after) {
+        final BitSet positions = occurrencesOf(identity);
+        return positions == null ? -1 : positions.nextSetBit(after + 1);
+    }
+
+    /**
+     * Returns the first Lexeme with the given identity and an acceptable status after the given position.
+     *
+     * @param identity the identity to look for
+     * @param after the position to start looking forwards from, exclusive, -1 to start from the beginning
+     * @return the found Lexeme, or null if none
+     * @see Lexeme#getIdentityIfAcceptable()
+     */
+    LexemeImpl nextAcceptable(final LexemeIdentity identity, final int after) {
+        refresh();
+        for (int i = next(identity, after); i >= 0; i = next(identity, i)) {
+            if (this.lexemes[i].getIdentityIfAcceptable() != null) {
+                return this.lexemes[i];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param identity the identity to look for
+     * @return the Lexemes with the given identity and an acceptable status in the sequence order
+     * @see Lexeme#getIdentityIfAcceptable()
+     */
+    List<Lexeme> acceptableOccurrencesOf(final LexemeIdentity identity) {
+        refresh();
+        final BitSet positions = occurrencesOf(identity);
+        if (positions == null) {
+            return Collections.emptyList();
+        }
+        final List<Lexeme> retval = new ArrayList<>(positions.cardinality());
+        for (int i = positions.nextSetBit(0); i >= 0; i = positions.nextSetBit(i + 1)) {
+            if (this.lexemes[i].getIdentityIfAcceptable() != null) {
+                retval.add(this.lexemes[i]);
+            }
+        }
+        return Collections.unmodifiableList(retval);
+    }
+
+    /**
+     * @param identity the identity to look for
+     * @return the position of the first indexed Lexeme with the given identity, or -1 if none
+     */
+    int first(final LexemeIdentity identity) {
+        final BitSet positions = occurrencesOf(identity);
+        return positions == null ? -1 : positions.nextSetBit(0);
+    }
+
+    /**
+     * Returns the position of the Lexeme starting the group of the Lexeme at the given position. The group starts at
+     * the nearest preceding group delimiter (see {@link LexemeUtils#isGroupDelimiter(LexemeIdentity)}), or at the first
+     * indexed Lexeme of the sequence if there is none.
+     *
+     * @param position the position of a Lexeme in the group
+     * @return the position of the group start
+     */
+    int groupStart(final int position) {
+        final int delimiter = position <= 0 ? -1 : this.groupDelimiters.previousSetBit(position - 1);
+        return Math.max(delimiter, this.indexed.nextSetBit(0));
+    }
+
+    private BitSet occurrencesOf(final LexemeIdentity identity) {
+        final int ordinal = identity.ordinal();
+        return ordinal < this.occurrences.length ? this.occurrences[ordinal] : null;
+    }
+
+    private boolean isAt(final int position, final Lexeme lexeme) {
+        return position >= 0 && position < this.lexemes.length && this.lexemes[position] == lexeme;
+    }
+
+    private void refresh() {
+        if (this.stale) {
+            for (final BitSet positions : this.occurrences) {
+                if (positions != null) {
+                    positions.clear();
+                }
+            }
+            this.indexed.clear();
+            this.groupDelimiters.clear();
+            int count = 0;
+            for (LexemeImpl l = (LexemeImpl) this.sequence.getFirstLexeme(); l != null; l = l.getNextImpl(true, true)) {
+                count++;
+            }
+            this.lexemes = new LexemeImpl[count];
+            this.identities = new LexemeIdentity[count];
+            int position = 0;
+            for (LexemeImpl l = (LexemeImpl) this.sequence.getFirstLexeme(); l != null; l = l.getNextImpl(true, true)) {
+                this.lexemes[position] = l;
+                l.setIdentityIndex(this, position);
+                add(position, l);
+                position++;
+            }
+            this.stale = false;
+        }
+    }
+
+    private void add(final int position, final LexemeImpl lexeme) {
+        final LexemeIdentity identity = lexeme.getIdentity();
+        if (lexeme.isIgnored() || LexemeIdentity.WHITE_SPACE.equals(identity)) {
+            return;
+        }
+        this.indexed.set(position);
+        if (identity != null) {
+            this.identities[position] = identity;
+            final int ordinal = identity.ordinal();
+            if (ordinal >= this.occurrences.length) {
+                this.occurrences = Arrays.copyOf(this.occurrences, ordinal + 1);
+            }
+            if (this.occurrences[ordinal] == null) {
+                this.occurrences[ordinal] = new BitSet();
+            }
+            this.occurrences[ordinal].set(position);
+            if (LexemeUtils.isGroupDelimiter(identity)) {
+                this.groupDelimiters.set(position);
+            }
+        }
+    }
+
+    private void remove(final int position) {
+        this.indexed.clear(position);
+        this.groupDelimiters.clear(position);
+        final LexemeIdentity identity = this.identities[position];
+        if (identity != null) {
+            this.occurrences[identity.ordinal()].clear(position);
+            this.identities[position] = null;
+        }
+    }
+}
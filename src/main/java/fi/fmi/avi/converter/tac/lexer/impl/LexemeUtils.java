@@ -1,22 +1,47 @@
 package fi.fmi.avi.converter.tac.lexer.impl;
 
-import java.util.Arrays;
-import java.util.List;
+import java.util.Collections;
+import java.util.Set;
 import java.util.function.Predicate;
 
 import fi.fmi.avi.converter.tac.lexer.Lexeme;
 import fi.fmi.avi.converter.tac.lexer.LexemeIdentity;
+import fi.fmi.avi.converter.tac.lexer.LexemeIdentitySet;
 
+/**
+ * Helpers for examining the Lexemes preceding a given Lexeme.
+ *
+ * Like {@link Lexeme#getPrevious()}, the helpers skip ignored and white space Lexemes. For Lexemes of sequences
+ * created by {@link LexingFactoryImpl} the answers are looked up from the {@link LexemeIdentityIndex} of the sequence,
+ * other Lexemes are examined by walking back the sequence.
+ */
 public final class LexemeUtils {
 
-    private static final List<LexemeIdentity> TAF_GROUP_DELIMITERS = Arrays.asList(LexemeIdentity.TAF_START, LexemeIdentity.TAF_FORECAST_CHANGE_INDICATOR,
-            LexemeIdentity.TREND_CHANGE_INDICATOR, LexemeIdentity.END_TOKEN);
+    private static final Set<LexemeIdentity> TAF_GROUP_DELIMITERS = Collections.unmodifiableSet(
+            LexemeIdentitySet.of(LexemeIdentity.TAF_START, LexemeIdentity.TAF_FORECAST_CHANGE_INDICATOR, LexemeIdentity.TREND_CHANGE_INDICATOR,
+                    LexemeIdentity.END_TOKEN));
+
+    static boolean isGroupDelimiter(final LexemeIdentity identity) {
+        return TAF_GROUP_DELIMITERS.contains(identity);
+    }
 
     public static boolean existsPreviousLexemesWithinSameGroup(final Lexeme token, final LexemeIdentity identity) {
         return existsPreviousLexemesWithinSameGroup(token, identity, l -> true);
     }
 
     public static boolean existsPreviousLexemesWithinSameGroup(final Lexeme token, final LexemeIdentity identity, final Predicate<Lexeme> extraCondition) {
+        final LexemeIdentityIndex index = LexemeIdentityIndex.of(token);
+        if (index != null) {
+            final int position = index.positionOf(token);
+            final int groupStart = index.groupStart(position);
+            for (int i = index.previous(identity, position); i > groupStart; i = index.previous(identity, i)) {
+                if (extraCondition.test(index.get(i))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
         Lexeme l = token;
         while ((l = l.getPrevious()) != token.getFirst()) {
             if (TAF_GROUP_DELIMITERS.contains(l.getIdentity())) {
@@ -35,4 +60,75 @@ public final class LexemeUtils {
         return hasAnotherValue;
     }
 
+    /**
+     * Checks whether any of the Lexemes before the given one is identified as <code>identity</code>.
+     *
+     * @param token the Lexeme to start from
+     * @param identity the identity to look for
+     * @return true if a preceding Lexeme with the identity exists
+     */
+    public static boolean existsPreviousLexeme(final Lexeme token, final LexemeIdentity identity) {
+        return existsPreviousLexeme(token, identity, l -> true);
+    }
+
+    /**
+     * Checks whether any of the Lexemes before the given one is identified as <code>identity</code> and accepted by
+     * the <code>extraCondition</code>.
+     *
+     * @param token the Lexeme to start from
+     * @param identity the identity to look for
+     * @param extraCondition the condition the preceding Lexeme must also fulfil
+     * @return true if a matching preceding Lexeme exists
+     */
+    public static boolean existsPreviousLexeme(final Lexeme token, final LexemeIdentity identity, final Predicate<Lexeme> extraCondition) {
+        final LexemeIdentityIndex index = LexemeIdentityIndex.of(token);
+        if (index != null) {
+            for (int i = index.previous(identity, index.positionOf(token)); i >= 0; i = index.previous(identity, i)) {
+                if (extraCondition.test(index.get(i))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        Lexeme l = token.getPrevious();
+        while (l != null) {
+            if (identity.equals(l.getIdentity()) && extraCondition.test(l)) {
+                return true;
+            }
+            l = l.getPrevious();
+        }
+        return false;
+    }
+
+    /**
+     * Returns the first Lexeme of the sequence before the given one identified as any of the <code>identities</code>.
+     *
+     * @param token the Lexeme to start from
+     * @param identities the identities to look for
+     * @return the first preceding Lexeme with one of the identities, or null if none
+     */
+    public static Lexeme findFirstPreviousLexeme(final Lexeme token, final Set<LexemeIdentity> identities) {
+        final LexemeIdentityIndex index = LexemeIdentityIndex.of(token);
+        if (index != null) {
+            final int position = index.positionOf(token);
+            int first = -1;
+            for (final LexemeIdentity identity : identities) {
+                final int i = index.first(identity);
+                if (i >= 0 && i < position && (first < 0 || i < first)) {
+                    first = i;
+                }
+            }
+            return first < 0 ? null : index.get(first);
+        }
+        Lexeme retval = null;
+        Lexeme l = token.getPrevious();
+        while (l != null) {
+            if (identities.contains(l.getIdentity())) {
+                retval = l;
+            }
+            l = l.getPrevious();
+        }
+        return retval;
+    }
+
 }
@@ -0,0 +1,158 @@
+package fi.fmi.avi.converter.tac.lexer.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Pre-computed index of the {@link PrioritizedLexemeVisitor}s which may possibly identify a token
+ * starting with a given character and having a given length.
+ *
+ * For each {@link RegexMatchingLexemeVisitor} the set of possible first characters is resolved
+ * once by feeding each ASCII character to the visitor's pattern and checking whether it either
+ * matched or needed more input to decide. The possible token length range is resolved using
+ * {@link RegexLengthBounds}. Other visitors cannot be analysed, and they are offered every token.
+ * Tokens starting with a non-ASCII character are offered to all the visitors with a suitable
+ * length range. The original visitor order is preserved in all the candidate lists.
+ *
+ * The same analysis is available as a {@link TokenProfile} for telling whether two visitors may identify the same
+ * tokens.
+ */
+final class LexemeVisitorDispatchIndex {
+    private static final int INDEXED_CHARACTERS = 128;
+
+    private final Candidate[] allCandidates;
+    private final Candidate[][] candidatesByFirstCharacter;
+
+    LexemeVisitorDispatchIndex(final List<PrioritizedLexemeVisitor> visitors) {
+        final List<Candidate> all = new ArrayList<>(visitors.size());
+        final List<List<Candidate>> byFirst = new ArrayList<>(INDEXED_CHARACTERS);
+        for (int c = 0; c < INDEXED_CHARACTERS; c++) {
+            byFirst.add(new ArrayList<>());
+        }
+        for (final PrioritizedLexemeVisitor visitor : visitors) {
+            final TokenProfile profile = TokenProfile.of(visitor);
+            final Candidate candidate = new Candidate(visitor, profile);
+            all.add(candidate);
+            for (int c = 0; c < INDEXED_CHARACTERS; c++) {
+                if (profile.firstCharacters.get(c)) {
+                    byFirst.get(c).add(candidate);
+                }
+            }
+        }
+        this.allCandidates = all.toArray(new Candidate[0]);
+        this.candidatesByFirstCharacter = new Candidate[INDEXED_CHARACTERS][];
+        for (int c = 0; c < INDEXED_CHARACTERS; c++) {
+            this.candidatesByFirstCharacter[c] = byFirst.get(c).toArray(new Candidate[0]);
+        }
+    }
+
+    private static boolean canStartWith(final Pattern pattern, final char c) {
+        final Matcher m = pattern.matcher(String.valueOf(c));
+        // If the end of input was not reached, no longer input starting with c can match either
+        return m.matches() || m.hitEnd();
+    }
+
+    /**
+     * Returns the visitors that may possibly identify the given token, in the original visitor order.
+     * Callers must still check {@link Candidate#acceptsLength(int)} for each returned candidate.
+     *
+     * @param token
+     *         the TAC token
+     *
+     * @return candidate visitors
+     */
+    Candidate[] getCandidates(final String token) {
+        if (token.isEmpty()) {
+            return this.allCandidates;
+        }
+        final char first = token.charAt(0);
+        if (first < INDEXED_CHARACTERS) {
+            return this.candidatesByFirstCharacter[first];
+        }
+        return this.allCandidates;
+    }
+
+    @Override
+    public String toString() {
+        return "LexemeVisitorDispatchIndex" + Arrays.toString(this.allCandidates);
+    }
+
+    /**
+     * The possible first characters and the length range of the tokens a visitor may identify.
+     */
+    static final class TokenProfile {
+        // Any character outside of the indexed ones is represented by this index:
+        private static final int OTHER_CHARACTERS = INDEXED_CHARACTERS;
+        private static final char OTHER_CHARACTER_SAMPLE = '\u00C4';
+
+        private final BitSet firstCharacters;
+        private final int minLength;
+        private final int maxLength;
+
+        private TokenProfile(final BitSet firstCharacters, final int minLength, final int maxLength) {
+            this.firstCharacters = firstCharacters;
+            this.minLength = minLength;
+            this.maxLength = maxLength;
+        }
+
+        static TokenProfile of(final PrioritizedLexemeVisitor visitor) {
+            final BitSet firstCharacters = new BitSet(OTHER_CHARACTERS + 1);
+            if (visitor instanceof RegexMatchingLexemeVisitor) {
+                final Pattern pattern = ((RegexMatchingLexemeVisitor) visitor).getPattern();
+                for (int c = 0; c < INDEXED_CHARACTERS; c++) {
+                    if (canStartWith(pattern, (char) c)) {
+                        firstCharacters.set(c);
+                    }
+                }
+                if (canStartWith(pattern, OTHER_CHARACTER_SAMPLE)) {
+                    firstCharacters.set(OTHER_CHARACTERS);
+                }
+                final RegexLengthBounds bounds = RegexLengthBounds.of(pattern);
+                return new TokenProfile(firstCharacters, bounds.getMin(), bounds.getMax());
+            }
+            firstCharacters.set(0, OTHER_CHARACTERS + 1);
+            return new TokenProfile(firstCharacters, 0, RegexLengthBounds.UNBOUNDED);
+        }
+
+        /**
+         * Tells whether a token may be identified by both the visitors of this and the given profile. Tokens
+         * starting with any of the characters outside of the index are considered possible for both, if both
+         * patterns accept a sample of such a character.
+         *
+         * @param other the profile of the other visitor
+         * @return false if no token can be identified by both
+         */
+        boolean mayOverlap(final TokenProfile other) {
+            return this.minLength <= other.maxLength && other.minLength <= this.maxLength && this.firstCharacters.intersects(other.firstCharacters);
+        }
+    }
+
+    static final class Candidate {
+        private final PrioritizedLexemeVisitor visitor;
+        private final int minLength;
+        private final int maxLength;
+
+        private Candidate(final PrioritizedLexemeVisitor visitor, final TokenProfile profile) {
+            this.visitor = visitor;
+            this.minLength = profile.minLength;
+            this.maxLength = profile.maxLength;
+        }
+
+        PrioritizedLexemeVisitor getVisitor() {
+            return visitor;
+        }
+
+        boolean acceptsLength(final int length) {
+            return length >= minLength && length <= maxLength;
+        }
+
+        @Override
+        public String toString() {
+            return visitor.getClass().getSimpleName() + "[" + minLength + ", " + (maxLength == RegexLengthBounds.UNBOUNDED ? "*" : maxLength) + "]";
+        }
+    }
+}
@@ -2,10 +2,12 @@ package fi.fmi.avi.converter.tac.lexer.impl;
 
 import fi.fmi.avi.converter.ConversionHints;
 import fi.fmi.avi.converter.tac.lexer.*;
+import fi.fmi.avi.converter.tac.metrics.ConversionMetricsListener;
 import fi.fmi.avi.model.MessageType;
 import fi.fmi.avi.model.bulletin.MeteorologicalBulletinSpecialCharacter;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 
@@ -21,10 +23,45 @@ public class LexingFactoryImpl implements LexingFactory {
             .append("=")
             .toString();
 
+    /**
+     * Single character token strings of the TAC delimiters indexed by the character, null for other characters.
+     * The delimiter tokens share these instances instead of allocating a String for every occurrence.
+     */
+    private static final String[] DELIMITER_TOKENS = createDelimiterTokens();
+
+    private static final Map<MeteorologicalBulletinSpecialCharacter, Map<Lexeme.ParsedValueName, Object>> WHITESPACE_PARSED_VALUES =
+            createWhitespaceParsedValues();
+
     private final List<List<Predicate<String>>> tokenCombiningRules = new ArrayList<>();
 
     private final Map<MessageType, Lexeme> startTokens = new HashMap<>();
 
+    private volatile LexemeCombiningRuleTrie tokenCombiningRuleTrie;
+
+    private ConversionMetricsListener metricsListener = ConversionMetricsListener.NO_OP;
+
+    private static String[] createDelimiterTokens() {
+        final String[] retval = new String[TAC_DELIMS.chars().max().orElse(0) + 1];
+        for (int i = 0; i < TAC_DELIMS.length(); i++) {
+            final char c = TAC_DELIMS.charAt(i);
+            retval[c] = String.valueOf(c);
+        }
+        return retval;
+    }
+
+    private static Map<MeteorologicalBulletinSpecialCharacter, Map<Lexeme.ParsedValueName, Object>> createWhitespaceParsedValues() {
+        final Map<MeteorologicalBulletinSpecialCharacter, Map<Lexeme.ParsedValueName, Object>> retval = new EnumMap<>(
+                MeteorologicalBulletinSpecialCharacter.class);
+        for (final MeteorologicalBulletinSpecialCharacter specialCharacter : MeteorologicalBulletinSpecialCharacter.values()) {
+            retval.put(specialCharacter, Collections.singletonMap(Lexeme.ParsedValueName.TYPE, specialCharacter));
+        }
+        return retval;
+    }
+
+    private static boolean isDelimiter(final char c) {
+        return c < DELIMITER_TOKENS.length && DELIMITER_TOKENS[c] != null;
+    }
+
     private static MessageType toMessageType(final Object messageType) {
         if (messageType instanceof MessageType) {
             return (MessageType) messageType;
@@ -37,6 +74,7 @@ public class LexingFactoryImpl implements LexingFactory {
 
     public void addTokenCombiningRule(final List<Predicate<String>> rule) {
         this.tokenCombiningRules.add(Collections.unmodifiableList(new ArrayList<>(rule)));
+        this.tokenCombiningRuleTrie = null;
     }
 
     public void setMessageStartToken(final MessageType type, final Lexeme token) {
@@ -48,6 +86,28 @@ public class LexingFactoryImpl implements LexingFactory {
         return Collections.unmodifiableList(this.tokenCombiningRules);
     }
 
+    public ConversionMetricsListener getMetricsListener() {
+        return this.metricsListener;
+    }
+
+    /**
+     * Sets the listener receiving the token combining rule hits.
+     *
+     * @param metricsListener the listener, {@link ConversionMetricsListener#NO_OP} by default
+     */
+    public void setMetricsListener(final ConversionMetricsListener metricsListener) {
+        this.metricsListener = Objects.requireNonNull(metricsListener, "metricsListener");
+    }
+
+    LexemeCombiningRuleTrie getTokenCombiningRuleTrie() {
+        LexemeCombiningRuleTrie trie = this.tokenCombiningRuleTrie;
+        if (trie == null) {
+            trie = new LexemeCombiningRuleTrie(this.tokenCombiningRules);
+            this.tokenCombiningRuleTrie = trie;
+        }
+        return trie;
+    }
+
     @Override
     public LexemeSequence createLexemeSequence(final String input, final ConversionHints hints) {
         final LexemeSequenceImpl result = new LexemeSequenceImpl(this, input);
@@ -55,11 +115,32 @@ public class LexingFactoryImpl implements LexingFactory {
         return result;
     }
 
+    /**
+     * Creates a sequence of the leading Lexemes of the input only, for recognizing the message type by the first Lexeme
+     * without tokenizing the whole input. The first Lexeme is the same as in the sequence created by
+     * {@link #createLexemeSequence(String, ConversionHints)}, unless a chain of token combinations further in the input
+     * reaches back to the first Lexeme. None of the rules configured by default do that.
+     *
+     * @param input the TAC encoded message
+     * @param hints parsing hints
+     * @return sequence of the leading lexemes
+     */
+    LexemeSequence createLeadingLexemeSequence(final String input, final ConversionHints hints) {
+        final LexemeSequenceImpl result = LexemeSequenceImpl.leadingLexemesOf(this, input);
+        appendArtifialStartTokenIfNecessary(input, result, hints);
+        return result;
+    }
+
     @Override
     public LexemeSequenceBuilder createLexemeSequenceBuilder() {
         return new LexemeSequenceBuilderImpl(this);
     }
 
+    @Override
+    public LexemeSequenceBuilder createLexemeSequenceBuilder(final boolean moveLexemes) {
+        return new LexemeSequenceBuilderImpl(this, moveLexemes);
+    }
+
     @Override
     public Lexeme createLexeme(final String token) {
         return new LexemeImpl(this, token);
@@ -100,14 +181,26 @@ public class LexingFactoryImpl implements LexingFactory {
         private String originalTac;
         private LexemeImpl head;
         private LexemeImpl tail;
+        private final LexemeIdentityIndex identityIndex = new LexemeIdentityIndex(this);
 
         LexemeSequenceImpl(final LexingFactory factory, final String originalTac) {
             this.factory = factory;
             if (originalTac != null) {
-                this.constructFromTAC(originalTac);
+                this.constructFromTAC(originalTac, false);
             }
         }
 
+        /**
+         * Creates a sequence of the leading Lexemes of the input only. Tokenizing stops as soon as the sequence holds
+         * more non-whitespace Lexemes than the longest token combining rule, so that appending more tokens will not
+         * combine the first Lexeme by any single rule.
+         */
+        static LexemeSequenceImpl leadingLexemesOf(final LexingFactory factory, final String input) {
+            final LexemeSequenceImpl retval = new LexemeSequenceImpl(factory);
+            retval.constructFromTAC(input, true);
+            return retval;
+        }
+
         LexemeSequenceImpl(final LexingFactory factory) {
             this(factory, null);
         }
@@ -147,6 +240,16 @@ public class LexingFactoryImpl implements LexingFactory {
             return Collections.unmodifiableList(retval);
         }
 
+        @Override
+        public List<Lexeme> occurrencesOf(final LexemeIdentity id) {
+            return this.identityIndex.acceptableOccurrencesOf(id);
+        }
+
+        @Override
+        public Optional<Lexeme> firstOf(final LexemeIdentity id) {
+            return Optional.ofNullable(this.identityIndex.nextAcceptable(id, -1));
+        }
+
         @Override
         public List<LexemeSequence> splitBy(final LexemeIdentity... ids) {
             return this.splitBy(true, ids);
@@ -155,23 +258,20 @@ public class LexingFactoryImpl implements LexingFactory {
         @Override
         public List<LexemeSequence> splitBy(final boolean separatorStartsSequence, final LexemeIdentity... ids) {
             final List<LexemeSequence> retval = new ArrayList<>();
+            final LexemeIdentitySet separators = LexemeIdentitySet.of(ids);
             LexemeSequenceBuilder builder = new LexemeSequenceBuilderImpl(this.factory);
             LexemeImpl l = this.head;
             boolean matchFound;
             while (l != null) {
-                matchFound = false;
-                for (final LexemeIdentity toMatch : ids) {
-                    if (toMatch.equals(l.getIdentity())) {
-                        matchFound = true;
-                        if (!separatorStartsSequence) {
-                            builder.append(l);
-                        }
-                        //Do not produce empty sequences
-                        if (!builder.isEmpty()) {
-                            retval.add(builder.build());
-                            builder = new LexemeSequenceBuilderImpl(this.factory);
-                        }
-                        break;
+                matchFound = separators.contains(l.getIdentity());
+                if (matchFound) {
+                    if (!separatorStartsSequence) {
+                        builder.append(l);
+                    }
+                    //Do not produce empty sequences
+                    if (!builder.isEmpty()) {
+                        retval.add(builder.build());
+                        builder = new LexemeSequenceBuilderImpl(this.factory);
                     }
                 }
                 if (!matchFound) {
@@ -194,20 +294,24 @@ public class LexingFactoryImpl implements LexingFactory {
          */
         @Override
         public LexemeSequence trimWhiteSpace() {
-            final LexemeSequenceBuilder builder = new LexemeSequenceBuilderImpl(this.factory);
-            Lexeme l = this.head;
-            while (l != null && LexemeIdentity.WHITE_SPACE.equals(l.getIdentity())) {
-                l = l.getNext();
+            final LexemeSequenceImpl retval = new LexemeSequenceImpl(this.factory);
+            LexemeImpl l = this.head;
+            if (l != null && LexemeIdentity.WHITE_SPACE.equals(l.getIdentity())) {
+                l = l.getNextImpl(false, false);
             }
             if (l != null) {
-                builder.append(l).appendAll(l.getTailSequence().getLexemes());
+                //The first one, the one following it and the non-ignored ones after that, as in the tail sequence of the first:
+                retval.addAsLast(new LexemeImpl(this.factory, l));
+                l = l.getNextImpl(true, true);
+                while (l != null) {
+                    retval.addAsLast(new LexemeImpl(this.factory, l));
+                    l = l.getNextImpl(false, true);
+                }
             }
-            Optional<Lexeme> last = builder.getLast();
-            while (last.isPresent() && LexemeIdentity.WHITE_SPACE.equals(last.get().getIdentity())) {
-                builder.removeLast();
-                last = builder.getLast();
+            while (retval.tail != null && LexemeIdentity.WHITE_SPACE.equals(retval.tail.getIdentity())) {
+                retval.removeLast();
             }
-            return builder.build();
+            return retval;
         }
 
         @Override
@@ -255,6 +359,7 @@ public class LexingFactoryImpl implements LexingFactory {
             final LexemeImpl oldLast = this.tail;
             final LexemeImpl prev = this.tail.getPreviousImpl(true, true);
             this.tail = replacement;
+            this.attach(replacement);
             if (oldLast == this.head) {
                 //Replacing the only token
                 this.head = replacement;
@@ -284,6 +389,7 @@ public class LexingFactoryImpl implements LexingFactory {
                 }
                 toAdd.setPrevious(null);
                 this.head = toAdd;
+                this.attach(toAdd);
                 this.updateLinksToFirst();
                 if (!toAdd.isSynthetic()) {
                     //Assume a single white space token separator:
@@ -306,6 +412,7 @@ public class LexingFactoryImpl implements LexingFactory {
                 }
                 toAdd.setNext(null);
                 this.tail = toAdd;
+                this.attach(toAdd);
             }
         }
 
@@ -315,6 +422,7 @@ public class LexingFactoryImpl implements LexingFactory {
                 this.head = this.head.getNextImpl(true, true);
                 this.head.setPrevious(null);
             }
+            this.identityIndex.invalidate();
             this.updateLinksToFirst();
             if (!removed.isSynthetic()) {
                 this.adjustIndexes(0, -(removed.getTACToken().length() + 1));
@@ -332,6 +440,7 @@ public class LexingFactoryImpl implements LexingFactory {
                     this.head = null;
                     this.tail = null;
                 }
+                this.identityIndex.invalidate();
             }
             return removed;
         }
@@ -343,6 +452,15 @@ public class LexingFactoryImpl implements LexingFactory {
             } while (removed != null && removed != starting);
         }
 
+        /*
+         * Makes the added Lexeme report its changes to the identity index of this sequence. The index is rebuilt on
+         * the next query, as the positions of the Lexemes have changed.
+         */
+        private void attach(final LexemeImpl added) {
+            added.setIdentityIndex(this.identityIndex, -1);
+            this.identityIndex.invalidate();
+        }
+
         private void updateLinksToFirst() {
             final LexemeImpl first = this.head;
             LexemeImpl l = this.head;
@@ -365,51 +483,95 @@ public class LexingFactoryImpl implements LexingFactory {
             }
         }
 
-        private void constructFromTAC(final String tac) {
+        /*
+         * Scans the input for tokens separated by the TAC delimiters, recording the token offsets while scanning.
+         * Each delimiter character is a token of its own.
+         */
+        private void constructFromTAC(final String tac, final boolean leadingLexemesOnly) {
             if (tac != null && !tac.isEmpty()) {
-                final StringTokenizer st = new StringTokenizer(tac, TAC_DELIMS, true);
+                final LexemeCombiningRuleTrie combiningRuleTrie = getCombiningRuleTrie();
+                final int leadingLexemeCount = combiningRuleTrie.getMaxRuleLength() + 1;
+                final int length = tac.length();
                 int start = 0;
-                while (st.hasMoreTokens()) {
-                    final String s = st.nextToken();
-                    start = tac.indexOf(s, start);
+                while (start < length) {
+                    final char firstChar = tac.charAt(start);
+                    int end = start + 1;
+                    if (!isDelimiter(firstChar)) {
+                        while (end < length && !isDelimiter(tac.charAt(end))) {
+                            end++;
+                        }
+                    }
                     //Special chars or space:
-                    final MeteorologicalBulletinSpecialCharacter specialCharacter = MeteorologicalBulletinSpecialCharacter.fromChar(s.charAt(0));
-                    if (s.length() == 1 && specialCharacter != null) {
-                        final LexemeImpl l = new LexemeImpl(this.factory, s, LexemeIdentity.WHITE_SPACE);
+                    final MeteorologicalBulletinSpecialCharacter specialCharacter = end - start == 1 ? MeteorologicalBulletinSpecialCharacter.fromChar(firstChar) : null;
+                    if (specialCharacter != null) {
+                        final LexemeImpl l = new LexemeImpl(this.factory, DELIMITER_TOKENS[firstChar], LexemeIdentity.WHITE_SPACE);
                         l.setStartIndex(start);
-                        l.setEndIndex(l.getStartIndex() + l.getTACToken().length() - 1);
-                        l.setParsedValue(Lexeme.ParsedValueName.TYPE, specialCharacter);
+                        l.setEndIndex(start);
+                        l.setSharedParsedValues(WHITESPACE_PARSED_VALUES.get(specialCharacter));
                         this.addAsLast(l);
                     } else {
-                        if ("=".equals(s)) {
-                            final LexemeImpl l = new LexemeImpl(this.factory, "=", LexemeIdentity.END_TOKEN);
-                            l.setStartIndex(start);
-                            l.setEndIndex(start);
-                            this.addAsLast(l);
+                        final LexemeImpl l;
+                        if (end - start == 1 && firstChar == '=') {
+                            l = new LexemeImpl(this.factory, DELIMITER_TOKENS['='], LexemeIdentity.END_TOKEN);
                         } else {
-                            final LexemeImpl l = new LexemeImpl(this.factory, s);
-                            l.setStartIndex(start);
-                            l.setEndIndex(start + l.getTACToken().length() - 1);
-                            this.addAsLast(l);
+                            l = new LexemeImpl(this.factory, tac.substring(start, end));
                         }
+                        l.setStartIndex(start);
+                        l.setEndIndex(end - 1);
+                        this.addAsLast(l);
                         if (this.tail != null && this.tail.hasPrevious()) {
-                            for (final List<Predicate<String>> combiningRule : this.factory.getTokenCombiningRules()) {
-                                this.combineMatchingTail(combiningRule);
-                            }
+                            this.combineMatchingTail(combiningRuleTrie);
+                        }
+                        if (leadingLexemesOnly && countNonWhitespaceLexemes() >= leadingLexemeCount) {
+                            // Not the complete input, leave originalTac unset
+                            return;
                         }
                     }
-                    start += s.length();
+                    start = end;
                 }
             }
             this.originalTac = tac;
         }
 
-        private void combineMatchingTail(final List<Predicate<String>> combinableTokenMatchers) {
-            final LexemeImpl combineStart = findCombinableTail(combinableTokenMatchers);
-            if (combineStart == null) {
-                return;
+        private int countNonWhitespaceLexemes() {
+            int count = 0;
+            LexemeImpl l = this.head;
+            while (l != null) {
+                if (!LexemeIdentity.WHITE_SPACE.equals(l.getIdentity())) {
+                    count++;
+                }
+                l = l.getNextImpl(true, true);
+            }
+            return count;
+        }
+
+        private LexemeCombiningRuleTrie getCombiningRuleTrie() {
+            if (this.factory instanceof LexingFactoryImpl) {
+                return ((LexingFactoryImpl) this.factory).getTokenCombiningRuleTrie();
             }
+            return new LexemeCombiningRuleTrie(this.factory.getTokenCombiningRules());
+        }
+
+        private ConversionMetricsListener getMetricsListener() {
+            if (this.factory instanceof LexingFactoryImpl) {
+                return ((LexingFactoryImpl) this.factory).getMetricsListener();
+            }
+            return ConversionMetricsListener.NO_OP;
+        }
+
+        /*
+         * Applies the combining rules in their given order, each rule seeing the tail produced by the previous ones.
+         */
+        private void combineMatchingTail(final LexemeCombiningRuleTrie combiningRuleTrie) {
+            LexemeCombiningRuleTrie.Match match = combiningRuleTrie.findFirstMatch(this.tail, 0);
+            while (match != null) {
+                combineTail((LexemeImpl) match.getStart());
+                getMetricsListener().tokensCombined(match.getRuleIndex());
+                match = combiningRuleTrie.findFirstMatch(this.tail, match.getRuleIndex() + 1);
+            }
+        }
 
+        private void combineTail(final LexemeImpl combineStart) {
             final StringBuilder contentBuilder = new StringBuilder();
             LexemeImpl current = combineStart;
             while (current != null) {
@@ -425,22 +587,6 @@ public class LexingFactoryImpl implements LexingFactory {
             addAsLast(combined);
         }
 
-        private LexemeImpl findCombinableTail(final List<Predicate<String>> combinableTokenMatchers) {
-            LexemeImpl current = this.tail;
-            int index = combinableTokenMatchers.size() - 1;
-            while (index >= 0 && current != null) {
-                if (!combinableTokenMatchers.get(index).test(current.getTACToken())) {
-                    break;
-                }
-                if (index == 0) {
-                    return current;
-                }
-                current = current.getPreviousImpl(false, false);
-                index--;
-            }
-            return null;
-        }
-
         private String getAsTAC() {
             final StringBuilder sb = new StringBuilder();
             LexemeImpl l = this.head;
@@ -456,15 +602,21 @@ public class LexingFactoryImpl implements LexingFactory {
     static class LexemeSequenceBuilderImpl implements LexemeSequenceBuilder {
         private final LexemeSequenceImpl seq;
         private final LexingFactory factory;
+        private final boolean moveLexemes;
 
         LexemeSequenceBuilderImpl(final LexingFactory factory) {
+            this(factory, false);
+        }
+
+        LexemeSequenceBuilderImpl(final LexingFactory factory, final boolean moveLexemes) {
             this.factory = factory;
+            this.moveLexemes = moveLexemes;
             seq = new LexemeSequenceImpl(factory);
         }
 
         @Override
         public LexemeSequenceBuilder append(final Lexeme lexeme) {
-            this.seq.addAsLast(new LexemeImpl(this.factory, lexeme));
+            this.seq.addAsLast(this.toAppend(lexeme));
             return this;
         }
 
@@ -477,7 +629,7 @@ public class LexingFactoryImpl implements LexingFactory {
         public LexemeSequenceBuilder appendAll(final List<Lexeme> lexemes) {
             if (lexemes != null) {
                 for (final Lexeme l : lexemes) {
-                    this.seq.addAsLast(new LexemeImpl(this.factory, l));
+                    this.seq.addAsLast(this.toAppend(l));
                 }
             }
             return this;
@@ -485,9 +637,7 @@ public class LexingFactoryImpl implements LexingFactory {
 
         @Override
         public LexemeSequenceBuilder removeLast() {
-            if (!this.seq.getLexemes(true).isEmpty()) {
-                this.seq.removeLast();
-            }
+            this.seq.removeLast();
             return this;
         }
 
@@ -498,14 +648,40 @@ public class LexingFactoryImpl implements LexingFactory {
 
         @Override
         public boolean isEmpty() {
-            return this.seq.getLexemes().isEmpty();
+            return this.seq.getFirstLexeme() == null;
+        }
+
+        /*
+         * Lexemes of this factory are moved if so requested, unless already appended to this builder, others are
+         * always copied.
+         */
+        private LexemeImpl toAppend(final Lexeme lexeme) {
+            if (this.moveLexemes && lexeme instanceof LexemeImpl) {
+                final LexemeImpl l = (LexemeImpl) lexeme;
+                if (l.factory == this.factory && l.getIdentityIndex() != this.seq.identityIndex) {
+                    return l;
+                }
+            }
+            return new LexemeImpl(this.factory, lexeme);
         }
     }
 
     static class LexemeImpl implements Lexeme {
+        private static final ParsedValueName[] INT_SLOT_NAMES = { ParsedValueName.DAY1, ParsedValueName.HOUR1, ParsedValueName.MINUTE1,
+                ParsedValueName.VALUE };
+
         private final LexingFactory factory;
         private final String tacToken;
-        private final Map<ParsedValueName, Object> parsedValues;
+        // Possibly shared with other Lexemes, copied on the first modification if so
+        private Map<ParsedValueName, Object> parsedValues = Collections.emptyMap();
+        // The number of Lexemes sharing parsedValues, or null if the map is not owned by any Lexeme and never modified
+        private AtomicInteger parsedValuesOwners;
+        // Unboxed values of INT_SLOT_NAMES, indexed by intSlotOf(ParsedValueName):
+        private int[] intValues;
+        private int intValuesSet;
+        // The view of getParsedValues() including the int values, valid while changeCount is unchanged:
+        private Map<ParsedValueName, Object> mergedParsedValues;
+        private int mergedParsedValuesChangeCount;
         private LexemeIdentity id;
         private Status status;
         private String lexerMessage;
@@ -514,6 +690,10 @@ public class LexingFactoryImpl implements LexingFactory {
         private int startIndex = -1;
         private int endIndex = -1;
         private double certainty = 0.0d;
+        private int changeCount;
+        //Identity index of the containing sequence:
+        private LexemeIdentityIndex identityIndex;
+        private int identityIndexPosition = -1;
         //Lexing navigation:
         private LexemeImpl first;
         private LexemeImpl next;
@@ -526,7 +706,22 @@ public class LexingFactoryImpl implements LexingFactory {
             this.status = lexeme.getStatus();
             this.lexerMessage = lexeme.getLexerMessage();
             this.isSynthetic = lexeme.isSynthetic();
-            this.parsedValues = new HashMap<>(lexeme.getParsedValues());
+            if (lexeme instanceof LexemeImpl) {
+                // The values are shared with the other Lexeme, whichever of the two modifies them first takes a copy
+                final LexemeImpl other = (LexemeImpl) lexeme;
+                this.parsedValues = other.parsedValues;
+                this.parsedValuesOwners = other.parsedValuesOwners;
+                if (this.parsedValuesOwners != null) {
+                    this.parsedValuesOwners.incrementAndGet();
+                }
+                if (other.intValuesSet != 0) {
+                    this.intValues = other.intValues.clone();
+                    this.intValuesSet = other.intValuesSet;
+                }
+            } else if (!lexeme.getParsedValues().isEmpty()) {
+                this.parsedValues = copyOf(lexeme.getParsedValues());
+                this.parsedValuesOwners = new AtomicInteger(1);
+            }
             this.startIndex = lexeme.getStartIndex();
             this.endIndex = lexeme.getEndIndex();
             this.certainty = lexeme.getIdentificationCertainty();
@@ -550,7 +745,53 @@ public class LexingFactoryImpl implements LexingFactory {
             this.id = identity;
             this.status = status;
             this.isSynthetic = false;
-            this.parsedValues = new HashMap<>();
+        }
+
+        /*
+         * Returns the index of the unboxed value slot of the given name, -1 if the name has no slot.
+         */
+        private static int intSlotOf(final ParsedValueName name) {
+            switch (name) {
+                case DAY1:
+                    return 0;
+                case HOUR1:
+                    return 1;
+                case MINUTE1:
+                    return 2;
+                case VALUE:
+                    return 3;
+                default:
+                    return -1;
+            }
+        }
+
+        /*
+         * Makes parsedValues modifiable by this Lexeme only, copying the map if shared with other Lexemes or not owned
+         * by any Lexeme.
+         */
+        private void ownParsedValues() {
+            final AtomicInteger owners = this.parsedValuesOwners;
+            if (owners != null && owners.get() == 1) {
+                return;
+            }
+            this.parsedValues = copyOf(this.parsedValues);
+            this.parsedValuesOwners = new AtomicInteger(1);
+            if (owners != null) {
+                owners.decrementAndGet();
+            }
+        }
+
+        /**
+         * Returns the map of the parsed values without the int values, for tests.
+         */
+        Map<ParsedValueName, Object> getParsedValueMap() {
+            return this.parsedValues;
+        }
+
+        private static Map<ParsedValueName, Object> copyOf(final Map<ParsedValueName, Object> values) {
+            final Map<ParsedValueName, Object> retval = new EnumMap<>(ParsedValueName.class);
+            retval.putAll(values);
+            return retval;
         }
 
         @Override
@@ -573,7 +814,10 @@ public class LexingFactoryImpl implements LexingFactory {
         }
 
         public void setStatus(final Status status) {
-            this.status = status;
+            if (this.status != status) {
+                this.status = status;
+                this.changeCount++;
+            }
         }
 
         @Override
@@ -583,7 +827,10 @@ public class LexingFactoryImpl implements LexingFactory {
 
         @Override
         public void setLexerMessage(final String msg) {
-            this.lexerMessage = msg;
+            if (!Objects.equals(this.lexerMessage, msg)) {
+                this.lexerMessage = msg;
+                this.changeCount++;
+            }
         }
 
         @Override
@@ -615,7 +862,7 @@ public class LexingFactoryImpl implements LexingFactory {
                             "Lexeme of identity " + this.id + " can never contain parsed value " + name + ", you should fix your code");
                 }
             }
-            final Object val = this.parsedValues.get(name);
+            final Object val = parsedValueOf(name);
             if (val != null) {
                 if (clz.isAssignableFrom(val.getClass())) {
                     return (T) val;
@@ -627,9 +874,102 @@ public class LexingFactoryImpl implements LexingFactory {
             }
         }
 
+        @Override
+        public int getParsedIntValue(final ParsedValueName name, final int defaultValue) {
+            if (this.id == null) {
+                return defaultValue;
+            } else if (!this.id.canStore(name)) {
+                throw new IllegalArgumentException("Lexeme of identity " + this.id + " can never contain parsed value " + name + ", you should fix your code");
+            }
+            final int slot = intSlotOf(name);
+            if (slot >= 0 && (this.intValuesSet & (1 << slot)) != 0) {
+                return this.intValues[slot];
+            }
+            final Object val = this.parsedValues.get(name);
+            if (val == null) {
+                return defaultValue;
+            } else if (val instanceof Integer) {
+                return (Integer) val;
+            } else {
+                throw new ClassCastException("Cannot return value of type " + val.getClass() + " as int");
+            }
+        }
+
         @Override
         public Map<ParsedValueName, Object> getParsedValues() {
-            return Collections.unmodifiableMap(this.parsedValues);
+            if (this.intValuesSet == 0) {
+                return Collections.unmodifiableMap(this.parsedValues);
+            }
+            if (this.mergedParsedValues == null || this.mergedParsedValuesChangeCount != this.changeCount) {
+                final Map<ParsedValueName, Object> retval = copyOf(this.parsedValues);
+                for (final ParsedValueName name : INT_SLOT_NAMES) {
+                    final int slot = intSlotOf(name);
+                    if ((this.intValuesSet & (1 << slot)) != 0) {
+                        retval.put(name, this.intValues[slot]);
+                    }
+                }
+                this.mergedParsedValues = Collections.unmodifiableMap(retval);
+                this.mergedParsedValuesChangeCount = this.changeCount;
+            }
+            return this.mergedParsedValues;
+        }
+
+        /**
+         * Compares the parsed values with those of the other Lexeme like comparing {@link #getParsedValues()}
+         * of both, without merging the int values into a map.
+         */
+        private boolean parsedValuesEqual(final LexemeImpl other) {
+            if (this.intValuesSet == 0 && other.intValuesSet == 0) {
+                return this.parsedValues.equals(other.parsedValues);
+            }
+            if (this.parsedValues.size() + Integer.bitCount(this.intValuesSet) != other.parsedValues.size() + Integer.bitCount(other.intValuesSet)) {
+                return false;
+            }
+            for (final Map.Entry<ParsedValueName, Object> entry : this.parsedValues.entrySet()) {
+                if (!other.hasParsedValue(entry.getKey()) || !Objects.equals(entry.getValue(), other.parsedValueOf(entry.getKey()))) {
+                    return false;
+                }
+            }
+            for (final ParsedValueName name : INT_SLOT_NAMES) {
+                final int slot = intSlotOf(name);
+                if ((this.intValuesSet & (1 << slot)) != 0) {
+                    if ((other.intValuesSet & (1 << slot)) != 0) {
+                        if (this.intValues[slot] != other.intValues[slot]) {
+                            return false;
+                        }
+                    } else {
+                        final Object value = other.parsedValues.get(name);
+                        if (!(value instanceof Integer) || (Integer) value != this.intValues[slot]) {
+                            return false;
+                        }
+                    }
+                }
+            }
+            return true;
+        }
+
+        private boolean hasParsedValue(final ParsedValueName name) {
+            final int slot = intSlotOf(name);
+            return slot >= 0 && (this.intValuesSet & (1 << slot)) != 0 || this.parsedValues.containsKey(name);
+        }
+
+        private Object parsedValueOf(final ParsedValueName name) {
+            final int slot = intSlotOf(name);
+            return slot >= 0 && (this.intValuesSet & (1 << slot)) != 0 ? Integer.valueOf(this.intValues[slot]) : this.parsedValues.get(name);
+        }
+
+        /**
+         * Returns the hash code of {@link #getParsedValues()} without merging the int values into a map.
+         */
+        private int parsedValuesHashCode() {
+            int result = this.parsedValues.hashCode();
+            for (final ParsedValueName name : INT_SLOT_NAMES) {
+                final int slot = intSlotOf(name);
+                if ((this.intValuesSet & (1 << slot)) != 0) {
+                    result += name.hashCode() ^ Integer.hashCode(this.intValues[slot]);
+                }
+            }
+            return result;
         }
 
         @Override
@@ -764,7 +1104,10 @@ public class LexingFactoryImpl implements LexingFactory {
         }
 
         public void setSynthetic(final boolean synthetic) {
-            isSynthetic = synthetic;
+            if (isSynthetic != synthetic) {
+                isSynthetic = synthetic;
+                this.changeCount++;
+            }
         }
 
         @Override
@@ -804,7 +1147,11 @@ public class LexingFactoryImpl implements LexingFactory {
          */
         @Override
         public void setIgnored(final boolean explicitlyIgnored) {
-            this.explicitlyIgnored = explicitlyIgnored;
+            if (this.explicitlyIgnored != explicitlyIgnored) {
+                this.explicitlyIgnored = explicitlyIgnored;
+                this.changeCount++;
+                this.updateIdentityIndex();
+            }
         }
 
         @Override
@@ -819,9 +1166,16 @@ public class LexingFactoryImpl implements LexingFactory {
 
         @Override
         public void identify(final LexemeIdentity id, final Status status, final String note, final double certainty) {
-            this.id = id;
-            this.status = status;
-            this.lexerMessage = note;
+            if (!Objects.equals(this.id, id) || this.status != status || !Objects.equals(this.lexerMessage, note)) {
+                final boolean identityChanged = !Objects.equals(this.id, id);
+                this.id = id;
+                this.status = status;
+                this.lexerMessage = note;
+                this.changeCount++;
+                if (identityChanged) {
+                    this.updateIdentityIndex();
+                }
+            }
             this.setIdentificationCertainty(certainty);
         }
 
@@ -842,14 +1196,98 @@ public class LexingFactoryImpl implements LexingFactory {
 
         @Override
         public void setParsedValue(final ParsedValueName name, final Object value) {
-            if (this.id != null) {
-                if (!this.id.canStore(name)) {
-                    throw new IllegalArgumentException(this.id + " can only store " + id.getPossibleNames());
-                }
-                this.parsedValues.put(name, value);
-            } else {
+            checkCanStore(name);
+            final int slot = intSlotOf(name);
+            if (slot >= 0 && (this.intValuesSet & (1 << slot)) != 0) {
+                this.intValuesSet &= ~(1 << slot);
+                this.changeCount++;
+            }
+            if (Objects.equals(this.parsedValues.get(name), value) && (value != null || this.parsedValues.containsKey(name))) {
+                return;
+            }
+            ownParsedValues();
+            if (!Objects.equals(this.parsedValues.put(name, value), value)) {
+                this.changeCount++;
+            }
+        }
+
+        @Override
+        public void setParsedIntValue(final ParsedValueName name, final int value) {
+            final int slot = intSlotOf(name);
+            if (slot < 0) {
+                setParsedValue(name, value);
+                return;
+            }
+            checkCanStore(name);
+            if (this.parsedValues.containsKey(name)) {
+                ownParsedValues();
+                this.parsedValues.remove(name);
+                this.changeCount++;
+            }
+            if (this.intValues == null) {
+                this.intValues = new int[INT_SLOT_NAMES.length];
+            }
+            if ((this.intValuesSet & (1 << slot)) == 0 || this.intValues[slot] != value) {
+                this.intValues[slot] = value;
+                this.intValuesSet |= 1 << slot;
+                this.changeCount++;
+            }
+        }
+
+        private void checkCanStore(final ParsedValueName name) {
+            if (this.id == null) {
                 throw new IllegalStateException("Cannot set parsed value before identifying Lexeme");
             }
+            if (!this.id.canStore(name)) {
+                throw new IllegalArgumentException(this.id + " can only store " + id.getPossibleNames());
+            }
+        }
+
+        /**
+         * Sets parsed values shared with other Lexemes, copied on the first modification.
+         *
+         * @param values the unmodifiable parsed values
+         */
+        void setSharedParsedValues(final Map<ParsedValueName, Object> values) {
+            if (!Objects.equals(this.parsedValues, values) || this.intValuesSet != 0) {
+                this.changeCount++;
+            }
+            if (this.parsedValuesOwners != null) {
+                this.parsedValuesOwners.decrementAndGet();
+            }
+            this.parsedValues = values;
+            this.parsedValuesOwners = null;
+            this.intValuesSet = 0;
+        }
+
+        /**
+         * Returns a counter incremented every time the identity, status, lexer message, parsed values,
+         * ignored or synthetic flag of this Lexeme is changed to a different value. Used by the lexer
+         * for detecting changes without comparing the full Lexeme state.
+         *
+         * @return the modification count
+         */
+        int getChangeCount() {
+            return this.changeCount;
+        }
+
+        LexemeIdentityIndex getIdentityIndex() {
+            return this.identityIndex;
+        }
+
+        int getIdentityIndexPosition() {
+            return this.identityIndexPosition;
+        }
+
+        void setIdentityIndex(final LexemeIdentityIndex index, final int position) {
+            this.identityIndex = index;
+            this.identityIndexPosition = position;
+        }
+
+        private void updateIdentityIndex() {
+            if (this.identityIndex != null) {
+                this.identityIndex.update(this);
+            }
         }
 
         @Override
@@ -873,17 +1311,22 @@ public class LexingFactoryImpl implements LexingFactory {
         @Override
         public Lexeme findNext(final LexemeIdentity needle, final Consumer<Lexeme> found, final LexemeParsingNotifyer notFound) {
             Lexeme retval = null;
-            Lexeme current = this.getNext();
-            if (current != null) {
-                boolean stop = false;
-                LexemeIdentity currentId;
-                while (!stop) {
-                    currentId = current.getIdentityIfAcceptable();
-                    if (needle == null || (currentId != null && currentId.equals(needle))) {
-                        retval = current;
+            final LexemeIdentityIndex index = needle == null ? null : LexemeIdentityIndex.of(this);
+            if (index != null) {
+                retval = index.nextAcceptable(needle, index.positionOf(this));
+            } else {
+                Lexeme current = this.getNext();
+                if (current != null) {
+                    boolean stop = false;
+                    LexemeIdentity currentId;
+                    while (!stop) {
+                        currentId = current.getIdentityIfAcceptable();
+                        if (needle == null || (currentId != null && currentId.equals(needle))) {
+                            retval = current;
+                        }
+                        stop = !current.hasNext() || retval != null;
+                        current = current.getNext();
                     }
-                    stop = !current.hasNext() || retval != null;
-                    current = current.getNext();
                 }
             }
             if (retval != null) {
@@ -922,7 +1365,7 @@ public class LexingFactoryImpl implements LexingFactory {
             if (status != lexeme.status) {
                 return false;
             }
-            if (parsedValues.equals(lexeme.parsedValues)) {
+            if (parsedValuesEqual(lexeme)) {
                 return false;
             }
             return Objects.equals(lexerMessage, lexeme.lexerMessage);
@@ -934,7 +1377,7 @@ public class LexingFactoryImpl implements LexingFactory {
             result = 31 * result + (status != null ? status.hashCode() : 0);
             result = 31 * result + (lexerMessage != null ? lexerMessage.hashCode() : 0);
             result = 31 * result + (isSynthetic ? 1 : 0);
-            result = 31 * result + parsedValues.hashCode();
+            result = 31 * result + parsedValuesHashCode();
             return result;
         }
     }
@@ -8,6 +8,7 @@ import fi.fmi.avi.converter.tac.lexer.LexemeVisitor;
 public abstract class PrioritizedLexemeVisitor implements LexemeVisitor, Comparable<LexemeVisitor> {
 
     private OccurrenceFrequency expectedOccurrence;
+    private boolean pinned;
 
     protected PrioritizedLexemeVisitor(final OccurrenceFrequency expectedOccurrence) {
         this.expectedOccurrence = expectedOccurrence;
@@ -30,6 +31,29 @@ public abstract class PrioritizedLexemeVisitor implements LexemeVisitor, Compara
         return this;
     }
 
+    public boolean isPinned() {
+        return this.pinned;
+    }
+
+    /**
+     * Pins the visitor to its position in the visitor chain of a {@link RecognizingAviMessageTokenLexer}. The
+     * adaptive visitor ordering never moves other visitors across a pinned one. The visitors which may match the same
+     * tokens by their patterns keep their relative order regardless, so pin the visitors whose identifications depend
+     * on the visitor order in other ways.
+     *
+     * @param pinned true to pin the visitor
+     *
+     * @see RecognizingAviMessageTokenLexer#setAdaptiveOrdering(boolean)
+     */
+    public void setPinned(final boolean pinned) {
+        this.pinned = pinned;
+    }
+
+    public PrioritizedLexemeVisitor pinned() {
+        this.setPinned(true);
+        return this;
+    }
+
     @Override
     public int compareTo(final LexemeVisitor o) {
         if (o instanceof PrioritizedLexemeVisitor) {
@@ -2,13 +2,21 @@ package fi.fmi.avi.converter.tac.lexer.impl;
 
 import fi.fmi.avi.converter.ConversionHints;
 import fi.fmi.avi.converter.tac.lexer.Lexeme;
+import fi.fmi.avi.converter.tac.lexer.LexemeIdentity;
 import fi.fmi.avi.converter.tac.lexer.LexemeSequence;
 import fi.fmi.avi.converter.tac.lexer.LexemeVisitor;
+import fi.fmi.avi.converter.tac.metrics.ConversionMetricsListener;
 import fi.fmi.avi.model.MessageType;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.regex.Pattern;
 
 import static java.util.Objects.requireNonNull;
@@ -17,9 +25,25 @@ import static java.util.Objects.requireNonNull;
  * Created by rinne on 01/02/17.
  */
 public class RecognizingAviMessageTokenLexer implements LexemeVisitor {
+    public static final int DEFAULT_REORDER_INTERVAL = 1000;
 
     private final List<PrioritizedLexemeVisitor> visitors = new ArrayList<>();
+    private final Map<PrioritizedLexemeVisitor, LongAdder> hitCounts = new IdentityHashMap<>();
+    // Guarded by this, used by reorder() only:
+    private final Map<PrioritizedLexemeVisitor, LexemeVisitorDispatchIndex.TokenProfile> tokenProfiles = new IdentityHashMap<>();
+    private final AtomicInteger messagesSinceReorder = new AtomicInteger();
     private SuitabilityTester matcher;
+    private volatile List<PrioritizedLexemeVisitor> visitorOrder;
+    private volatile LexemeVisitorDispatchIndex dispatchIndex;
+    private boolean tokenScanning;
+    private volatile boolean adaptiveOrdering;
+    private int reorderInterval = DEFAULT_REORDER_INTERVAL;
+    private ConversionMetricsListener metricsListener = ConversionMetricsListener.NO_OP;
+
+    private static boolean isPinned(final PrioritizedLexemeVisitor visitor) {
+        // The tokens identified by the visitors without a pattern cannot be analysed
+        return visitor.isPinned() || !(visitor instanceof RegexMatchingLexemeVisitor);
+    }
 
     public MessageType getMessageType() {
         return this.matcher.getMessageType();
@@ -34,21 +58,237 @@ public class RecognizingAviMessageTokenLexer implements LexemeVisitor {
     }
 
     public void teach(final PrioritizedLexemeVisitor lexer) {
+        if (lexer instanceof ScanningLexemeVisitor) {
+            ((ScanningLexemeVisitor) lexer).setTokenScanning(this.tokenScanning);
+        }
         this.visitors.add(lexer);
         Collections.sort(this.visitors);
+        this.hitCounts.put(lexer, new LongAdder());
+        this.visitorOrder = null;
+        this.dispatchIndex = null;
+    }
+
+    public boolean isTokenScanning() {
+        return this.tokenScanning;
+    }
+
+    /**
+     * Switches the taught {@link ScanningLexemeVisitor}s, and the ones taught later, between recognizing the tokens
+     * with their hand-written scanners and with their regular expressions.
+     *
+     * @param tokenScanning true to use the scanners, false to use the regular expressions
+     */
+    public void setTokenScanning(final boolean tokenScanning) {
+        this.tokenScanning = tokenScanning;
+        for (final PrioritizedLexemeVisitor visitor : this.visitors) {
+            if (visitor instanceof ScanningLexemeVisitor) {
+                ((ScanningLexemeVisitor) visitor).setTokenScanning(tokenScanning);
+            }
+        }
+    }
+
+    public ConversionMetricsListener getMetricsListener() {
+        return this.metricsListener;
+    }
+
+    public void setMetricsListener(final ConversionMetricsListener metricsListener) {
+        this.metricsListener = requireNonNull(metricsListener, "metricsListener");
+    }
+
+    public boolean isAdaptiveOrdering() {
+        return this.adaptiveOrdering;
+    }
+
+    /**
+     * Switches the adaptive visitor ordering on or off. When on, the identifications made by each visitor are
+     * counted, and after every {@link #getReorderInterval()} lexed messages the visitors are reordered by their
+     * identification counts, most identifying first. Pinned visitors, and the visitors which are not
+     * {@link RegexMatchingLexemeVisitor}s, keep their place and no visitor is moved across them. Within the
+     * unpinned stretches two visitors keep their relative order if their patterns may match the same token, judged
+     * by the possible first characters and lengths of the matching tokens, so that only the order of the visitors
+     * which cannot both identify a token changes.
+     *
+     * Switching the ordering off restores the order of the expected occurrence, but keeps the counts.
+     *
+     * @param adaptiveOrdering true to reorder the visitors by the observed identifications
+     *
+     * @see PrioritizedLexemeVisitor#setPinned(boolean)
+     */
+    public synchronized void setAdaptiveOrdering(final boolean adaptiveOrdering) {
+        this.adaptiveOrdering = adaptiveOrdering;
+        if (!adaptiveOrdering) {
+            this.visitorOrder = null;
+            this.dispatchIndex = null;
+        }
+    }
+
+    public int getReorderInterval() {
+        return this.reorderInterval;
+    }
+
+    public void setReorderInterval(final int reorderInterval) {
+        if (reorderInterval < 1) {
+            throw new IllegalArgumentException("reorderInterval must be positive: " + reorderInterval);
+        }
+        this.reorderInterval = reorderInterval;
+    }
+
+    /**
+     * @return the taught visitors in the order they are offered the tokens
+     */
+    public List<PrioritizedLexemeVisitor> getVisitorOrder() {
+        final List<PrioritizedLexemeVisitor> order = this.visitorOrder;
+        return order != null ? order : Collections.unmodifiableList(new ArrayList<>(this.visitors));
+    }
+
+    /**
+     * Returns the identification counts the adaptive order is based on, by the visitor class name. The counts can be
+     * given to {@link #setVisitorHitCounts(Map)} of another lexer for starting with the learned order.
+     *
+     * @return the identification counts in the current visitor order
+     */
+    public Map<String, Long> getVisitorHitCounts() {
+        final Map<String, Long> retval = new LinkedHashMap<>();
+        for (final PrioritizedLexemeVisitor visitor : getVisitorOrder()) {
+            retval.merge(visitor.getClass().getName(), this.hitCounts.get(visitor).sum(), Long::sum);
+        }
+        return Collections.unmodifiableMap(retval);
+    }
+
+    /**
+     * Replaces the identification counts with the given ones, and reorders the visitors accordingly if the adaptive
+     * ordering is on. The visitors not included in the counts are considered to have made no identifications.
+     *
+     * @param hitCounts the identification counts by the visitor class name
+     */
+    public synchronized void setVisitorHitCounts(final Map<String, Long> hitCounts) {
+        requireNonNull(hitCounts, "hitCounts");
+        for (final PrioritizedLexemeVisitor visitor : this.visitors) {
+            final LongAdder counter = this.hitCounts.get(visitor);
+            counter.reset();
+            counter.add(hitCounts.getOrDefault(visitor.getClass().getName(), 0L));
+        }
+        if (this.adaptiveOrdering) {
+            reorder();
+        }
+    }
+
+    /**
+     * Reorders the unpinned visitors by their identification counts, keeping the order of the expected occurrence
+     * for equal counts and for the visitors which may identify the same tokens. Called automatically every
+     * {@link #getReorderInterval()} messages when the adaptive ordering is on.
+     */
+    public synchronized void reorder() {
+        final Map<PrioritizedLexemeVisitor, Long> counts = new IdentityHashMap<>();
+        this.hitCounts.forEach((visitor, counter) -> counts.put(visitor, counter.sum()));
+        final List<PrioritizedLexemeVisitor> reordered = new ArrayList<>(this.visitors.size());
+        final List<PrioritizedLexemeVisitor> unpinned = new ArrayList<>();
+        for (final PrioritizedLexemeVisitor visitor : this.visitors) {
+            if (isPinned(visitor)) {
+                addByHitsDescending(unpinned, counts, reordered);
+                reordered.add(visitor);
+            } else {
+                unpinned.add(visitor);
+            }
+        }
+        addByHitsDescending(unpinned, counts, reordered);
+        this.messagesSinceReorder.set(0);
+        if (!reordered.equals(getVisitorOrder())) {
+            this.visitorOrder = Collections.unmodifiableList(reordered);
+            this.dispatchIndex = new LexemeVisitorDispatchIndex(reordered);
+        }
     }
 
+    /**
+     * Moves the visitors to <code>target</code> most identifying first, except that a visitor is never moved
+     * before an earlier one which may identify the same tokens.
+     */
+    private void addByHitsDescending(final List<PrioritizedLexemeVisitor> remaining, final Map<PrioritizedLexemeVisitor, Long> counts,
+            final List<PrioritizedLexemeVisitor> target) {
+        while (!remaining.isEmpty()) {
+            int selected = 0;
+            for (int i = 1; i < remaining.size(); i++) {
+                final PrioritizedLexemeVisitor candidate = remaining.get(i);
+                if (counts.get(candidate) > counts.get(remaining.get(selected)) && !mayOverlapAnyBefore(remaining, i)) {
+                    selected = i;
+                }
+            }
+            target.add(remaining.remove(selected));
+        }
+    }
+
+    private boolean mayOverlapAnyBefore(final List<PrioritizedLexemeVisitor> visitors, final int index) {
+        final LexemeVisitorDispatchIndex.TokenProfile profile = tokenProfileOf(visitors.get(index));
+        for (int i = 0; i < index; i++) {
+            if (profile.mayOverlap(tokenProfileOf(visitors.get(i)))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private LexemeVisitorDispatchIndex.TokenProfile tokenProfileOf(final PrioritizedLexemeVisitor visitor) {
+        return this.tokenProfiles.computeIfAbsent(visitor, LexemeVisitorDispatchIndex.TokenProfile::of);
+    }
+
+    /**
+     * Called by {@link AviMessageLexerImpl} after lexing a message with this lexer.
+     */
+    void messageLexed() {
+        if (this.adaptiveOrdering && this.messagesSinceReorder.incrementAndGet() >= this.reorderInterval) {
+            reorder();
+        }
+    }
+
+    /**
+     * Offers the token to the taught visitors in the order of their expected occurrence, or in the
+     * adaptive order if enabled, until the token is identified with full certainty. Visitors which cannot possibly match the token
+     * based on its first character and length are skipped.
+     *
+     * @param token to visit
+     * @param hints hints to be passed to the visitor fro guiding the possible modifications
+     */
     @Override
     public void visit(final Lexeme token, final ConversionHints hints) {
-        for (final LexemeVisitor v : visitors) {
+        final String tac = token.getTACToken();
+        final int length = tac.length();
+        final ConversionMetricsListener metrics = this.metricsListener;
+        for (final LexemeVisitorDispatchIndex.Candidate candidate : getDispatchIndex().getCandidates(tac)) {
             if (token.getIdentificationCertainty() < 1.0) {
-                token.accept(v, hints);
+                if (candidate.acceptsLength(length)) {
+                    if (metrics == ConversionMetricsListener.NO_OP && !this.adaptiveOrdering) {
+                        token.accept(candidate.getVisitor(), hints);
+                    } else {
+                        visitMeasured(token, candidate.getVisitor(), hints, metrics);
+                    }
+                }
             } else {
                 break;
             }
         }
     }
 
+    private void visitMeasured(final Lexeme token, final PrioritizedLexemeVisitor visitor, final ConversionHints hints,
+            final ConversionMetricsListener metrics) {
+        final LexemeIdentity identity = token.getIdentity();
+        final double certainty = token.getIdentificationCertainty();
+        token.accept(visitor, hints);
+        final boolean matched = !Objects.equals(identity, token.getIdentity()) || certainty != token.getIdentificationCertainty();
+        if (matched && this.adaptiveOrdering) {
+            this.hitCounts.get(visitor).increment();
+        }
+        metrics.visitorInvoked(visitor, matched);
+    }
+
+    private LexemeVisitorDispatchIndex getDispatchIndex() {
+        LexemeVisitorDispatchIndex index = this.dispatchIndex;
+        if (index == null) {
+            index = new LexemeVisitorDispatchIndex(getVisitorOrder());
+            this.dispatchIndex = index;
+        }
+        return index;
+    }
+
     public enum RelationalOperator {
         LESS_THAN("M"), MORE_THAN("P");
 
@@ -107,6 +347,16 @@ public class RecognizingAviMessageTokenLexer implements LexemeVisitor {
         boolean test(LexemeSequence sequence);
 
         MessageType getMessageType();
+
+        /**
+         * Tells whether {@link #test(LexemeSequence)} depends on the first Lexeme of the sequence only, allowing
+         * the message type to be recognized from the leading Lexemes of the input.
+         *
+         * @return true if only the first Lexeme is tested
+         */
+        default boolean testsFirstLexemeOnly() {
+            return false;
+        }
     }
 
     private static final class SuitabilityTesters {
@@ -130,6 +380,11 @@ public class RecognizingAviMessageTokenLexer implements LexemeVisitor {
             public MessageType getMessageType() {
                 return messageType;
             }
+
+            @Override
+            public boolean testsFirstLexemeOnly() {
+                return true;
+            }
         }
 
         static class FirstLexemeEquals implements SuitabilityTester {
@@ -151,6 +406,11 @@ public class RecognizingAviMessageTokenLexer implements LexemeVisitor {
             public MessageType getMessageType() {
                 return messageType;
             }
+
+            @Override
+            public boolean testsFirstLexemeOnly() {
+                return true;
+            }
         }
 
         static class FirstLexemeMatches implements SuitabilityTester {
@@ -172,6 +432,11 @@ public class RecognizingAviMessageTokenLexer implements LexemeVisitor {
             public MessageType getMessageType() {
                 return messageType;
             }
+
+            @Override
+            public boolean testsFirstLexemeOnly() {
+                return true;
+            }
         }
     }
 }
@@ -9,11 +9,22 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
 
+/**
+ * Serialization state of a single message.
+ *
+ * A context is created for each serialization call and must not be shared between threads. The given
+ * {@link ConversionHints} are not modified: {@link #setHint(ConversionHints.Key, Object)} and
+ * {@link #clearHint(ConversionHints.Key)} work on a private copy of them, shared with the contexts copied from this
+ * one after the change.
+ *
+ * @param <T> type of the message being serialized
+ */
 public class ReconstructorContext<T extends AviationWeatherMessageOrCollection> {
 
-    private final ConversionHints hints;
     private final T source;
 
+    private ConversionHints hints;
+    private boolean hintsCopied;
     private Map<String, Object> parameters;
 
     public ReconstructorContext(final T source) {
@@ -66,15 +77,24 @@ public class ReconstructorContext<T extends AviationWeatherMessageOrCollection>
     }
 
     public void setHint(final ConversionHints.Key key, final Object value) {
-        this.hints.put(key, value);
+        getModifiableHints().put(key, value);
     }
 
     public void clearHint(final ConversionHints.Key key) {
-        this.hints.remove(key);
+        getModifiableHints().remove(key);
+    }
+
+    private ConversionHints getModifiableHints() {
+        if (!this.hintsCopied) {
+            this.hints = this.hints == null ? new ConversionHints() : new ConversionHints(this.hints);
+            this.hintsCopied = true;
+        }
+        return this.hints;
     }
 
     public ReconstructorContext<T> copyWithParameter(final String name, final Object value) {
         final ReconstructorContext<T> retval = new ReconstructorContext<>(this.source, this.hints);
+        retval.hintsCopied = this.hintsCopied;
         retval.parameters = new HashMap<>(this.parameters);
         retval.parameters.put(name, value);
         return retval;
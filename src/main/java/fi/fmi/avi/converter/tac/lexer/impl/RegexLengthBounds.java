@@ -0,0 +1,360 @@
+package fi.fmi.avi.converter.tac.lexer.impl;
+
+import java.util.regex.Pattern;
+
+/**
+ * Conservative estimate of the minimum and maximum length of the input a regular expression
+ * can match as a whole.
+ *
+ * Only the commonly used subset of the {@link Pattern} syntax is analysed: literals, escapes,
+ * character classes, groups, lookarounds, alternation and quantifiers. For any other construct
+ * (such as back references or comments mode) the bounds fall back to [0, {@link Integer#MAX_VALUE}],
+ * which never excludes any input. The patterns are expected to be compiled ones, but any syntax the analysis cannot
+ * follow makes it fail explicitly with the fallback bounds instead of an error.
+ */
+final class RegexLengthBounds {
+    static final int UNBOUNDED = Integer.MAX_VALUE;
+    private static final RegexLengthBounds ANY = new RegexLengthBounds(0, UNBOUNDED);
+
+    private final int min;
+    private final int max;
+
+    private RegexLengthBounds(final int min, final int max) {
+        this.min = min;
+        this.max = max;
+    }
+
+    static RegexLengthBounds of(final Pattern pattern) {
+        if (pattern.flags() != 0) {
+            return ANY;
+        }
+        try {
+            final Parser parser = new Parser(pattern.pattern());
+            final RegexLengthBounds retval = parser.parseAlternation();
+            if (parser.pos != parser.regex.length()) {
+                return ANY;
+            }
+            return retval;
+        } catch (final UnsupportedSyntaxException e) {
+            return ANY;
+        }
+    }
+
+    private static int add(final int a, final int b) {
+        if (a == UNBOUNDED || b == UNBOUNDED) {
+            return UNBOUNDED;
+        }
+        final long sum = (long) a + b;
+        return sum >= UNBOUNDED ? UNBOUNDED : (int) sum;
+    }
+
+    private static int multiply(final int a, final int b) {
+        if (a == 0 || b == 0) {
+            return 0;
+        }
+        if (a == UNBOUNDED || b == UNBOUNDED) {
+            return UNBOUNDED;
+        }
+        final long product = (long) a * b;
+        return product >= UNBOUNDED ? UNBOUNDED : (int) product;
+    }
+
+    int getMin() {
+        return min;
+    }
+
+    int getMax() {
+        return max;
+    }
+
+    @Override
+    public String toString() {
+        return "[" + min + ", " + (max == UNBOUNDED ? "*" : String.valueOf(max)) + "]";
+    }
+
+    private static final class Parser {
+        private final String regex;
+        private int pos;
+
+        Parser(final String regex) {
+            this.regex = regex;
+        }
+
+        private char charAt(final int index) {
+            if (index >= regex.length()) {
+                throw new UnsupportedSyntaxException("Unexpected end of pattern at " + index);
+            }
+            return regex.charAt(index);
+        }
+
+        private int indexOf(final String str, final int fromIndex, final String construct) {
+            final int retval = regex.indexOf(str, fromIndex);
+            if (retval < 0) {
+                throw new UnsupportedSyntaxException("Unterminated " + construct + " at " + fromIndex);
+            }
+            return retval;
+        }
+
+        private static int parseBound(final String bound) {
+            final String trimmed = bound.trim();
+            if (trimmed.isEmpty()) {
+                throw new UnsupportedSyntaxException("Missing quantifier bound");
+            }
+            for (int i = 0; i < trimmed.length(); i++) {
+                if (trimmed.charAt(i) < '0' || trimmed.charAt(i) > '9') {
+                    throw new UnsupportedSyntaxException("Invalid quantifier bound " + trimmed);
+                }
+            }
+            try {
+                return Integer.parseInt(trimmed);
+            } catch (final NumberFormatException e) {
+                throw new UnsupportedSyntaxException("Quantifier bound out of range " + trimmed);
+            }
+        }
+
+        private void skip(final int count) {
+            if (pos + count > regex.length()) {
+                throw new UnsupportedSyntaxException("Unexpected end of pattern at " + regex.length());
+            }
+            pos += count;
+        }
+
+        RegexLengthBounds parseAlternation() {
+            RegexLengthBounds retval = parseSequence();
+            while (pos < regex.length() && charAt(pos) == '|') {
+                pos++;
+                final RegexLengthBounds alternative = parseSequence();
+                retval = new RegexLengthBounds(Math.min(retval.min, alternative.min), Math.max(retval.max, alternative.max));
+            }
+            return retval;
+        }
+
+        private RegexLengthBounds parseSequence() {
+            int min = 0;
+            int max = 0;
+            while (pos < regex.length() && charAt(pos) != '|' && charAt(pos) != ')') {
+                final RegexLengthBounds atom = parseQuantified(parseAtom());
+                min = add(min, atom.min);
+                max = add(max, atom.max);
+            }
+            return new RegexLengthBounds(min, max);
+        }
+
+        private RegexLengthBounds parseQuantified(final RegexLengthBounds atom) {
+            if (pos >= regex.length()) {
+                return atom;
+            }
+            final int lower;
+            final int upper;
+            final char c = charAt(pos);
+            if (c == '?') {
+                lower = 0;
+                upper = 1;
+                pos++;
+            } else if (c == '*') {
+                lower = 0;
+                upper = UNBOUNDED;
+                pos++;
+            } else if (c == '+') {
+                lower = 1;
+                upper = UNBOUNDED;
+                pos++;
+            } else if (c == '{') {
+                final int end = indexOf("}", pos, "quantifier");
+                final String range = regex.substring(pos + 1, end);
+                final int comma = range.indexOf(',');
+                if (comma < 0) {
+                    lower = parseBound(range);
+                    upper = lower;
+                } else {
+                    lower = parseBound(range.substring(0, comma));
+                    final String upperStr = range.substring(comma + 1).trim();
+                    upper = upperStr.isEmpty() ? UNBOUNDED : parseBound(upperStr);
+                }
+                pos = end + 1;
+            } else {
+                return atom;
+            }
+            // Lazy and possessive modifiers do not affect the length bounds of a whole match
+            if (pos < regex.length() && (charAt(pos) == '?' || charAt(pos) == '+')) {
+                pos++;
+            }
+            return new RegexLengthBounds(multiply(atom.min, lower), multiply(atom.max, upper));
+        }
+
+        private RegexLengthBounds parseAtom() {
+            final char c = charAt(pos);
+            switch (c) {
+                case '^':
+                case '$':
+                    pos++;
+                    return new RegexLengthBounds(0, 0);
+                case '.':
+                    pos++;
+                    return new RegexLengthBounds(1, 1);
+                case '[':
+                    skipCharacterClass();
+                    return new RegexLengthBounds(1, 1);
+                case '(':
+                    return parseGroup();
+                case '\\':
+                    return parseEscape();
+                case '*':
+                case '+':
+                case '?':
+                case '{':
+                    throw new UnsupportedSyntaxException("Dangling quantifier at " + pos);
+                default:
+                    pos++;
+                    if (Character.isHighSurrogate(c) && pos < regex.length() && Character.isLowSurrogate(charAt(pos))) {
+                        // A supplementary code point is two chars of input
+                        pos++;
+                        return new RegexLengthBounds(2, 2);
+                    }
+                    return new RegexLengthBounds(1, 1);
+            }
+        }
+
+        private RegexLengthBounds parseGroup() {
+            pos++;
+            boolean zeroWidth = false;
+            if (charAt(pos) == '?') {
+                pos++;
+                final char kind = charAt(pos);
+                if (kind == ':' || kind == '>') {
+                    pos++;
+                } else if (kind == '=' || kind == '!') {
+                    pos++;
+                    zeroWidth = true;
+                } else if (kind == '<') {
+                    pos++;
+                    final char next = charAt(pos);
+                    if (next == '=' || next == '!') {
+                        pos++;
+                        zeroWidth = true;
+                    } else {
+                        // named group
+                        pos = indexOf(">", pos, "group name") + 1;
+                    }
+                } else {
+                    // inline flags, either (?idmsux-idmsux) or (?idmsux-idmsux:X)
+                    while (charAt(pos) != ')' && charAt(pos) != ':') {
+                        final char flag = charAt(pos);
+                        if (flag == 'x' || flag == 'u' || flag == 'U') {
+                            throw new UnsupportedSyntaxException("Unsupported inline flag " + flag);
+                        }
+                        pos++;
+                    }
+                    if (charAt(pos) == ')') {
+                        pos++;
+                        return new RegexLengthBounds(0, 0);
+                    }
+                    pos++;
+                }
+            }
+            final RegexLengthBounds content = parseAlternation();
+            if (charAt(pos) != ')') {
+                throw new UnsupportedSyntaxException("Unterminated group");
+            }
+            pos++;
+            return zeroWidth ? new RegexLengthBounds(0, 0) : content;
+        }
+
+        private RegexLengthBounds parseEscape() {
+            pos++;
+            final char c = charAt(pos);
+            pos++;
+            switch (c) {
+                case 'b':
+                case 'B':
+                case 'A':
+                case 'G':
+                case 'z':
+                case 'Z':
+                    return new RegexLengthBounds(0, 0);
+                case 'Q': {
+                    // The quote runs to the end of the pattern if not terminated
+                    final int end = regex.indexOf("\\E", pos);
+                    final int literalEnd = end < 0 ? regex.length() : end;
+                    final int length = literalEnd - pos;
+                    pos = end < 0 ? regex.length() : end + 2;
+                    return new RegexLengthBounds(length, length);
+                }
+                case 'p':
+                case 'P':
+                    if (charAt(pos) == '{') {
+                        pos = indexOf("}", pos, "property") + 1;
+                    } else {
+                        pos++;
+                    }
+                    return new RegexLengthBounds(1, 1);
+                case 'x':
+                    if (charAt(pos) == '{') {
+                        // may denote a supplementary code point
+                        pos = indexOf("}", pos, "hex escape") + 1;
+                        return new RegexLengthBounds(1, 2);
+                    }
+                    skip(2);
+                    return new RegexLengthBounds(1, 1);
+                case 'u':
+                    skip(4);
+                    return new RegexLengthBounds(1, 1);
+                case 'R':
+                    // linebreak matcher, may match \r\n
+                    return new RegexLengthBounds(1, 2);
+                case '0':
+                case 'c':
+                case 'k':
+                case 'X':
+                    throw new UnsupportedSyntaxException("Unsupported escape \\" + c);
+                default:
+                    if (c >= '1' && c <= '9') {
+                        throw new UnsupportedSyntaxException("Back references are not supported");
+                    }
+                    return new RegexLengthBounds(1, 1);
+            }
+        }
+
+        private void skipCharacterClass() {
+            int depth = 0;
+            do {
+                final char c = charAt(pos);
+                if (c == '\\') {
+                    if (charAt(pos + 1) == 'Q') {
+                        pos = indexOf("\\E", pos + 2, "quote") + 2;
+                        continue;
+                    }
+                    pos += 2;
+                    continue;
+                }
+                if (c == '[') {
+                    depth++;
+                    pos++;
+                    // A ']' right after the opening bracket (or its negation) is a literal
+                    if (charAt(pos) == '^') {
+                        pos++;
+                    }
+                    if (charAt(pos) == ']') {
+                        pos++;
+                    }
+                    continue;
+                }
+                if (c == ']') {
+                    depth--;
+                }
+                pos++;
+            } while (depth > 0);
+        }
+    }
+
+    /**
+     * Thrown by the parser for the regular expression syntax it does not analyse.
+     */
+    private static final class UnsupportedSyntaxException extends IllegalArgumentException {
+        private static final long serialVersionUID = 1L;
+
+        UnsupportedSyntaxException(final String message) {
+            super(message);
+        }
+    }
+}
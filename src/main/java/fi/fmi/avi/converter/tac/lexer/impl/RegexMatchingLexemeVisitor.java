@@ -24,15 +24,7 @@ public abstract class RegexMatchingLexemeVisitor extends PrioritizedLexemeVisito
     }
 
     public static boolean hasPreceedingLexeme(final Lexeme token, final LexemeIdentity id) {
-        Lexeme previous = token.getPrevious();
-
-        while (previous != null) {
-            if (previous.getIdentity().equals(id)) {
-                return true;
-            }
-            previous = previous.getPrevious();
-        }
-        return false;
+        return LexemeUtils.existsPreviousLexeme(token, id);
     }
 
     public Pattern getPattern() {
@@ -41,11 +33,25 @@ public abstract class RegexMatchingLexemeVisitor extends PrioritizedLexemeVisito
 
     @Override
     public final void visit(final Lexeme token, final ConversionHints hints) {
+        if (this.visitIfScanned(token, hints)) {
+            return;
+        }
         final Matcher m = this.pattern.matcher(token.getTACToken());
         if (m.matches()) {
             this.visitIfMatched(token, m, hints);
         }
     }
 
+    /**
+     * Recognizes the token without the pattern, see {@link ScanningLexemeVisitor}.
+     *
+     * @param token the token to visit
+     * @param hints the conversion hints
+     * @return false if the token was not scanned and must be matched with the pattern instead
+     */
+    boolean visitIfScanned(final Lexeme token, final ConversionHints hints) {
+        return false;
+    }
+
     public abstract void visitIfMatched(final Lexeme token, final Matcher match, final ConversionHints hints);
 }
@@ -0,0 +1,127 @@
+package fi.fmi.avi.converter.tac.lexer.impl;
+
+import java.util.Arrays;
+import java.util.regex.MatchResult;
+
+/**
+ * A {@link MatchResult} of a hand-written token scanner, see {@link ScanningLexemeVisitor#scan(String)}.
+ *
+ * The groups are recorded as offsets of the scanned token, and only turned into Strings when asked for. Groups which did
+ * not participate in the match have the start and end offset of -1, as in {@link java.util.regex.Matcher}.
+ */
+public final class ScannedMatch implements MatchResult {
+    private final String input;
+    private final int[] offsets;
+
+    /**
+     * Creates a match of the whole input with all the capturing groups unmatched.
+     *
+     * @param input the scanned token
+     * @param groupCount the number of capturing groups in the corresponding pattern
+     */
+    public ScannedMatch(final String input, final int groupCount) {
+        this.input = input;
+        this.offsets = new int[(groupCount + 1) * 2];
+        Arrays.fill(this.offsets, 2, this.offsets.length, -1);
+        this.offsets[1] = input.length();
+    }
+
+    /**
+     * Sets the offsets of a capturing group.
+     *
+     * @param group the group number, starting from 1
+     * @param start the offset of the first character of the group
+     * @param end the offset after the last character of the group
+     * @return this match
+     */
+    public ScannedMatch set(final int group, final int start, final int end) {
+        if (group < 1 || group > groupCount()) {
+            throw new IndexOutOfBoundsException("No group " + group);
+        }
+        this.offsets[group * 2] = start;
+        this.offsets[group * 2 + 1] = end;
+        return this;
+    }
+
+    /**
+     * Parses the digits of a matched group without creating a substring. The group must only contain ASCII digits,
+     * as the groups of the patterns parsed with {@link Integer#parseInt(String)} do.
+     *
+     * @param match the match result
+     * @param input the matched token
+     * @param group the group number
+     * @return the parsed value
+     */
+    public static int parseInt(final MatchResult match, final String input, final int group) {
+        return parseInt(input, match.start(group), match.end(group));
+    }
+
+    /**
+     * Parses the ASCII digits of the input between the given offsets.
+     *
+     * @param input the token
+     * @param start the offset of the first digit
+     * @param end the offset after the last digit
+     * @return the parsed value
+     */
+    public static int parseInt(final String input, final int start, final int end) {
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            value = value * 10 + (input.charAt(i) - '0');
+        }
+        return value;
+    }
+
+    @Override
+    public int start() {
+        return 0;
+    }
+
+    @Override
+    public int start(final int group) {
+        checkGroup(group);
+        return this.offsets[group * 2];
+    }
+
+    @Override
+    public int end() {
+        return this.input.length();
+    }
+
+    @Override
+    public int end(final int group) {
+        checkGroup(group);
+        return this.offsets[group * 2 + 1];
+    }
+
+    @Override
+    public String group() {
+        return this.input;
+    }
+
+    @Override
+    public String group(final int group) {
+        final int start = start(group);
+        return start < 0 ? null : this.input.substring(start, this.offsets[group * 2 + 1]);
+    }
+
+    @Override
+    public int groupCount() {
+        return this.offsets.length / 2 - 1;
+    }
+
+    private void checkGroup(final int group) {
+        if (group < 0 || group > groupCount()) {
+            throw new IndexOutOfBoundsException("No group " + group);
+        }
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("ScannedMatch[").append(this.input);
+        for (int g = 1; g <= groupCount(); g++) {
+            sb.append(", ").append(g).append('=').append(group(g));
+        }
+        return sb.append(']').toString();
+    }
+}
@@ -0,0 +1,119 @@
+package fi.fmi.avi.converter.tac.lexer.impl;
+
+import java.util.regex.MatchResult;
+import java.util.regex.Matcher;
+
+import fi.fmi.avi.converter.ConversionHints;
+import fi.fmi.avi.converter.tac.lexer.Lexeme;
+
+/**
+ * A {@link RegexMatchingLexemeVisitor} which can also recognize the tokens with a hand-written scanner instead of the
+ * regular expression.
+ *
+ * The scanner of a subclass must accept exactly the same tokens as the pattern, and return the same capturing groups as
+ * the {@link Matcher} would, so that {@link #visitIfMatched(Lexeme, MatchResult, ConversionHints)} produces the same
+ * Lexemes in both modes. The pattern is still used for indexing the visitors by the first character and length of the
+ * token. Scanning is disabled by default, see {@link AviMessageLexerImpl#setTokenScanning(boolean)}.
+ */
+public abstract class ScanningLexemeVisitor extends RegexMatchingLexemeVisitor {
+
+    private volatile boolean tokenScanning;
+
+    protected ScanningLexemeVisitor(final String pattern, final OccurrenceFrequency priority) {
+        super(pattern, priority);
+    }
+
+    protected static boolean isDigits(final String token, final int from, final int count) {
+        return isAll(token, from, count, '0', '9');
+    }
+
+    protected static boolean isUpperCaseLetters(final String token, final int from, final int count) {
+        return isAll(token, from, count, 'A', 'Z');
+    }
+
+    protected static boolean isRepeated(final String token, final int from, final int count, final char c) {
+        return isAll(token, from, count, c, c);
+    }
+
+    private static boolean isAll(final String token, final int from, final int count, final char min, final char max) {
+        if (from < 0 || from + count > token.length()) {
+            return false;
+        }
+        for (int i = from; i < from + count; i++) {
+            final char c = token.charAt(i);
+            if (c < min || c > max) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    protected static boolean isAt(final String token, final int index, final char c) {
+        return index < token.length() && token.charAt(index) == c;
+    }
+
+    protected static boolean isAnyAt(final String token, final int index, final String chars) {
+        return index < token.length() && chars.indexOf(token.charAt(index)) >= 0;
+    }
+
+    protected static int countDigits(final String token, final int from) {
+        int i = from;
+        while (i < token.length() && token.charAt(i) >= '0' && token.charAt(i) <= '9') {
+            i++;
+        }
+        return i - from;
+    }
+
+    /**
+     * Tells whether the rest of the token starting from the given offset equals one of the alternatives.
+     */
+    protected static boolean isRestOneOf(final String token, final int from, final String[] alternatives) {
+        final int length = token.length() - from;
+        for (final String alternative : alternatives) {
+            if (alternative.length() == length && token.startsWith(alternative, from)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean isTokenScanning() {
+        return tokenScanning;
+    }
+
+    public void setTokenScanning(final boolean tokenScanning) {
+        this.tokenScanning = tokenScanning;
+    }
+
+    /**
+     * Recognizes the token without the regular expression.
+     *
+     * @param token the TAC token
+     * @return the groups the pattern would capture, or null if the pattern does not match the token
+     */
+    public abstract MatchResult scan(String token);
+
+    @Override
+    boolean visitIfScanned(final Lexeme token, final ConversionHints hints) {
+        if (!this.tokenScanning) {
+            return false;
+        }
+        final MatchResult match = this.scan(token.getTACToken());
+        if (match != null) {
+            this.visitIfMatched(token, match, hints);
+        }
+        return true;
+    }
+
+    /**
+     * Delegates to {@link #visitIfMatched(Lexeme, MatchResult, ConversionHints)}. Scanned tokens are passed to that
+     * method directly, so a subclass overriding this method changes the handling of the regular expression matches
+     * only.
+     */
+    @Override
+    public void visitIfMatched(final Lexeme token, final Matcher match, final ConversionHints hints) {
+        this.visitIfMatched(token, (MatchResult) match, hints);
+    }
+
+    public abstract void visitIfMatched(final Lexeme token, final MatchResult match, final ConversionHints hints);
+}
@@ -40,9 +40,9 @@ public class AdvisoryPhenomenaTimeGroup extends RegexMatchingLexemeVisitor {
                 if (hour < INVALID_MIDNIGHT) {
                     try {
                         final TemporalAccessor parsed = ADVISORY_PHENOMENA_TIME_FORMAT.parse(token.getTACToken());
-                        token.setParsedValue(Lexeme.ParsedValueName.DAY1, parsed.get(ChronoField.DAY_OF_MONTH));
-                        token.setParsedValue(Lexeme.ParsedValueName.HOUR1, parsed.get(ChronoField.HOUR_OF_DAY));
-                        token.setParsedValue(Lexeme.ParsedValueName.MINUTE1, parsed.get(ChronoField.MINUTE_OF_HOUR));
+                        token.setParsedIntValue(Lexeme.ParsedValueName.DAY1, parsed.get(ChronoField.DAY_OF_MONTH));
+                        token.setParsedIntValue(Lexeme.ParsedValueName.HOUR1, parsed.get(ChronoField.HOUR_OF_DAY));
+                        token.setParsedIntValue(Lexeme.ParsedValueName.MINUTE1, parsed.get(ChronoField.MINUTE_OF_HOUR));
                     } catch (final DateTimeException e) {
                         // NOOP, ignore silently if the time is not valid
                     }
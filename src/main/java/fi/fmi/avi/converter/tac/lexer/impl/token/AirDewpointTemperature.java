@@ -6,7 +6,7 @@ import static fi.fmi.avi.converter.tac.lexer.LexemeIdentity.AIR_DEWPOINT_TEMPERA
 
 import java.util.Locale;
 import java.util.Optional;
-import java.util.regex.Matcher;
+import java.util.regex.MatchResult;
 
 import fi.fmi.avi.converter.ConversionHints;
 import fi.fmi.avi.converter.tac.lexer.Lexeme;
@@ -14,7 +14,8 @@ import fi.fmi.avi.converter.tac.lexer.LexemeIdentity;
 import fi.fmi.avi.converter.tac.lexer.SerializingException;
 import fi.fmi.avi.converter.tac.lexer.impl.FactoryBasedReconstructor;
 import fi.fmi.avi.converter.tac.lexer.impl.ReconstructorContext;
-import fi.fmi.avi.converter.tac.lexer.impl.RegexMatchingLexemeVisitor;
+import fi.fmi.avi.converter.tac.lexer.impl.ScannedMatch;
+import fi.fmi.avi.converter.tac.lexer.impl.ScanningLexemeVisitor;
 import fi.fmi.avi.model.AviationWeatherMessageOrCollection;
 import fi.fmi.avi.model.NumericMeasure;
 import fi.fmi.avi.model.metar.MeteorologicalTerminalAirReport;
@@ -22,26 +23,54 @@ import fi.fmi.avi.model.metar.MeteorologicalTerminalAirReport;
 /**
  * Created by rinne on 10/02/17.
  */
-public class AirDewpointTemperature extends RegexMatchingLexemeVisitor {
+public class AirDewpointTemperature extends ScanningLexemeVisitor {
 
     public AirDewpointTemperature(final OccurrenceFrequency prio) {
         super("^(M)?([0-9]{2}|//)/(M)?([0-9]{2}|//)$", prio);
     }
 
+    private static boolean isTemperature(final String token, final int from) {
+        return isDigits(token, from, 2) || isRepeated(token, from, 2, '/');
+    }
+
+    @Override
+    public MatchResult scan(final String token) {
+        final ScannedMatch match = new ScannedMatch(token, 4);
+        int i = 0;
+        if (isAt(token, i, 'M')) {
+            match.set(1, i, ++i);
+        }
+        if (!isTemperature(token, i)) {
+            return null;
+        }
+        match.set(2, i, i += 2);
+        if (!isAt(token, i++, '/')) {
+            return null;
+        }
+        if (isAt(token, i, 'M')) {
+            match.set(3, i, ++i);
+        }
+        if (!isTemperature(token, i) || i + 2 != token.length()) {
+            return null;
+        }
+        return match.set(4, i, i + 2);
+    }
+
     @Override
-    public void visitIfMatched(final Lexeme token, final Matcher match, final ConversionHints hints) {
+    public void visitIfMatched(final Lexeme token, final MatchResult match, final ConversionHints hints) {
+        final String tac = token.getTACToken();
         Double airTemp = null;
         Double dewPointTemp = null;
-        if (!"//".equals(match.group(2))) {
-            airTemp = Double.valueOf(match.group(2));
+        if (tac.charAt(match.start(2)) != '/') {
+            airTemp = (double) ScannedMatch.parseInt(match, tac, 2);
         }
-        if (!"//".equals(match.group(4))) {
-            dewPointTemp = Double.valueOf(match.group(4));
+        if (tac.charAt(match.start(4)) != '/') {
+            dewPointTemp = (double) ScannedMatch.parseInt(match, tac, 4);
         }
         final Double[] values = new Double[2];
         boolean missingValues = false;
         if (airTemp != null) {
-            if (match.group(1) != null) {
+            if (match.start(1) >= 0) {
                 if (1.0d / airTemp == Double.POSITIVE_INFINITY) {
                     airTemp = -0.0d; //explicit value required, 0.0d != -0.0d
                 } else {
@@ -53,7 +82,7 @@ public class AirDewpointTemperature extends RegexMatchingLexemeVisitor {
             missingValues = true;
         }
         if (dewPointTemp != null) {
-            if (match.group(3) != null) {
+            if (match.start(3) >= 0) {
                 if (1.0d / dewPointTemp == Double.POSITIVE_INFINITY) {
                     dewPointTemp = -0.0d;
                 } else {
@@ -30,9 +30,9 @@ public class AirmetCancel extends RegexMatchingLexemeVisitor {
     public void visitIfMatched(final Lexeme token, final Matcher match, final ConversionHints hints) {
         token.identify(AIRMET_CANCEL);
         token.setParsedValue(ParsedValueName.SEQUENCE_DESCRIPTOR, match.group(1));
-        token.setParsedValue(ParsedValueName.DAY1, Integer.valueOf(match.group(2)));
-        token.setParsedValue(ParsedValueName.HOUR1, Integer.valueOf(match.group(3)));
-        token.setParsedValue(ParsedValueName.MINUTE1, Integer.valueOf(match.group(4)));
+        token.setParsedIntValue(ParsedValueName.DAY1, Integer.parseInt(match.group(2)));
+        token.setParsedIntValue(ParsedValueName.HOUR1, Integer.parseInt(match.group(3)));
+        token.setParsedIntValue(ParsedValueName.MINUTE1, Integer.parseInt(match.group(4)));
         token.setParsedValue(ParsedValueName.DAY2, Integer.valueOf(match.group(5)));
         token.setParsedValue(ParsedValueName.HOUR2, Integer.valueOf(match.group(6)));
         token.setParsedValue(ParsedValueName.MINUTE2, Integer.valueOf(match.group(7)));
@@ -39,8 +39,8 @@ public class AirmetSigmetObsOrForecast extends RegexMatchingLexemeVisitor {
             token.setParsedValue(IS_FORECAST, !"OBS".equals(match.group(1)));
             if (match.group(3) != null && !match.group(3).isEmpty() &&
                     (match.group(4) != null) && !match.group(4).isEmpty()) {
-                token.setParsedValue(HOUR1, Integer.valueOf(match.group(3)));
-                token.setParsedValue(MINUTE1, Integer.valueOf(match.group(4)));
+                token.setParsedIntValue(HOUR1, Integer.parseInt(match.group(3)));
+                token.setParsedIntValue(MINUTE1, Integer.parseInt(match.group(4)));
             }
         }
     }
@@ -6,7 +6,7 @@ import static fi.fmi.avi.converter.tac.lexer.LexemeIdentity.AIR_PRESSURE_QNH;
 
 import java.util.Locale;
 import java.util.Optional;
-import java.util.regex.Matcher;
+import java.util.regex.MatchResult;
 
 import fi.fmi.avi.converter.ConversionHints;
 import fi.fmi.avi.converter.tac.lexer.Lexeme;
@@ -14,7 +14,8 @@ import fi.fmi.avi.converter.tac.lexer.LexemeIdentity;
 import fi.fmi.avi.converter.tac.lexer.SerializingException;
 import fi.fmi.avi.converter.tac.lexer.impl.FactoryBasedReconstructor;
 import fi.fmi.avi.converter.tac.lexer.impl.ReconstructorContext;
-import fi.fmi.avi.converter.tac.lexer.impl.RegexMatchingLexemeVisitor;
+import fi.fmi.avi.converter.tac.lexer.impl.ScannedMatch;
+import fi.fmi.avi.converter.tac.lexer.impl.ScanningLexemeVisitor;
 import fi.fmi.avi.model.AviationWeatherMessageOrCollection;
 import fi.fmi.avi.model.NumericMeasure;
 import fi.fmi.avi.model.metar.MeteorologicalTerminalAirReport;
@@ -22,18 +23,27 @@ import fi.fmi.avi.model.metar.MeteorologicalTerminalAirReport;
 /**
  * Created by rinne on 10/02/17.
  */
-public class AtmosphericPressureQNH extends RegexMatchingLexemeVisitor {
+public class AtmosphericPressureQNH extends ScanningLexemeVisitor {
 
     public AtmosphericPressureQNH(final OccurrenceFrequency prio) {
         super("^([AQ])([0-9]{4}|////)$", prio);
     }
 
     @Override
-    public void visitIfMatched(final Lexeme token, final Matcher match, final ConversionHints hints) {
+    public MatchResult scan(final String token) {
+        if (token.length() == 5 && isAnyAt(token, 0, "AQ") && (isDigits(token, 1, 4) || isRepeated(token, 1, 4, '/'))) {
+            return new ScannedMatch(token, 2).set(1, 0, 1).set(2, 1, 5);
+        }
+        return null;
+    }
+
+    @Override
+    public void visitIfMatched(final Lexeme token, final MatchResult match, final ConversionHints hints) {
+        final String tac = token.getTACToken();
         final PressureMeasurementUnit unit = PressureMeasurementUnit.forCode(match.group(1));
         Integer value = null;
-        if (!"////".equals(match.group(2))) {
-            value = Integer.valueOf(match.group(2));
+        if (tac.charAt(match.start(2)) != '/') {
+            value = ScannedMatch.parseInt(match, tac, 2);
         }
         if (value != null) {
             token.identify(AIR_PRESSURE_QNH);
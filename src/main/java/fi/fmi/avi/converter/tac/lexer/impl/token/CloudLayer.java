@@ -6,9 +6,8 @@ import static fi.fmi.avi.converter.tac.lexer.Lexeme.ParsedValueName.UNIT;
 import static fi.fmi.avi.converter.tac.lexer.Lexeme.ParsedValueName.VALUE;
 import static fi.fmi.avi.converter.tac.lexer.LexemeIdentity.CLOUD;
 
-import java.util.Locale;
 import java.util.Optional;
-import java.util.regex.Matcher;
+import java.util.regex.MatchResult;
 
 import fi.fmi.avi.converter.ConversionHints;
 import fi.fmi.avi.converter.tac.lexer.Lexeme;
@@ -16,7 +15,9 @@ import fi.fmi.avi.converter.tac.lexer.LexemeIdentity;
 import fi.fmi.avi.converter.tac.lexer.SerializingException;
 import fi.fmi.avi.converter.tac.lexer.impl.FactoryBasedReconstructor;
 import fi.fmi.avi.converter.tac.lexer.impl.ReconstructorContext;
-import fi.fmi.avi.converter.tac.lexer.impl.RegexMatchingLexemeVisitor;
+import fi.fmi.avi.converter.tac.lexer.impl.ScannedMatch;
+import fi.fmi.avi.converter.tac.lexer.impl.ScanningLexemeVisitor;
+import fi.fmi.avi.converter.tac.lexer.impl.util.TACNumberFormat;
 import fi.fmi.avi.model.AviationCodeListUser.CloudAmount;
 import fi.fmi.avi.model.AviationWeatherMessageOrCollection;
 import fi.fmi.avi.model.CloudForecast;
@@ -32,60 +33,108 @@ import fi.fmi.avi.model.taf.TAFChangeForecast;
 /**
  * Token parser for clouds
  */
-public class CloudLayer extends RegexMatchingLexemeVisitor {
+public class CloudLayer extends ScanningLexemeVisitor {
+
+    // The numbers of the named groups of the pattern, shared with the scanner
+    private static final int IS_CLOUD_GROUP = 1;
+    private static final int AMOUNT_GROUP = 2;
+    private static final int HEIGHT_GROUP = 3;
+    private static final int TYPE_GROUP = 4;
+    private static final int NO_CLOUD_GROUP = 5;
+    private static final String[] CLOUD_TYPES = { "CB", "TCU", "///" };
+    private static final String[] NO_CLOUD_CODES = { "SKC", "NSC", "NCD", "CLR" };
 
     public CloudLayer(final OccurrenceFrequency prio) {
         super("^(?<iscloud>(?<amount>[A-Z]{3}|VV|/{3})(?<height>[0-9]{3}|/{3})(?<type>CB|TCU|/{3})?)|(?<nocloud>SKC|NSC|NCD|CLR)$", prio);
     }
 
+    private static ScannedMatch scanCloud(final String token, final int amountLength) {
+        if (!isDigits(token, amountLength, 3) && !isRepeated(token, amountLength, 3, '/')) {
+            return null;
+        }
+        final int type = amountLength + 3;
+        if (type < token.length() && !isRestOneOf(token, type, CLOUD_TYPES)) {
+            return null;
+        }
+        final ScannedMatch match = new ScannedMatch(token, 5).set(IS_CLOUD_GROUP, 0, token.length())
+                .set(AMOUNT_GROUP, 0, amountLength)
+                .set(HEIGHT_GROUP, amountLength, type);
+        if (type < token.length()) {
+            match.set(TYPE_GROUP, type, token.length());
+        }
+        return match;
+    }
+
+    @Override
+    public MatchResult scan(final String token) {
+        // The amount alternatives in the order of the pattern
+        ScannedMatch match = null;
+        if (isUpperCaseLetters(token, 0, 3)) {
+            match = scanCloud(token, 3);
+        }
+        if (match == null && token.startsWith("VV")) {
+            match = scanCloud(token, 2);
+        }
+        if (match == null && isRepeated(token, 0, 3, '/')) {
+            match = scanCloud(token, 3);
+        }
+        if (match == null && isRestOneOf(token, 0, NO_CLOUD_CODES)) {
+            match = new ScannedMatch(token, 5).set(NO_CLOUD_GROUP, 0, token.length());
+        }
+        return match;
+    }
+
     @Override
-    public void visitIfMatched(final Lexeme token, final Matcher match, final ConversionHints hints) {
-        if ("///".equals(match.group("amount")) && "///".equals(match.group("height"))) {
-            if ("///".equals(match.group("type"))) {
+    public void visitIfMatched(final Lexeme token, final MatchResult match, final ConversionHints hints) {
+        final String amount = match.group(AMOUNT_GROUP);
+        final String height = match.group(HEIGHT_GROUP);
+        final String type = match.group(TYPE_GROUP);
+        if ("///".equals(amount) && "///".equals(height)) {
+            if ("///".equals(type)) {
                 token.identify(LexemeIdentity.CLOUD, Lexeme.Status.SYNTAX_ERROR, "Cloud type cannot be missing '///' if also amount and height are missing");
             } else {
                 token.identify(LexemeIdentity.CLOUD);
                 token.setParsedValue(VALUE, SpecialValue.AMOUNT_AND_HEIGHT_UNOBSERVABLE_BY_AUTO_SYSTEM);
-                token.setParsedValue(TYPE, CloudType.forCode(match.group("type")));
+                token.setParsedValue(TYPE, CloudType.forCode(type));
             }
         } else {
-            if (match.group("amount") != null) {
-                if ("///".equals(match.group("amount"))) {
+            if (amount != null) {
+                if ("///".equals(amount)) {
                     token.identify(LexemeIdentity.CLOUD);
                     token.setParsedValue(COVER, SpecialValue.CLOUD_AMOUNT_UNOBSERVABLE);
                 } else {
-                    final CloudCover cloudCover = CloudCover.forCode(match.group("amount"));
+                    final CloudCover cloudCover = CloudCover.forCode(amount);
                     if (cloudCover != null) {
                         token.identify(LexemeIdentity.CLOUD);
                         token.setParsedValue(COVER, cloudCover);
                     } else {
-                        token.identify(CLOUD, Lexeme.Status.SYNTAX_ERROR, "Unknown cloud cover " + match.group("amount"));
+                        token.identify(CLOUD, Lexeme.Status.SYNTAX_ERROR, "Unknown cloud cover " + amount);
                     }
                 }
-            } else if (match.group("nocloud") != null) {
-                final CloudCover cloudCover = CloudCover.forCode(match.group("nocloud"));
+            } else if (match.start(NO_CLOUD_GROUP) >= 0) {
+                final CloudCover cloudCover = CloudCover.forCode(match.group(NO_CLOUD_GROUP));
                 token.identify(LexemeIdentity.CLOUD);
                 token.setParsedValue(COVER, cloudCover);
             }
 
-            if (match.group("height") != null) {
-                if ("///".equals(match.group("height"))) {
+            if (height != null) {
+                if ("///".equals(height)) {
                     token.setParsedValue(VALUE, SpecialValue.CLOUD_BASE_UNOBSERVABLE);
                 } else {
-                    token.setParsedValue(VALUE, Integer.parseInt(match.group("height")));
+                    token.setParsedIntValue(VALUE, ScannedMatch.parseInt(match, token.getTACToken(), HEIGHT_GROUP));
                     token.setParsedValue(UNIT, "hft");
                 }
             }
 
-            if (match.group("type") != null) {
-                if ("///".equals(match.group("type"))) {
+            if (type != null) {
+                if ("///".equals(type)) {
                     token.setParsedValue(TYPE, SpecialValue.CLOUD_TYPE_UNOBSERVABLE);
                 } else {
-                    final CloudType type = CloudType.forCode(match.group("type"));
-                    if (CloudCover.SKY_OBSCURED.code.equals(match.group("amount")) && (CloudType.CUMULONIMBUS == type || CloudType.TOWERING_CUMULUS == type)) {
+                    final CloudType cloudType = CloudType.forCode(type);
+                    if (CloudCover.SKY_OBSCURED.code.equals(amount) && (CloudType.CUMULONIMBUS == cloudType || CloudType.TOWERING_CUMULUS == cloudType)) {
                         token.identify(CLOUD, Lexeme.Status.SYNTAX_ERROR, "'CB' and 'TCU' not allowed with 'VV'");
                     }
-                    token.setParsedValue(TYPE, type);
+                    token.setParsedValue(TYPE, cloudType);
                 }
             }
         }
@@ -245,7 +294,7 @@ public class CloudLayer extends RegexMatchingLexemeVisitor {
             }
 
             if (base.isPresent()) {
-                sb.append(String.format(Locale.US, "%03d", getAsHectoFeet(base.get())));
+                TACNumberFormat.appendZeroPadded(sb, getAsHectoFeet(base.get()), 3);
             } else if (!amount.isPresent() || CloudAmount.SKC != amount.get()) {
                 sb.append("///");
             }
@@ -258,7 +307,7 @@ public class CloudLayer extends RegexMatchingLexemeVisitor {
         }
 
         private String getVerticalVisibilityToken(final NumericMeasure verVis) throws SerializingException {
-            return String.format(Locale.US, "VV%03d", getAsHectoFeet(verVis));
+            return TACNumberFormat.appendZeroPadded(new StringBuilder(5).append("VV"), getAsHectoFeet(verVis), 3).toString();
         }
 
         private long getAsHectoFeet(final NumericMeasure value) throws SerializingException {
@@ -6,7 +6,6 @@ import static fi.fmi.avi.converter.tac.lexer.Lexeme.ParsedValueName.VALUE;
 import static fi.fmi.avi.converter.tac.lexer.LexemeIdentity.MAX_TEMPERATURE;
 import static fi.fmi.avi.converter.tac.lexer.LexemeIdentity.MIN_TEMPERATURE;
 
-import java.util.Locale;
 import java.util.Optional;
 import java.util.regex.Matcher;
 
@@ -16,6 +15,7 @@ import fi.fmi.avi.converter.tac.lexer.LexemeIdentity;
 import fi.fmi.avi.converter.tac.lexer.SerializingException;
 import fi.fmi.avi.converter.tac.lexer.impl.FactoryBasedReconstructor;
 import fi.fmi.avi.converter.tac.lexer.impl.ReconstructorContext;
+import fi.fmi.avi.converter.tac.lexer.impl.util.TACNumberFormat;
 import fi.fmi.avi.model.AviationWeatherMessageOrCollection;
 import fi.fmi.avi.model.NumericMeasure;
 import fi.fmi.avi.model.PartialOrCompleteTimeInstant;
@@ -37,10 +37,10 @@ public class ForecastMaxMinTemperature extends TimeHandlingRegex {
         if (temp.getValue() < 0.0 || 1.0d / temp.getValue() == Double.NEGATIVE_INFINITY) {
             sb.append('M');
         }
-        sb.append(String.format(Locale.US, "%02d", Math.round(Math.abs(temp.getValue()))));
+        TACNumberFormat.appendZeroPadded(sb, Math.round(Math.abs(temp.getValue())), 2);
         sb.append('/');
-        sb.append(String.format(Locale.US, "%02d", time.getDay().orElse(-1)));
-        sb.append(String.format(Locale.US, "%02d", time.getHour().orElse(-1)));
+        TACNumberFormat.appendZeroPadded(sb, time.getDay().orElse(-1), 2);
+        TACNumberFormat.appendZeroPadded(sb, time.getHour().orElse(-1), 2);
         sb.append('Z');
         return sb.toString();
     }
@@ -82,9 +82,9 @@ public class ForecastMaxMinTemperature extends TimeHandlingRegex {
             }
 
             if (day > -1) {
-                token.setParsedValue(DAY1, day);
+                token.setParsedIntValue(DAY1, day);
             }
-            token.setParsedValue(HOUR1, hour);
+            token.setParsedIntValue(HOUR1, hour);
             token.setParsedValue(VALUE, value);
         } else {
             token.identify(kindLexemeIdentity, Lexeme.Status.SYNTAX_ERROR, "Invalid day/hour values");
@@ -5,6 +5,9 @@ import fi.fmi.avi.converter.tac.lexer.Lexeme;
 import fi.fmi.avi.converter.tac.lexer.LexemeIdentity;
 import fi.fmi.avi.converter.tac.lexer.impl.FactoryBasedReconstructor;
 import fi.fmi.avi.converter.tac.lexer.impl.ReconstructorContext;
+import fi.fmi.avi.converter.tac.lexer.impl.ScannedMatch;
+import fi.fmi.avi.converter.tac.lexer.impl.ScanningLexemeVisitor;
+import fi.fmi.avi.converter.tac.lexer.impl.util.TACNumberFormat;
 import fi.fmi.avi.model.AerodromeWeatherMessage;
 import fi.fmi.avi.model.AviationWeatherMessage;
 import fi.fmi.avi.model.AviationWeatherMessageOrCollection;
@@ -14,46 +17,61 @@ import fi.fmi.avi.model.swx.amd79.SpaceWeatherAdvisoryAmd79;
 import fi.fmi.avi.model.swx.amd82.SpaceWeatherAdvisoryAmd82;
 
 import java.time.format.DateTimeFormatter;
-import java.util.Locale;
 import java.util.Optional;
-import java.util.regex.Matcher;
+import java.util.regex.MatchResult;
 
 import static fi.fmi.avi.converter.tac.lexer.Lexeme.ParsedValueName.*;
 import static fi.fmi.avi.converter.tac.lexer.LexemeIdentity.*;
+import static fi.fmi.avi.converter.tac.lexer.impl.token.TimeHandlingRegex.timeOkHourMinute;
+import static fi.fmi.avi.converter.tac.lexer.impl.token.TimeHandlingRegex.timeOkDayHourMinute;
 
 /**
  * Created by rinne on 10/02/17.
  */
-public class IssueTime extends TimeHandlingRegex {
+public class IssueTime extends ScanningLexemeVisitor {
 
     public IssueTime(final OccurrenceFrequency prio) {
         super("^([0-9]{2})?([0-9]{2})([0-9]{2})Z?$", prio);
     }
 
     @Override
-    public void visitIfMatched(final Lexeme token, final Matcher match, final ConversionHints hints) {
+    public MatchResult scan(final String token) {
+        final int digits = token.endsWith("Z") ? token.length() - 1 : token.length();
+        if ((digits != 4 && digits != 6) || !isDigits(token, 0, digits)) {
+            return null;
+        }
+        final ScannedMatch match = new ScannedMatch(token, 3);
+        if (digits == 6) {
+            match.set(1, 0, 2);
+        }
+        return match.set(2, digits - 4, digits - 2).set(3, digits - 2, digits);
+    }
+
+    @Override
+    public void visitIfMatched(final Lexeme token, final MatchResult match, final ConversionHints hints) {
         if (token.hasPrevious() && (AERODROME_DESIGNATOR.equals(token.getPrevious().getIdentity()) || BULLETIN_HEADING_LOCATION_INDICATOR.equals(
                 token.getPrevious().getIdentity()) || REP.equals(token.getPrevious().getIdentity()))) {
+            final String tac = token.getTACToken();
             int date = -1;
-            if (match.group(1) != null) {
-                date = Integer.parseInt(match.group(1));
+            if (match.start(1) >= 0) {
+                date = ScannedMatch.parseInt(match, tac, 1);
             }
-            final int hour = Integer.parseInt(match.group(2));
-            final int minute = Integer.parseInt(match.group(3));
+            final int hour = ScannedMatch.parseInt(match, tac, 2);
+            final int minute = ScannedMatch.parseInt(match, tac, 3);
             if (date == -1) {
                 if (timeOkHourMinute(hour, minute)) {
                     token.identify(ISSUE_TIME);
-                    token.setParsedValue(HOUR1, hour);
-                    token.setParsedValue(MINUTE1, minute);
+                    token.setParsedIntValue(HOUR1, hour);
+                    token.setParsedIntValue(MINUTE1, minute);
                 } else {
                     token.identify(ISSUE_TIME, Lexeme.Status.SYNTAX_ERROR, "Invalid time values");
                 }
             } else {
                 if (timeOkDayHourMinute(date, hour, minute)) {
                     token.identify(ISSUE_TIME);
-                    token.setParsedValue(DAY1, date);
-                    token.setParsedValue(HOUR1, hour);
-                    token.setParsedValue(MINUTE1, minute);
+                    token.setParsedIntValue(DAY1, date);
+                    token.setParsedIntValue(HOUR1, hour);
+                    token.setParsedIntValue(MINUTE1, minute);
                 } else {
                     token.identify(ISSUE_TIME, Lexeme.Status.SYNTAX_ERROR, "Invalid date & time values");
                 }
@@ -86,8 +104,14 @@ public class IssueTime extends TimeHandlingRegex {
                 return time.getCompleteTime()//
                         .map(completeTime -> completeTime.format(DateTimeFormatter.ofPattern("yyyyMMdd/HHmm'Z'")));
             } else {
-                final String format = MeteorologicalBulletin.class.isAssignableFrom(clz) ? "%02d%02d%02d" : "%02d%02d%02dZ";
-                return Optional.of(String.format(Locale.US, format, time.getDay().orElse(-1), time.getHour().orElse(-1), time.getMinute().orElse(-1)));
+                final StringBuilder sb = new StringBuilder(7);
+                TACNumberFormat.appendZeroPadded(sb, time.getDay().orElse(-1), 2);
+                TACNumberFormat.appendZeroPadded(sb, time.getHour().orElse(-1), 2);
+                TACNumberFormat.appendZeroPadded(sb, time.getMinute().orElse(-1), 2);
+                if (!MeteorologicalBulletin.class.isAssignableFrom(clz)) {
+                    sb.append('Z');
+                }
+                return Optional.of(sb.toString());
             }
         }
     }
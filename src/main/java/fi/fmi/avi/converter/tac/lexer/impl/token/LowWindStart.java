@@ -9,7 +9,7 @@ import fi.fmi.avi.converter.tac.lexer.LexemeIdentity;
 import fi.fmi.avi.converter.tac.lexer.impl.RegexMatchingLexemeVisitor;
 
 public class LowWindStart extends RegexMatchingLexemeVisitor {
-    public static final LexemeIdentity LOW_WIND_START = new LexemeIdentity("LOW_WIND_START");
+    public static final LexemeIdentity LOW_WIND_START = LexemeIdentity.LOW_WIND_START;
 
     public LowWindStart(final OccurrenceFrequency prio) {
         super("^LOW\\s+WIND$", prio);
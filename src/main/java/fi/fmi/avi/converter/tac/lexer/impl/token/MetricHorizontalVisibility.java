@@ -6,6 +6,7 @@ import fi.fmi.avi.converter.tac.lexer.Lexeme.Status;
 import fi.fmi.avi.converter.tac.lexer.LexemeIdentity;
 import fi.fmi.avi.converter.tac.lexer.SerializingException;
 import fi.fmi.avi.converter.tac.lexer.impl.*;
+import fi.fmi.avi.converter.tac.lexer.impl.util.TACNumberFormat;
 import fi.fmi.avi.model.AviationCodeListUser.RelationalOperator;
 import fi.fmi.avi.model.AviationWeatherMessageOrCollection;
 import fi.fmi.avi.model.NumericMeasure;
@@ -18,7 +19,7 @@ import fi.fmi.avi.model.taf.TAFChangeForecast;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
-import java.util.regex.Matcher;
+import java.util.regex.MatchResult;
 
 import static fi.fmi.avi.converter.tac.lexer.Lexeme.ParsedValueName.*;
 import static fi.fmi.avi.converter.tac.lexer.LexemeIdentity.HORIZONTAL_VISIBILITY;
@@ -27,32 +28,41 @@ import static fi.fmi.avi.converter.tac.lexer.impl.token.FractionalHorizontalVisi
 /**
  * Token parser for horizontal visibility given in meters.
  */
-public class MetricHorizontalVisibility extends RegexMatchingLexemeVisitor {
+public class MetricHorizontalVisibility extends ScanningLexemeVisitor {
 
     public static final int MAX_STATUE_MILE_DENOMINATOR = 16;
 
+    private static final String[] DIRECTIONS = { "N", "S", "NE", "NW", "SE", "SW", "E", "W", "NDV" };
+
     public MetricHorizontalVisibility(final OccurrenceFrequency prio) {
         super("^([0-9]{4})([NS][EW]?|[EW]|NDV)?$", prio);
     }
 
     @Override
-    public void visitIfMatched(final Lexeme token, final Matcher match, final ConversionHints hints) {
+    public MatchResult scan(final String token) {
+        if (!isDigits(token, 0, 4)) {
+            return null;
+        }
+        final ScannedMatch match = new ScannedMatch(token, 2).set(1, 0, 4);
+        if (token.length() == 4) {
+            return match;
+        } else if (isRestOneOf(token, 4, DIRECTIONS)) {
+            return match.set(2, 4, token.length());
+        }
+        return null;
+    }
+
+    @Override
+    public void visitIfMatched(final Lexeme token, final MatchResult match, final ConversionHints hints) {
+        final String tac = token.getTACToken();
         final String direction = match.group(2);
         double certainty = 0.5;
         //This is a tricky one, we need to separate the nnnn visibility from a nnnn change group validity time
-        Lexeme l = token.getPrevious();
-        if (l == null) {
+        if (!token.hasPrevious()) {
             //Horizontal visibility cannot be the first token:
             return;
         }
-        boolean inChangeGroup = false;
-        while (l != null) {
-            if (LexemeIdentity.TAF_FORECAST_CHANGE_INDICATOR == l.getIdentity()) {
-                inChangeGroup = true;
-                break;
-            }
-            l = l.getPrevious();
-        }
+        final boolean inChangeGroup = LexemeUtils.existsPreviousLexeme(token, LexemeIdentity.TAF_FORECAST_CHANGE_INDICATOR);
         if (!inChangeGroup) {
             final Lexeme prev = token.getPrevious();
             if (LexemeIdentity.SURFACE_WIND.equals(prev.getIdentity()) || LexemeIdentity.VARIABLE_WIND_DIRECTION.equals(prev.getIdentity())
@@ -62,8 +72,8 @@ public class MetricHorizontalVisibility extends RegexMatchingLexemeVisitor {
         } else {
             if (LexemeIdentity.TAF_START.equals(token.getFirst().getIdentity())) {
                 if (direction == null) {
-                    final int startHour = Integer.parseInt(match.group(1).substring(0, 2));
-                    final int endHour = Integer.parseInt(match.group(1).substring(3, 4));
+                    final int startHour = ScannedMatch.parseInt(tac, match.start(1), match.start(1) + 2);
+                    final int endHour = ScannedMatch.parseInt(tac, match.start(1) + 3, match.start(1) + 4);
                     if (!((startHour <= 24) && (endHour <= 24))) {
                         certainty = 1.0;
                     }
@@ -71,7 +81,7 @@ public class MetricHorizontalVisibility extends RegexMatchingLexemeVisitor {
             }
         }
 
-        final int visibility = Integer.parseInt(match.group(1));
+        final int visibility = ScannedMatch.parseInt(match, tac, 1);
         if (direction != null) {
             final DirectionValue dv = DirectionValue.forCode(direction);
             certainty = 1.0;
@@ -155,34 +165,7 @@ public class MetricHorizontalVisibility extends RegexMatchingLexemeVisitor {
                 throw new IllegalArgumentException("it only makes sense to find fractions for numbers between 0 and 1 (exclusive)");
             }
 
-            Integer currentBestNumerator = null;
-            Integer currentBestDenominator = null;
-            Double currentBestDelta = null;
-
-            final double doubleEquivalencyFactor = 0.00000001d;
-
-            for (int denominator = 2; denominator <= maxDenominator; denominator++) {
-
-                for (int numerator = 1; numerator < denominator; numerator++) {
-                    final double delta = Math.abs(number - (double) numerator / (double) denominator);
-
-                    boolean isNewBest = false;
-
-                    if (currentBestDelta == null) {
-                        isNewBest = true;
-                    } else if (delta < currentBestDelta && Math.abs(currentBestDelta - delta) > doubleEquivalencyFactor) {
-                        isNewBest = true;
-                    }
-
-                    if (isNewBest) {
-                        currentBestNumerator = numerator;
-                        currentBestDenominator = denominator;
-                        currentBestDelta = delta;
-                    }
-                }
-            }
-
-            return String.format(Locale.US, "%d/%d", currentBestNumerator, currentBestDenominator);
+            return TACNumberFormat.closestFraction(number, maxDenominator);
         }
 
         @Override
@@ -295,7 +278,7 @@ public class MetricHorizontalVisibility extends RegexMatchingLexemeVisitor {
                         + " degrees of a cardinal or intercardinal direction");
             }
 
-            return String.format(Locale.US, "%04d%s", meters, compass);
+            return TACNumberFormat.appendZeroPadded(new StringBuilder(6), meters, 4).append(compass).toString();
         }
 
         private String createMetricIntegerVisibility(final NumericMeasure visibility, final RelationalOperator operator) throws SerializingException {
@@ -311,7 +294,7 @@ public class MetricHorizontalVisibility extends RegexMatchingLexemeVisitor {
             } else if (operator == RelationalOperator.ABOVE && meters >= 9999) {
                 str = "9999";
             } else {
-                str = String.format(Locale.US, "%04d", meters);
+                str = TACNumberFormat.zeroPadded(meters, 4);
             }
 
             return str;
@@ -332,12 +315,12 @@ public class MetricHorizontalVisibility extends RegexMatchingLexemeVisitor {
 
             if (parts > 1.0 / (double) 16) {
                 if (integerPart > 0) {
-                    builder.append(String.format(Locale.US, "%d ", integerPart));
+                    builder.append(integerPart).append(' ');
                 }
 
                 builder.append(findClosestFraction(parts, 16));
             } else {
-                builder.append(String.format(Locale.US, "%d", integerPart));
+                builder.append(integerPart);
             }
 
             builder.append(STATUTE_MILE_UNIT);
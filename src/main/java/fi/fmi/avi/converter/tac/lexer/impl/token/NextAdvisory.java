@@ -65,9 +65,9 @@ public class NextAdvisory extends TimeHandlingRegex {
             ZonedDateTime.of(year, month, day, hour, minute, 0, 0, ZoneOffset.UTC);
             token.setParsedValue(Lexeme.ParsedValueName.YEAR, year);
             token.setParsedValue(Lexeme.ParsedValueName.MONTH, month);
-            token.setParsedValue(Lexeme.ParsedValueName.DAY1, day);
-            token.setParsedValue(Lexeme.ParsedValueName.HOUR1, hour);
-            token.setParsedValue(Lexeme.ParsedValueName.MINUTE1, minute);
+            token.setParsedIntValue(Lexeme.ParsedValueName.DAY1, day);
+            token.setParsedIntValue(Lexeme.ParsedValueName.HOUR1, hour);
+            token.setParsedIntValue(Lexeme.ParsedValueName.MINUTE1, minute);
         } catch (final DateTimeException e) {
             // NOOP, ignore silently if the time is not valid
         }
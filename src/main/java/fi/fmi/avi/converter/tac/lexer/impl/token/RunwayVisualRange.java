@@ -11,7 +11,7 @@ import static fi.fmi.avi.converter.tac.lexer.LexemeIdentity.RUNWAY_VISUAL_RANGE;
 
 import java.util.Locale;
 import java.util.Optional;
-import java.util.regex.Matcher;
+import java.util.regex.MatchResult;
 
 import fi.fmi.avi.converter.ConversionHints;
 import fi.fmi.avi.converter.tac.lexer.Lexeme;
@@ -20,7 +20,8 @@ import fi.fmi.avi.converter.tac.lexer.SerializingException;
 import fi.fmi.avi.converter.tac.lexer.impl.FactoryBasedReconstructor;
 import fi.fmi.avi.converter.tac.lexer.impl.RecognizingAviMessageTokenLexer;
 import fi.fmi.avi.converter.tac.lexer.impl.ReconstructorContext;
-import fi.fmi.avi.converter.tac.lexer.impl.RegexMatchingLexemeVisitor;
+import fi.fmi.avi.converter.tac.lexer.impl.ScannedMatch;
+import fi.fmi.avi.converter.tac.lexer.impl.ScanningLexemeVisitor;
 import fi.fmi.avi.model.AviationCodeListUser.RelationalOperator;
 import fi.fmi.avi.model.AviationWeatherMessageOrCollection;
 import fi.fmi.avi.model.NumericMeasure;
@@ -29,38 +30,75 @@ import fi.fmi.avi.model.RunwayDirection;
 /**
  * Created by rinne on 10/02/17.
  */
-public class RunwayVisualRange extends RegexMatchingLexemeVisitor {
+public class RunwayVisualRange extends ScanningLexemeVisitor {
 
     public RunwayVisualRange(final OccurrenceFrequency prio) {
         super("^R([0-9]{2}[LRC]?)/([MP])?([0-9]{4})(V([MP])?([0-9]{4}))?([UDN])?(FT)?$", prio);
     }
 
     @Override
-    public void visitIfMatched(final Lexeme token, final Matcher match, final ConversionHints hints) {
+    public MatchResult scan(final String token) {
+        if (!isAt(token, 0, 'R') || !isDigits(token, 1, 2)) {
+            return null;
+        }
+        final ScannedMatch match = new ScannedMatch(token, 8);
+        int i = isAnyAt(token, 3, "LRC") ? 4 : 3;
+        match.set(1, 1, i);
+        if (!isAt(token, i++, '/')) {
+            return null;
+        }
+        if (isAnyAt(token, i, "MP")) {
+            match.set(2, i, ++i);
+        }
+        if (!isDigits(token, i, 4)) {
+            return null;
+        }
+        match.set(3, i, i += 4);
+        if (isAt(token, i, 'V')) {
+            final int start = i++;
+            if (isAnyAt(token, i, "MP")) {
+                match.set(5, i, ++i);
+            }
+            if (!isDigits(token, i, 4)) {
+                return null;
+            }
+            match.set(6, i, i += 4);
+            match.set(4, start, i);
+        }
+        if (isAnyAt(token, i, "UDN")) {
+            match.set(7, i, ++i);
+        }
+        if (token.startsWith("FT", i)) {
+            match.set(8, i, i += 2);
+        }
+        return i == token.length() ? match : null;
+    }
+
+    @Override
+    public void visitIfMatched(final Lexeme token, final MatchResult match, final ConversionHints hints) {
+        final String tac = token.getTACToken();
         final String runway = match.group(1);
         RecognizingAviMessageTokenLexer.RelationalOperator belowAboveIndicator = RecognizingAviMessageTokenLexer.RelationalOperator.forCode(match.group(2));
-        final int visibility = Integer.parseInt(match.group(3));
+        final int visibility = ScannedMatch.parseInt(match, tac, 3);
         token.identify(RUNWAY_VISUAL_RANGE);
         token.setParsedValue(RUNWAY, runway);
         token.setParsedValue(MIN_VALUE, visibility);
         if (belowAboveIndicator != null) {
             token.setParsedValue(RELATIONAL_OPERATOR, belowAboveIndicator);
         }
-        final String variablePart = match.group(4);
-        if (variablePart != null) {
+        if (match.start(4) >= 0) {
             belowAboveIndicator = RecognizingAviMessageTokenLexer.RelationalOperator.forCode(match.group(5));
             if (belowAboveIndicator != null) {
                 token.setParsedValue(RELATIONAL_OPERATOR2, belowAboveIndicator);
             }
-            final int variableVis = Integer.parseInt(match.group(6));
+            final int variableVis = ScannedMatch.parseInt(match, tac, 6);
             token.setParsedValue(MAX_VALUE, variableVis);
         }
         final RecognizingAviMessageTokenLexer.TendencyOperator tendencyIndicator = RecognizingAviMessageTokenLexer.TendencyOperator.forCode(match.group(7));
         if (tendencyIndicator != null) {
             token.setParsedValue(TENDENCY_OPERATOR, tendencyIndicator);
         }
-        final String unit = match.group(8);
-        if (unit != null) {
+        if (match.start(8) >= 0) {
             token.setParsedValue(UNIT, "[ft_i]");
         } else {
             token.setParsedValue(UNIT, "m");
@@ -29,7 +29,7 @@ public class SWXPhenomena extends RegexMatchingLexemeVisitor {
         token.setParsedValue(Lexeme.ParsedValueName.TYPE, Type.valueOf(match.group("type")));
 
         if (match.group("hour") != null) {
-            token.setParsedValue(Lexeme.ParsedValueName.HOUR1, Integer.parseInt(match.group("hour")));
+            token.setParsedIntValue(Lexeme.ParsedValueName.HOUR1, Integer.parseInt(match.group("hour")));
         }
     }
 
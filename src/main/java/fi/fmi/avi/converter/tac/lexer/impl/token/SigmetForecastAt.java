@@ -46,8 +46,8 @@ public class SigmetForecastAt extends RegexMatchingLexemeVisitor {
                 token.identify(LexemeIdentity.SIGMET_FCST_AT);
                 if ((match.group(1) != null) && (!match.group(1).isEmpty()) &&
                         (match.group(2) != null) && (!match.group(2).isEmpty())) {
-                    token.setParsedValue(HOUR1, Integer.valueOf(match.group(1)));
-                    token.setParsedValue(MINUTE1, Integer.valueOf(match.group(2)));
+                    token.setParsedIntValue(HOUR1, Integer.parseInt(match.group(1)));
+                    token.setParsedIntValue(MINUTE1, Integer.parseInt(match.group(2)));
                 }
             }
         }
@@ -7,9 +7,9 @@ import fi.fmi.avi.converter.tac.lexer.SerializingException;
 import fi.fmi.avi.converter.tac.lexer.impl.FactoryBasedReconstructor;
 import fi.fmi.avi.converter.tac.lexer.impl.ReconstructorContext;
 import fi.fmi.avi.converter.tac.lexer.impl.RegexMatchingLexemeVisitor;
+import fi.fmi.avi.converter.tac.lexer.impl.util.TACNumberFormat;
 import fi.fmi.avi.model.*;
 
-import java.util.Locale;
 import java.util.Optional;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -35,11 +35,11 @@ public class SigmetLevel extends RegexMatchingLexemeVisitor {
             sb.append("FL");
         }
         if ((measure.getValue() < 1000) && ("FL".equals(measure.getUom()))) {
-            sb.append(String.format(Locale.US, "%03.0f", measure.getValue()));
+            TACNumberFormat.appendRoundedZeroPadded(sb, measure.getValue(), 3);
         } else if (measure.getValue() < 10000) {
-            sb.append(String.format(Locale.US, "%04.0f", measure.getValue()));
+            TACNumberFormat.appendRoundedZeroPadded(sb, measure.getValue(), 4);
         } else {
-            sb.append(String.format(Locale.US, "%05.0f", measure.getValue()));
+            TACNumberFormat.appendRoundedZeroPadded(sb, measure.getValue(), 5);
         }
         if (addUnit && !"FL".equals(measure.getUom())) {
             sb.append(measure.getUom());
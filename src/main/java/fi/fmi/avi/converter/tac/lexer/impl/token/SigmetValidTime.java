@@ -34,11 +34,11 @@ public class SigmetValidTime extends TimeHandlingRegex {
         final int toMinute = Integer.parseInt(match.group("endMinute"));
         if (timeOkDayHourMinute(fromDay, fromHour, fromMinute) && timeOkDayHourMinute(toDay, toHour, toMinute)) {
             token.identify(LexemeIdentity.VALID_TIME);
-            token.setParsedValue(DAY1, fromDay);
+            token.setParsedIntValue(DAY1, fromDay);
             token.setParsedValue(DAY2, toDay);
-            token.setParsedValue(HOUR1, fromHour);
+            token.setParsedIntValue(HOUR1, fromHour);
             token.setParsedValue(HOUR2, toHour);
-            token.setParsedValue(MINUTE1, fromMinute);
+            token.setParsedIntValue(MINUTE1, fromMinute);
             token.setParsedValue(MINUTE2, toMinute);
         } else {
             token.identify(LexemeIdentity.VALID_TIME, Lexeme.Status.SYNTAX_ERROR, "Invalid date and/or time");
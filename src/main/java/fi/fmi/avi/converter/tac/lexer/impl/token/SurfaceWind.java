@@ -10,7 +10,7 @@ import static fi.fmi.avi.converter.tac.lexer.LexemeIdentity.SURFACE_WIND;
 
 import java.util.Locale;
 import java.util.Optional;
-import java.util.regex.Matcher;
+import java.util.regex.MatchResult;
 
 import fi.fmi.avi.converter.ConversionHints;
 import fi.fmi.avi.converter.tac.lexer.Lexeme;
@@ -19,7 +19,9 @@ import fi.fmi.avi.converter.tac.lexer.SerializingException;
 import fi.fmi.avi.converter.tac.lexer.impl.FactoryBasedReconstructor;
 import fi.fmi.avi.converter.tac.lexer.impl.LexemeUtils;
 import fi.fmi.avi.converter.tac.lexer.impl.ReconstructorContext;
-import fi.fmi.avi.converter.tac.lexer.impl.RegexMatchingLexemeVisitor;
+import fi.fmi.avi.converter.tac.lexer.impl.ScannedMatch;
+import fi.fmi.avi.converter.tac.lexer.impl.ScanningLexemeVisitor;
+import fi.fmi.avi.converter.tac.lexer.impl.util.TACNumberFormat;
 import fi.fmi.avi.model.AviationCodeListUser;
 import fi.fmi.avi.model.AviationWeatherMessageOrCollection;
 import fi.fmi.avi.model.NumericMeasure;
@@ -33,14 +35,52 @@ import fi.fmi.avi.model.taf.TAFChangeForecast;
 /**
  * Created by rinne on 10/02/17.
  */
-public class SurfaceWind extends RegexMatchingLexemeVisitor {
+public class SurfaceWind extends ScanningLexemeVisitor {
+
+    private static final String[] UNITS = { "KT", "MPS", "KMH" };
 
     public SurfaceWind(final OccurrenceFrequency prio) {
         super("^(VRB|[0-9]{3})(P?[0-9]{2,3})(GP?[0-9]{2,3})?(KT|MPS|KMH)$", prio);
     }
 
     @Override
-    public void visitIfMatched(final Lexeme token, final Matcher match, final ConversionHints hints) {
+    public MatchResult scan(final String token) {
+        if (!token.startsWith("VRB") && !isDigits(token, 0, 3)) {
+            return null;
+        }
+        final ScannedMatch match = new ScannedMatch(token, 4).set(1, 0, 3);
+        int i = 3;
+        int start = i;
+        if (isAt(token, i, 'P')) {
+            i++;
+        }
+        int digits = countDigits(token, i);
+        if (digits < 2 || digits > 3) {
+            return null;
+        }
+        i += digits;
+        match.set(2, start, i);
+        if (isAt(token, i, 'G')) {
+            start = i++;
+            if (isAt(token, i, 'P')) {
+                i++;
+            }
+            digits = countDigits(token, i);
+            if (digits < 2 || digits > 3) {
+                return null;
+            }
+            i += digits;
+            match.set(3, start, i);
+        }
+        if (!isRestOneOf(token, i, UNITS)) {
+            return null;
+        }
+        return match.set(4, i, token.length());
+    }
+
+    @Override
+    public void visitIfMatched(final Lexeme token, final MatchResult match, final ConversionHints hints) {
+        final String tac = token.getTACToken();
         boolean formatOk = true;
         int direction = -1;
         final int mean;
@@ -49,29 +89,22 @@ public class SurfaceWind extends RegexMatchingLexemeVisitor {
         boolean gustAbove = false;
 
         String unit;
-        if (!"VRB".equals(match.group(1))) {
-            direction = Integer.parseInt(match.group(1));
+        if (!tac.startsWith("VRB")) {
+            direction = ScannedMatch.parseInt(match, tac, 1);
         }
-        if (match.group(2).charAt(0) == 'P') {
-            mean = Integer.parseInt(match.group(2).substring(1));
+        if (tac.charAt(match.start(2)) == 'P') {
+            mean = ScannedMatch.parseInt(tac, match.start(2) + 1, match.end(2));
             meanWindAbove = true;
         } else {
-            mean = Integer.parseInt(match.group(2));
-        }
-        final String gust = match.group(3);
-        if (gust != null && 'G' == gust.charAt(0)) {
-            try {
-                if (gust.charAt(1) == 'P') {
-                    gustValue = Integer.parseInt(gust.substring(2));
-                    gustAbove = true;
-                } else {
-                    gustValue = Integer.parseInt(gust.substring(1));
-                }
-                if (gustValue < 0) {
-                    formatOk = false;
-                }
-            } catch (final NumberFormatException nfe) {
-                formatOk = false;
+            mean = ScannedMatch.parseInt(match, tac, 2);
+        }
+        final int gust = match.start(3);
+        if (gust >= 0) {
+            if (tac.charAt(gust + 1) == 'P') {
+                gustValue = ScannedMatch.parseInt(tac, gust + 2, match.end(3));
+                gustAbove = true;
+            } else {
+                gustValue = ScannedMatch.parseInt(tac, gust + 1, match.end(3));
             }
         }
         unit = match.group(4);
@@ -177,7 +210,7 @@ public class SurfaceWind extends RegexMatchingLexemeVisitor {
                 if (!wind.getMeanWindDirection().get().getUom().equals("deg")) {
                     throw new SerializingException("Mean wind direction unit is not 'deg': " + wind.getMeanWindDirection().get().getUom());
                 } else {
-                    builder.append(String.format(Locale.US, "%03d", wind.getMeanWindDirection().get().getValue().intValue()));
+                    TACNumberFormat.appendZeroPadded(builder, wind.getMeanWindDirection().get().getValue().intValue(), 3);
                 }
             } else {
                 throw new SerializingException("Mean wind direction must be set if variable wind direction is false");
@@ -224,7 +257,7 @@ public class SurfaceWind extends RegexMatchingLexemeVisitor {
             if (speed < 0 || speed >= 1000) {
                 throw new SerializingException("Wind speed value " + speed + " is not withing acceptable range [0,1000]");
             }
-            builder.append(String.format(Locale.US, "%02d", speed));
+            TACNumberFormat.appendZeroPadded(builder, speed, 2);
         }
     }
 }
@@ -4,10 +4,11 @@ import static fi.fmi.avi.converter.tac.lexer.Lexeme.ParsedValueName.DAY1;
 import static fi.fmi.avi.converter.tac.lexer.Lexeme.ParsedValueName.DAY2;
 import static fi.fmi.avi.converter.tac.lexer.Lexeme.ParsedValueName.HOUR1;
 import static fi.fmi.avi.converter.tac.lexer.Lexeme.ParsedValueName.HOUR2;
+import static fi.fmi.avi.converter.tac.lexer.impl.token.TimeHandlingRegex.timeOkDayHour;
+import static fi.fmi.avi.converter.tac.lexer.impl.token.TimeHandlingRegex.timeOkHour;
 
-import java.util.Locale;
 import java.util.Optional;
-import java.util.regex.Matcher;
+import java.util.regex.MatchResult;
 
 import fi.fmi.avi.converter.ConversionHints;
 import fi.fmi.avi.converter.tac.lexer.Lexeme;
@@ -15,6 +16,9 @@ import fi.fmi.avi.converter.tac.lexer.LexemeIdentity;
 import fi.fmi.avi.converter.tac.lexer.SerializingException;
 import fi.fmi.avi.converter.tac.lexer.impl.FactoryBasedReconstructor;
 import fi.fmi.avi.converter.tac.lexer.impl.ReconstructorContext;
+import fi.fmi.avi.converter.tac.lexer.impl.ScannedMatch;
+import fi.fmi.avi.converter.tac.lexer.impl.ScanningLexemeVisitor;
+import fi.fmi.avi.converter.tac.lexer.impl.util.TACNumberFormat;
 import fi.fmi.avi.model.AviationCodeListUser.TAFChangeIndicator;
 import fi.fmi.avi.model.AviationWeatherMessageOrCollection;
 import fi.fmi.avi.model.PartialOrCompleteTimeInstant;
@@ -25,43 +29,54 @@ import fi.fmi.avi.model.taf.TAFChangeForecast;
 /**
  * Token parser for TAF change forecast time groups. Handles both the long (ddhh/ddhh) and short format (hhhh) times.
  */
-public class TAFChangeForecastTimeGroup extends TimeHandlingRegex {
+public class TAFChangeForecastTimeGroup extends ScanningLexemeVisitor {
 
     public TAFChangeForecastTimeGroup(final OccurrenceFrequency prio) {
         super("^(([0-9]{2})([0-9]{2}))|(([0-9]{2})([0-9]{2})/([0-9]{2})([0-9]{2}))$", prio);
     }
 
     @Override
-    public void visitIfMatched(final Lexeme token, final Matcher match, final ConversionHints hints) {
+    public MatchResult scan(final String token) {
+        if (token.length() == 4 && isDigits(token, 0, 4)) {
+            return new ScannedMatch(token, 8).set(1, 0, 4).set(2, 0, 2).set(3, 2, 4);
+        } else if (token.length() == 9 && isDigits(token, 0, 4) && isAt(token, 4, '/') && isDigits(token, 5, 4)) {
+            return new ScannedMatch(token, 8).set(4, 0, 9).set(5, 0, 2).set(6, 2, 4).set(7, 5, 7).set(8, 7, 9);
+        }
+        return null;
+    }
+
+    @Override
+    public void visitIfMatched(final Lexeme token, final MatchResult match, final ConversionHints hints) {
         if (token.hasPrevious() && LexemeIdentity.TAF_FORECAST_CHANGE_INDICATOR.equals(token.getPrevious().getIdentity())) {
-            if (match.group(1) != null) {
+            final String tac = token.getTACToken();
+            if (match.start(1) >= 0) {
                 //old 24h TAF: HHHH
                 double certainty = 0.5; //could also be horizontal visibility
                 final Lexeme l = token.getNext();
                 if (l != null && (LexemeIdentity.SURFACE_WIND.equals(l.getIdentity()) || LexemeIdentity.HORIZONTAL_VISIBILITY.equals(l.getIdentity()))) {
                     certainty = 1.0;
                 }
-                final int fromHour = Integer.parseInt(match.group(2));
-                final int toHour = Integer.parseInt(match.group(3));
+                final int fromHour = ScannedMatch.parseInt(match, tac, 2);
+                final int toHour = ScannedMatch.parseInt(match, tac, 3);
                 if (timeOkHour(fromHour) && timeOkHour(toHour)) {
                     token.identify(LexemeIdentity.TAF_CHANGE_FORECAST_TIME_GROUP, certainty);
-                    token.setParsedValue(HOUR1, fromHour);
+                    token.setParsedIntValue(HOUR1, fromHour);
                     token.setParsedValue(HOUR2, toHour);
                 } else {
                     token.identify(LexemeIdentity.TAF_CHANGE_FORECAST_TIME_GROUP, Lexeme.Status.SYNTAX_ERROR, "Invalid time(s)", 0.3);
                 }
 
-            } else if (match.group(4) != null) {
+            } else if (match.start(4) >= 0) {
                 //30h TAF
-                final int fromDay = Integer.parseInt(match.group(5));
-                final int fromHour = Integer.parseInt(match.group(6));
-                final int toDay = Integer.parseInt(match.group(7));
-                final int toHour = Integer.parseInt(match.group(8));
+                final int fromDay = ScannedMatch.parseInt(match, tac, 5);
+                final int fromHour = ScannedMatch.parseInt(match, tac, 6);
+                final int toDay = ScannedMatch.parseInt(match, tac, 7);
+                final int toHour = ScannedMatch.parseInt(match, tac, 8);
                 if (timeOkDayHour(fromDay, fromHour) && timeOkDayHour(toDay, toHour)) {
                     token.identify(LexemeIdentity.TAF_CHANGE_FORECAST_TIME_GROUP);
-                    token.setParsedValue(DAY1, fromDay);
+                    token.setParsedIntValue(DAY1, fromDay);
                     token.setParsedValue(DAY2, toDay);
-                    token.setParsedValue(HOUR1, fromHour);
+                    token.setParsedIntValue(HOUR1, fromHour);
                     token.setParsedValue(HOUR2, toHour);
                 } else {
                     token.identify(LexemeIdentity.TAF_CHANGE_FORECAST_TIME_GROUP, Lexeme.Status.SYNTAX_ERROR, "Invalid date and/or time");
@@ -83,14 +98,17 @@ public class TAFChangeForecastTimeGroup extends TimeHandlingRegex {
                     final Optional<PartialOrCompleteTimeInstant> start = time.getStartTime();
                     final Optional<PartialOrCompleteTimeInstant> end = time.getEndTime();
                     if (start.isPresent() && end.isPresent()) {
-                        final String timeStr;
+                        final StringBuilder timeStr = new StringBuilder(9);
                         if (!start.get().getDay().isPresent() && !end.get().getDay().isPresent()) {
-                            timeStr = String.format(Locale.US, "%02d%02d", start.get().getHour().orElse(-1), end.get().getHour().orElse(-1));
+                            TACNumberFormat.appendZeroPadded(timeStr, start.get().getHour().orElse(-1), 2);
+                            TACNumberFormat.appendZeroPadded(timeStr, end.get().getHour().orElse(-1), 2);
                         } else {
-                            timeStr = String.format(Locale.US, "%02d%02d/%02d%02d", start.get().getDay().orElse(-1), start.get().getHour().orElse(-1),
-                                    end.get().getDay().orElse(-1), end.get().getHour().orElse(-1));
+                            TACNumberFormat.appendZeroPadded(timeStr, start.get().getDay().orElse(-1), 2);
+                            TACNumberFormat.appendZeroPadded(timeStr, start.get().getHour().orElse(-1), 2).append('/');
+                            TACNumberFormat.appendZeroPadded(timeStr, end.get().getDay().orElse(-1), 2);
+                            TACNumberFormat.appendZeroPadded(timeStr, end.get().getHour().orElse(-1), 2);
                         }
-                        return Optional.of(this.createLexeme(timeStr, LexemeIdentity.TAF_CHANGE_FORECAST_TIME_GROUP));
+                        return Optional.of(this.createLexeme(timeStr.toString(), LexemeIdentity.TAF_CHANGE_FORECAST_TIME_GROUP));
                     } else {
                         throw new SerializingException("Unable to serialize TAF change group validity time period, both start and end time must be "
                                 + "available when group type is not " + TAFChangeIndicator.FROM);
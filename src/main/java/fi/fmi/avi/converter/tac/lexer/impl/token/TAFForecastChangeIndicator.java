@@ -6,6 +6,7 @@ import fi.fmi.avi.converter.tac.lexer.LexemeIdentity;
 import fi.fmi.avi.converter.tac.lexer.SerializingException;
 import fi.fmi.avi.converter.tac.lexer.impl.FactoryBasedReconstructor;
 import fi.fmi.avi.converter.tac.lexer.impl.ReconstructorContext;
+import fi.fmi.avi.converter.tac.lexer.impl.util.TACNumberFormat;
 import fi.fmi.avi.model.AviationWeatherMessageOrCollection;
 import fi.fmi.avi.model.PartialOrCompleteTimeInstant;
 import fi.fmi.avi.model.taf.TAF;
@@ -46,10 +47,10 @@ public class TAFForecastChangeIndicator extends TimeHandlingRegex {
             if (timeOkDayHourMinute(day, hour, minute)) {
                 token.identify(TAF_FORECAST_CHANGE_INDICATOR);
                 if (day > -1) {
-                    token.setParsedValue(DAY1, day);
+                    token.setParsedIntValue(DAY1, day);
                 }
-                token.setParsedValue(HOUR1, hour);
-                token.setParsedValue(MINUTE1, minute);
+                token.setParsedIntValue(HOUR1, hour);
+                token.setParsedIntValue(MINUTE1, minute);
                 token.setParsedValue(TYPE, indicator);
             } else {
                 token.identify(TAF_FORECAST_CHANGE_INDICATOR, Lexeme.Status.SYNTAX_ERROR, "Invalid time");
@@ -86,7 +87,6 @@ public class TAFForecastChangeIndicator extends TimeHandlingRegex {
     public static class Reconstructor extends FactoryBasedReconstructor {
 
         private static String encodeValidityTimeFrom(final PartialOrCompleteTimeInstant instant, final ConversionHints hints) {
-            final String retval;
             boolean useShortFormat = false;
             if (hints != null) {
                 final Object hint = hints.get(ConversionHints.KEY_VALIDTIME_FORMAT);
@@ -95,13 +95,14 @@ public class TAFForecastChangeIndicator extends TimeHandlingRegex {
                 }
             }
 
-            if (!instant.getDay().isPresent() || useShortFormat) {
-                retval = String.format("%02d%02d", instant.getHour().orElse(-1), instant.getMinute().orElse(-1));
-            } else {
+            final StringBuilder sb = new StringBuilder(6);
+            if (instant.getDay().isPresent() && !useShortFormat) {
                 // Otherwise produce validity in the long format
-                retval = String.format("%02d%02d%02d", instant.getDay().orElse(-1), instant.getHour().orElse(-1), instant.getMinute().orElse(-1));
+                TACNumberFormat.appendZeroPadded(sb, instant.getDay().get(), 2);
             }
-            return retval;
+            TACNumberFormat.appendZeroPadded(sb, instant.getHour().orElse(-1), 2);
+            TACNumberFormat.appendZeroPadded(sb, instant.getMinute().orElse(-1), 2);
+            return sb.toString();
         }
 
         @Override
@@ -8,7 +8,6 @@ import static fi.fmi.avi.converter.tac.lexer.LexemeIdentity.TREND_TIME_GROUP;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.Locale;
 import java.util.Optional;
 import java.util.regex.Matcher;
 
@@ -17,6 +16,7 @@ import fi.fmi.avi.converter.tac.lexer.Lexeme;
 import fi.fmi.avi.converter.tac.lexer.LexemeIdentity;
 import fi.fmi.avi.converter.tac.lexer.impl.FactoryBasedReconstructor;
 import fi.fmi.avi.converter.tac.lexer.impl.ReconstructorContext;
+import fi.fmi.avi.converter.tac.lexer.impl.util.TACNumberFormat;
 import fi.fmi.avi.model.AviationWeatherMessageOrCollection;
 import fi.fmi.avi.model.PartialOrCompleteTime;
 import fi.fmi.avi.model.PartialOrCompleteTimeInstant;
@@ -39,8 +39,8 @@ public class TrendTimeGroup extends TimeHandlingRegex {
         final int minute = Integer.parseInt(match.group(3));
         if (timeOkHourMinute(hour, minute)) {
             token.identify(LexemeIdentity.TREND_TIME_GROUP);
-            token.setParsedValue(HOUR1, hour);
-            token.setParsedValue(MINUTE1, minute);
+            token.setParsedIntValue(HOUR1, hour);
+            token.setParsedIntValue(MINUTE1, minute);
             token.setParsedValue(TYPE, type);
         } else {
             token.identify(LexemeIdentity.TREND_TIME_GROUP, Lexeme.Status.SYNTAX_ERROR, "Invalid time");
@@ -94,21 +94,27 @@ public class TrendTimeGroup extends TimeHandlingRegex {
             final List<Lexeme> retval = new ArrayList<>();
             if (time instanceof PartialOrCompleteTimeInstant) {
                 final PartialOrCompleteTimeInstant instant = (PartialOrCompleteTimeInstant) time;
-                retval.add(this.createLexeme(String.format(Locale.US, "AT%02d%02d", instant.getHour().orElse(-1), instant.getMinute().orElse(-1)), TREND_TIME_GROUP));
+                retval.add(this.createLexeme(formatHourMinute("AT", instant), TREND_TIME_GROUP));
             } else if (time instanceof PartialOrCompleteTimePeriod) {
                 final PartialOrCompleteTimePeriod period = (PartialOrCompleteTimePeriod) time;
                 if (period.getStartTime().isPresent()) {
                     final PartialOrCompleteTimeInstant start = period.getStartTime().get();
-                    retval.add(this.createLexeme(String.format(Locale.US, "FM%02d%02d", start.getHour().orElse(-1), start.getMinute().orElse(-1)), TREND_TIME_GROUP));
+                    retval.add(this.createLexeme(formatHourMinute("FM", start), TREND_TIME_GROUP));
                 }
                 if (period.getEndTime().isPresent()) {
                     final PartialOrCompleteTimeInstant end = period.getEndTime().get();
-                    retval.add(this.createLexeme(String.format(Locale.US, "TL%02d%02d", end.getHour().orElse(-1), end.getMinute().orElse(-1)), TREND_TIME_GROUP));
+                    retval.add(this.createLexeme(formatHourMinute("TL", end), TREND_TIME_GROUP));
                 }
             }
             return retval;
         }
 
+        private static String formatHourMinute(final String prefix, final PartialOrCompleteTimeInstant instant) {
+            final StringBuilder sb = new StringBuilder(6).append(prefix);
+            TACNumberFormat.appendZeroPadded(sb, instant.getHour().orElse(-1), 2);
+            return TACNumberFormat.appendZeroPadded(sb, instant.getMinute().orElse(-1), 2).toString();
+        }
+
     }
 
 }
@@ -4,11 +4,12 @@ import static fi.fmi.avi.converter.tac.lexer.Lexeme.ParsedValueName.DAY1;
 import static fi.fmi.avi.converter.tac.lexer.Lexeme.ParsedValueName.DAY2;
 import static fi.fmi.avi.converter.tac.lexer.Lexeme.ParsedValueName.HOUR1;
 import static fi.fmi.avi.converter.tac.lexer.Lexeme.ParsedValueName.HOUR2;
+import static fi.fmi.avi.converter.tac.lexer.impl.token.TimeHandlingRegex.timeOkDayHour;
 
 import java.time.Duration;
 import java.util.Locale;
 import java.util.Optional;
-import java.util.regex.Matcher;
+import java.util.regex.MatchResult;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -19,6 +20,9 @@ import fi.fmi.avi.converter.tac.lexer.LexemeIdentity;
 import fi.fmi.avi.converter.tac.lexer.SerializingException;
 import fi.fmi.avi.converter.tac.lexer.impl.FactoryBasedReconstructor;
 import fi.fmi.avi.converter.tac.lexer.impl.ReconstructorContext;
+import fi.fmi.avi.converter.tac.lexer.impl.ScannedMatch;
+import fi.fmi.avi.converter.tac.lexer.impl.ScanningLexemeVisitor;
+import fi.fmi.avi.converter.tac.lexer.impl.util.TACNumberFormat;
 import fi.fmi.avi.converter.tac.taf.TAFReferencePolicy;
 import fi.fmi.avi.model.AviationWeatherMessageOrCollection;
 import fi.fmi.avi.model.PartialOrCompleteTimeInstant;
@@ -28,7 +32,7 @@ import fi.fmi.avi.model.taf.TAF;
 /**
  * Created by rinne on 10/02/17.
  */
-public class ValidTime extends TimeHandlingRegex {
+public class ValidTime extends ScanningLexemeVisitor {
     private static final Logger LOG = LoggerFactory.getLogger(ValidTime.class);
 
     public ValidTime(final OccurrenceFrequency prio) {
@@ -92,17 +96,28 @@ public class ValidTime extends TimeHandlingRegex {
     }
 
     @Override
-    public void visitIfMatched(final Lexeme token, final Matcher match, final ConversionHints hints) {
+    public MatchResult scan(final String token) {
+        if (token.length() == 6 && isDigits(token, 0, 6)) {
+            return new ScannedMatch(token, 9).set(1, 0, 6).set(2, 0, 2).set(3, 2, 4).set(4, 4, 6);
+        } else if (token.length() == 9 && isDigits(token, 0, 4) && isAt(token, 4, '/') && isDigits(token, 5, 4)) {
+            return new ScannedMatch(token, 9).set(5, 0, 9).set(6, 0, 2).set(7, 2, 4).set(8, 5, 7).set(9, 7, 9);
+        }
+        return null;
+    }
+
+    @Override
+    public void visitIfMatched(final Lexeme token, final MatchResult match, final ConversionHints hints) {
         if (token.hasPrevious() && LexemeIdentity.ISSUE_TIME.equals(token.getPrevious().getIdentity())) {
-            if (match.group(1) != null) {
+            final String tac = token.getTACToken();
+            if (match.start(1) >= 0) {
                 //old 24h TAF, just one day field
-                final int day = Integer.parseInt(match.group(2));
-                final int fromHour = Integer.parseInt(match.group(3));
-                final int toHour = Integer.parseInt(match.group(4));
+                final int day = ScannedMatch.parseInt(match, tac, 2);
+                final int fromHour = ScannedMatch.parseInt(match, tac, 3);
+                final int toHour = ScannedMatch.parseInt(match, tac, 4);
                 if (timeOkDayHour(day, fromHour) && timeOkDayHour(day, toHour)) {
                     token.identify(LexemeIdentity.VALID_TIME);
-                    token.setParsedValue(DAY1, day);
-                    token.setParsedValue(HOUR1, fromHour);
+                    token.setParsedIntValue(DAY1, day);
+                    token.setParsedIntValue(HOUR1, fromHour);
                     token.setParsedValue(HOUR2, toHour);
                 } else {
                     token.identify(LexemeIdentity.VALID_TIME, Lexeme.Status.SYNTAX_ERROR, "Invalid date and/or time");
@@ -110,15 +125,15 @@ public class ValidTime extends TimeHandlingRegex {
 
             } else {
                 //30h TAF
-                final int fromDay = Integer.parseInt(match.group(6));
-                final int fromHour = Integer.parseInt(match.group(7));
-                final int toDay = Integer.parseInt(match.group(8));
-                final int toHour = Integer.parseInt(match.group(9));
+                final int fromDay = ScannedMatch.parseInt(match, tac, 6);
+                final int fromHour = ScannedMatch.parseInt(match, tac, 7);
+                final int toDay = ScannedMatch.parseInt(match, tac, 8);
+                final int toHour = ScannedMatch.parseInt(match, tac, 9);
                 if (timeOkDayHour(fromDay, fromHour) && timeOkDayHour(toDay, toHour)) {
                     token.identify(LexemeIdentity.VALID_TIME);
-                    token.setParsedValue(DAY1, fromDay);
+                    token.setParsedIntValue(DAY1, fromDay);
                     token.setParsedValue(DAY2, toDay);
-                    token.setParsedValue(HOUR1, fromHour);
+                    token.setParsedIntValue(HOUR1, fromHour);
                     token.setParsedValue(HOUR2, toHour);
                 } else {
                     token.identify(LexemeIdentity.VALID_TIME, Lexeme.Status.SYNTAX_ERROR, "Invalid date and/or time");
@@ -148,12 +163,14 @@ public class ValidTime extends TimeHandlingRegex {
             if (period.getStartTime().isPresent() && period.getEndTime().isPresent()) {
                 final PartialOrCompleteTimeInstant start = period.getStartTime().get();
                 final PartialOrCompleteTimeInstant end = period.getEndTime().get();
-                if (!end.getDay().isPresent() || useShortFormat) {
-                    retval = String.format(Locale.US, "%02d%02d%02d", start.getDay().orElse(-1), start.getHour().orElse(-1), end.getHour().orElse(-1));
-                } else {
-                    retval = String.format(Locale.US, "%02d%02d/%02d%02d", start.getDay().orElse(-1), start.getHour().orElse(-1), end.getDay().orElse(-1),
-                            end.getHour().orElse(-1));
+                final StringBuilder sb = new StringBuilder(9);
+                TACNumberFormat.appendZeroPadded(sb, start.getDay().orElse(-1), 2);
+                TACNumberFormat.appendZeroPadded(sb, start.getHour().orElse(-1), 2);
+                if (end.getDay().isPresent() && !useShortFormat) {
+                    TACNumberFormat.appendZeroPadded(sb.append('/'), end.getDay().get(), 2);
                 }
+                TACNumberFormat.appendZeroPadded(sb, end.getHour().orElse(-1), 2);
+                retval = sb.toString();
             }
             return retval;
         }
@@ -5,7 +5,6 @@ import static fi.fmi.avi.converter.tac.lexer.Lexeme.ParsedValueName.MIN_DIRECTIO
 import static fi.fmi.avi.converter.tac.lexer.Lexeme.ParsedValueName.UNIT;
 import static fi.fmi.avi.converter.tac.lexer.LexemeIdentity.VARIABLE_WIND_DIRECTION;
 
-import java.util.Locale;
 import java.util.Optional;
 import java.util.regex.Matcher;
 
@@ -15,6 +14,7 @@ import fi.fmi.avi.converter.tac.lexer.SerializingException;
 import fi.fmi.avi.converter.tac.lexer.impl.FactoryBasedReconstructor;
 import fi.fmi.avi.converter.tac.lexer.impl.ReconstructorContext;
 import fi.fmi.avi.converter.tac.lexer.impl.RegexMatchingLexemeVisitor;
+import fi.fmi.avi.converter.tac.lexer.impl.util.TACNumberFormat;
 import fi.fmi.avi.model.AviationWeatherMessageOrCollection;
 import fi.fmi.avi.model.NumericMeasure;
 import fi.fmi.avi.model.metar.MeteorologicalTerminalAirReport;
@@ -96,7 +96,9 @@ public class VariableSurfaceWind extends RegexMatchingLexemeVisitor {
 			}
 
 
-			return String.format(Locale.US, "%03dV%03d", counter.getValue().intValue(), clockwise.getValue().intValue());
+			final StringBuilder sb = new StringBuilder(7);
+			TACNumberFormat.appendZeroPadded(sb, counter.getValue().intValue(), 3).append('V');
+			return TACNumberFormat.appendZeroPadded(sb, clockwise.getValue().intValue(), 3).toString();
 		}
     }
 }
@@ -7,7 +7,7 @@ import fi.fmi.avi.converter.tac.lexer.LexemeIdentity;
 import fi.fmi.avi.converter.tac.lexer.impl.PrioritizedLexemeVisitor;
 
 public class WXREPStart extends PrioritizedLexemeVisitor {
-    public static final LexemeIdentity WXREP_START = new LexemeIdentity("WXREP_START");
+    public static final LexemeIdentity WXREP_START = LexemeIdentity.WXREP_START;
 
     public WXREPStart(final OccurrenceFrequency prio) {
         super(prio);
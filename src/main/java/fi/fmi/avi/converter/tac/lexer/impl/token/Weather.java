@@ -10,21 +10,23 @@ import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Optional;
 import java.util.Set;
-import java.util.regex.Matcher;
+import java.util.regex.MatchResult;
 
 import fi.fmi.avi.converter.ConversionHints;
 import fi.fmi.avi.converter.tac.lexer.Lexeme;
 import fi.fmi.avi.converter.tac.lexer.LexemeIdentity;
 import fi.fmi.avi.converter.tac.lexer.SerializingException;
 import fi.fmi.avi.converter.tac.lexer.impl.FactoryBasedReconstructor;
+import fi.fmi.avi.converter.tac.lexer.impl.LexemeUtils;
 import fi.fmi.avi.converter.tac.lexer.impl.ReconstructorContext;
-import fi.fmi.avi.converter.tac.lexer.impl.RegexMatchingLexemeVisitor;
+import fi.fmi.avi.converter.tac.lexer.impl.ScannedMatch;
+import fi.fmi.avi.converter.tac.lexer.impl.ScanningLexemeVisitor;
 import fi.fmi.avi.model.AviationWeatherMessageOrCollection;
 
 /**
  * Token parser for weather codes
  */
-public class Weather extends RegexMatchingLexemeVisitor {
+public class Weather extends ScanningLexemeVisitor {
 
     private final static Set<String> weatherSkipWords = new HashSet<>(
             Arrays.asList("METAR", "RTD", "TAF", "COR", "AMD", "CNL", "NIL", "CAVOK", "TEMPO", "BECMG", "RMK", "NOSIG", "NSC", "NSW", "SKC", "NCD", "AUTO",
@@ -35,25 +37,29 @@ public class Weather extends RegexMatchingLexemeVisitor {
         super("^(RE)?([+-]?[A-Z]{2,8})$", prio);
     }
 
+    private static boolean isWeatherCode(final String token, final int from) {
+        final int start = isAnyAt(token, from, "+-") ? from + 1 : from;
+        final int length = token.length() - start;
+        return length >= 2 && length <= 8 && isUpperCaseLetters(token, start, length);
+    }
+
     @Override
-    public void visitIfMatched(final Lexeme token, final Matcher match, final ConversionHints hints) {
-        boolean isPreceededWithAerodromeCode = false;
-        boolean isPreceededWithRemarkStart = false;
-        Lexeme l = token.getPrevious();
-        while (l != null) {
-            if (!isPreceededWithAerodromeCode && AERODROME_DESIGNATOR.equals(l.getIdentityIfAcceptable())) {
-                isPreceededWithAerodromeCode = true;
-            }
-            if (!isPreceededWithRemarkStart && REMARKS_START.equals(l.getIdentityIfAcceptable())) {
-                isPreceededWithRemarkStart = true;
-            }
-            l = l.getPrevious();
+    public MatchResult scan(final String token) {
+        if (token.startsWith("RE") && isWeatherCode(token, 2)) {
+            return new ScannedMatch(token, 2).set(1, 0, 2).set(2, 2, token.length());
+        } else if (isWeatherCode(token, 0)) {
+            return new ScannedMatch(token, 2).set(2, 0, token.length());
         }
-        if (isPreceededWithRemarkStart) {
+        return null;
+    }
+
+    @Override
+    public void visitIfMatched(final Lexeme token, final MatchResult match, final ConversionHints hints) {
+        if (LexemeUtils.existsPreviousLexeme(token, REMARKS_START, l -> l.getIdentityIfAcceptable() != null)) {
             return;
         }
-        if (isPreceededWithAerodromeCode) {
-            final boolean isRecent = match.group(1) != null;
+        if (LexemeUtils.existsPreviousLexeme(token, AERODROME_DESIGNATOR, l -> l.getIdentityIfAcceptable() != null)) {
+            final boolean isRecent = match.start(1) >= 0;
             final String code = match.group(2);
 
             if (!weatherSkipWords.contains(code)) {
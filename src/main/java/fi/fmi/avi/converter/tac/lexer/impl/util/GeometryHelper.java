@@ -8,7 +8,6 @@ import fi.fmi.avi.model.immutable.PointGeometryImpl;
 
 import javax.annotation.Nullable;
 import java.math.BigDecimal;
-import java.math.MathContext;
 import java.math.RoundingMode;
 import java.util.*;
 import java.util.function.BiFunction;
@@ -63,30 +62,10 @@ public class GeometryHelper {
      * @return formatted coordinate string
      */
     private static String formatCoordinatePair(final BigDecimal lat, final BigDecimal lon, final boolean includeMinutesWhenZero) {
-        final StringBuilder latBuilder = new StringBuilder();
-        final StringBuilder lonBuilder = new StringBuilder();
-        final MathContext mc = new MathContext(2, RoundingMode.HALF_UP);
-
-        latBuilder.append(lat.doubleValue() < 0 ? 'S' : 'N');
-        lonBuilder.append(lon.doubleValue() < 0 ? 'W' : 'E');
-
-        latBuilder.append(String.format(Locale.US, "%02d", lat.abs().intValue()));
-        lonBuilder.append(String.format(Locale.US, "%03d", lon.abs().intValue()));
-
-        final BigDecimal latDecimalPart = lat.subtract(BigDecimal.valueOf(lat.intValue()));
-        final BigDecimal lonDecimalPart = lon.subtract(BigDecimal.valueOf(lon.intValue()));
-
-        if (includeMinutesWhenZero || latDecimalPart.compareTo(BigDecimal.ZERO) != 0) {
-            final BigDecimal latMinutes = latDecimalPart.abs().multiply(BigDecimal.valueOf(60d)).round(mc);
-            latBuilder.append(String.format(Locale.US, "%02.0f", latMinutes));
-        }
-
-        if (includeMinutesWhenZero || lonDecimalPart.compareTo(BigDecimal.ZERO) != 0) {
-            final BigDecimal lonMinutes = lonDecimalPart.abs().multiply(BigDecimal.valueOf(60d)).round(mc);
-            lonBuilder.append(String.format(Locale.US, "%02.0f", lonMinutes));
-        }
-
-        return latBuilder + MeteorologicalBulletinSpecialCharacter.SPACE.getContent() + lonBuilder;
+        final StringBuilder sb = new StringBuilder(13);
+        TACNumberFormat.appendLatitude(sb, lat, includeMinutesWhenZero);
+        sb.append(MeteorologicalBulletinSpecialCharacter.SPACE.getContent());
+        return TACNumberFormat.appendLongitude(sb, lon, includeMinutesWhenZero).toString();
     }
 
     private static void addCoordinateSeparatorLexemes(final List<Lexeme> lexemes, final BiFunction<String, LexemeIdentity, Lexeme> createLexeme) {
@@ -186,8 +165,9 @@ public class GeometryHelper {
             final BigDecimal lat = round(coords.get(latOffset), decimalPlaces);
             final BigDecimal lon = round(coords.get(lonOffset), decimalPlaces);
             final List<Lexeme> coordinateLexemes = createCoordinatePairLexemes(lat, lon, false, createLexeme, specifyZeros);
-            final Lexeme circleLexeme = createLexeme.apply(String.format(Locale.US, "WI %02.0f%s OF ", radius, unit) +
-                    coordinateLexemes.get(0).getTACToken(), LexemeIdentity.SIGMET_WITHIN_RADIUS_OF_POINT);
+            final StringBuilder sb = new StringBuilder("WI ");
+            TACNumberFormat.appendRoundedZeroPadded(sb, radius, 2).append(unit).append(" OF ").append(coordinateLexemes.get(0).getTACToken());
+            final Lexeme circleLexeme = createLexeme.apply(sb.toString(), LexemeIdentity.SIGMET_WITHIN_RADIUS_OF_POINT);
             lexemes.add(circleLexeme);
         }
 
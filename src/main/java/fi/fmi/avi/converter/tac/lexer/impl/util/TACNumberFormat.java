@@ -0,0 +1,250 @@
+package fi.fmi.avi.converter.tac.lexer.impl.util;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Fixed-width number formatting for the TAC token reconstructors.
+ *
+ * The methods produce exactly the same output as the corresponding {@link String#format(Locale, String, Object...)}
+ * patterns with {@link Locale#US}, but append to the given {@link StringBuilder} without creating a
+ * {@link java.util.Formatter} and parsing the pattern for each token.
+ */
+public final class TACNumberFormat {
+    private static final long[] POWERS_OF_TEN = { 1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L, 1_000_000_000L,
+            10_000_000_000L, 100_000_000_000L, 1_000_000_000_000L, 10_000_000_000_000L, 100_000_000_000_000L, 1_000_000_000_000_000L };
+    private static final int MAX_EXACT_PRECISION = 15;
+    private static final MathContext MINUTES_CONTEXT = new MathContext(2, RoundingMode.HALF_UP);
+    private static final BigDecimal MINUTES_IN_DEGREE = BigDecimal.valueOf(60d);
+    private static final ConcurrentMap<Integer, FractionTable> FRACTION_TABLES = new ConcurrentHashMap<>();
+
+    private TACNumberFormat() {
+        throw new AssertionError();
+    }
+
+    /**
+     * Appends the value zero-padded to the given width, as the pattern <code>%0<i>width</i>d</code> would. The sign of a
+     * negative value is counted in the width, so -1 formatted to width 2 is "-1".
+     *
+     * @param sb the builder to append to
+     * @param value the value
+     * @param width the minimum number of characters to append
+     * @return the builder given
+     */
+    public static StringBuilder appendZeroPadded(final StringBuilder sb, final long value, final int width) {
+        if (value == Long.MIN_VALUE) {
+            return sb.append(String.format(Locale.US, "%0" + width + "d", value));
+        }
+        return appendZeroPadded(sb, value < 0, Math.abs(value), width);
+    }
+
+    /**
+     * Returns the value zero-padded to the given width, as the pattern <code>%0<i>width</i>d</code> would.
+     *
+     * @param value the value
+     * @param width the minimum number of characters to return
+     * @return the formatted value
+     */
+    public static String zeroPadded(final long value, final int width) {
+        return appendZeroPadded(new StringBuilder(Math.max(width, 4)), value, width).toString();
+    }
+
+    /**
+     * Appends the value rounded half up to an integer and zero-padded to the given width, as the pattern
+     * <code>%0<i>width</i>.0f</code> would.
+     *
+     * @param sb the builder to append to
+     * @param value the value
+     * @param width the minimum number of characters to append
+     * @return the builder given
+     */
+    public static StringBuilder appendRoundedZeroPadded(final StringBuilder sb, final double value, final int width) {
+        if (Double.isNaN(value) || Double.isInfinite(value) || Math.abs(value) >= 1.0E18) {
+            return sb.append(String.format(Locale.US, "%0" + width + ".0f", value));
+        }
+        // Subtracting the truncated integer part is exact, so the comparison to one half is too
+        long magnitude = (long) Math.abs(value);
+        if (Math.abs(value) - magnitude >= 0.5) {
+            magnitude++;
+        }
+        // Formatter keeps the sign of values rounding to zero, including the negative zero
+        return appendZeroPadded(sb, Double.doubleToRawLongBits(value) < 0, magnitude, width);
+    }
+
+    /**
+     * Appends a latitude in the TAC degree and minute encoding, e.g. "N6030" or "S05".
+     *
+     * @param sb the builder to append to
+     * @param latitude the latitude in decimal degrees
+     * @param includeMinutesWhenZero if true, the minutes are appended even when zero
+     * @return the builder given
+     */
+    public static StringBuilder appendLatitude(final StringBuilder sb, final BigDecimal latitude, final boolean includeMinutesWhenZero) {
+        return appendDegreesMinutes(sb, latitude, 'N', 'S', 2, includeMinutesWhenZero);
+    }
+
+    /**
+     * Appends a longitude in the TAC degree and minute encoding, e.g. "E02445" or "W005".
+     *
+     * @param sb the builder to append to
+     * @param longitude the longitude in decimal degrees
+     * @param includeMinutesWhenZero if true, the minutes are appended even when zero
+     * @return the builder given
+     */
+    public static StringBuilder appendLongitude(final StringBuilder sb, final BigDecimal longitude, final boolean includeMinutesWhenZero) {
+        return appendDegreesMinutes(sb, longitude, 'E', 'W', 3, includeMinutesWhenZero);
+    }
+
+    /**
+     * Returns the fraction closest to the given number with the denominator at most <code>maxDenominator</code>, in
+     * lowest terms, e.g. "3/8". When two fractions are equally close, the one with the smaller denominator is returned.
+     *
+     * The fractions are looked up from a table computed once for each maximum denominator.
+     *
+     * @param number the number, between 0 and 1 (exclusive)
+     * @param maxDenominator the largest denominator allowed, at least 2
+     * @return the closest fraction
+     */
+    public static String closestFraction(final double number, final int maxDenominator) {
+        return FRACTION_TABLES.computeIfAbsent(maxDenominator, FractionTable::new).closest(number);
+    }
+
+    private static StringBuilder appendZeroPadded(final StringBuilder sb, final boolean negative, final long magnitude, final int width) {
+        int padding = width - digits(magnitude);
+        if (negative) {
+            sb.append('-');
+            padding--;
+        }
+        for (; padding > 0; padding--) {
+            sb.append('0');
+        }
+        return sb.append(magnitude);
+    }
+
+    private static int digits(final long magnitude) {
+        int digits = 1;
+        while (digits < POWERS_OF_TEN.length && magnitude >= POWERS_OF_TEN[digits]) {
+            digits++;
+        }
+        if (digits == POWERS_OF_TEN.length) {
+            return Long.toString(magnitude).length();
+        }
+        return digits;
+    }
+
+    private static StringBuilder appendDegreesMinutes(final StringBuilder sb, final BigDecimal value, final char positive, final char negative,
+            final int degreeWidth, final boolean includeMinutesWhenZero) {
+        final int scale = value.scale();
+        if (scale < 0 || scale >= POWERS_OF_TEN.length || value.precision() > MAX_EXACT_PRECISION) {
+            return appendDegreesMinutesOfBigDecimal(sb, value, positive, negative, degreeWidth, includeMinutesWhenZero);
+        }
+        // With at most 15 significant digits the unscaled value is recovered exactly from the nearest double
+        final long unscaled = Math.round(value.doubleValue() * POWERS_OF_TEN[scale]);
+        final long magnitude = Math.abs(unscaled);
+        final long unit = POWERS_OF_TEN[scale];
+        final long fraction = magnitude % unit;
+
+        sb.append(unscaled < 0 ? negative : positive);
+        appendZeroPadded(sb, false, magnitude / unit, degreeWidth);
+        if (includeMinutesWhenZero || fraction != 0) {
+            appendZeroPadded(sb, false, roundMinutes(fraction * 60, unit), 2);
+        }
+        return sb;
+    }
+
+    /*
+     * Rounds minutes / unit first to two significant digits and then to an integer, both half up, as the
+     * original BigDecimal encoding does. The minutes are the fraction of a degree times 60, so below 60 * unit.
+     */
+    private static long roundMinutes(final long minutes, final long unit) {
+        if (minutes >= 10 * unit) {
+            return (2 * minutes + unit) / (2 * unit);
+        } else if (minutes >= unit) {
+            final long tenth = unit / 10;
+            final long tenths = (2 * minutes + tenth) / (2 * tenth);
+            return (tenths + 5) / 10;
+        } else if (10 * minutes >= unit) {
+            // Only reached with at least two decimals, as tenths of a degree are multiples of six minutes
+            final long hundredth = unit / 100;
+            final long hundredths = (2 * minutes + hundredth) / (2 * hundredth);
+            return hundredths >= 50 ? 1 : 0;
+        }
+        return 0;
+    }
+
+    static StringBuilder appendDegreesMinutesOfBigDecimal(final StringBuilder sb, final BigDecimal value, final char positive, final char negative,
+            final int degreeWidth, final boolean includeMinutesWhenZero) {
+        sb.append(value.doubleValue() < 0 ? negative : positive);
+        appendZeroPadded(sb, value.abs().intValue(), degreeWidth);
+        final BigDecimal decimalPart = value.subtract(BigDecimal.valueOf(value.intValue()));
+        if (includeMinutesWhenZero || decimalPart.compareTo(BigDecimal.ZERO) != 0) {
+            final BigDecimal minutes = decimalPart.abs().multiply(MINUTES_IN_DEGREE).round(MINUTES_CONTEXT);
+            sb.append(String.format(Locale.US, "%02.0f", minutes));
+        }
+        return sb;
+    }
+
+    private static final class FractionTable {
+        private static final double EQUIVALENCY_DELTA = 0.00000001d;
+
+        private final double[] values;
+        private final int[] denominators;
+        private final String[] tokens;
+
+        FractionTable(final int maxDenominator) {
+            if (maxDenominator < 2) {
+                throw new IllegalArgumentException("max denominator must be at least 2: " + maxDenominator);
+            }
+            // Only fractions in lowest terms, in ascending order
+            final List<int[]> fractions = new ArrayList<>();
+            for (int denominator = 2; denominator <= maxDenominator; denominator++) {
+                for (int numerator = 1; numerator < denominator; numerator++) {
+                    if (greatestCommonDivisor(numerator, denominator) == 1) {
+                        fractions.add(new int[] { numerator, denominator });
+                    }
+                }
+            }
+            fractions.sort((a, b) -> Long.compare((long) a[0] * b[1], (long) b[0] * a[1]));
+            this.values = new double[fractions.size()];
+            this.denominators = new int[fractions.size()];
+            this.tokens = new String[fractions.size()];
+            for (int i = 0; i < fractions.size(); i++) {
+                final int[] f = fractions.get(i);
+                this.values[i] = (double) f[0] / (double) f[1];
+                this.denominators[i] = f[1];
+                this.tokens[i] = f[0] + "/" + f[1];
+            }
+        }
+
+        private static int greatestCommonDivisor(final int a, final int b) {
+            return b == 0 ? a : greatestCommonDivisor(b, a % b);
+        }
+
+        String closest(final double number) {
+            final int index = Arrays.binarySearch(this.values, number);
+            if (index >= 0) {
+                return this.tokens[index];
+            }
+            final int upper = -index - 1;
+            if (upper == 0) {
+                return this.tokens[0];
+            } else if (upper == this.values.length) {
+                return this.tokens[upper - 1];
+            }
+            final int lower = upper - 1;
+            final double lowerDelta = Math.abs(number - this.values[lower]);
+            final double upperDelta = Math.abs(number - this.values[upper]);
+            if (Math.abs(lowerDelta - upperDelta) <= EQUIVALENCY_DELTA) {
+                return this.denominators[lower] <= this.denominators[upper] ? this.tokens[lower] : this.tokens[upper];
+            }
+            return lowerDelta < upperDelta ? this.tokens[lower] : this.tokens[upper];
+        }
+    }
+}
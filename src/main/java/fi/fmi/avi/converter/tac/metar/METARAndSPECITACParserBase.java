@@ -15,6 +15,7 @@ import fi.fmi.avi.converter.ConversionIssue;
 import fi.fmi.avi.converter.ConversionIssue.Type;
 import fi.fmi.avi.converter.ConversionResult;
 import fi.fmi.avi.converter.tac.AbstractTACParser;
+import fi.fmi.avi.converter.tac.MessageGrammar;
 import fi.fmi.avi.converter.tac.lexer.AviMessageLexer;
 import fi.fmi.avi.converter.tac.lexer.Lexeme;
 import fi.fmi.avi.converter.tac.lexer.Lexeme.ParsedValueName;
@@ -34,6 +35,7 @@ import fi.fmi.avi.converter.tac.lexer.impl.token.TrendChangeIndicator.TrendChang
 import fi.fmi.avi.converter.tac.lexer.impl.token.TrendTimeGroup.TrendTimePeriodType;
 import fi.fmi.avi.model.AviationCodeListUser;
 import fi.fmi.avi.model.AviationWeatherMessage;
+import fi.fmi.avi.model.MessageType;
 import fi.fmi.avi.model.NumericMeasure;
 import fi.fmi.avi.model.PartialDateTime;
 import fi.fmi.avi.model.PartialOrCompleteTimeInstant;
@@ -69,9 +71,11 @@ import fi.fmi.avi.model.metar.immutable.WindShearImpl;
 public abstract class METARAndSPECITACParserBase<T extends MeteorologicalTerminalAirReport, B extends MeteorologicalTerminalAirReportBuilder<? extends T, B>>
         extends AbstractTACParser<T> {
 
-    private static final LexemeIdentity[] zeroOrOneAllowed = { LexemeIdentity.AERODROME_DESIGNATOR, LexemeIdentity.ISSUE_TIME,
-            LexemeIdentity.AIR_DEWPOINT_TEMPERATURE, LexemeIdentity.AIR_PRESSURE_QNH, LexemeIdentity.WIND_SHEAR, LexemeIdentity.SEA_STATE,
-            LexemeIdentity.SNOW_CLOSURE, LexemeIdentity.REMARKS_START, LexemeIdentity.NIL, LexemeIdentity.ROUTINE_DELAYED_OBSERVATION };
+    private static final MessageGrammar METAR_GRAMMAR = MessageGrammar.builder()
+            .zeroOrOne(LexemeIdentity.AERODROME_DESIGNATOR, LexemeIdentity.ISSUE_TIME, LexemeIdentity.AIR_DEWPOINT_TEMPERATURE,
+                    LexemeIdentity.AIR_PRESSURE_QNH, LexemeIdentity.WIND_SHEAR, LexemeIdentity.SEA_STATE, LexemeIdentity.SNOW_CLOSURE,
+                    LexemeIdentity.REMARKS_START, LexemeIdentity.NIL, LexemeIdentity.ROUTINE_DELAYED_OBSERVATION)
+            .build();
 
     private AviMessageLexer lexer;
 
@@ -1023,6 +1027,10 @@ public abstract class METARAndSPECITACParserBase<T extends MeteorologicalTermina
 
     protected abstract LexemeIdentity getExpectedFirstTokenIdentity();
 
+    private MessageType getMessageType() {
+        return LexemeIdentity.SPECI_START.equals(getExpectedFirstTokenIdentity()) ? MessageType.SPECI : MessageType.METAR;
+    }
+
     protected abstract T buildUsing(final B builder);
 
     protected abstract B getBuilder();
@@ -1034,6 +1042,10 @@ public abstract class METARAndSPECITACParserBase<T extends MeteorologicalTermina
 
     @Override
     public ConversionResult<T> convertMessage(final String input, final ConversionHints hints) {
+        return measureParsing(getMessageType(), () -> parse(input, hints));
+    }
+
+    private ConversionResult<T> parse(final String input, final ConversionHints hints) {
         final ConversionResult<T> result = new ConversionResult<>();
         if (this.lexer == null) {
             throw new IllegalStateException("TAC lexer not set");
@@ -1059,7 +1071,7 @@ public abstract class METARAndSPECITACParserBase<T extends MeteorologicalTermina
             return result;
         }
 
-        final List<ConversionIssue> issues = checkZeroOrOne(lexed, zeroOrOneAllowed);
+        final List<ConversionIssue> issues = METAR_GRAMMAR.validate(lexed).getCardinalityIssues();
         if (!issues.isEmpty()) {
             result.addIssue(issues);
         }
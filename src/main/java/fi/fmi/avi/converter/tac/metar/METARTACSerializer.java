@@ -3,6 +3,7 @@ package fi.fmi.avi.converter.tac.metar;
 import fi.fmi.avi.converter.ConversionHints;
 import fi.fmi.avi.converter.tac.lexer.LexemeIdentity;
 import fi.fmi.avi.model.AviationWeatherMessageOrCollection;
+import fi.fmi.avi.model.MessageType;
 import fi.fmi.avi.model.metar.METAR;
 
 public class METARTACSerializer extends METARTACSerializerBase<METAR> {
@@ -25,4 +26,9 @@ public class METARTACSerializer extends METARTACSerializerBase<METAR> {
     protected Class<METAR> getMessageClass() {
         return METAR.class;
     }
+
+    @Override
+    protected MessageType getMessageType() {
+        return MessageType.METAR;
+    }
 }
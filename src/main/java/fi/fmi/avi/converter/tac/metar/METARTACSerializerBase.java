@@ -4,7 +4,7 @@ import fi.fmi.avi.converter.ConversionHints;
 import fi.fmi.avi.converter.tac.AbstractTACSerializer;
 import fi.fmi.avi.converter.tac.lexer.LexemeIdentity;
 import fi.fmi.avi.converter.tac.lexer.LexemeSequence;
-import fi.fmi.avi.converter.tac.lexer.LexemeSequenceBuilder;
+import fi.fmi.avi.converter.tac.lexer.LexemeSink;
 import fi.fmi.avi.converter.tac.lexer.SerializingException;
 import fi.fmi.avi.converter.tac.lexer.impl.ReconstructorContext;
 import fi.fmi.avi.model.AviationWeatherMessageOrCollection;
@@ -33,9 +33,14 @@ public abstract class METARTACSerializerBase<T extends MeteorologicalTerminalAir
 
     @Override
     public LexemeSequence tokenizeMessage(final AviationWeatherMessageOrCollection msg, final ConversionHints hints) throws SerializingException {
+        return tokenizeWithBuilder(msg, hints);
+    }
+
+    @Override
+    protected void appendMessage(final LexemeSink retval, final AviationWeatherMessageOrCollection msg, final ConversionHints hints)
+            throws SerializingException {
         final T input = narrow(msg, hints);
         final ReconstructorContext<T> baseCtx = new ReconstructorContext<>(input, hints);
-        final LexemeSequenceBuilder retval = this.getLexingFactory().createLexemeSequenceBuilder();
         appendToken(retval, getStartTokenIdentity(), input, getMessageClass(), baseCtx);
         appendWhitespace(retval, MeteorologicalBulletinSpecialCharacter.SPACE);
         if (appendToken(retval, LexemeIdentity.CORRECTION, input, getMessageClass(), baseCtx) > 0) {
@@ -54,7 +59,7 @@ public abstract class METARTACSerializerBase<T extends MeteorologicalTerminalAir
 
         if (appendToken(retval, LexemeIdentity.NIL, input, getMessageClass(), baseCtx) > 0) {
             appendToken(retval, LexemeIdentity.END_TOKEN, input, getMessageClass(), baseCtx);
-            return retval.build();
+            return;
         }
 
         if (appendToken(retval, LexemeIdentity.AUTOMATED, input, getMessageClass(), baseCtx) > 0) {
@@ -188,7 +193,6 @@ public abstract class METARTACSerializerBase<T extends MeteorologicalTerminalAir
         }
         retval.removeLast();
         appendToken(retval, LexemeIdentity.END_TOKEN, input, getMessageClass(), baseCtx);
-        return retval.build();
     }
 }
 
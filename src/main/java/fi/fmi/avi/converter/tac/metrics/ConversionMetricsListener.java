@@ -0,0 +1,76 @@
+package fi.fmi.avi.converter.tac.metrics;
+
+import java.util.List;
+
+import fi.fmi.avi.converter.ConversionIssue;
+import fi.fmi.avi.converter.tac.lexer.LexemeVisitor;
+import fi.fmi.avi.converter.tac.lexer.LexingStatistics;
+import fi.fmi.avi.model.MessageType;
+
+/**
+ * Receives measurements of the TAC lexing, parsing and serializing work.
+ *
+ * The listener is called synchronously from the converting thread, possibly from many threads at the same time, so
+ * implementations must be thread-safe and fast. All the methods do nothing by default. The lexer, parsers and
+ * serializers skip the measuring altogether when configured with {@link #NO_OP}, which is the default.
+ *
+ * @see HistogramConversionMetrics
+ */
+public interface ConversionMetricsListener {
+
+    /**
+     * The listener ignoring all the measurements.
+     */
+    ConversionMetricsListener NO_OP = new ConversionMetricsListener() {
+        @Override
+        public String toString() {
+            return "ConversionMetricsListener.NO_OP";
+        }
+    };
+
+    /**
+     * Called after a token visitor has visited a Lexeme.
+     *
+     * @param visitor the visitor
+     * @param matched true if the visit changed the identity or the identification certainty of the Lexeme
+     */
+    default void visitorInvoked(final LexemeVisitor visitor, final boolean matched) {
+    }
+
+    /**
+     * Called when tokens are combined into a single Lexeme while creating a Lexeme sequence.
+     *
+     * @param ruleIndex the index of the rule in {@link fi.fmi.avi.converter.tac.lexer.LexingFactory#getTokenCombiningRules()}
+     */
+    default void tokensCombined(final int ruleIndex) {
+    }
+
+    /**
+     * Called after a message has been lexed.
+     *
+     * @param type the recognized message type, or null if the message was not recognized
+     * @param statistics the lexer passes and visits needed
+     */
+    default void messageLexed(final MessageType type, final LexingStatistics statistics) {
+    }
+
+    /**
+     * Called after a TAC message has been parsed.
+     *
+     * @param type the type of the parsed message
+     * @param durationNanos the time used, in nanoseconds
+     * @param issues the conversion issues of the result
+     */
+    default void messageParsed(final MessageType type, final long durationNanos, final List<ConversionIssue> issues) {
+    }
+
+    /**
+     * Called after a message has been serialized to TAC.
+     *
+     * @param type the type of the serialized message, or null if not known
+     * @param durationNanos the time used, in nanoseconds
+     * @param issues the conversion issues of the result
+     */
+    default void messageSerialized(final MessageType type, final long durationNanos, final List<ConversionIssue> issues) {
+    }
+}
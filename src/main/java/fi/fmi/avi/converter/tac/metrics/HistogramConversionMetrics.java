@@ -0,0 +1,160 @@
+package fi.fmi.avi.converter.tac.metrics;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import fi.fmi.avi.converter.ConversionIssue;
+import fi.fmi.avi.converter.tac.lexer.LexemeVisitor;
+import fi.fmi.avi.converter.tac.lexer.LexingStatistics;
+import fi.fmi.avi.model.MessageType;
+
+/**
+ * A {@link ConversionMetricsListener} collecting the measurements in memory:
+ * <ul>
+ *     <li>the invocation and match counts of each token visitor class</li>
+ *     <li>the hit counts of each token combining rule</li>
+ *     <li>a histogram of the lexer passes needed per message</li>
+ *     <li>histograms of the parsing and serializing times in nanoseconds per message type</li>
+ *     <li>the conversion issue counts by issue type</li>
+ * </ul>
+ *
+ * The counters are updated without locking, and the getters return snapshots of the current values. Serialized
+ * messages of unknown type are counted as {@link MessageType#GENERIC}.
+ */
+public class HistogramConversionMetrics implements ConversionMetricsListener {
+
+    private final ConcurrentMap<Class<?>, VisitorCounts> visitorCounts = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Integer, LongAdder> combiningRuleHits = new ConcurrentHashMap<>();
+    private final LatencyHistogram lexerPasses = new LatencyHistogram();
+    private final ConcurrentMap<MessageType, LatencyHistogram> parsingTimes = new ConcurrentHashMap<>();
+    private final ConcurrentMap<MessageType, LatencyHistogram> serializingTimes = new ConcurrentHashMap<>();
+    private final LongAdder[] issueCounts = new LongAdder[ConversionIssue.Type.values().length];
+
+    public HistogramConversionMetrics() {
+        for (int i = 0; i < this.issueCounts.length; i++) {
+            this.issueCounts[i] = new LongAdder();
+        }
+    }
+
+    private static <K> Map<K, Long> snapshot(final Map<K, LongAdder> counters, final Map<K, Long> target) {
+        counters.forEach((key, counter) -> target.put(key, counter.sum()));
+        return Collections.unmodifiableMap(target);
+    }
+
+    @Override
+    public void visitorInvoked(final LexemeVisitor visitor, final boolean matched) {
+        final VisitorCounts counts = this.visitorCounts.computeIfAbsent(visitor.getClass(), key -> new VisitorCounts());
+        counts.invocations.increment();
+        if (matched) {
+            counts.matches.increment();
+        }
+    }
+
+    @Override
+    public void tokensCombined(final int ruleIndex) {
+        this.combiningRuleHits.computeIfAbsent(ruleIndex, key -> new LongAdder()).increment();
+    }
+
+    @Override
+    public void messageLexed(final MessageType type, final LexingStatistics statistics) {
+        this.lexerPasses.record(statistics.getPassCount());
+    }
+
+    @Override
+    public void messageParsed(final MessageType type, final long durationNanos, final List<ConversionIssue> issues) {
+        record(this.parsingTimes, type, durationNanos, issues);
+    }
+
+    @Override
+    public void messageSerialized(final MessageType type, final long durationNanos, final List<ConversionIssue> issues) {
+        record(this.serializingTimes, type, durationNanos, issues);
+    }
+
+    private void record(final ConcurrentMap<MessageType, LatencyHistogram> times, final MessageType type, final long durationNanos,
+            final List<ConversionIssue> issues) {
+        times.computeIfAbsent(type == null ? MessageType.GENERIC : type, key -> new LatencyHistogram()).record(durationNanos);
+        for (final ConversionIssue issue : issues) {
+            if (issue.getType() != null) {
+                this.issueCounts[issue.getType().ordinal()].increment();
+            }
+        }
+    }
+
+    /**
+     * @return the number of Lexemes visited by each visitor class
+     */
+    public Map<Class<?>, Long> getVisitorInvocationCounts() {
+        final Map<Class<?>, Long> retval = new HashMap<>();
+        this.visitorCounts.forEach((visitor, counts) -> retval.put(visitor, counts.invocations.sum()));
+        return Collections.unmodifiableMap(retval);
+    }
+
+    /**
+     * @return the number of Lexemes identified or re-identified by each visitor class
+     */
+    public Map<Class<?>, Long> getVisitorMatchCounts() {
+        final Map<Class<?>, Long> retval = new HashMap<>();
+        this.visitorCounts.forEach((visitor, counts) -> retval.put(visitor, counts.matches.sum()));
+        return Collections.unmodifiableMap(retval);
+    }
+
+    /**
+     * @return the number of combinations made with each token combining rule, by the rule index
+     */
+    public Map<Integer, Long> getCombiningRuleHitCounts() {
+        return snapshot(this.combiningRuleHits, new TreeMap<>());
+    }
+
+    /**
+     * @return the histogram of the lexer passes needed per lexed message
+     */
+    public LatencyHistogram getLexerPassCounts() {
+        return this.lexerPasses;
+    }
+
+    /**
+     * @param type the message type
+     * @return the histogram of parsing times in nanoseconds, if messages of the type have been parsed
+     */
+    public Optional<LatencyHistogram> getParsingTimes(final MessageType type) {
+        return Optional.ofNullable(this.parsingTimes.get(type));
+    }
+
+    /**
+     * @param type the message type
+     * @return the histogram of serializing times in nanoseconds, if messages of the type have been serialized
+     */
+    public Optional<LatencyHistogram> getSerializingTimes(final MessageType type) {
+        return Optional.ofNullable(this.serializingTimes.get(type));
+    }
+
+    /**
+     * @return the number of parsing and serializing issues by the issue type
+     */
+    public Map<ConversionIssue.Type, Long> getIssueCounts() {
+        final Map<ConversionIssue.Type, Long> retval = new EnumMap<>(ConversionIssue.Type.class);
+        for (final ConversionIssue.Type type : ConversionIssue.Type.values()) {
+            retval.put(type, this.issueCounts[type.ordinal()].sum());
+        }
+        return Collections.unmodifiableMap(retval);
+    }
+
+    @Override
+    public String toString() {
+        return "parsing:" + this.parsingTimes + ", serializing:" + this.serializingTimes + ", lexer passes:" + this.lexerPasses + ", issues:"
+                + getIssueCounts();
+    }
+
+    private static final class VisitorCounts {
+        private final LongAdder invocations = new LongAdder();
+        private final LongAdder matches = new LongAdder();
+    }
+}
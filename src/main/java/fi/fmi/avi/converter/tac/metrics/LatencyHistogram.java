@@ -0,0 +1,110 @@
+package fi.fmi.avi.converter.tac.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A thread-safe histogram of non-negative long values with a bounded relative error, in the style of HdrHistogram.
+ *
+ * The values below 64 are counted exactly. Larger values are counted in buckets of 32 per power of two, so the value
+ * reported for a percentile is at most about 3% larger than the recorded one. The memory used is fixed, regardless of
+ * the number and the range of the values recorded.
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int HALF_SUB_BUCKET_COUNT = SUB_BUCKET_COUNT / 2;
+    private static final int BUCKET_COUNT = SUB_BUCKET_COUNT + (Long.SIZE - SUB_BUCKET_BITS - 1) * HALF_SUB_BUCKET_COUNT;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    static int bucketOf(final long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        final int shift = Long.SIZE - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return SUB_BUCKET_COUNT + (shift - 1) * HALF_SUB_BUCKET_COUNT + (int) (value >>> shift) - HALF_SUB_BUCKET_COUNT;
+    }
+
+    static long highestValueOf(final int bucket) {
+        if (bucket < SUB_BUCKET_COUNT) {
+            return bucket;
+        }
+        final int shift = (bucket - SUB_BUCKET_COUNT) / HALF_SUB_BUCKET_COUNT + 1;
+        final long lowest = (long) ((bucket - SUB_BUCKET_COUNT) % HALF_SUB_BUCKET_COUNT + HALF_SUB_BUCKET_COUNT) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+
+    /**
+     * Records a value. Negative values are recorded as zero.
+     *
+     * @param value the value to record
+     */
+    public void record(final long value) {
+        final long recorded = Math.max(value, 0L);
+        this.counts.incrementAndGet(bucketOf(recorded));
+        this.count.increment();
+        this.sum.add(recorded);
+        this.max.accumulateAndGet(recorded, Math::max);
+    }
+
+    public long getCount() {
+        return this.count.sum();
+    }
+
+    /**
+     * @return the exact largest value recorded, or zero if none
+     */
+    public long getMax() {
+        return this.max.get();
+    }
+
+    /**
+     * @return the exact mean of the values recorded, or zero if none
+     */
+    public double getMean() {
+        final long n = this.count.sum();
+        return n == 0 ? 0.0 : (double) this.sum.sum() / n;
+    }
+
+    /**
+     * Returns the value below or at which the given percentage of the recorded values are. The value is rounded up
+     * to the highest value of its bucket, but never above {@link #getMax()}.
+     *
+     * @param percentile the percentage, from 0 to 100
+     * @return the value at the percentile, or zero if no values have been recorded
+     */
+    public long getValueAtPercentile(final double percentile) {
+        if (percentile < 0.0 || percentile > 100.0) {
+            throw new IllegalArgumentException("percentile must be between 0 and 100: " + percentile);
+        }
+        long total = 0;
+        final long[] snapshot = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            snapshot[i] = this.counts.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) {
+            return 0L;
+        }
+        final long rank = Math.max(1L, (long) Math.ceil(percentile / 100.0 * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return Math.min(highestValueOf(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    @Override
+    public String toString() {
+        return "count:" + getCount() + ", mean:" + Math.round(getMean()) + ", p50:" + getValueAtPercentile(50.0) + ", p99:" + getValueAtPercentile(99.0)
+                + ", max:" + getMax();
+    }
+}
@@ -2,6 +2,7 @@ package fi.fmi.avi.converter.tac.sigmet;
 
 import fi.fmi.avi.converter.ConversionHints;
 import fi.fmi.avi.converter.ConversionResult;
+import fi.fmi.avi.model.MessageType;
 import fi.fmi.avi.model.sigmet.immutable.SIGMETImpl;
 
 /**
@@ -13,6 +14,6 @@ public class ImmutableSIGMETTACParser extends SIGMETTACParserBase<SIGMETImpl> {
 
     @Override
     public ConversionResult<SIGMETImpl> convertMessage(final String input, final ConversionHints hints) {
-        return convertMessageInternal(input, hints);
+        return measureParsing(MessageType.SIGMET, () -> convertMessageInternal(input, hints));
     }
 }
@@ -3,6 +3,7 @@ package fi.fmi.avi.converter.tac.sigmet;
 
 import fi.fmi.avi.converter.ConversionHints;
 import fi.fmi.avi.converter.ConversionResult;
+import fi.fmi.avi.model.MessageType;
 import fi.fmi.avi.model.sigmet.SIGMET;
 
 /**
@@ -13,7 +14,7 @@ public class SIGMETTACParser extends SIGMETTACParserBase<SIGMET> {
 
     @Override
     public ConversionResult<SIGMET> convertMessage(final String input, final ConversionHints hints) {
-        return new ConversionResult<>(convertMessageInternal(input, hints));
+        return measureParsing(MessageType.SIGMET, () -> new ConversionResult<>(convertMessageInternal(input, hints)));
     }
 
 }
@@ -4,7 +4,9 @@ import fi.fmi.avi.converter.ConversionHints;
 import fi.fmi.avi.converter.ConversionIssue;
 import fi.fmi.avi.converter.ConversionResult;
 import fi.fmi.avi.converter.tac.AbstractTACParser;
+import fi.fmi.avi.converter.tac.MessageGrammar;
 import fi.fmi.avi.converter.tac.geoinfo.FirInfoStore;
+import fi.fmi.avi.converter.tac.geoinfo.FirRelativeGeometryCache;
 import fi.fmi.avi.converter.tac.geoinfo.GeoUtilsTac;
 import fi.fmi.avi.converter.tac.geoinfo.impl.FirInfoStoreImpl;
 import fi.fmi.avi.converter.tac.lexer.AviMessageLexer;
@@ -33,6 +35,7 @@ import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 import static fi.fmi.avi.converter.tac.lexer.Lexeme.ParsedValueName.*;
@@ -41,17 +44,38 @@ import static fi.fmi.avi.converter.tac.lexer.LexemeIdentity.SIGMET_FIR_NAME_WORD
 
 public abstract class SIGMETTACParserBase<T extends SIGMET> extends AbstractTACParser<T> {
 
-    protected static final LexemeIdentity[] zeroOrOneAllowed = {LexemeIdentity.SIGMET_START,  /* LexemeIdentity.AIRSPACE_DESIGNATOR, */ LexemeIdentity.SEQUENCE_DESCRIPTOR, LexemeIdentity.ISSUE_TIME, LexemeIdentity.VALID_TIME,
+    private static final LexemeIdentity[] ZERO_OR_ONE_ALLOWED = {LexemeIdentity.SIGMET_START,  /* LexemeIdentity.AIRSPACE_DESIGNATOR, */ LexemeIdentity.SEQUENCE_DESCRIPTOR, LexemeIdentity.ISSUE_TIME, LexemeIdentity.VALID_TIME,
             LexemeIdentity.CORRECTION, LexemeIdentity.AMENDMENT, LexemeIdentity.CANCELLATION, LexemeIdentity.NIL, LexemeIdentity.MIN_TEMPERATURE,
             LexemeIdentity.MAX_TEMPERATURE, LexemeIdentity.REMARKS_START};
+    private static final MessageGrammar SIGMET_GRAMMAR = MessageGrammar.builder().zeroOrOne(ZERO_OR_ONE_ALLOWED).build();
     protected AviMessageLexer lexer;
-    protected FirInfoStore firInfo = null;
+    protected volatile FirInfoStore firInfo = null;
+    protected volatile FirRelativeGeometryCache geometryCache = FirRelativeGeometryCache.getInstance();
 
     @Override
     public void setTACLexer(final AviMessageLexer lexer) {
         this.lexer = lexer;
     }
 
+    /**
+     * Sets the cache for the areas given relative to the FIR. By default the cache shared by all the SIGMET and AIRMET
+     * parsers is used.
+     *
+     * @param geometryCache the cache
+     */
+    public void setFirRelativeGeometryCache(final FirRelativeGeometryCache geometryCache) {
+        this.geometryCache = Objects.requireNonNull(geometryCache, "geometryCache");
+    }
+
+    /**
+     * Returns the grammar the lexed SIGMET is validated against. Override to validate a different set of tokens.
+     *
+     * @return the grammar of the message
+     */
+    protected MessageGrammar getGrammar() {
+        return SIGMET_GRAMMAR;
+    }
+
     private boolean sequenceContains(LexemeSequence seq, List<LexemeIdentity> wanted) {
         for (Lexeme l : seq.getLexemes()) {
             for (LexemeIdentity id : wanted) {
@@ -114,22 +138,22 @@ public abstract class SIGMETTACParserBase<T extends SIGMET> extends AbstractTACP
             TacGeometryImpl.Builder tacGeometryBuilder = TacGeometryImpl.builder();
             tacGeometryBuilder.setTacContent(firstLexeme.getTACToken());
             geomBuilder.setTacGeometry(tacGeometryBuilder.build());
-            geomBuilder.setGeoGeometry(GeoUtilsTac.getPolygonOutside(firstLexeme, firName, firInfo));
+            geomBuilder.setGeoGeometry(geometryCache.getGeometry(firstLexeme, firName, firInfo));
         } else if (LexemeIdentity.SIGMET_APRX_LINE.equals(firstLexeme.getIdentity())) {
             TacGeometryImpl.Builder tacGeometryBuilder = TacGeometryImpl.builder();
             tacGeometryBuilder.setTacContent(firstLexeme.getTACToken());
             geomBuilder.setTacGeometry(tacGeometryBuilder.build());
-            geomBuilder.setGeoGeometry(GeoUtilsTac.getPolygonAprxWidth(firstLexeme, firName, firInfo));
+            geomBuilder.setGeoGeometry(geometryCache.getGeometry(firstLexeme, firName, firInfo));
         } else if (LexemeIdentity.SIGMET_LINE.equals(firstLexeme.getIdentity())) {
             TacGeometryImpl.Builder tacGeometryBuilder = TacGeometryImpl.builder();
             tacGeometryBuilder.setTacContent(firstLexeme.getTACToken());
             geomBuilder.setTacGeometry(tacGeometryBuilder.build());
-            geomBuilder.setGeoGeometry(GeoUtilsTac.getRelativeToLine(firstLexeme, firName, firInfo));
+            geomBuilder.setGeoGeometry(geometryCache.getGeometry(firstLexeme, firName, firInfo));
         } else if (LexemeIdentity.SIGMET_2_LINES.equals(firstLexeme.getIdentity())) {
             TacGeometryImpl.Builder tacGeometryBuilder = TacGeometryImpl.builder();
             tacGeometryBuilder.setTacContent(firstLexeme.getTACToken());
             geomBuilder.setTacGeometry(tacGeometryBuilder.build());
-            geomBuilder.setGeoGeometry(GeoUtilsTac.getRelativeTo2Lines(firstLexeme, firName, firInfo));
+            geomBuilder.setGeoGeometry(geometryCache.getGeometry(firstLexeme, firName, firInfo));
         } else if (LexemeIdentity.SIGMET_WITHIN_RADIUS_OF_POINT.equals(firstLexeme.getIdentity())) {
             System.out.println("WITHIN_RADIUS_OF!!!!! " + firstLexeme);
             TacGeometryImpl.Builder tacGeometryBuilder = TacGeometryImpl.builder();
@@ -267,7 +291,8 @@ public abstract class SIGMETTACParserBase<T extends SIGMET> extends AbstractTACP
         final LexemeSequence lexed = this.lexer.lexMessage(input, hints);
 
         if (firInfo == null) {
-            firInfo = new FirInfoStoreImpl();
+            // Benign race: all the threads assign the same shared instance
+            firInfo = FirInfoStoreImpl.getInstance();
         }
         if (!checkAndReportLexingResult(lexed, hints, result)) {
             return result;
@@ -286,7 +311,7 @@ public abstract class SIGMETTACParserBase<T extends SIGMET> extends AbstractTACP
             result.addIssue(new ConversionIssue(ConversionIssue.Type.SYNTAX, "Message does not end in end token"));
             return result;
         }
-        final List<ConversionIssue> issues = checkZeroOrOne(lexed, zeroOrOneAllowed);
+        final List<ConversionIssue> issues = getGrammar().validate(lexed).getCardinalityIssues();
         if (!issues.isEmpty()) {
             result.addIssue(issues);
             return result;
@@ -4,10 +4,11 @@ import fi.fmi.avi.converter.ConversionHints;
 import fi.fmi.avi.converter.tac.AbstractTACSerializer;
 import fi.fmi.avi.converter.tac.lexer.LexemeIdentity;
 import fi.fmi.avi.converter.tac.lexer.LexemeSequence;
-import fi.fmi.avi.converter.tac.lexer.LexemeSequenceBuilder;
+import fi.fmi.avi.converter.tac.lexer.LexemeSink;
 import fi.fmi.avi.converter.tac.lexer.SerializingException;
 import fi.fmi.avi.converter.tac.lexer.impl.ReconstructorContext;
 import fi.fmi.avi.model.AviationWeatherMessageOrCollection;
+import fi.fmi.avi.model.MessageType;
 import fi.fmi.avi.model.bulletin.MeteorologicalBulletinSpecialCharacter;
 import fi.fmi.avi.model.sigmet.SIGMET;
 
@@ -19,11 +20,16 @@ public class SIGMETTACSerializer extends AbstractTACSerializer<SIGMET> {
 
     @Override
     public LexemeSequence tokenizeMessage(final AviationWeatherMessageOrCollection msg, final ConversionHints hints) throws SerializingException {
+        return tokenizeWithBuilder(msg, hints);
+    }
+
+    @Override
+    protected void appendMessage(final LexemeSink retval, final AviationWeatherMessageOrCollection msg, final ConversionHints hints)
+            throws SerializingException {
         if (!(msg instanceof SIGMET)) {
             throw new SerializingException("I can only tokenize SIGMETs!");
         }
         final SIGMET input = (SIGMET) msg;
-        final LexemeSequenceBuilder retval = this.getLexingFactory().createLexemeSequenceBuilder();
         final ReconstructorContext<SIGMET> baseCtx = new ReconstructorContext<>(input, hints);
         appendToken(retval, LexemeIdentity.SIGMET_START, input, SIGMET.class, baseCtx);
         appendWhitespace(retval, MeteorologicalBulletinSpecialCharacter.SPACE);
@@ -52,7 +58,7 @@ public class SIGMETTACSerializer extends AbstractTACSerializer<SIGMET> {
 
         if (appendToken(retval,LexemeIdentity.SIGMET_CANCEL, input, SIGMET.class, baseCtx)>0) {
             appendToken(retval, LexemeIdentity.END_TOKEN, input, SIGMET.class, baseCtx);
-            return retval.build();
+            return;
         }
 
         if (appendToken(retval,LexemeIdentity.SIGMET_VA_ERUPTION, input, SIGMET.class, baseCtx)>0) {
@@ -150,6 +156,10 @@ public class SIGMETTACSerializer extends AbstractTACSerializer<SIGMET> {
             retval.removeLast();
         }
         appendToken(retval, LexemeIdentity.END_TOKEN, input, SIGMET.class, baseCtx);
-        return retval.build();
+    }
+
+    @Override
+    protected MessageType getMessageType() {
+        return MessageType.SIGMET;
     }
 }
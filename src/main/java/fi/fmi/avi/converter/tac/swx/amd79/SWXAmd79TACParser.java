@@ -4,6 +4,7 @@ import fi.fmi.avi.converter.ConversionHints;
 import fi.fmi.avi.converter.ConversionIssue;
 import fi.fmi.avi.converter.ConversionResult;
 import fi.fmi.avi.converter.tac.AbstractTACParser;
+import fi.fmi.avi.converter.tac.MessageGrammar;
 import fi.fmi.avi.converter.tac.lexer.AviMessageLexer;
 import fi.fmi.avi.converter.tac.lexer.Lexeme;
 import fi.fmi.avi.converter.tac.lexer.LexemeIdentity;
@@ -28,15 +29,20 @@ import java.util.function.Consumer;
 
 public class SWXAmd79TACParser extends AbstractTACParser<SpaceWeatherAdvisoryAmd79> {
 
-    private static final Set<LexemeIdentity> SWX_LEXEME_IDENTITIES = Collections.unmodifiableSet(new HashSet<>(
-            Arrays.asList(LexemeIdentity.ADVISORY_STATUS_LABEL, LexemeIdentity.ADVISORY_STATUS, LexemeIdentity.DTG_ISSUE_TIME_LABEL, LexemeIdentity.ISSUE_TIME,
+    private static final MessageGrammar SWX_GRAMMAR = MessageGrammar.builder()
+            .inOrder(LexemeIdentity.ADVISORY_STATUS_LABEL, LexemeIdentity.ADVISORY_STATUS, LexemeIdentity.DTG_ISSUE_TIME_LABEL, LexemeIdentity.ISSUE_TIME,
                     LexemeIdentity.SWX_CENTRE_LABEL, LexemeIdentity.SWX_CENTRE, LexemeIdentity.ADVISORY_NUMBER_LABEL, LexemeIdentity.ADVISORY_NUMBER,
                     LexemeIdentity.REPLACE_ADVISORY_NUMBER_LABEL, LexemeIdentity.REPLACE_ADVISORY_NUMBER, LexemeIdentity.SWX_EFFECT_LABEL,
                     LexemeIdentity.SWX_EFFECT_AND_INTENSITY, LexemeIdentity.ADVISORY_PHENOMENA_LABEL, LexemeIdentity.REMARKS_START, LexemeIdentity.NEXT_ADVISORY_LABEL,
-                    LexemeIdentity.NEXT_ADVISORY)));
+                    LexemeIdentity.NEXT_ADVISORY)
+            .exactlyOne(LexemeIdentity.ISSUE_TIME, LexemeIdentity.SWX_CENTRE, LexemeIdentity.ADVISORY_NUMBER, LexemeIdentity.SWX_EFFECT_LABEL,
+                    LexemeIdentity.NEXT_ADVISORY, LexemeIdentity.REMARKS_START)
+            .build();
+    private static final MessageGrammar ANALYSIS_GRAMMAR = MessageGrammar.builder()
+            .exactlyOne(LexemeIdentity.ADVISORY_PHENOMENA_TIME_GROUP)
+            .zeroOrOne(LexemeIdentity.SWX_NOT_EXPECTED, LexemeIdentity.SWX_NOT_AVAILABLE)
+            .build();
 
-    private final LexemeIdentity[] oneRequired = new LexemeIdentity[]{LexemeIdentity.ISSUE_TIME, LexemeIdentity.SWX_CENTRE, LexemeIdentity.ADVISORY_NUMBER,
-            LexemeIdentity.SWX_EFFECT_LABEL, LexemeIdentity.NEXT_ADVISORY, LexemeIdentity.REMARKS_START};
     private AviMessageLexer lexer;
 
     private static Optional<PartialOrCompleteTimeInstant> createAnalysisTimeInstant(final Lexeme lexeme, @Nullable final PartialOrCompleteTimeInstant issueTime) {
@@ -69,22 +75,21 @@ public class SWXAmd79TACParser extends AbstractTACParser<SpaceWeatherAdvisoryAmd
     }
 
     private static void processLexeme(final ConversionResult<SpaceWeatherAdvisoryAmd79> result, final Lexeme previousLexeme,
-                                      final Set<LexemeIdentity> remainingLexemeIdentities, final LexemeIdentity lexemeIdentity) {
-        processLexeme(result, previousLexeme, remainingLexemeIdentities, lexemeIdentity, lexeme -> {
+                                      final MessageGrammar.Validation validation, final LexemeIdentity lexemeIdentity) {
+        processLexeme(result, previousLexeme, validation, lexemeIdentity, lexeme -> {
         });
     }
 
     private static void processLexeme(final ConversionResult<SpaceWeatherAdvisoryAmd79> result, final Lexeme previousLexeme,
-                                      final Set<LexemeIdentity> remainingLexemeIdentities, final LexemeIdentity lexemeIdentity, final Consumer<Lexeme> lexemeHandler) {
-        processLexeme(result, previousLexeme, remainingLexemeIdentities, lexemeIdentity, lexemeHandler, null);
+                                      final MessageGrammar.Validation validation, final LexemeIdentity lexemeIdentity, final Consumer<Lexeme> lexemeHandler) {
+        processLexeme(result, previousLexeme, validation, lexemeIdentity, lexemeHandler, null);
     }
 
     private static void processLexeme(final ConversionResult<SpaceWeatherAdvisoryAmd79> result, final Lexeme previousLexeme,
-                                      final Set<LexemeIdentity> remainingLexemeIdentities, final LexemeIdentity lexemeIdentity, final Consumer<Lexeme> lexemeHandler,
+                                      final MessageGrammar.Validation validation, final LexemeIdentity lexemeIdentity, final Consumer<Lexeme> lexemeHandler,
                                       final Lexeme.LexemeParsingNotifyer notFound) {
         previousLexeme.findNext(lexemeIdentity, (match) -> {
-            remainingLexemeIdentities.remove(lexemeIdentity);
-            final ConversionIssue issue = checkBeforeAnyOf(match, remainingLexemeIdentities);
+            final ConversionIssue issue = validation.getOrderIssue(match);
             if (issue != null) {
                 result.addIssue(issue);
             }
@@ -113,6 +118,10 @@ public class SWXAmd79TACParser extends AbstractTACParser<SpaceWeatherAdvisoryAmd
 
     @Override
     public ConversionResult<SpaceWeatherAdvisoryAmd79> convertMessage(final String input, final ConversionHints hints) {
+        return measureParsing(MessageType.SPACE_WEATHER_ADVISORY, () -> parse(input, hints));
+    }
+
+    private ConversionResult<SpaceWeatherAdvisoryAmd79> parse(final String input, final ConversionHints hints) {
         final ConversionResult<SpaceWeatherAdvisoryAmd79> retval = new ConversionResult<>();
 
         if (this.lexer == null) {
@@ -138,7 +147,8 @@ public class SWXAmd79TACParser extends AbstractTACParser<SpaceWeatherAdvisoryAmd
             return retval;
         }
 
-        final List<ConversionIssue> conversionIssues = checkExactlyOne(firstLexeme.getTailSequence(), oneRequired);
+        final MessageGrammar.Validation validation = SWX_GRAMMAR.validate(lexed);
+        final List<ConversionIssue> conversionIssues = new ArrayList<>(validation.getCardinalityIssues());
 
         final SpaceWeatherAdvisoryAmd79Impl.Builder builder = SpaceWeatherAdvisoryAmd79Impl.builder();
 
@@ -148,9 +158,7 @@ public class SWXAmd79TACParser extends AbstractTACParser<SpaceWeatherAdvisoryAmd
             builder.setTranslatedTAC(lexed.getTAC());
         }
 
-        final Set<LexemeIdentity> remainingLexemeIdentities = new HashSet<>(SWX_LEXEME_IDENTITIES);
-
-        processLexeme(retval, firstLexeme, remainingLexemeIdentities, LexemeIdentity.ADVISORY_STATUS_LABEL, (match) -> {
+        processLexeme(retval, firstLexeme, validation, LexemeIdentity.ADVISORY_STATUS_LABEL, (match) -> {
             builder.setPermissibleUsage(AviationCodeListUser.PermissibleUsage.NON_OPERATIONAL);
             final Lexeme value = match.findNext(LexemeIdentity.ADVISORY_STATUS);
             if (value == null) {
@@ -161,12 +169,12 @@ public class SWXAmd79TACParser extends AbstractTACParser<SpaceWeatherAdvisoryAmd
             }
         }, () -> builder.setPermissibleUsage(AviationCodeListUser.PermissibleUsage.OPERATIONAL));
 
-        processLexeme(retval, firstLexeme, remainingLexemeIdentities, LexemeIdentity.ADVISORY_STATUS, (match) -> builder.setPermissibleUsageReason(
+        processLexeme(retval, firstLexeme, validation, LexemeIdentity.ADVISORY_STATUS, (match) -> builder.setPermissibleUsageReason(
                 match.getParsedValue(Lexeme.ParsedValueName.VALUE, AviationCodeListUser.PermissibleUsageReason.class)));
 
-        processLexeme(retval, firstLexeme, remainingLexemeIdentities, LexemeIdentity.DTG_ISSUE_TIME_LABEL);
+        processLexeme(retval, firstLexeme, validation, LexemeIdentity.DTG_ISSUE_TIME_LABEL);
 
-        processLexeme(retval, firstLexeme, remainingLexemeIdentities, LexemeIdentity.ISSUE_TIME, (match) -> {
+        processLexeme(retval, firstLexeme, validation, LexemeIdentity.ISSUE_TIME, (match) -> {
             final Optional<PartialOrCompleteTimeInstant> completeTimeInstant = createCompleteTimeInstant(match);
             if (completeTimeInstant.isPresent()) {
                 builder.setIssueTime(completeTimeInstant.get());
@@ -175,28 +183,28 @@ public class SWXAmd79TACParser extends AbstractTACParser<SpaceWeatherAdvisoryAmd
             }
         });
 
-        processLexeme(retval, firstLexeme, remainingLexemeIdentities, LexemeIdentity.SWX_CENTRE_LABEL);
+        processLexeme(retval, firstLexeme, validation, LexemeIdentity.SWX_CENTRE_LABEL);
 
-        processLexeme(retval, firstLexeme, remainingLexemeIdentities, LexemeIdentity.SWX_CENTRE, (match) -> {
+        processLexeme(retval, firstLexeme, validation, LexemeIdentity.SWX_CENTRE, (match) -> {
             final IssuingCenterImpl.Builder issuingCenter = IssuingCenterImpl.builder();
             issuingCenter.setName(match.getParsedValue(Lexeme.ParsedValueName.VALUE, String.class));
             issuingCenter.setType("OTHER:SWXC");
             builder.setIssuingCenter(issuingCenter.build());
         }, () -> conversionIssues.add(new ConversionIssue(ConversionIssue.Type.MISSING_DATA, "The name of the issuing space weather center is missing")));
 
-        processLexeme(retval, firstLexeme, remainingLexemeIdentities, LexemeIdentity.ADVISORY_NUMBER_LABEL);
+        processLexeme(retval, firstLexeme, validation, LexemeIdentity.ADVISORY_NUMBER_LABEL);
 
-        processLexeme(retval, firstLexeme, remainingLexemeIdentities, LexemeIdentity.ADVISORY_NUMBER,
+        processLexeme(retval, firstLexeme, validation, LexemeIdentity.ADVISORY_NUMBER,
                 (match) -> builder.setAdvisoryNumber(newAdvisoryNumber(match)));
 
-        processLexeme(retval, firstLexeme, remainingLexemeIdentities, LexemeIdentity.REPLACE_ADVISORY_NUMBER_LABEL,
-                (match) -> processLexeme(retval, firstLexeme, remainingLexemeIdentities, LexemeIdentity.REPLACE_ADVISORY_NUMBER,
+        processLexeme(retval, firstLexeme, validation, LexemeIdentity.REPLACE_ADVISORY_NUMBER_LABEL,
+                (match) -> processLexeme(retval, firstLexeme, validation, LexemeIdentity.REPLACE_ADVISORY_NUMBER,
                         (advisoryNumberMatch) -> builder.setReplaceAdvisoryNumber(newAdvisoryNumber(advisoryNumberMatch)),
                         () -> conversionIssues.add(new ConversionIssue(ConversionIssue.Type.MISSING_DATA, "Replace advisory number is missing"))));
 
-        processLexeme(retval, firstLexeme, remainingLexemeIdentities, LexemeIdentity.SWX_EFFECT_LABEL);
+        processLexeme(retval, firstLexeme, validation, LexemeIdentity.SWX_EFFECT_LABEL);
 
-        processLexeme(retval, firstLexeme, remainingLexemeIdentities, LexemeIdentity.SWX_EFFECT_AND_INTENSITY, (match) -> {
+        processLexeme(retval, firstLexeme, validation, LexemeIdentity.SWX_EFFECT_AND_INTENSITY, (match) -> {
             final List<SpaceWeatherPhenomenon> phenomena = new ArrayList<>();
             while (match != null) {
                 final SpaceWeatherPhenomenon phenomenon = SpaceWeatherPhenomenon.from(
@@ -210,7 +218,7 @@ public class SWXAmd79TACParser extends AbstractTACParser<SpaceWeatherAdvisoryAmd
         }, () -> conversionIssues.add(new ConversionIssue(ConversionIssue.Severity.WARNING, ConversionIssue.Type.MISSING_DATA,
                 "At least 1 valid space weather effect is required.")));
 
-        conversionIssues.addAll(checkPhenomenaLabelOrder(firstLexeme, remainingLexemeIdentities));
+        conversionIssues.addAll(checkPhenomenaLabelOrder(firstLexeme, validation));
         final List<LexemeSequence> analysisList = lexed.splitBy(LexemeIdentity.ADVISORY_PHENOMENA_LABEL);
         conversionIssues.addAll(checkPhenomenaLabels(analysisList));
         final List<SpaceWeatherAdvisoryAnalysis> analyses = new ArrayList<>();
@@ -231,7 +239,7 @@ public class SWXAmd79TACParser extends AbstractTACParser<SpaceWeatherAdvisoryAmd
                     "Advisories should contain 5 observation/forecasts but " + analyses.size() + " were found in message:\n" + lexed.getTAC()));
         }
 
-        processLexeme(retval, firstLexeme, remainingLexemeIdentities, LexemeIdentity.REMARKS_START, (match) -> {
+        processLexeme(retval, firstLexeme, validation, LexemeIdentity.REMARKS_START, (match) -> {
             final List<String> remarks = getRemarks(match, hints);
             if (!remarks.isEmpty() && (remarks.size() != 1 || !remarks.get(0).equalsIgnoreCase("NIL"))) {
                 builder.setRemarks(remarks);
@@ -267,12 +275,11 @@ public class SWXAmd79TACParser extends AbstractTACParser<SpaceWeatherAdvisoryAmd
         return retval;
     }
 
-    private Collection<ConversionIssue> checkPhenomenaLabelOrder(final Lexeme firstLexeme, final Set<LexemeIdentity> remainingLexemeIdentities) {
+    private Collection<ConversionIssue> checkPhenomenaLabelOrder(final Lexeme firstLexeme, final MessageGrammar.Validation validation) {
         final List<ConversionIssue> issues = new ArrayList<>();
-        remainingLexemeIdentities.remove(LexemeIdentity.ADVISORY_PHENOMENA_LABEL);
         Lexeme phenomenaLabel = firstLexeme.findNext(LexemeIdentity.ADVISORY_PHENOMENA_LABEL);
         while (phenomenaLabel != null) {
-            final ConversionIssue issue = checkBeforeAnyOf(phenomenaLabel, remainingLexemeIdentities);
+            final ConversionIssue issue = validation.getOrderIssue(phenomenaLabel);
             if (issue != null) {
                 issues.add(issue);
             }
@@ -355,20 +362,7 @@ public class SWXAmd79TACParser extends AbstractTACParser<SpaceWeatherAdvisoryAmd
     }
 
     private List<ConversionIssue> checkAnalysisLexemes(final Lexeme lexeme) {
-        final List<ConversionIssue> conversionIssues = new ArrayList<>();
-        final List<ConversionIssue> exactlyOne = checkExactlyOne(lexeme.getTailSequence(),
-                new LexemeIdentity[]{LexemeIdentity.ADVISORY_PHENOMENA_TIME_GROUP});
-        if (!exactlyOne.isEmpty()) {
-            conversionIssues.addAll(exactlyOne);
-        }
-
-        final LexemeIdentity[] zeroOrOne = new LexemeIdentity[]{LexemeIdentity.SWX_NOT_EXPECTED, LexemeIdentity.SWX_NOT_AVAILABLE};
-        final List<ConversionIssue> issues = checkZeroOrOne(lexeme.getTailSequence(), zeroOrOne);
-        if (!issues.isEmpty()) {
-            conversionIssues.addAll(issues);
-        }
-
-        return conversionIssues;
+        return ANALYSIS_GRAMMAR.validate(lexeme.getTailSequence()).getCardinalityIssues();
     }
 
     protected List<SpaceWeatherRegion> handleRegion(final Lexeme lexeme, @Nullable final Instant analysisTime,
@@ -4,10 +4,11 @@ import fi.fmi.avi.converter.ConversionHints;
 import fi.fmi.avi.converter.tac.AbstractTACSerializer;
 import fi.fmi.avi.converter.tac.lexer.LexemeIdentity;
 import fi.fmi.avi.converter.tac.lexer.LexemeSequence;
-import fi.fmi.avi.converter.tac.lexer.LexemeSequenceBuilder;
+import fi.fmi.avi.converter.tac.lexer.LexemeSink;
 import fi.fmi.avi.converter.tac.lexer.SerializingException;
 import fi.fmi.avi.converter.tac.lexer.impl.ReconstructorContext;
 import fi.fmi.avi.model.AviationWeatherMessageOrCollection;
+import fi.fmi.avi.model.MessageType;
 import fi.fmi.avi.model.bulletin.MeteorologicalBulletinSpecialCharacter;
 import fi.fmi.avi.model.swx.amd79.SpaceWeatherAdvisoryAmd79;
 
@@ -20,6 +21,12 @@ public class SWXAmd79TACSerializer extends AbstractTACSerializer<SpaceWeatherAdv
 
     @Override
     public LexemeSequence tokenizeMessage(final AviationWeatherMessageOrCollection msg, final ConversionHints hints) throws SerializingException {
+        return tokenizeWithBuilder(msg, hints);
+    }
+
+    @Override
+    protected void appendMessage(final LexemeSink retval, final AviationWeatherMessageOrCollection msg, final ConversionHints hints)
+            throws SerializingException {
         if (!(msg instanceof SpaceWeatherAdvisoryAmd79)) {
             throw new SerializingException("I can only tokenize Space weather advisories!");
         }
@@ -30,7 +37,6 @@ public class SWXAmd79TACSerializer extends AbstractTACSerializer<SpaceWeatherAdv
             }
         }
         final SpaceWeatherAdvisoryAmd79 input = (SpaceWeatherAdvisoryAmd79) msg;
-        final LexemeSequenceBuilder retval = this.getLexingFactory().createLexemeSequenceBuilder();
         final ReconstructorContext<SpaceWeatherAdvisoryAmd79> baseCtx = new ReconstructorContext<>(input, hints);
 
         if (appendToken(retval, LexemeIdentity.SPACE_WEATHER_ADVISORY_START, input, SpaceWeatherAdvisoryAmd79.class, baseCtx) > 0) {
@@ -137,10 +143,9 @@ public class SWXAmd79TACSerializer extends AbstractTACSerializer<SpaceWeatherAdv
         }
         appendToken(retval, LexemeIdentity.NEXT_ADVISORY, input, SpaceWeatherAdvisoryAmd79.class, baseCtx);
         retval.append(this.getLexingFactory().createLexeme("=", LexemeIdentity.END_TOKEN));
-        return retval.build();
     }
 
-    private void appendSpacePadding(final LexemeSequenceBuilder builder, final int labelSize) {
+    private void appendSpacePadding(final LexemeSink builder, final int labelSize) {
         if (labelSize > 0) {
             if (builder.getLast().isPresent()) {
                 final int whiteSpace = labelSize - builder.getLast().get().getTACToken().length();
@@ -148,4 +153,9 @@ public class SWXAmd79TACSerializer extends AbstractTACSerializer<SpaceWeatherAdv
             }
         }
     }
+
+    @Override
+    protected MessageType getMessageType() {
+        return MessageType.SPACE_WEATHER_ADVISORY;
+    }
 }
@@ -4,6 +4,7 @@ import fi.fmi.avi.converter.ConversionHints;
 import fi.fmi.avi.converter.ConversionIssue;
 import fi.fmi.avi.converter.ConversionResult;
 import fi.fmi.avi.converter.tac.AbstractTACParser;
+import fi.fmi.avi.converter.tac.MessageGrammar;
 import fi.fmi.avi.converter.tac.lexer.AviMessageLexer;
 import fi.fmi.avi.converter.tac.lexer.Lexeme;
 import fi.fmi.avi.converter.tac.lexer.LexemeIdentity;
@@ -32,8 +33,8 @@ import java.util.stream.Stream;
 
 public class SWXAmd82TACParser extends AbstractTACParser<SpaceWeatherAdvisoryAmd82> {
 
-    private static final Set<LexemeIdentity> SWX_LEXEME_IDENTITIES = Collections.unmodifiableSet(
-            new HashSet<>(Arrays.asList(
+    private static final MessageGrammar SWX_GRAMMAR = MessageGrammar.builder()
+            .inOrder(
                     LexemeIdentity.ADVISORY_STATUS_LABEL,
                     LexemeIdentity.ADVISORY_STATUS,
                     LexemeIdentity.DTG_ISSUE_TIME_LABEL,
@@ -50,20 +51,25 @@ public class SWXAmd82TACParser extends AbstractTACParser<SpaceWeatherAdvisoryAmd
                     LexemeIdentity.REMARKS_START,
                     LexemeIdentity.NEXT_ADVISORY_LABEL,
                     LexemeIdentity.NEXT_ADVISORY
-            )));
+            )
+            .exactlyOne(
+                    LexemeIdentity.ISSUE_TIME,
+                    LexemeIdentity.SWX_CENTRE,
+                    LexemeIdentity.SWX_EFFECT,
+                    LexemeIdentity.ADVISORY_NUMBER,
+                    LexemeIdentity.SWX_EFFECT_LABEL,
+                    LexemeIdentity.NEXT_ADVISORY,
+                    LexemeIdentity.REMARKS_START
+            )
+            .build();
+    private static final MessageGrammar ANALYSIS_GRAMMAR = MessageGrammar.builder()
+            .exactlyOne(LexemeIdentity.ADVISORY_PHENOMENA_TIME_GROUP)
+            .zeroOrOne(LexemeIdentity.SWX_NOT_EXPECTED, LexemeIdentity.SWX_NOT_AVAILABLE)
+            .build();
     private static final int MAX_ADVISORIES_TO_REPLACE = 4;
     private static final Set<SpaceWeatherLocation> DAY_AND_NIGHTSIDE = Collections.unmodifiableSet(EnumSet.of(
             SpaceWeatherLocation.DAYSIDE, SpaceWeatherLocation.NIGHTSIDE));
 
-    private final LexemeIdentity[] oneRequired = new LexemeIdentity[]{
-            LexemeIdentity.ISSUE_TIME,
-            LexemeIdentity.SWX_CENTRE,
-            LexemeIdentity.SWX_EFFECT,
-            LexemeIdentity.ADVISORY_NUMBER,
-            LexemeIdentity.SWX_EFFECT_LABEL,
-            LexemeIdentity.NEXT_ADVISORY,
-            LexemeIdentity.REMARKS_START
-    };
     private AviMessageLexer lexer;
 
     private static Optional<PartialOrCompleteTimeInstant> createAnalysisTimeInstant(
@@ -97,22 +103,21 @@ public class SWXAmd82TACParser extends AbstractTACParser<SpaceWeatherAdvisoryAmd
     }
 
     private static void processLexeme(final ConversionResult<SpaceWeatherAdvisoryAmd82> result, final Lexeme previousLexeme,
-                                      final Set<LexemeIdentity> remainingLexemeIdentities, final LexemeIdentity lexemeIdentity) {
-        processLexeme(result, previousLexeme, remainingLexemeIdentities, lexemeIdentity, lexeme -> {
+                                      final MessageGrammar.Validation validation, final LexemeIdentity lexemeIdentity) {
+        processLexeme(result, previousLexeme, validation, lexemeIdentity, lexeme -> {
         });
     }
 
     private static void processLexeme(final ConversionResult<SpaceWeatherAdvisoryAmd82> result, final Lexeme previousLexeme,
-                                      final Set<LexemeIdentity> remainingLexemeIdentities, final LexemeIdentity lexemeIdentity, final Consumer<Lexeme> lexemeHandler) {
-        processLexeme(result, previousLexeme, remainingLexemeIdentities, lexemeIdentity, lexemeHandler, null);
+                                      final MessageGrammar.Validation validation, final LexemeIdentity lexemeIdentity, final Consumer<Lexeme> lexemeHandler) {
+        processLexeme(result, previousLexeme, validation, lexemeIdentity, lexemeHandler, null);
     }
 
     private static void processLexeme(final ConversionResult<SpaceWeatherAdvisoryAmd82> result, final Lexeme previousLexeme,
-                                      final Set<LexemeIdentity> remainingLexemeIdentities, final LexemeIdentity lexemeIdentity, final Consumer<Lexeme> lexemeHandler,
+                                      final MessageGrammar.Validation validation, final LexemeIdentity lexemeIdentity, final Consumer<Lexeme> lexemeHandler,
                                       final Lexeme.LexemeParsingNotifyer notFound) {
         previousLexeme.findNext(lexemeIdentity, (match) -> {
-            remainingLexemeIdentities.remove(lexemeIdentity);
-            final ConversionIssue issue = checkBeforeAnyOf(match, remainingLexemeIdentities);
+            final ConversionIssue issue = validation.getOrderIssue(match);
             if (issue != null) {
                 result.addIssue(issue);
             }
@@ -177,6 +182,10 @@ public class SWXAmd82TACParser extends AbstractTACParser<SpaceWeatherAdvisoryAmd
     @Override
     public ConversionResult<SpaceWeatherAdvisoryAmd82> convertMessage(final String input,
                                                                       final ConversionHints hints) {
+        return measureParsing(MessageType.SPACE_WEATHER_ADVISORY, () -> parse(input, hints));
+    }
+
+    private ConversionResult<SpaceWeatherAdvisoryAmd82> parse(final String input, final ConversionHints hints) {
         final ConversionResult<SpaceWeatherAdvisoryAmd82> retval = new ConversionResult<>();
 
         if (this.lexer == null) {
@@ -202,7 +211,8 @@ public class SWXAmd82TACParser extends AbstractTACParser<SpaceWeatherAdvisoryAmd
             return retval;
         }
 
-        final List<ConversionIssue> conversionIssues = checkExactlyOne(firstLexeme.getTailSequence(), oneRequired);
+        final MessageGrammar.Validation validation = SWX_GRAMMAR.validate(lexed);
+        final List<ConversionIssue> conversionIssues = new ArrayList<>(validation.getCardinalityIssues());
 
         final SpaceWeatherAdvisoryAmd82Impl.Builder builder = SpaceWeatherAdvisoryAmd82Impl.builder();
 
@@ -212,9 +222,7 @@ public class SWXAmd82TACParser extends AbstractTACParser<SpaceWeatherAdvisoryAmd
             builder.setTranslatedTAC(lexed.getTAC());
         }
 
-        final Set<LexemeIdentity> remainingLexemeIdentities = new HashSet<>(SWX_LEXEME_IDENTITIES);
-
-        processLexeme(retval, firstLexeme, remainingLexemeIdentities, LexemeIdentity.ADVISORY_STATUS_LABEL, (match) -> {
+        processLexeme(retval, firstLexeme, validation, LexemeIdentity.ADVISORY_STATUS_LABEL, (match) -> {
             builder.setPermissibleUsage(AviationCodeListUser.PermissibleUsage.NON_OPERATIONAL);
             final Lexeme value = match.findNext(LexemeIdentity.ADVISORY_STATUS);
             if (value == null) {
@@ -225,12 +233,12 @@ public class SWXAmd82TACParser extends AbstractTACParser<SpaceWeatherAdvisoryAmd
             }
         }, () -> builder.setPermissibleUsage(AviationCodeListUser.PermissibleUsage.OPERATIONAL));
 
-        processLexeme(retval, firstLexeme, remainingLexemeIdentities, LexemeIdentity.ADVISORY_STATUS, (match) -> builder.setPermissibleUsageReason(
+        processLexeme(retval, firstLexeme, validation, LexemeIdentity.ADVISORY_STATUS, (match) -> builder.setPermissibleUsageReason(
                 match.getParsedValue(Lexeme.ParsedValueName.VALUE, AviationCodeListUser.PermissibleUsageReason.class)));
 
-        processLexeme(retval, firstLexeme, remainingLexemeIdentities, LexemeIdentity.DTG_ISSUE_TIME_LABEL);
+        processLexeme(retval, firstLexeme, validation, LexemeIdentity.DTG_ISSUE_TIME_LABEL);
 
-        processLexeme(retval, firstLexeme, remainingLexemeIdentities, LexemeIdentity.ISSUE_TIME, (match) -> {
+        processLexeme(retval, firstLexeme, validation, LexemeIdentity.ISSUE_TIME, (match) -> {
             final Optional<PartialOrCompleteTimeInstant> completeTimeInstant = createCompleteTimeInstant(match);
             if (completeTimeInstant.isPresent()) {
                 builder.setIssueTime(completeTimeInstant.get());
@@ -239,36 +247,35 @@ public class SWXAmd82TACParser extends AbstractTACParser<SpaceWeatherAdvisoryAmd
             }
         });
 
-        processLexeme(retval, firstLexeme, remainingLexemeIdentities, LexemeIdentity.SWX_CENTRE_LABEL);
+        processLexeme(retval, firstLexeme, validation, LexemeIdentity.SWX_CENTRE_LABEL);
 
-        processLexeme(retval, firstLexeme, remainingLexemeIdentities, LexemeIdentity.SWX_CENTRE, (match) -> {
+        processLexeme(retval, firstLexeme, validation, LexemeIdentity.SWX_CENTRE, (match) -> {
             final IssuingCenterImpl.Builder issuingCenter = IssuingCenterImpl.builder();
             issuingCenter.setName(match.getParsedValue(Lexeme.ParsedValueName.VALUE, String.class));
             issuingCenter.setType("OTHER:SWXC");
             builder.setIssuingCenter(issuingCenter.build());
         }, () -> conversionIssues.add(new ConversionIssue(ConversionIssue.Type.MISSING_DATA, "The name of the issuing space weather center is missing")));
 
-        processLexeme(retval, firstLexeme, remainingLexemeIdentities, LexemeIdentity.SWX_EFFECT_LABEL);
+        processLexeme(retval, firstLexeme, validation, LexemeIdentity.SWX_EFFECT_LABEL);
 
-        processLexeme(retval, firstLexeme, remainingLexemeIdentities, LexemeIdentity.SWX_EFFECT, (match) -> {
+        processLexeme(retval, firstLexeme, validation, LexemeIdentity.SWX_EFFECT, (match) -> {
             builder.setEffect(Effect.fromString(match.getParsedValue(Lexeme.ParsedValueName.PHENOMENON, String.class)));
         }, () -> conversionIssues.add(new ConversionIssue(ConversionIssue.Type.MISSING_DATA,
                 "Missing space weather effect")));
 
-        processLexeme(retval, firstLexeme, remainingLexemeIdentities, LexemeIdentity.ADVISORY_NUMBER_LABEL);
+        processLexeme(retval, firstLexeme, validation, LexemeIdentity.ADVISORY_NUMBER_LABEL);
 
-        processLexeme(retval, firstLexeme, remainingLexemeIdentities, LexemeIdentity.ADVISORY_NUMBER,
+        processLexeme(retval, firstLexeme, validation, LexemeIdentity.ADVISORY_NUMBER,
                 (match) -> builder.setAdvisoryNumber(newAdvisoryNumber(match)));
 
-        processLexeme(retval, firstLexeme, remainingLexemeIdentities, LexemeIdentity.REPLACE_ADVISORY_NUMBER_LABEL, (label) -> {
+        processLexeme(retval, firstLexeme, validation, LexemeIdentity.REPLACE_ADVISORY_NUMBER_LABEL, (label) -> {
             final Lexeme firstNumber = label.findNext(LexemeIdentity.REPLACE_ADVISORY_NUMBER);
             if (firstNumber == null) {
                 conversionIssues.add(new ConversionIssue(ConversionIssue.Type.MISSING_DATA, "Replace advisory number is missing"));
                 return;
             }
 
-            remainingLexemeIdentities.remove(LexemeIdentity.REPLACE_ADVISORY_NUMBER);
-            final ConversionIssue orderIssue = checkBeforeAnyOf(firstNumber, remainingLexemeIdentities);
+            final ConversionIssue orderIssue = validation.getOrderIssue(firstNumber);
             if (orderIssue != null) {
                 retval.addIssue(orderIssue);
             }
@@ -287,7 +294,7 @@ public class SWXAmd82TACParser extends AbstractTACParser<SpaceWeatherAdvisoryAmd
             }
         });
 
-        conversionIssues.addAll(checkPhenomenaLabelOrder(firstLexeme, remainingLexemeIdentities));
+        conversionIssues.addAll(checkPhenomenaLabelOrder(firstLexeme, validation));
         final List<LexemeSequence> analysisLexemeSequences = lexed.splitBy(LexemeIdentity.ADVISORY_PHENOMENA_LABEL);
         conversionIssues.addAll(checkPhenomenaLabels(analysisLexemeSequences));
         final List<SpaceWeatherAdvisoryAnalysis> analyses = analysisLexemeSequences.stream()
@@ -306,7 +313,7 @@ public class SWXAmd82TACParser extends AbstractTACParser<SpaceWeatherAdvisoryAmd
                     "Advisories should contain 5 observation/forecasts but " + analyses.size() + " were found in message:\n" + lexed.getTAC()));
         }
 
-        processLexeme(retval, firstLexeme, remainingLexemeIdentities, LexemeIdentity.REMARKS_START, (match) -> {
+        processLexeme(retval, firstLexeme, validation, LexemeIdentity.REMARKS_START, (match) -> {
             final List<String> remarks = getRemarks(match, hints);
             if (!remarks.isEmpty() && (remarks.size() != 1 || !remarks.get(0).equalsIgnoreCase("NIL"))) {
                 builder.setRemarks(remarks);
@@ -343,12 +350,11 @@ public class SWXAmd82TACParser extends AbstractTACParser<SpaceWeatherAdvisoryAmd
     }
 
     private Collection<ConversionIssue> checkPhenomenaLabelOrder(final Lexeme firstLexeme,
-                                                                 final Set<LexemeIdentity> remainingLexemeIdentities) {
+                                                                 final MessageGrammar.Validation validation) {
         final List<ConversionIssue> issues = new ArrayList<>();
-        remainingLexemeIdentities.remove(LexemeIdentity.ADVISORY_PHENOMENA_LABEL);
         Lexeme phenomenaLabel = firstLexeme.findNext(LexemeIdentity.ADVISORY_PHENOMENA_LABEL);
         while (phenomenaLabel != null) {
-            final ConversionIssue issue = checkBeforeAnyOf(phenomenaLabel, remainingLexemeIdentities);
+            final ConversionIssue issue = validation.getOrderIssue(phenomenaLabel);
             if (issue != null) {
                 issues.add(issue);
             }
@@ -433,23 +439,7 @@ public class SWXAmd82TACParser extends AbstractTACParser<SpaceWeatherAdvisoryAmd
     }
 
     private List<ConversionIssue> checkAnalysisLexemes(final Lexeme lexeme) {
-        final List<ConversionIssue> conversionIssues = new ArrayList<>();
-        final List<ConversionIssue> exactlyOne = checkExactlyOne(lexeme.getTailSequence(),
-                new LexemeIdentity[]{LexemeIdentity.ADVISORY_PHENOMENA_TIME_GROUP});
-        if (!exactlyOne.isEmpty()) {
-            conversionIssues.addAll(exactlyOne);
-        }
-
-        final LexemeIdentity[] zeroOrOne = new LexemeIdentity[]{
-                LexemeIdentity.SWX_NOT_EXPECTED,
-                LexemeIdentity.SWX_NOT_AVAILABLE
-        };
-        final List<ConversionIssue> issues = checkZeroOrOne(lexeme.getTailSequence(), zeroOrOne);
-        if (!issues.isEmpty()) {
-            conversionIssues.addAll(issues);
-        }
-
-        return conversionIssues;
+        return ANALYSIS_GRAMMAR.validate(lexeme.getTailSequence()).getCardinalityIssues();
     }
 
     protected Stream<SpaceWeatherIntensityAndRegion> handleIntensityAndRegions(final Lexeme lexeme, @Nullable final Instant analysisTime, final List<ConversionIssue> issues) {
@@ -2,6 +2,7 @@ package fi.fmi.avi.converter.tac.taf;
 
 import fi.fmi.avi.converter.ConversionHints;
 import fi.fmi.avi.converter.ConversionResult;
+import fi.fmi.avi.model.MessageType;
 import fi.fmi.avi.model.taf.immutable.TAFImpl;
 
 
@@ -13,7 +14,7 @@ public class ImmutableTAFTACParser extends TAFTACParserBase<TAFImpl> {
 
     @Override
     public ConversionResult<TAFImpl> convertMessage(final String input, final ConversionHints hints) {
-        return convertMessageInternal(input, hints);
+        return measureParsing(MessageType.TAF, () -> convertMessageInternal(input, hints));
     }
 
 }
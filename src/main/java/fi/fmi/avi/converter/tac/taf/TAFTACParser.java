@@ -3,6 +3,7 @@ package fi.fmi.avi.converter.tac.taf;
 
 import fi.fmi.avi.converter.ConversionHints;
 import fi.fmi.avi.converter.ConversionResult;
+import fi.fmi.avi.model.MessageType;
 import fi.fmi.avi.model.taf.TAF;
 
 /**
@@ -13,7 +14,7 @@ public class TAFTACParser extends TAFTACParserBase<TAF> {
 
     @Override
     public ConversionResult<TAF> convertMessage(final String input, final ConversionHints hints) {
-        return new ConversionResult<>(convertMessageInternal(input, hints));
+        return measureParsing(MessageType.TAF, () -> new ConversionResult<>(convertMessageInternal(input, hints)));
     }
 
 }
@@ -10,6 +10,7 @@ import fi.fmi.avi.converter.ConversionIssue;
 import fi.fmi.avi.converter.ConversionResult;
 import fi.fmi.avi.converter.IssueList;
 import fi.fmi.avi.converter.tac.AbstractTACParser;
+import fi.fmi.avi.converter.tac.MessageGrammar;
 import fi.fmi.avi.converter.tac.lexer.AviMessageLexer;
 import fi.fmi.avi.converter.tac.lexer.Lexeme;
 import fi.fmi.avi.converter.tac.lexer.LexemeIdentity;
@@ -40,9 +41,11 @@ import fi.fmi.avi.model.taf.immutable.TAFImpl;
 
 public abstract class TAFTACParserBase<T extends TAF> extends AbstractTACParser<T> {
 
-    private static final LexemeIdentity[] zeroOrOneAllowed = { LexemeIdentity.AERODROME_DESIGNATOR, LexemeIdentity.ISSUE_TIME, LexemeIdentity.VALID_TIME,
-            LexemeIdentity.CORRECTION, LexemeIdentity.AMENDMENT, LexemeIdentity.CANCELLATION, LexemeIdentity.NIL, LexemeIdentity.MIN_TEMPERATURE,
-            LexemeIdentity.MAX_TEMPERATURE, LexemeIdentity.REMARKS_START };
+    private static final MessageGrammar TAF_GRAMMAR = MessageGrammar.builder()
+            .zeroOrOne(LexemeIdentity.AERODROME_DESIGNATOR, LexemeIdentity.ISSUE_TIME, LexemeIdentity.VALID_TIME, LexemeIdentity.CORRECTION,
+                    LexemeIdentity.AMENDMENT, LexemeIdentity.CANCELLATION, LexemeIdentity.NIL, LexemeIdentity.MIN_TEMPERATURE,
+                    LexemeIdentity.MAX_TEMPERATURE, LexemeIdentity.REMARKS_START)
+            .build();
     protected AviMessageLexer lexer;
 
     @Override
@@ -74,7 +77,7 @@ public abstract class TAFTACParserBase<T extends TAF> extends AbstractTACParser<
             result.addIssue(new ConversionIssue(ConversionIssue.Type.SYNTAX, "Message does not end in end token"));
             return result;
         }
-        final List<ConversionIssue> issues = checkZeroOrOne(lexed, zeroOrOneAllowed);
+        final List<ConversionIssue> issues = TAF_GRAMMAR.validate(lexed).getCardinalityIssues();
         if (!issues.isEmpty()) {
             result.addIssue(issues);
             return result;
@@ -4,11 +4,12 @@ import fi.fmi.avi.converter.ConversionHints;
 import fi.fmi.avi.converter.tac.AbstractTACSerializer;
 import fi.fmi.avi.converter.tac.lexer.LexemeIdentity;
 import fi.fmi.avi.converter.tac.lexer.LexemeSequence;
-import fi.fmi.avi.converter.tac.lexer.LexemeSequenceBuilder;
+import fi.fmi.avi.converter.tac.lexer.LexemeSink;
 import fi.fmi.avi.converter.tac.lexer.SerializingException;
 import fi.fmi.avi.converter.tac.lexer.impl.ReconstructorContext;
 import fi.fmi.avi.model.AviationWeatherMessageOrCollection;
 import fi.fmi.avi.model.CloudForecast;
+import fi.fmi.avi.model.MessageType;
 import fi.fmi.avi.model.Weather;
 import fi.fmi.avi.model.bulletin.MeteorologicalBulletinSpecialCharacter;
 import fi.fmi.avi.model.taf.TAF;
@@ -30,11 +31,16 @@ public class TAFTACSerializer extends AbstractTACSerializer<TAF> {
 
     @Override
     public LexemeSequence tokenizeMessage(final AviationWeatherMessageOrCollection msg, final ConversionHints hints) throws SerializingException {
+        return tokenizeWithBuilder(msg, hints);
+    }
+
+    @Override
+    protected void appendMessage(final LexemeSink retval, final AviationWeatherMessageOrCollection msg, final ConversionHints hints)
+            throws SerializingException {
         if (!(msg instanceof TAF)) {
             throw new SerializingException("I can only tokenize TAFs!");
         }
         final TAF input = (TAF) msg;
-        final LexemeSequenceBuilder retval = this.getLexingFactory().createLexemeSequenceBuilder();
         final ReconstructorContext<TAF> baseCtx = new ReconstructorContext<>(input, hints);
         appendToken(retval, LexemeIdentity.TAF_START, input, TAF.class, baseCtx);
         appendWhitespace(retval, MeteorologicalBulletinSpecialCharacter.SPACE);
@@ -145,10 +151,9 @@ public class TAFTACSerializer extends AbstractTACSerializer<TAF> {
         }
         retval.removeLast();
         appendToken(retval, LexemeIdentity.END_TOKEN, input, TAF.class, baseCtx);
-        return retval.build();
     }
 
-    private void appendClouds(final LexemeSequenceBuilder builder, final CloudForecast clouds, final TAF input, final ReconstructorContext<TAF> ctx)
+    private void appendClouds(final LexemeSink builder, final CloudForecast clouds, final TAF input, final ReconstructorContext<TAF> ctx)
             throws SerializingException {
         if (clouds != null) {
             if (clouds.getVerticalVisibility().isPresent()) {
@@ -162,4 +167,9 @@ public class TAFTACSerializer extends AbstractTACSerializer<TAF> {
             }
         }
     }
+
+    @Override
+    protected MessageType getMessageType() {
+        return MessageType.TAF;
+    }
 }
@@ -0,0 +1,121 @@
+package fi.fmi.avi.converter.tac;
+
+import static org.junit.Assert.assertEquals;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import fi.fmi.avi.converter.ConversionHints;
+import fi.fmi.avi.converter.ConversionIssue;
+import fi.fmi.avi.converter.ConversionResult;
+import fi.fmi.avi.converter.tac.lexer.AviMessageLexer;
+import fi.fmi.avi.model.metar.METAR;
+
+public class CachingTACParserTest {
+
+    private static final String METAR = "METAR EFHK 111111Z 15008KT 0700 R04R/1500N R15/1000U R22L/1200N R04L/1000VP1500U SN VV006 M08/M10 Q1023=";
+
+    private CountingParser delegate;
+    private MutableClock clock;
+    private CachingTACParser<METAR> parser;
+
+    @Before
+    public void setUp() {
+        delegate = new CountingParser();
+        clock = new MutableClock();
+        parser = new CachingTACParser<>(delegate, 2, Duration.ofMinutes(10), clock);
+    }
+
+    @Test
+    public void testDuplicatesAreParsedOnce() {
+        parser.convertMessage(METAR, null);
+        parser.convertMessage(METAR.replace(" ", "\r\n  "), null);
+        parser.convertMessage(" " + METAR + "\n", null);
+        assertEquals(1, delegate.calls);
+        assertEquals(2, parser.getHitCount());
+        assertEquals(1, parser.getMissCount());
+    }
+
+    @Test
+    public void testResultsAreCopied() {
+        final ConversionResult<METAR> first = parser.convertMessage(METAR, null);
+        first.addIssue(new ConversionIssue(ConversionIssue.Type.OTHER, "added by the caller"));
+        final ConversionResult<METAR> second = parser.convertMessage(METAR, null);
+        assertEquals(1, second.getConversionIssues().size());
+    }
+
+    @Test
+    public void testHintsArePartOfTheKey() {
+        final ConversionHints hints = new ConversionHints();
+        hints.put(ConversionHints.KEY_WEATHER_CODES, ConversionHints.VALUE_WEATHER_CODES_ALLOW_ANY);
+        parser.convertMessage(METAR, null);
+        parser.convertMessage(METAR, hints);
+        parser.convertMessage(METAR, new ConversionHints(hints));
+        assertEquals(2, delegate.calls);
+
+        final ConversionHints auto = new ConversionHints();
+        auto.put(ConversionHints.KEY_TRANSLATION_TIME, ConversionHints.VALUE_TRANSLATION_TIME_AUTO);
+        parser.convertMessage(METAR, auto);
+        parser.convertMessage(METAR, auto);
+        assertEquals(4, delegate.calls);
+    }
+
+    @Test
+    public void testEviction() {
+        parser.convertMessage(METAR, null);
+        clock.advance(Duration.ofMinutes(11));
+        parser.convertMessage(METAR, null);
+        assertEquals(2, delegate.calls);
+
+        parser.convertMessage("METAR EFOU", null);
+        parser.convertMessage("METAR EFRO", null);
+        assertEquals(2, parser.size());
+        parser.convertMessage(METAR, null);
+        assertEquals(5, delegate.calls);
+    }
+
+    private static class CountingParser implements TACParser<METAR> {
+        private int calls;
+
+        @Override
+        public void setTACLexer(final AviMessageLexer lexer) {
+        }
+
+        @Override
+        public ConversionResult<METAR> convertMessage(final String input, final ConversionHints hints) {
+            calls++;
+            final ConversionResult<METAR> result = new ConversionResult<>();
+            result.addIssue(new ConversionIssue(ConversionIssue.Type.OTHER, "parsed " + input));
+            return result;
+        }
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant now = Instant.parse("2026-01-01T00:00:00Z");
+
+        void advance(final Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(final ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
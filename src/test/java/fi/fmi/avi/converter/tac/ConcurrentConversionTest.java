@@ -0,0 +1,179 @@
+package fi.fmi.avi.converter.tac;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.support.AnnotationConfigContextLoader;
+
+import fi.fmi.avi.converter.AviMessageConverter;
+import fi.fmi.avi.converter.ConversionResult;
+import fi.fmi.avi.converter.ConversionSpecification;
+import fi.fmi.avi.converter.tac.conf.TACConverter;
+import fi.fmi.avi.model.PartialOrCompleteTimeInstant;
+import fi.fmi.avi.model.bulletin.DataTypeDesignatorT2;
+import fi.fmi.avi.model.bulletin.GenericMeteorologicalBulletin;
+import fi.fmi.avi.model.bulletin.immutable.BulletinHeadingImpl;
+import fi.fmi.avi.model.metar.METAR;
+import fi.fmi.avi.model.metar.SPECI;
+import fi.fmi.avi.model.sigmet.AIRMET;
+import fi.fmi.avi.model.sigmet.SIGMET;
+import fi.fmi.avi.model.swx.amd79.SpaceWeatherAdvisoryAmd79;
+import fi.fmi.avi.model.swx.amd82.SpaceWeatherAdvisoryAmd82;
+import fi.fmi.avi.model.taf.TAF;
+import fi.fmi.avi.model.taf.immutable.TAFBulletinImpl;
+
+/**
+ * Runs the conversions of all the message types concurrently using the shared converter instances, and checks the
+ * results are identical to the ones of single-threaded conversions.
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(classes = TACTestConfiguration.class, loader = AnnotationConfigContextLoader.class)
+public class ConcurrentConversionTest {
+    private static final int THREADS = 32;
+    private static final int ROUNDS = 25;
+
+    private static final String METAR_TAC = "METAR EFHK 012400Z 00000KT 4500 R04R/0500D R15/0600VP1500D R22L/0275N R04L/P1500D BR FEW003 SCT050 14/13 "
+            + "Q1008 TEMPO 2000=";
+    private static final String SPECI_TAC = "SPECI EFHK 012231Z 00000KT 4500 R04R/0500D R15/0600VP1500D R22L/0275N R04L/P1500D BR FEW003 SCT050 14/13 "
+            + "Q1008 TEMPO 2000=";
+    private static final String TAF_TAC = "TAF EFKE 020532Z 0206/0215 05005KT 9999 -SHRA BKN004\r\n"//
+            + "BECMG 0206/0208 FEW005 BKN020\r\n"//
+            + "TEMPO 0206/0215 4000 SHRA BKN010 SCT030CB=";
+    private static final String SIGMET_TAC = "EHAA SIGMET 2 VALID 221010/221610 EHDB-\r\n"//
+            + "EHAA AMSTERDAM FIR VA ERUPTION MT SABANCAYA PSN S1547 W07150 VA CLD OBS AT 0910Z E OF LINE N49 E005 - N54 E005 - N60 E005 SFC/FL240 "
+            + "STNR INTSF=";
+    private static final String AIRMET_TAC = "EHAA AIRMET 1 VALID 111130/111530 EHDB-\r\n"//
+            + "EHAA AMSTERDAM FIR ISOL TSGR FCST AT 1200Z ENTIRE FIR STNR INTSF=";
+    private static final String BULLETIN_TAC = "FTFI33 EFPP 020500\n"//
+            + "TAF EFKE 020532Z 0206/0312 05005KT 9999 -SHRA BKN004 BECMG\n"//
+            + "0206/0208 FEW005 BKN020 TEMPO 0206/0215 4000 SHRA\n"//
+            + "BKN010 SCT030CB=\n"//
+            + "TAF EFHK 020532Z 0206/0312 05005KT 9999 BKN004=";
+
+    @Autowired
+    private AviMessageConverter converter;
+
+    private final List<Conversion> conversions = new ArrayList<>();
+
+    private static String getInput(final String fileName) throws IOException {
+        try (final InputStream is = ConcurrentConversionTest.class.getResourceAsStream(fileName)) {
+            Objects.requireNonNull(is, fileName);
+            return IOUtils.toString(is, "UTF-8");
+        }
+    }
+
+    private static String describe(final ConversionResult<?> result) {
+        return result.getStatus() + "\n" + result.getConversionIssues() + "\n" + result.getConvertedMessage();
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        final METAR metar = addConversion(METAR_TAC, TACConverter.TAC_TO_METAR_POJO);
+        addConversion(METAR_TAC, TACConverter.TAC_TO_IMMUTABLE_METAR_POJO);
+        addConversion(metar, TACConverter.METAR_POJO_TO_TAC);
+
+        final SPECI speci = addConversion(SPECI_TAC, TACConverter.TAC_TO_SPECI_POJO);
+        addConversion(speci, TACConverter.SPECI_POJO_TO_TAC);
+
+        final TAF taf = addConversion(TAF_TAC, TACConverter.TAC_TO_TAF_POJO);
+        addConversion(TAF_TAC, TACConverter.TAC_TO_IMMUTABLE_TAF_POJO);
+        addConversion(taf, TACConverter.TAF_POJO_TO_TAC);
+        addConversion(TAFBulletinImpl.builder()//
+                .setHeading(BulletinHeadingImpl.builder()//
+                        .setLocationIndicator("EFPP")//
+                        .setBulletinNumber(33)//
+                        .setGeographicalDesignator("FI")//
+                        .setDataTypeDesignatorT2(DataTypeDesignatorT2.ForecastsDataTypeDesignatorT2.FCT_AERODROME_VT_SHORT)//
+                        .setIssueTime(PartialOrCompleteTimeInstant.createIssueTime("020500"))//
+                        .build())//
+                .addMessages(taf)//
+                .build(), TACConverter.TAF_BULLETIN_POJO_TO_TAC);
+
+        final SIGMET sigmet = addConversion(SIGMET_TAC, TACConverter.TAC_TO_SIGMET_POJO);
+        addConversion(sigmet, TACConverter.SIGMET_POJO_TO_TAC);
+
+        final AIRMET airmet = addConversion(AIRMET_TAC, TACConverter.TAC_TO_AIRMET_POJO);
+        addConversion(airmet, TACConverter.AIRMET_POJO_TO_TAC);
+
+        final String swxAmd82Tac = getInput("swx/amd82/spacewx-A2-3.tac");
+        final SpaceWeatherAdvisoryAmd82 swxAmd82 = addConversion(swxAmd82Tac, TACConverter.TAC_TO_SWX_AMD82_POJO);
+        addConversion(swxAmd82, TACConverter.SWX_AMD82_POJO_TO_TAC);
+
+        final String swxAmd79Tac = getInput("swx/amd79/spacewx-A2-3.tac");
+        final SpaceWeatherAdvisoryAmd79 swxAmd79 = addConversion(swxAmd79Tac, TACConverter.TAC_TO_SWX_AMD79_POJO);
+        addConversion(swxAmd79, TACConverter.SWX_AMD79_POJO_TO_TAC);
+
+        final GenericMeteorologicalBulletin bulletin = addConversion(BULLETIN_TAC, TACConverter.TAC_TO_GENERIC_BULLETIN_POJO);
+        addConversion(bulletin, TACConverter.GENERIC_BULLETIN_POJO_TO_TAC);
+
+        addConversion(TAF_TAC, TACConverter.TAC_TO_GENERIC_AVIATION_WEATHER_MESSAGE_POJO);
+        addConversion(METAR_TAC, TACConverter.TAC_TO_GENERIC_AVIATION_WEATHER_MESSAGE_POJO);
+        addConversion(SIGMET_TAC, TACConverter.TAC_TO_GENERIC_AVIATION_WEATHER_MESSAGE_POJO);
+    }
+
+    /*
+     * Registers the conversion and returns the single-threaded conversion result for use as input of further
+     * conversions.
+     */
+    private <S, T> T addConversion(final S input, final ConversionSpecification<S, T> spec) {
+        final ConversionResult<T> result = converter.convertMessage(input, spec);
+        assertTrue("No result for " + spec, result.getConvertedMessage().isPresent());
+        conversions.add(new Conversion(spec.toString(), describe(result), () -> describe(converter.convertMessage(input, spec))));
+        return result.getConvertedMessage().get();
+    }
+
+    @Test
+    public void testConcurrentConversionsMatchSequential() throws Exception {
+        final List<Conversion> tasks = new ArrayList<>();
+        for (int i = 0; i < ROUNDS; i++) {
+            tasks.addAll(conversions);
+        }
+        Collections.shuffle(tasks, new Random(42));
+
+        final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            final List<Future<String>> results = new ArrayList<>(tasks.size());
+            for (final Conversion task : tasks) {
+                results.add(executor.submit(task.conversion));
+            }
+            for (int i = 0; i < tasks.size(); i++) {
+                assertEquals(tasks.get(i).name, tasks.get(i).expected, results.get(i).get(60, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    private static final class Conversion {
+        private final String name;
+        private final String expected;
+        private final Callable<String> conversion;
+
+        Conversion(final String name, final String expected, final Callable<String> conversion) {
+            this.name = name;
+            this.expected = expected;
+            this.conversion = conversion;
+        }
+    }
+}
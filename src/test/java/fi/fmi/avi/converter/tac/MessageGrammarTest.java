@@ -0,0 +1,111 @@
+package fi.fmi.avi.converter.tac;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import fi.fmi.avi.converter.ConversionIssue;
+import fi.fmi.avi.converter.tac.conf.Lexing;
+import fi.fmi.avi.converter.tac.lexer.AviMessageLexer;
+import fi.fmi.avi.converter.tac.lexer.Lexeme;
+import fi.fmi.avi.converter.tac.lexer.LexemeIdentity;
+import fi.fmi.avi.converter.tac.lexer.LexemeIdentitySet;
+import fi.fmi.avi.converter.tac.lexer.LexemeSequence;
+
+public class MessageGrammarTest {
+
+    private static final LexemeIdentity[] METAR_ORDER = { LexemeIdentity.AERODROME_DESIGNATOR, LexemeIdentity.ISSUE_TIME, LexemeIdentity.SURFACE_WIND,
+            LexemeIdentity.HORIZONTAL_VISIBILITY, LexemeIdentity.CLOUD, LexemeIdentity.AIR_DEWPOINT_TEMPERATURE, LexemeIdentity.AIR_PRESSURE_QNH };
+
+    private static final MessageGrammar METAR_GRAMMAR = MessageGrammar.builder()//
+            .inOrder(METAR_ORDER)//
+            .exactlyOne(LexemeIdentity.AERODROME_DESIGNATOR, LexemeIdentity.ISSUE_TIME)//
+            .zeroOrOne(LexemeIdentity.AIR_PRESSURE_QNH)//
+            .build();
+
+    private final AviMessageLexer lexer = new Lexing().aviMessageLexer();
+
+    private static Lexeme find(final LexemeSequence lexed, final LexemeIdentity identity) {
+        for (final Lexeme l : lexed.getLexemes()) {
+            if (identity.equals(l.getIdentity())) {
+                return l;
+            }
+        }
+        throw new AssertionError("No " + identity + " in " + lexed.getTAC());
+    }
+
+    private static void assertOrderMatchesCheckBeforeAnyOf(final LexemeSequence lexed, final MessageGrammar.Validation validation) {
+        for (final Lexeme l : lexed.getLexemes()) {
+            for (int i = 0; i < METAR_ORDER.length; i++) {
+                if (METAR_ORDER[i].equals(l.getIdentity())) {
+                    final LexemeIdentitySet after = LexemeIdentitySet.noneOf();
+                    for (int j = i + 1; j < METAR_ORDER.length; j++) {
+                        after.add(METAR_ORDER[j]);
+                    }
+                    final ConversionIssue expected = AbstractTACParser.checkBeforeAnyOf(l, after);
+                    final ConversionIssue actual = validation.getOrderIssue(l);
+                    if (expected == null) {
+                        assertNull(actual);
+                    } else {
+                        assertNotNull(actual);
+                        assertEquals(expected.getType(), actual.getType());
+                        assertEquals(expected.getMessage(), actual.getMessage());
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testValidMessage() {
+        final LexemeSequence lexed = lexer.lexMessage("METAR EFHK 111111Z 15008KT 9999 BKN020 M05/M07 Q1020=");
+        final MessageGrammar.Validation validation = METAR_GRAMMAR.validate(lexed);
+        assertFalse(validation.hasIssues());
+        assertOrderMatchesCheckBeforeAnyOf(lexed, validation);
+    }
+
+    @Test
+    public void testTokenOrder() {
+        final LexemeSequence lexed = lexer.lexMessage("METAR EFHK 111111Z 15008KT 9999 Q1020 BKN020 M05/M07=");
+        final MessageGrammar.Validation validation = METAR_GRAMMAR.validate(lexed);
+        assertEquals(2, validation.getOrderIssues().size());
+        assertTrue(validation.getCardinalityIssues().isEmpty());
+
+        final Lexeme cloud = find(lexed, LexemeIdentity.CLOUD);
+        assertEquals(ConversionIssue.Type.SYNTAX, validation.getOrderIssue(cloud).getType());
+        assertEquals("Invalid token order: '" + cloud + "' was found after one of type AIR_PRESSURE_QNH", validation.getOrderIssue(cloud).getMessage());
+        assertNull(validation.getOrderIssue(find(lexed, LexemeIdentity.AIR_PRESSURE_QNH)));
+        assertOrderMatchesCheckBeforeAnyOf(lexed, validation);
+    }
+
+    @Test
+    public void testEarliestPrecedingLexemeIsReported() {
+        final LexemeSequence lexed = lexer.lexMessage("METAR EFHK 111111Z M05/M07 Q1020 15008KT 9999 BKN020=");
+        final MessageGrammar.Validation validation = METAR_GRAMMAR.validate(lexed);
+        assertEquals(3, validation.getOrderIssues().size());
+        assertTrue(validation.getOrderIssue(find(lexed, LexemeIdentity.SURFACE_WIND)).getMessage().endsWith("AIR_DEWPOINT_TEMPERATURE"));
+        assertOrderMatchesCheckBeforeAnyOf(lexed, validation);
+    }
+
+    @Test
+    public void testCardinality() {
+        final LexemeSequence lexed = lexer.lexMessage("METAR EFHK 15008KT 9999 BKN020 M05/M07 Q1020 Q1021=");
+        final List<ConversionIssue> issues = METAR_GRAMMAR.validate(lexed).getCardinalityIssues();
+        assertEquals(2, issues.size());
+        assertEquals(ConversionIssue.Type.SYNTAX, issues.get(0).getType());
+        assertEquals("More than one of AIR_PRESSURE_QNH in " + lexed.getTAC(), issues.get(0).getMessage());
+        assertEquals(ConversionIssue.Type.MISSING_DATA, issues.get(1).getType());
+        assertEquals("One of ISSUE_TIME required in message " + lexed.getTAC(), issues.get(1).getMessage());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIdentityOrderedOnlyOnce() {
+        MessageGrammar.builder().inOrder(LexemeIdentity.CLOUD).inOrder(LexemeIdentity.CLOUD);
+    }
+}
@@ -0,0 +1,142 @@
+package fi.fmi.avi.converter.tac;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Objects;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.support.AnnotationConfigContextLoader;
+import org.unitils.thirdparty.org.apache.commons.io.IOUtils;
+
+import fi.fmi.avi.converter.AviMessageConverter;
+import fi.fmi.avi.converter.AviMessageSpecificConverter;
+import fi.fmi.avi.converter.ConversionIssue;
+import fi.fmi.avi.converter.ConversionResult;
+import fi.fmi.avi.converter.ConversionSpecification;
+import fi.fmi.avi.converter.tac.conf.TACConverter;
+import fi.fmi.avi.model.AviationWeatherMessage;
+import fi.fmi.avi.model.metar.METAR;
+import fi.fmi.avi.model.sigmet.AIRMET;
+import fi.fmi.avi.model.sigmet.SIGMET;
+import fi.fmi.avi.model.swx.amd79.SpaceWeatherAdvisoryAmd79;
+import fi.fmi.avi.model.swx.amd82.SpaceWeatherAdvisoryAmd82;
+import fi.fmi.avi.model.taf.TAF;
+
+/**
+ * Checks that {@link AbstractTACSerializer#writeMessage(fi.fmi.avi.model.AviationWeatherMessageOrCollection, Appendable,
+ * fi.fmi.avi.converter.ConversionHints)} writes the same TAC as the message converted with the converter.
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(classes = TACTestConfiguration.class, loader = AnnotationConfigContextLoader.class)
+public class TACSerializerWriteMessageTest {
+
+    @Autowired
+    private AviMessageConverter converter;
+
+    @Autowired
+    private AviMessageSpecificConverter<METAR, String> metarTACSerializer;
+
+    @Autowired
+    private AviMessageSpecificConverter<TAF, String> tafTACSerializer;
+
+    @Autowired
+    @Qualifier("sigmetTACSerializer")
+    private AviMessageSpecificConverter<SIGMET, String> sigmetTACSerializer;
+
+    @Autowired
+    @Qualifier("airmetTACSerializer")
+    private AviMessageSpecificConverter<AIRMET, String> airmetTACSerializer;
+
+    @Autowired
+    @Qualifier("swxAmd79Serializer")
+    private AviMessageSpecificConverter<SpaceWeatherAdvisoryAmd79, String> swxAmd79TACSerializer;
+
+    @Autowired
+    @Qualifier("swxAmd82Serializer")
+    private AviMessageSpecificConverter<SpaceWeatherAdvisoryAmd82, String> swxAmd82TACSerializer;
+
+    private static String getInput(final String fileName) throws IOException {
+        try (final InputStream is = TACSerializerWriteMessageTest.class.getResourceAsStream(fileName)) {
+            Objects.requireNonNull(is);
+            return IOUtils.toString(is, "UTF-8");
+        }
+    }
+
+    private <T extends AviationWeatherMessage> void assertWrittenAsConverted(final String tac, final ConversionSpecification<String, T> parsing,
+            final ConversionSpecification<T, String> serializing, final AviMessageSpecificConverter<T, String> serializer) {
+        final ConversionResult<T> parsed = this.converter.convertMessage(tac, parsing);
+        assertTrue("Parsing failed: " + parsed.getConversionIssues(), parsed.getConvertedMessage().isPresent());
+        final T msg = parsed.getConvertedMessage().get();
+        final ConversionResult<String> converted = this.converter.convertMessage(msg, serializing);
+        assertTrue("Serializing failed: " + converted.getConversionIssues(), converted.getConvertedMessage().isPresent());
+        final String expected = converted.getConvertedMessage().get();
+
+        @SuppressWarnings("unchecked")
+        final AbstractTACSerializer<T> tacSerializer = (AbstractTACSerializer<T>) serializer;
+        final StringBuilder sb = new StringBuilder();
+        List<ConversionIssue> issues;
+        try {
+            issues = tacSerializer.writeMessage(msg, sb, null);
+        } catch (final IOException e) {
+            throw new AssertionError(e);
+        }
+        assertEquals(converted.getConversionIssues().size(), issues.size());
+        assertEquals(expected, sb.toString());
+
+        final ByteBuffer buffer = ByteBuffer.allocate(4096);
+        issues = tacSerializer.writeMessage(msg, buffer, null);
+        assertEquals(converted.getConversionIssues().size(), issues.size());
+        buffer.flip();
+        assertEquals(expected, StandardCharsets.US_ASCII.decode(buffer).toString());
+    }
+
+    @Test
+    public void testWritingMETAR() {
+        assertWrittenAsConverted(
+                "METAR EFHK 012400Z 00000KT 4500 R04R/0500D R15/0600VP1500D R22L/0275N R04L/P1500D BR FEW003 SCT050 14/13 Q1008 TEMPO 2000=",
+                TACConverter.TAC_TO_METAR_POJO, TACConverter.METAR_POJO_TO_TAC, this.metarTACSerializer);
+    }
+
+    @Test
+    public void testWritingTAF() {
+        assertWrittenAsConverted("TAF EFKE 020532Z 0206/0215 05005KT 9999 -SHRA BKN004\r\n"//
+                        + "BECMG 0206/0208 FEW005 BKN020\r\n"//
+                        + "TEMPO 0206/0215 4000 SHRA BKN010 SCT030CB=", //
+                TACConverter.TAC_TO_TAF_POJO, TACConverter.TAF_POJO_TO_TAC, this.tafTACSerializer);
+    }
+
+    @Test
+    public void testWritingSIGMET() {
+        assertWrittenAsConverted("EHAA SIGMET M01 VALID 111130/111530 EHDB-\r\nEHAA AMSTERDAM FIR SEV ICE (FZRA) OBS ENTIRE FIR STNR NC=",
+                TACConverter.TAC_TO_SIGMET_POJO, TACConverter.SIGMET_POJO_TO_TAC, this.sigmetTACSerializer);
+    }
+
+    @Test
+    public void testWritingAIRMET() {
+        assertWrittenAsConverted("EHAA AIRMET 1 VALID 111130/111530 EHDB-\r\nEHAA AMSTERDAM FIR TEST=", TACConverter.TAC_TO_AIRMET_POJO,
+                TACConverter.AIRMET_POJO_TO_TAC, this.airmetTACSerializer);
+    }
+
+    @Test
+    public void testWritingSWXAmd79() throws IOException {
+        assertWrittenAsConverted(getInput("swx/amd79/spacewx-A2-3.tac"), TACConverter.TAC_TO_SWX_AMD79_POJO, TACConverter.SWX_AMD79_POJO_TO_TAC,
+                this.swxAmd79TACSerializer);
+    }
+
+    @Test
+    public void testWritingSWXAmd82() throws IOException {
+        assertWrittenAsConverted(getInput("swx/amd82/spacewx-A2-3.tac"), TACConverter.TAC_TO_SWX_AMD82_POJO, TACConverter.SWX_AMD82_POJO_TO_TAC,
+                this.swxAmd82TACSerializer);
+    }
+}
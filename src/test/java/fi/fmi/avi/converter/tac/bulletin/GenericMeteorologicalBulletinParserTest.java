@@ -9,6 +9,7 @@ import fi.fmi.avi.converter.tac.lexer.AviMessageLexer;
 import fi.fmi.avi.converter.tac.lexer.Lexeme;
 import fi.fmi.avi.converter.tac.lexer.LexemeIdentity;
 import fi.fmi.avi.converter.tac.lexer.LexemeSequence;
+import fi.fmi.avi.converter.tac.lexer.RecognizedLexemeSequence;
 import fi.fmi.avi.model.*;
 import fi.fmi.avi.model.bulletin.BulletinHeading;
 import fi.fmi.avi.model.bulletin.DataTypeDesignatorT1;
@@ -26,8 +27,13 @@ import org.springframework.test.context.support.AnnotationConfigContextLoader;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static junit.framework.TestCase.assertEquals;
 import static org.junit.Assert.*;
@@ -447,4 +453,112 @@ public class GenericMeteorologicalBulletinParserTest {
         assertTrue(msg.getIssueTime().get().getPartialTime().isPresent());
         assertEquals(PartialOrCompleteTimeInstant.of(PartialDateTime.of(31, 6, 0, ZoneId.of("Z"))), msg.getIssueTime().get());
     }
+
+    @Test
+    public void testParallelContainedMessageParsing() throws InterruptedException {
+        final GenericMeteorologicalBulletinParser parser = new GenericMeteorologicalBulletinParser();
+        parser.setTACLexer(lexer);
+        final StringBuilder input = new StringBuilder("FTFI33 EFPP 020500\n");
+        for (int i = 0; i < 20; i++) {
+            input.append("TAF EFKE 020532Z 0206/0312 05005KT 9999 -SHRA BKN004 BECMG\n" //
+                    + "0206/0208 FEW005 BKN020 TEMPO 0206/0215 4000 SHRA\n" //
+                    + "BKN010 SCT030CB=\n");
+            input.append("FAK EFH").append((char) ('A' + i)).append(" 020532Z 0206/0312 05005KT 9999=\n");
+        }
+        final ConversionResult<GenericMeteorologicalBulletin> sequential = parser.convertMessage(input.toString(), new ConversionHints());
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final ConversionResult<GenericMeteorologicalBulletin> parallel = parser.convertMessage(input.toString(), new ConversionHints(), executor);
+            assertEquals(sequential.getStatus(), parallel.getStatus());
+            assertEquals(sequential.getConversionIssues().toString(), parallel.getConversionIssues().toString());
+            assertTrue(parallel.getConvertedMessage().isPresent());
+            assertEquals(40, parallel.getConvertedMessage().get().getMessages().size());
+            assertEquals(sequential.getConvertedMessage(), parallel.getConvertedMessage());
+            assertEquals("FAK EFHT 020532Z 0206/0312 05005KT 9999=", parallel.getConvertedMessage().get().getMessages().get(39).getOriginalMessage());
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    public void testContainedMessagesWithoutTypeAreLexedOnce() throws InterruptedException {
+        final CountingLexer countingLexer = new CountingLexer(lexer);
+        final GenericMeteorologicalBulletinParser parser = new GenericMeteorologicalBulletinParser();
+        parser.setTACLexer(countingLexer);
+        final String input = "SAFI31 EFPP 020500\n" //
+                + "EFHK 020520Z 24010KT 9999 FEW020 10/05 Q1010=\n" //
+                + "EFTU 020520Z 23008KT CAVOK 11/04 Q1011=\n" //
+                + "EFTP 020520Z 22006KT 9999 SCT030 09/05 Q1010=";
+
+        ConversionResult<GenericMeteorologicalBulletin> result = parser.convertMessage(input, new ConversionHints());
+        assertContainedMetars(result, "EFHK", "EFTU", "EFTP");
+        assertEquals(4, countingLexer.lexings.get());
+        assertEquals(0, countingLexer.recognitions.get());
+
+        countingLexer.lexings.set(0);
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            result = parser.convertMessage(input, new ConversionHints(), executor);
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+        assertContainedMetars(result, "EFHK", "EFTU", "EFTP");
+        assertEquals(4, countingLexer.lexings.get());
+        assertEquals(0, countingLexer.recognitions.get());
+    }
+
+    private static void assertContainedMetars(final ConversionResult<GenericMeteorologicalBulletin> result, final String... aerodromes) {
+        assertEquals(ConversionResult.Status.SUCCESS, result.getStatus());
+        assertTrue(result.getConvertedMessage().isPresent());
+        final List<GenericAviationWeatherMessage> messages = result.getConvertedMessage().get().getMessages();
+        assertEquals(aerodromes.length, messages.size());
+        for (int i = 0; i < aerodromes.length; i++) {
+            assertEquals(Optional.of(MessageType.METAR), messages.get(i).getMessageType());
+            assertEquals(aerodromes[i], messages.get(i).getLocationIndicators().get(GenericAviationWeatherMessage.LocationIndicatorType.AERODROME));
+        }
+    }
+
+    /**
+     * Counts the full tokenizations of the input, delegating the work to another lexer.
+     */
+    private static class CountingLexer implements AviMessageLexer {
+        private final AviMessageLexer delegate;
+        private final AtomicInteger lexings = new AtomicInteger();
+        private final AtomicInteger recognitions = new AtomicInteger();
+
+        CountingLexer(final AviMessageLexer delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public LexemeSequence lexMessage(final String input) {
+            lexings.incrementAndGet();
+            return delegate.lexMessage(input);
+        }
+
+        @Override
+        public LexemeSequence lexMessage(final String input, final ConversionHints hints) {
+            lexings.incrementAndGet();
+            return delegate.lexMessage(input, hints);
+        }
+
+        @Override
+        public Optional<MessageType> recognizeMessageType(final String input, final ConversionHints hints) {
+            recognitions.incrementAndGet();
+            return delegate.recognizeMessageType(input, hints);
+        }
+
+        @Override
+        public RecognizedLexemeSequence lexAndRecognizeMessage(final String input, final ConversionHints hints) {
+            lexings.incrementAndGet();
+            return delegate.lexAndRecognizeMessage(input, hints);
+        }
+
+        @Override
+        public Optional<MessageType> recognizeMessageTypeFromPrefix(final String input, final ConversionHints hints) {
+            return delegate.recognizeMessageTypeFromPrefix(input, hints);
+        }
+    }
 }
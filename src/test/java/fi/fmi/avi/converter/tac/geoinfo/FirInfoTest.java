@@ -1,10 +1,19 @@
 package fi.fmi.avi.converter.tac.geoinfo;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 import org.junit.Test;
 import org.locationtech.jts.geom.Geometry;
+import fi.fmi.avi.converter.ConversionHints;
+import fi.fmi.avi.converter.tac.conf.Lexing;
 import fi.fmi.avi.converter.tac.geoinfo.impl.FirInfoStoreImpl;
+import fi.fmi.avi.converter.tac.lexer.AviMessageLexer;
+import fi.fmi.avi.converter.tac.lexer.Lexeme;
+import fi.fmi.avi.converter.tac.lexer.LexemeIdentity;
+import fi.fmi.avi.converter.tac.lexer.LexemeSequence;
 
 public class FirInfoTest {
 
@@ -24,4 +33,37 @@ public class FirInfoTest {
         String scottish = fi.getFirName("EGPX");
         assertEquals("SCOTTISH FIR", scottish);
     }
+
+    @Test
+    public void TestSharedFirGeometries() {
+        FirInfoStoreImpl fi = FirInfoStoreImpl.getInstance();
+        assertSame(fi, FirInfoStoreImpl.getInstance());
+        assertSame(fi.getFirGeometry("EFIN", true), fi.getFirGeometry("EFIN", true));
+        assertEquals(68, fi.getFirGeometry("EFIN", true).getNumPoints());
+        assertEquals(18, fi.getFirGeometry("EHAA", false).getNumPoints());
+    }
+
+    @Test
+    public void TestSharedFirGeometriesAreNotModified() {
+        FirInfoStoreImpl fi = FirInfoStoreImpl.getInstance();
+        Geometry shared = fi.getFirGeometry("EHAA", true);
+        Geometry original = shared.copy();
+        AviMessageLexer lexer = new Lexing().aviMessageLexer();
+        for (String area : new String[] { "N OF N5200", "S OF N5200 AND E OF E00500", "N OF LINE N5200 E00300 - N5300 E00700",
+                "APRX 50KM WID LINE BTN N5210 E00420 - N5210 E00620" }) {
+            LexemeSequence lexed = lexer.lexMessage("EHAA SIGMET 1 VALID 111130/111530 EHDB-\r\nEHAA AMSTERDAM FIR OBSC TSGR FCST AT 1200Z " + area
+                    + " STNR INTSF=", ConversionHints.SIGMET);
+            for (Lexeme l : lexed.getLexemes()) {
+                if (LexemeIdentity.SIGMET_OUTSIDE_LATLON.equals(l.getIdentity())) {
+                    assertNotNull(area, GeoUtilsTac.getPolygonOutside(l, "EHAA", fi));
+                } else if (LexemeIdentity.SIGMET_LINE.equals(l.getIdentity())) {
+                    assertNotNull(area, GeoUtilsTac.getRelativeToLine(l, "EHAA", fi));
+                } else if (LexemeIdentity.SIGMET_APRX_LINE.equals(l.getIdentity())) {
+                    assertNotNull(area, GeoUtilsTac.getPolygonAprxWidth(l, "EHAA", fi));
+                }
+            }
+        }
+        assertSame(shared, fi.getFirGeometry("EHAA", true));
+        assertTrue(original.equalsExact(shared));
+    }
 }
@@ -0,0 +1,140 @@
+package fi.fmi.avi.converter.tac.geoinfo;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.junit.Test;
+
+import fi.fmi.avi.converter.ConversionHints;
+import fi.fmi.avi.converter.tac.conf.Lexing;
+import fi.fmi.avi.converter.tac.geoinfo.impl.FirInfoStoreImpl;
+import fi.fmi.avi.converter.tac.lexer.AviMessageLexer;
+import fi.fmi.avi.converter.tac.lexer.Lexeme;
+import fi.fmi.avi.converter.tac.lexer.LexemeIdentity;
+import fi.fmi.avi.model.PolygonGeometry;
+
+public class FirRelativeGeometryCacheTest {
+
+    private static final String SIGMET_TEMPLATE = "EHAA SIGMET 1 VALID 111130/111530 EHDB-\r\nEHAA AMSTERDAM FIR OBSC TSGR FCST AT 1200Z %s STNR INTSF=";
+
+    private final AviMessageLexer lexer = new Lexing().aviMessageLexer();
+
+    private Lexeme areaLexeme(final String area) {
+        return areaLexeme(area, LexemeIdentity.SIGMET_OUTSIDE_LATLON);
+    }
+
+    private Lexeme areaLexeme(final String area, final LexemeIdentity identity) {
+        Lexeme l = lexer.lexMessage(String.format(SIGMET_TEMPLATE, area), ConversionHints.SIGMET).getFirstLexeme();
+        while (l != null && !identity.equals(l.getIdentity())) {
+            l = l.getNext();
+        }
+        assertNotNull(area, l);
+        return l;
+    }
+
+    private List<Object> keyOf(final String area, final LexemeIdentity identity) {
+        return FirRelativeGeometryCache.keyOf(areaLexeme(area, identity), "EHAA", 0L, 0L);
+    }
+
+    @Test
+    public void testRepeatedAreasAreShared() {
+        final FirRelativeGeometryCache cache = new FirRelativeGeometryCache(10);
+        final FirInfoStore firInfo = FirInfoStoreImpl.getInstance();
+        final PolygonGeometry first = cache.getGeometry(areaLexeme("N OF N5200"), "EHAA", firInfo);
+        assertNotNull(first);
+        assertSame(first, cache.getGeometry(areaLexeme("N OF N5200"), "EHAA", firInfo));
+        assertSame(first, cache.getGeometry(areaLexeme("N OF N52"), "EHAA", firInfo));
+        assertEquals(1, cache.getMissCount());
+        assertEquals(2, cache.getHitCount());
+        assertEquals(first.getExteriorRingPositions(), GeoUtilsTac.getPolygonOutside(areaLexeme("N OF N5200"), "EHAA", firInfo).getExteriorRingPositions());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedIsEvicted() {
+        final FirRelativeGeometryCache cache = new FirRelativeGeometryCache(2);
+        final FirInfoStore firInfo = FirInfoStoreImpl.getInstance();
+        cache.getGeometry(areaLexeme("N OF N5200"), "EHAA", firInfo);
+        cache.getGeometry(areaLexeme("S OF N5300"), "EHAA", firInfo);
+        cache.getGeometry(areaLexeme("N OF N5200"), "EHAA", firInfo);
+        cache.getGeometry(areaLexeme("N OF N5300"), "EHAA", firInfo);
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictionCount());
+        cache.getGeometry(areaLexeme("N OF N5200"), "EHAA", firInfo);
+        assertEquals(2, cache.getHitCount());
+        cache.getGeometry(areaLexeme("S OF N5300"), "EHAA", firInfo);
+        assertEquals(4, cache.getMissCount());
+    }
+
+    @Test
+    public void testLineKeys() {
+        final LexemeIdentity identity = LexemeIdentity.SIGMET_LINE;
+        final List<Object> key = keyOf("N OF LINE N5200 E00500 - N5400 E00600", identity);
+        assertEquals(key, keyOf("N OF LINE N52 E005 - N54 E006", identity));
+        assertNotEquals(key, keyOf("S OF LINE N5200 E00500 - N5400 E00600", identity));
+        assertNotEquals(key, keyOf("NE OF LINE N5200 E00500 - N5400 E00600", identity));
+        assertNotEquals(key, keyOf("N OF LINE N5200 E00500 - N5400 E00610", identity));
+        assertNotEquals(key, keyOf("N OF LINE N5200 E00500 - N5400 E00600 - N5510 E00530", identity));
+    }
+
+    @Test
+    public void testTwoLinesKeys() {
+        final LexemeIdentity identity = LexemeIdentity.SIGMET_2_LINES;
+        final List<Object> key = keyOf("E OF LINE N5210 E00520 - N5410 E00540 AND W OF LINE N4800 E00700 - N5600 E00700", identity);
+        assertEquals(key, keyOf("E OF LINE N5210 E00520 - N5410 E00540 AND W OF LINE N48 E007 - N56 E007", identity));
+        assertNotEquals(key, keyOf("W OF LINE N5210 E00520 - N5410 E00540 AND W OF LINE N4800 E00700 - N5600 E00700", identity));
+        assertNotEquals(key, keyOf("E OF LINE N5210 E00520 - N5410 E00540 AND E OF LINE N4800 E00700 - N5600 E00700", identity));
+        assertNotEquals(key, keyOf("E OF LINE N5210 E00520 - N5410 E00540 AND W OF LINE N4800 E00800 - N5600 E00700", identity));
+        // The lines swapped with their relations
+        assertNotEquals(key, keyOf("W OF LINE N4800 E00700 - N5600 E00700 AND E OF LINE N5210 E00520 - N5410 E00540", identity));
+    }
+
+    @Test
+    public void testAprxKeys() {
+        final LexemeIdentity identity = LexemeIdentity.SIGMET_APRX_LINE;
+        final List<Object> key = keyOf("APRX 50KM WID LINE BTN N5210 E00220 - N5210 E01020 - N53 E012", identity);
+        assertEquals(key, keyOf("APRX 50KM WID LINE BTN N5210 E00220 - N5210 E01020 - N5300 E01200", identity));
+        assertNotEquals(key, keyOf("APRX 50NM WID LINE BTN N5210 E00220 - N5210 E01020 - N53 E012", identity));
+        assertNotEquals(key, keyOf("APRX 40KM WID LINE BTN N5210 E00220 - N5210 E01020 - N53 E012", identity));
+        assertNotEquals(key, keyOf("APRX 50KM WID LINE BTN N5210 E00220 - N5210 E01020", identity));
+    }
+
+    @Test
+    public void testKeysOfStores() {
+        final Lexeme lexeme = areaLexeme("N OF N5200");
+        assertNotEquals(FirRelativeGeometryCache.keyOf(lexeme, "EHAA", 0L, 0L), FirRelativeGeometryCache.keyOf(lexeme, "EHAA", 1L, 0L));
+        assertNotEquals(FirRelativeGeometryCache.keyOf(lexeme, "EHAA", 0L, 0L), FirRelativeGeometryCache.keyOf(lexeme, "EHAA", 0L, 1L));
+        assertNotEquals(FirRelativeGeometryCache.keyOf(lexeme, "EHAA", 0L, 0L), FirRelativeGeometryCache.keyOf(lexeme, "EFIN", 0L, 0L));
+        for (final Object part : FirRelativeGeometryCache.keyOf(lexeme, "EHAA", 0L, 0L)) {
+            assertFalse(part instanceof FirInfoStore);
+        }
+    }
+
+    @Test
+    public void testReloadedStoreIsNotServedFromCache() throws IOException {
+        final FirRelativeGeometryCache cache = new FirRelativeGeometryCache(10);
+        final FirInfoStoreImpl firInfo = new FirInfoStoreImpl();
+        final PolygonGeometry first = cache.getGeometry(areaLexeme("N OF N5200"), "EHAA", firInfo);
+        assertSame(first, cache.getGeometry(areaLexeme("N OF N5200"), "EHAA", firInfo));
+        firInfo.initStore();
+        final PolygonGeometry reloaded = cache.getGeometry(areaLexeme("N OF N5200"), "EHAA", firInfo);
+        assertNotSame(first, reloaded);
+        assertEquals(first.getExteriorRingPositions(), reloaded.getExteriorRingPositions());
+        assertEquals(2, cache.getMissCount());
+
+        // Another store instance has areas of its own
+        assertNotSame(reloaded, cache.getGeometry(areaLexeme("N OF N5200"), "EHAA", FirInfoStoreImpl.getInstance()));
+        assertEquals(3, cache.getMissCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testOnlyFirRelativeAreas() {
+        new FirRelativeGeometryCache(1).getGeometry(areaLexeme("N OF N5200").getPrevious(), "EHAA", FirInfoStoreImpl.getInstance());
+    }
+}
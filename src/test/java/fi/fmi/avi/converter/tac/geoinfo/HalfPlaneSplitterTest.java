@@ -0,0 +1,186 @@
+package fi.fmi.avi.converter.tac.geoinfo;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.locationtech.jts.algorithm.Orientation;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.Polygon;
+import org.locationtech.jts.geom.prep.PreparedGeometry;
+
+import fi.fmi.avi.converter.tac.geoinfo.impl.FirInfoStoreImpl;
+
+public class HalfPlaneSplitterTest {
+
+    private final GeometryFactory gf = new GeometryFactory();
+
+    private Polygon square() {
+        return gf.createPolygon(new Coordinate[] { new Coordinate(0, 0), new Coordinate(10, 0), new Coordinate(10, 10), new Coordinate(0, 10),
+                new Coordinate(0, 0) });
+    }
+
+    private static final String[] FIR_NAMES = { "EFIN", "EHAA", "ESAA", "EETT" };
+
+    private static Polygon firPolygon(final String firName) {
+        final Geometry fir = FirInfoStoreImpl.getInstance().getFirGeometry(firName, false);
+        return fir instanceof Polygon ? (Polygon) fir : null;
+    }
+
+    private static void assertClockwise(final String message, final Geometry geometry) {
+        assertTrue(message, geometry instanceof Polygon);
+        assertFalse(message, Orientation.isCCW(((Polygon) geometry).getExteriorRing().getCoordinates()));
+    }
+
+    /**
+     * Clips the FIRs on the given side of lines at each tenth of the FIR envelope, as in "N OF", "S OF", "E OF" and
+     * "W OF" areas, and compares the results with the overlay.
+     */
+    private int assertClipMatchesOverlay(final String relation) {
+        int fastPathCount = 0;
+        for (final String firName : FIR_NAMES) {
+            final Polygon fir = firPolygon(firName);
+            if (fir == null) {
+                continue;
+            }
+            final Envelope env = fir.getEnvelopeInternal();
+            for (int i = 1; i < 10; i++) {
+                final Coordinate[] line;
+                final Envelope side;
+                final int orientation;
+                if ("N".equals(relation) || "S".equals(relation)) {
+                    final double limit = env.getMinY() + env.getHeight() * i / 10.0 + 0.001;
+                    line = new Coordinate[] { new Coordinate(env.getMinX(), limit), new Coordinate(env.getMaxX(), limit) };
+                    side = "N".equals(relation)
+                            ? new Envelope(env.getMinX(), env.getMaxX(), limit, env.getMaxY())
+                            : new Envelope(env.getMinX(), env.getMaxX(), env.getMinY(), limit);
+                    orientation = "N".equals(relation) ? Orientation.LEFT : Orientation.RIGHT;
+                } else {
+                    final double limit = env.getMinX() + env.getWidth() * i / 10.0 + 0.001;
+                    line = new Coordinate[] { new Coordinate(limit, env.getMinY()), new Coordinate(limit, env.getMaxY()) };
+                    side = "E".equals(relation)
+                            ? new Envelope(limit, env.getMaxX(), env.getMinY(), env.getMaxY())
+                            : new Envelope(env.getMinX(), limit, env.getMinY(), env.getMaxY());
+                    orientation = "E".equals(relation) ? Orientation.RIGHT : Orientation.LEFT;
+                }
+                final Polygon clipped = HalfPlaneSplitter.clip(fir, line, orientation);
+                if (clipped != null) {
+                    assertTrue(firName + " " + relation + " OF " + line[0], clipped.equalsTopo(gf.toGeometry(side).intersection(fir)));
+                    fastPathCount++;
+                }
+            }
+        }
+        return fastPathCount;
+    }
+
+    @Test
+    public void testSplitMatchesOverlay() {
+        assertTrue(assertClipMatchesOverlay("N") > 0);
+        assertTrue(assertClipMatchesOverlay("S") > 0);
+        assertTrue(assertClipMatchesOverlay("E") > 0);
+        assertTrue(assertClipMatchesOverlay("W") > 0);
+    }
+
+    @Test
+    public void testSplitWithLineMatchesPolygonize() {
+        int fastPathCount = 0;
+        for (final String firName : FIR_NAMES) {
+            final Polygon fir = firPolygon(firName);
+            if (fir == null) {
+                continue;
+            }
+            final Envelope env = fir.getEnvelopeInternal();
+            final Coordinate center = env.centre();
+            final double length = Math.hypot(env.getWidth(), env.getHeight());
+            for (int angle = 5; angle < 180; angle += 20) {
+                final double dx = Math.cos(Math.toRadians(angle)) * length;
+                final double dy = Math.sin(Math.toRadians(angle)) * length;
+                // A straight "LINE" of three points reaching across the FIR
+                final Coordinate[] line = { new Coordinate(center.x - dx, center.y - dy), new Coordinate(center.x + dx / 10.0, center.y + dy / 10.0),
+                        new Coordinate(center.x + dx, center.y + dy) };
+                final Polygon[] parts = HalfPlaneSplitter.split(fir, line);
+                if (parts != null) {
+                    final Geometry split = GeoUtilsTac.splitPolygon(fir, gf.createLineString(line));
+                    final String message = firName + " LINE at " + angle;
+                    assertEquals(message, 2, split.getNumGeometries());
+                    for (final Polygon part : parts) {
+                        assertTrue(message, part.equalsTopo(split.getGeometryN(0)) || part.equalsTopo(split.getGeometryN(1)));
+                    }
+                    fastPathCount++;
+                }
+            }
+        }
+        assertTrue(fastPathCount > 0);
+    }
+
+    @Test
+    public void testCoveredAreasMatchOverlay() {
+        int coveredCount = 0;
+        for (final String firName : FIR_NAMES) {
+            final PreparedGeometry fir = FirInfoStoreImpl.getInstance().getPreparedFirGeometry(firName, false);
+            final Coordinate p = fir.getGeometry().getInteriorPoint().getCoordinate();
+            // A "two LINES" area as a counterclockwise ring
+            final Polygon twoLines = gf.createPolygon(new Coordinate[] { new Coordinate(p.x - 0.05, p.y - 0.05), new Coordinate(p.x + 0.05, p.y - 0.05),
+                    new Coordinate(p.x + 0.05, p.y + 0.05), new Coordinate(p.x - 0.05, p.y + 0.05), new Coordinate(p.x - 0.05, p.y - 0.05) });
+            // An "APRX WID LINE" area
+            final Geometry aprx = gf.createLineString(new Coordinate[] { new Coordinate(p.x - 0.05, p.y), new Coordinate(p.x + 0.05, p.y + 0.02) })
+                    .buffer(0.01);
+            for (final Geometry area : new Geometry[] { twoLines, aprx }) {
+                if (!fir.covers(area)) {
+                    continue;
+                }
+                final Geometry intersected = GeoUtilsTac.intersectWithFir(area, fir);
+                assertTrue(firName, intersected.equalsTopo(area.intersection(fir.getGeometry())));
+                assertClockwise(firName, intersected);
+                // Starts from the first vertex of the area
+                assertTrue(firName, area.getCoordinates()[0].equals2D(intersected.getCoordinates()[0]));
+                coveredCount++;
+            }
+
+            // Reaching outside the FIR, intersected with the overlay
+            final Geometry large = gf.toGeometry(fir.getGeometry().getEnvelopeInternal()).buffer(1.0);
+            final Geometry intersected = GeoUtilsTac.intersectWithFir(large, fir);
+            assertTrue(firName, intersected.equalsTopo(large.intersection(fir.getGeometry())));
+        }
+        assertTrue(coveredCount > 0);
+    }
+
+    @Test
+    public void testSplitWithStraightPolyline() {
+        final Coordinate[] line = { new Coordinate(-5, 4), new Coordinate(5, 4), new Coordinate(15, 4) };
+        final Polygon[] parts = HalfPlaneSplitter.split(square(), line);
+        assertNotNull(parts);
+        assertTrue(parts[0].equalsTopo(gf.toGeometry(new Envelope(0, 10, 4, 10))));
+        assertTrue(parts[1].equalsTopo(gf.toGeometry(new Envelope(0, 10, 0, 4))));
+        assertEquals(100.0, parts[0].getArea() + parts[1].getArea(), 1e-9);
+    }
+
+    @Test
+    public void testUnsupportedCasesAreLeftForOverlay() {
+        // Does not reach across the polygon
+        assertNull(HalfPlaneSplitter.split(square(), new Coordinate[] { new Coordinate(-5, 4), new Coordinate(5, 4) }));
+        // Goes through a vertex
+        assertNull(HalfPlaneSplitter.split(square(), new Coordinate[] { new Coordinate(-5, 10), new Coordinate(15, 10) }));
+        // Not straight
+        assertNull(HalfPlaneSplitter.split(square(), new Coordinate[] { new Coordinate(-5, 4), new Coordinate(5, 5), new Coordinate(15, 4) }));
+        // Crosses the boundary four times
+        final Polygon u = gf.createPolygon(new Coordinate[] { new Coordinate(0, 0), new Coordinate(10, 0), new Coordinate(10, 10), new Coordinate(7, 10),
+                new Coordinate(7, 3), new Coordinate(3, 3), new Coordinate(3, 10), new Coordinate(0, 10), new Coordinate(0, 0) });
+        assertNull(HalfPlaneSplitter.split(u, new Coordinate[] { new Coordinate(-5, 5), new Coordinate(15, 5) }));
+    }
+
+    @Test
+    public void testPreparedFirGeometriesAreCached() {
+        final FirInfoStoreImpl store = FirInfoStoreImpl.getInstance();
+        assertSame(store.getPreparedFirGeometry("EFIN", true), store.getPreparedFirGeometry("EFIN", true));
+        assertSame(store.getFirGeometry("EFIN", true), store.getPreparedFirGeometry("EFIN", true).getGeometry());
+        assertNull(store.getPreparedFirGeometry("XXXX", true));
+    }
+}
@@ -0,0 +1,64 @@
+package fi.fmi.avi.converter.tac.geoinfo;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+import org.locationtech.jts.geom.Point;
+import org.locationtech.jts.geom.Polygon;
+
+import fi.fmi.avi.model.CircleByCenterPoint;
+import fi.fmi.avi.model.PolygonGeometry;
+import fi.fmi.avi.model.immutable.CoordinateReferenceSystemImpl;
+import fi.fmi.avi.model.immutable.NumericMeasureImpl;
+import fi.fmi.avi.model.immutable.PointGeometryImpl;
+import fi.fmi.avi.model.immutable.PolygonGeometryImpl;
+
+public class JtsGeometryConverterTest {
+
+    private static PolygonGeometry polygon(final Double... positions) {
+        return PolygonGeometryImpl.builder()//
+                .setCrs(CoordinateReferenceSystemImpl.wgs84())//
+                .addAllExteriorRingPositions(Arrays.asList(positions))//
+                .build();
+    }
+
+    @Test
+    public void testPolygonRoundTrip() {
+        final PolygonGeometry original = polygon(52.0, 4.0, 52.0, 6.0, 54.0, 6.0, 54.0, 4.0, 52.0, 4.0);
+        final Polygon jts = JtsGeometryConverter.toJtsPolygon(original);
+        assertEquals(5, jts.getNumPoints());
+        assertEquals(4.0, jts.getArea(), 0.0);
+        assertTrue(jts.equalsTopo(JtsGeometryConverter.toJtsPolygon(JtsGeometryConverter.toPolygonGeometry(jts))));
+        assertEquals(jts.getNumPoints() * 2, JtsGeometryConverter.toPolygonGeometry(jts).getExteriorRingPositions().size());
+    }
+
+    @Test
+    public void testPolygonRingIsClosed() {
+        final Polygon jts = JtsGeometryConverter.toJtsPolygon(polygon(52.0, 4.0, 52.0, 6.0, 54.0, 6.0));
+        assertEquals(4, jts.getNumPoints());
+        assertTrue(jts.isValid());
+    }
+
+    @Test
+    public void testCoordinatesAreNotRounded() {
+        final PolygonGeometry original = polygon(52.123456789, 4.0, 52.0, 6.987654321, 54.0, 6.0, 52.123456789, 4.0);
+        final PolygonGeometry roundTrip = JtsGeometryConverter.toPolygonGeometry(JtsGeometryConverter.toJtsPolygon(original));
+        assertTrue(roundTrip.getExteriorRingPositions().contains(52.123456789));
+        assertTrue(roundTrip.getExteriorRingPositions().contains(6.987654321));
+    }
+
+    @Test
+    public void testPointAndCircle() {
+        final Point point = JtsGeometryConverter.toJtsPoint(PointGeometryImpl.builder().addCoordinates(60.3, 24.9).build());
+        assertEquals(24.9, point.getX(), 0.0);
+        assertEquals(60.3, point.getY(), 0.0);
+        assertEquals(Arrays.asList(60.3, 24.9), JtsGeometryConverter.toPointGeometry(point).getCoordinates());
+
+        final CircleByCenterPoint circle = JtsGeometryConverter.toCircleByCenterPoint(point, NumericMeasureImpl.of(30.0, "KM"));
+        assertEquals(Arrays.asList(60.3, 24.9), circle.getCenterPointCoordinates());
+        assertTrue(point.equalsExact(JtsGeometryConverter.toJtsPoint(circle)));
+    }
+}
@@ -0,0 +1,51 @@
+package fi.fmi.avi.converter.tac.geoinfo.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.junit.Test;
+import org.locationtech.jts.geom.Geometry;
+
+public class FirGeometryArtifactTest {
+
+    @Test
+    public void testArtifactMatchesGeoJson() throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        FirGeometryArtifactCompiler.compile(out);
+        final FirGeometryArtifact artifact = FirGeometryArtifact.read(ByteBuffer.wrap(out.toByteArray()));
+
+        final FirInfoStoreImpl geoJsonStore = new FirInfoStoreImpl(null);
+        final Set<String> keys = geoJsonStore.getGeoJsonKeys();
+        assertTrue(keys.contains("EFIN"));
+        for (final String key : keys) {
+            assertEquals(key, geoJsonStore.getFirNameProperty(key), artifact.getFirNameProperty(key));
+            assertSameGeometry(key, geoJsonStore.getFirGeometry(key, false), artifact.readGeometry(key, false));
+            assertSameGeometry(key, geoJsonStore.getFirGeometry(key, true), artifact.readGeometry(key, true));
+        }
+        assertEquals(geoJsonStore.getWorldFirIcaoCodes(), new TreeSet<>(artifact.getWorldFirIcaoCodes()));
+        assertEquals(68, artifact.readGeometry("EFIN", true).getNumPoints());
+        assertNull(artifact.readGeometry("XXXX", false));
+    }
+
+    @Test(expected = IOException.class)
+    public void testTruncatedArtifact() throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        FirGeometryArtifactCompiler.compile(out);
+        FirGeometryArtifact.read(ByteBuffer.wrap(out.toByteArray(), 0, out.size() / 2).slice());
+    }
+
+    private static void assertSameGeometry(final String key, final Geometry expected, final Geometry actual) {
+        if (expected == null) {
+            assertNull(key, actual);
+        } else {
+            assertTrue(key, expected.equalsExact(actual));
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package fi.fmi.avi.converter.tac.geoinfo.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+
+public class FirIndexTest {
+
+    private final GeometryFactory gf = new GeometryFactory();
+
+    private static List<String> bruteForce(final FirInfoStoreImpl store, final Geometry geometry) {
+        final List<String> retval = new ArrayList<>();
+        for (final String icaoCode : store.getWorldFirIcaoCodes()) {
+            final Geometry fir = store.getFirGeometry(icaoCode, false);
+            if (fir != null && fir.intersects(geometry)) {
+                retval.add(icaoCode);
+            }
+        }
+        return retval;
+    }
+
+    @Test
+    public void testIntersectingFirs() {
+        final FirInfoStoreImpl store = FirInfoStoreImpl.getInstance();
+        //Helsinki-Vantaa
+        assertEquals(Collections.singletonList("EFIN"), store.getIntersectingFirs(gf.createPoint(new Coordinate(24.96, 60.32))));
+        //Across the Gulf of Finland
+        assertEquals(Arrays.asList("EETT", "EFIN"),
+                store.getIntersectingFirs(gf.createLineString(new Coordinate[] { new Coordinate(24.9, 59.3), new Coordinate(24.9, 60.3) })));
+    }
+
+    @Test
+    public void testIntersectingFirsMatchBruteForce() {
+        final FirInfoStoreImpl store = FirInfoStoreImpl.getInstance();
+        int found = 0;
+        for (int lon = -170; lon <= 170; lon += 20) {
+            for (int lat = -80; lat <= 80; lat += 20) {
+                final Geometry point = gf.createPoint(new Coordinate(lon + 0.5, lat + 0.5));
+                final List<String> firs = store.getIntersectingFirs(point);
+                assertEquals(point.toString(), bruteForce(store, point), firs);
+                found += firs.size();
+
+                final Geometry polygon = gf.toGeometry(new Envelope(lon, lon + 7.5, lat, lat + 5.5));
+                assertEquals(polygon.toString(), bruteForce(store, polygon), store.getIntersectingFirs(polygon));
+            }
+        }
+        assertTrue(found > 0);
+    }
+
+    @Test
+    public void testNoFirsOutsideTheIndex() {
+        assertEquals(Collections.emptyList(), FirInfoStoreImpl.getInstance().getIntersectingFirs(gf.createPoint(new Coordinate(500, 500))));
+    }
+}
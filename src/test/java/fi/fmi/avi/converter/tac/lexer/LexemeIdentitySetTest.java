@@ -0,0 +1,93 @@
+package fi.fmi.avi.converter.tac.lexer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.junit.Test;
+
+public class LexemeIdentitySetTest {
+
+    @Test
+    public void testMembership() {
+        final Set<LexemeIdentity> set = LexemeIdentitySet.of(LexemeIdentity.CLOUD, LexemeIdentity.SURFACE_WIND);
+        assertTrue(set.contains(LexemeIdentity.CLOUD));
+        assertTrue(set.contains(new LexemeIdentity("SURFACE_WIND")));
+        assertFalse(set.contains(LexemeIdentity.WEATHER));
+        assertFalse(set.contains("CLOUD"));
+        assertEquals(2, set.size());
+        assertEquals(new HashSet<>(Arrays.asList(LexemeIdentity.CLOUD, LexemeIdentity.SURFACE_WIND)), set);
+    }
+
+    @Test
+    public void testIdentitiesCreatedAfterTheSet() {
+        final LexemeIdentitySet set = LexemeIdentitySet.noneOf();
+        final List<LexemeIdentity> created = new ArrayList<>();
+        for (int i = 0; i < 130; i++) {
+            created.add(LexemeIdentity.of("TEST_SET_IDENTITY_" + i));
+        }
+        assertFalse(set.contains(created.get(129)));
+        set.addAll(created);
+        assertEquals(created, new ArrayList<>(set));
+        assertTrue(set.removeAll(created.subList(0, 65)));
+        assertEquals(created.subList(65, 130), new ArrayList<>(set));
+    }
+
+    @Test
+    public void testAgainstTreeSet() {
+        final List<LexemeIdentity> identities = new ArrayList<>();
+        for (int i = 0; i < LexemeIdentity.registeredCount(); i++) {
+            identities.add(LexemeIdentity.ofOrdinal(i));
+        }
+        final Random random = new Random(42);
+        final LexemeIdentitySet set = LexemeIdentitySet.noneOf();
+        final TreeSet<Integer> expected = new TreeSet<>();
+        for (int i = 0; i < 10_000; i++) {
+            final LexemeIdentity identity = identities.get(random.nextInt(identities.size()));
+            if (random.nextBoolean()) {
+                assertEquals(expected.add(identity.ordinal()), set.add(identity));
+            } else {
+                assertEquals(expected.remove(identity.ordinal()), set.remove(identity));
+            }
+            assertEquals(expected.size(), set.size());
+        }
+        final List<Integer> ordinals = new ArrayList<>();
+        for (final LexemeIdentity identity : set) {
+            ordinals.add(identity.ordinal());
+        }
+        assertEquals(new ArrayList<>(expected), ordinals);
+    }
+
+    @Test
+    public void testIteratorRemove() {
+        final LexemeIdentitySet set = LexemeIdentitySet.of(LexemeIdentity.CLOUD, LexemeIdentity.SURFACE_WIND, LexemeIdentity.WEATHER);
+        final Iterator<LexemeIdentity> iterator = set.iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().equals(LexemeIdentity.SURFACE_WIND)) {
+                iterator.remove();
+            }
+        }
+        assertEquals(2, set.size());
+        assertFalse(set.contains(LexemeIdentity.SURFACE_WIND));
+    }
+
+    @Test
+    public void testCopyIsIndependent() {
+        final LexemeIdentitySet original = LexemeIdentitySet.of(LexemeIdentity.CLOUD);
+        final LexemeIdentitySet copy = LexemeIdentitySet.copyOf(original);
+        copy.add(LexemeIdentity.WEATHER);
+        assertEquals(Collections.singleton(LexemeIdentity.CLOUD), original);
+        assertEquals(2, copy.size());
+        assertEquals(copy, LexemeIdentitySet.copyOf(new HashSet<>(copy)));
+    }
+}
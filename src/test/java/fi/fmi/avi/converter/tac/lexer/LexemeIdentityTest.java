@@ -1,18 +1,34 @@
 package fi.fmi.avi.converter.tac.lexer;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.lang.reflect.Field;
+import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
+import java.net.URL;
+import java.net.URLClassLoader;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import org.junit.Test;
 
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import fi.fmi.avi.converter.tac.lexer.impl.token.LowWindStart;
+import fi.fmi.avi.converter.tac.lexer.impl.token.WXREPStart;
+import fi.fmi.avi.converter.tac.lexer.impl.token.WXWarningStart;
+
 public class LexemeIdentityTest {
     private static Stream<Field> lexemeIdentityConstantFields() {
         return Arrays.stream(LexemeIdentity.class.getFields())//
@@ -57,4 +73,115 @@ public class LexemeIdentityTest {
                             lexemeIdentity.name().endsWith("_LABEL"));
                 });
     }
+
+    @Test
+    public void constantsHaveDistinctDenseOrdinals() {
+        final Set<Integer> ordinals = lexemeIdentityConstants().map(LexemeIdentity::ordinal).collect(Collectors.toSet());
+        assertEquals(lexemeIdentityConstants().count(), ordinals.size());
+        lexemeIdentityConstants().forEach(lexemeIdentity -> {
+            assertTrue(lexemeIdentity.ordinal() >= 0 && lexemeIdentity.ordinal() < LexemeIdentity.registeredCount());
+            assertSame(lexemeIdentity, LexemeIdentity.ofOrdinal(lexemeIdentity.ordinal()));
+        });
+    }
+
+    @Test
+    public void namesAreInterned() {
+        assertSame(LexemeIdentity.CLOUD, LexemeIdentity.of("CLOUD"));
+        final LexemeIdentity created = LexemeIdentity.of("TEST_INTERNED_IDENTITY");
+        assertSame(created, LexemeIdentity.of("TEST_INTERNED_IDENTITY"));
+
+        final LexemeIdentity duplicate = new LexemeIdentity("CLOUD");
+        assertNotSame(LexemeIdentity.CLOUD, duplicate);
+        assertEquals(LexemeIdentity.CLOUD, duplicate);
+        assertEquals(LexemeIdentity.CLOUD.hashCode(), duplicate.hashCode());
+        assertEquals(LexemeIdentity.CLOUD.ordinal(), duplicate.ordinal());
+        assertSame(LexemeIdentity.CLOUD, LexemeIdentity.of("CLOUD"));
+    }
+
+    @Test
+    public void deserializationReturnsCanonicalInstance() throws Exception {
+        final ObjectMapper mapper = new ObjectMapper();
+        final String json = mapper.writeValueAsString(LexemeIdentity.SURFACE_WIND);
+        assertEquals("\"SURFACE_WIND\"", json);
+        assertSame(LexemeIdentity.SURFACE_WIND, mapper.readValue(json, LexemeIdentity.class));
+    }
+
+    @Test
+    public void deserializationOfUnknownNamesIsBounded() throws Exception {
+        final Class<?> identityClass = new FreshClassLoader().loadClass(LexemeIdentity.class.getName());
+        final Method registeredCount = identityClass.getDeclaredMethod("registeredCount");
+        registeredCount.setAccessible(true);
+        final Field max = identityClass.getDeclaredField("MAX_DESERIALIZED_IDENTITIES");
+        max.setAccessible(true);
+        final int maxDeserialized = max.getInt(null);
+
+        final ObjectMapper mapper = new ObjectMapper();
+        final int registered = (Integer) registeredCount.invoke(null);
+        for (int i = 0; i < maxDeserialized; i++) {
+            final Object identity = mapper.readValue("\"TEST_DESERIALIZED_IDENTITY_" + i + "\"", identityClass);
+            assertEquals("TEST_DESERIALIZED_IDENTITY_" + i, identity.toString());
+        }
+        assertEquals(registered + maxDeserialized, registeredCount.invoke(null));
+        try {
+            mapper.readValue("\"TEST_DESERIALIZED_IDENTITY_" + maxDeserialized + "\"", identityClass);
+            fail("Unknown identity name accepted over the limit");
+        } catch (final JsonMappingException expected) {
+            // Expected
+        }
+        assertEquals(registered + maxDeserialized, registeredCount.invoke(null));
+        // Known names are still accepted
+        assertEquals("CLOUD", mapper.readValue("\"CLOUD\"", identityClass).toString());
+    }
+
+    /**
+     * The identities declared outside LexemeIdentity must be deserialized as the canonical ones even if their classes
+     * have not been initialized. A class loader of its own gives a LexemeIdentity class with a registry of its own
+     * and none of the token classes initialized.
+     */
+    @Test
+    public void deserializationOfTokenIdentitiesInFreshClassLoader() throws Exception {
+        final Class<?> identityClass = new FreshClassLoader().loadClass(LexemeIdentity.class.getName());
+        final Method lookup = identityClass.getMethod("lookup", String.class);
+        final Object canonical = ((Optional<?>) lookup.invoke(null, "WXREP_START")).orElse(null);
+        assertNotNull(canonical);
+        assertSame(canonical, new ObjectMapper().readValue("\"WXREP_START\"", identityClass));
+        for (final String name : Arrays.asList("WX_WARNING_START", "LOW_WIND_START")) {
+            assertSame(((Optional<?>) lookup.invoke(null, name)).orElse(null), new ObjectMapper().readValue("\"" + name + "\"", identityClass));
+        }
+    }
+
+    @Test
+    public void tokenIdentitiesAreTheDeclaredOnes() {
+        assertSame(LexemeIdentity.WXREP_START, WXREPStart.WXREP_START);
+        assertSame(LexemeIdentity.LOW_WIND_START, LowWindStart.LOW_WIND_START);
+        assertSame(LexemeIdentity.WX_WARNING_START, WXWarningStart.WX_WARNING_START);
+    }
+
+    /**
+     * Loads the classes of this library itself instead of delegating to the parent class loader.
+     */
+    private static final class FreshClassLoader extends URLClassLoader {
+        private static final String PACKAGE_PREFIX = "fi.fmi.avi.converter.tac.";
+
+        FreshClassLoader() {
+            super(new URL[] { LexemeIdentity.class.getProtectionDomain().getCodeSource().getLocation() }, LexemeIdentityTest.class.getClassLoader());
+        }
+
+        @Override
+        protected Class<?> loadClass(final String name, final boolean resolve) throws ClassNotFoundException {
+            if (!name.startsWith(PACKAGE_PREFIX)) {
+                return super.loadClass(name, resolve);
+            }
+            synchronized (getClassLoadingLock(name)) {
+                Class<?> retval = findLoadedClass(name);
+                if (retval == null) {
+                    retval = findClass(name);
+                }
+                if (resolve) {
+                    resolveClass(retval);
+                }
+                return retval;
+            }
+        }
+    }
 }
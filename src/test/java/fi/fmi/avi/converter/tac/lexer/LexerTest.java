@@ -2,6 +2,9 @@ package fi.fmi.avi.converter.tac.lexer;
 
 import fi.fmi.avi.converter.ConversionHints;
 import fi.fmi.avi.converter.tac.TACTestConfiguration;
+import fi.fmi.avi.converter.tac.lexer.impl.AviMessageLexerImpl;
+import fi.fmi.avi.model.MessageType;
+import fi.fmi.avi.model.bulletin.MeteorologicalBulletinSpecialCharacter;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,6 +15,9 @@ import org.springframework.test.context.support.AnnotationConfigContextLoader;
 import java.util.ArrayList;
 import java.util.List;
 
+import static fi.fmi.avi.model.bulletin.MeteorologicalBulletinSpecialCharacter.CARRIAGE_RETURN;
+import static fi.fmi.avi.model.bulletin.MeteorologicalBulletinSpecialCharacter.LINE_FEED;
+import static fi.fmi.avi.model.bulletin.MeteorologicalBulletinSpecialCharacter.SPACE;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.fail;
 
@@ -160,6 +166,21 @@ public class LexerTest {
                         LexemeIdentity.END_TOKEN);
     }
 
+    @Test
+    public void testTokenOffsets() {
+        final String tac = "METAR EFHK 111111Z 15008KT 0700\r\nSN VV006  M08/M10 Q1023=";
+        final LexemeSequence seq = lexer.lexMessage(tac);
+        final List<Lexeme> lexemes = seq.getLexemes(true);
+        for (final Lexeme l : lexemes) {
+            assertThat(l.getTACToken()).isEqualTo(tac.substring(l.getStartIndex(), l.getEndIndex() + 1));
+        }
+        assertThat(lexemes.get(lexemes.size() - 1).getIdentity()).isEqualTo(LexemeIdentity.END_TOKEN);
+        assertThat(lexemes.stream()//
+                .filter(l -> LexemeIdentity.WHITE_SPACE.equals(l.getIdentity()))//
+                .map(l -> l.getParsedValue(Lexeme.ParsedValueName.TYPE, MeteorologicalBulletinSpecialCharacter.class)))//
+                .containsExactly(SPACE, SPACE, SPACE, SPACE, CARRIAGE_RETURN, LINE_FEED, SPACE, SPACE, SPACE, SPACE);
+    }
+
     @Test
     public void testSpaceWeatherLexing() {
         final List<Lexeme> unidentifiedLexemes = new ArrayList<>();
@@ -201,4 +222,38 @@ public class LexerTest {
             fail("There were unidentified lexemes");
         }
     }
+
+    @Test
+    public void testLexingStatistics() {
+        final List<LexingStatistics> statistics = new ArrayList<>();
+        final LexemeSequence seq = ((AviMessageLexerImpl) lexer).lexMessage("TAF EFHK 011733Z 0118/0218 VRB02KT 4000 -SN BKN003\n" //
+                + "TEMPO 0118/0120 1500 SN=", null, statistics::add);
+
+        assertThat(seq.getFirstLexeme().getIdentity()).isEqualTo(LexemeIdentity.TAF_START);
+        assertThat(statistics).hasSize(1);
+        assertThat(statistics.get(0).getPassCount()).isBetween(2, 99);
+        assertThat(statistics.get(0).getVisitCount()).isGreaterThanOrEqualTo(seq.getLexemes().size() - 1);
+    }
+
+    @Test
+    public void testMessageTypeRecognition() {
+        final String[] messages = { "TAF EFHK 011733Z 0118/0218 VRB02KT 4000 -SN BKN003=", //
+                "METAR EFHK 111111Z 15008KT 0700 R04R/1500N R15/1000U R22L/1200N R04L/1000VP1500U SN VV006 M08/M10 Q1023=", //
+                "SPECI EFHK 111111Z 15008KT 0700 SN VV006 M08/M10 Q1023=", //
+                "LOW WIND EFHK 040820Z 1000FT 2000FT FL050 FL100 200/20 200/25 210/30 210/20=", //
+                "WX WRNG EFHK 310600Z NIL=", //
+                "FTFI33 EFPP 020500\nTAF EFKE 020532Z 0206/0312 05005KT 9999 -SHRA BKN004=", //
+                SWX_ADVISORY, //
+                "EFHK 011733Z 0118/0218 VRB02KT 4000 -SN BKN003=", //
+                "" };
+        for (final String message : messages) {
+            final RecognizedLexemeSequence recognized = lexer.lexAndRecognizeMessage(message, null);
+            assertThat(recognized.getMessageType()).as(message).isEqualTo(lexer.recognizeMessageType(message, null));
+            assertThat(recognized.getLexemeSequence().getLexemes().toString()).as(message)
+                    .isEqualTo(lexer.lexMessage(message, null).getLexemes().toString());
+            assertThat(lexer.recognizeMessageTypeFromPrefix(message, null)).as(message).isEqualTo(lexer.recognizeMessageType(message, null));
+        }
+        assertThat(lexer.recognizeMessageTypeFromPrefix(SWX_ADVISORY, null).map(MessageType::name)).hasValue(MessageType.SPACE_WEATHER_ADVISORY.name());
+    }
+
 }
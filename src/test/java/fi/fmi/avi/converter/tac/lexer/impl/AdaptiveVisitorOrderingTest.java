@@ -0,0 +1,142 @@
+package fi.fmi.avi.converter.tac.lexer.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import fi.fmi.avi.converter.tac.conf.Lexing;
+import fi.fmi.avi.converter.tac.lexer.Lexeme;
+import fi.fmi.avi.converter.tac.lexer.impl.PrioritizedLexemeVisitor.OccurrenceFrequency;
+import fi.fmi.avi.converter.tac.lexer.impl.token.AirDewpointTemperature;
+import fi.fmi.avi.converter.tac.lexer.impl.token.AtmosphericPressureQNH;
+import fi.fmi.avi.converter.tac.lexer.impl.token.CloudLayer;
+import fi.fmi.avi.converter.tac.lexer.impl.token.EndToken;
+import fi.fmi.avi.converter.tac.lexer.impl.token.ICAOCode;
+import fi.fmi.avi.converter.tac.lexer.impl.token.SurfaceWind;
+import fi.fmi.avi.converter.tac.lexer.impl.token.Weather;
+import fi.fmi.avi.model.MessageType;
+
+public class AdaptiveVisitorOrderingTest {
+
+    private static final List<String> MESSAGES = Arrays.asList(//
+            "METAR EFHK 111111Z 15008KT 0700 R04R/1500N R15/1000U R22L/1200N R04L/1000VP1500U SN VV006 M08/M10 Q1023=", //
+            "METAR KORD 201851Z AUTO 27015G25KT 1 1/2SM -SHRA BR BKN008 OVC015 18/17 A2992 RMK AO2=", //
+            "SPECI EFHK 111120Z 15008KT 0400 FG VV001 M08/M10 Q1023 NOSIG=", //
+            "TAF EFHK 011733Z 0118/0218 VRB02KT 4000 -SN BKN003 TEMPO 0118/0120 1500 SN BECMG 0120/0122 1500 BR PROB40 TEMPO 0122/0203 0700 FG=", //
+            "TAF EFKU 190840Z 1909/2009 23010KT CAVOK PROB30 TEMPO 1915/1919 7000 SHRA SCT030CB BKN045 BECMG 1923/2001 30004KT=");
+
+    private static RecognizingAviMessageTokenLexer tokenLexer() {
+        final RecognizingAviMessageTokenLexer l = new RecognizingAviMessageTokenLexer();
+        l.setSuitabilityTester(RecognizingAviMessageTokenLexer.SuitabilityTester.alwaysSuits(MessageType.METAR));
+        l.teach(new CloudLayer(OccurrenceFrequency.AVERAGE));
+        l.teach(new Weather(OccurrenceFrequency.AVERAGE));
+        l.teach(new ICAOCode(OccurrenceFrequency.AVERAGE).pinned());
+        l.teach(new SurfaceWind(OccurrenceFrequency.AVERAGE));
+        l.teach(new AirDewpointTemperature(OccurrenceFrequency.AVERAGE));
+        l.teach(new AtmosphericPressureQNH(OccurrenceFrequency.AVERAGE));
+        l.teach(new EndToken(OccurrenceFrequency.AVERAGE));
+        return l;
+    }
+
+    private static void assertSameLexemes(final String description, final List<Lexeme> expected, final List<Lexeme> actual) {
+        assertEquals(description, expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            final Lexeme e = expected.get(i);
+            final Lexeme a = actual.get(i);
+            final String tokenDescription = description + " " + e.getTACToken();
+            assertEquals(tokenDescription, e.getIdentity(), a.getIdentity());
+            assertEquals(tokenDescription, e.getStatus(), a.getStatus());
+            assertEquals(tokenDescription, e.getLexerMessage(), a.getLexerMessage());
+            assertEquals(tokenDescription, e.getIdentificationCertainty(), a.getIdentificationCertainty(), 0.0);
+            assertEquals(tokenDescription, e.getParsedValues(), a.getParsedValues());
+        }
+    }
+
+    private static List<Class<?>> classesOf(final List<PrioritizedLexemeVisitor> visitors) {
+        return visitors.stream().map(Object::getClass).collect(Collectors.toList());
+    }
+
+    @Test
+    public void testPinnedVisitorsKeepTheirPlace() {
+        final RecognizingAviMessageTokenLexer l = tokenLexer();
+        l.setAdaptiveOrdering(true);
+        final Map<String, Long> hitCounts = new HashMap<>();
+        hitCounts.put(SurfaceWind.class.getName(), 1L);
+        hitCounts.put(AtmosphericPressureQNH.class.getName(), 7L);
+        hitCounts.put(EndToken.class.getName(), 9L);
+        l.setVisitorHitCounts(hitCounts);
+        assertEquals(Arrays.asList(CloudLayer.class, Weather.class, ICAOCode.class, AtmosphericPressureQNH.class, SurfaceWind.class,
+                AirDewpointTemperature.class, EndToken.class), classesOf(l.getVisitorOrder()));
+        assertEquals(Long.valueOf(7L), l.getVisitorHitCounts().get(AtmosphericPressureQNH.class.getName()));
+
+        l.setAdaptiveOrdering(false);
+        assertEquals(Arrays.asList(CloudLayer.class, Weather.class, ICAOCode.class, SurfaceWind.class, AirDewpointTemperature.class,
+                AtmosphericPressureQNH.class, EndToken.class), classesOf(l.getVisitorOrder()));
+    }
+
+    @Test
+    public void testOverlappingVisitorsKeepTheirOrder() {
+        final RecognizingAviMessageTokenLexer l = tokenLexer();
+        l.setAdaptiveOrdering(true);
+        final Map<String, Long> hitCounts = new HashMap<>();
+        // Weather may match the same tokens as CloudLayer, and AirDewpointTemperature the same as SurfaceWind:
+        hitCounts.put(Weather.class.getName(), 5L);
+        hitCounts.put(AirDewpointTemperature.class.getName(), 8L);
+        hitCounts.put(AtmosphericPressureQNH.class.getName(), 3L);
+        l.setVisitorHitCounts(hitCounts);
+        assertEquals(Arrays.asList(CloudLayer.class, Weather.class, ICAOCode.class, AtmosphericPressureQNH.class, SurfaceWind.class,
+                AirDewpointTemperature.class, EndToken.class), classesOf(l.getVisitorOrder()));
+    }
+
+    @Test
+    public void testReversedOrderDoesNotChangeLexemesOfCorpus() throws Exception {
+        final List<TestCorpus.Message> corpus = TestCorpus.load();
+        assertFalse(corpus.isEmpty());
+        final AviMessageLexerImpl fixed = (AviMessageLexerImpl) new Lexing().aviMessageLexer();
+        final AviMessageLexerImpl adaptive = (AviMessageLexerImpl) new Lexing().aviMessageLexer();
+        adaptive.setAdaptiveOrdering(true);
+
+        // Count the visitors as identifying more the later they are in the order, reversing it as far as allowed:
+        final Map<MessageType, Map<String, Long>> reversed = new LinkedHashMap<>();
+        fixed.getVisitorHitCounts().forEach((type, counts) -> {
+            final Map<String, Long> increasing = new LinkedHashMap<>();
+            for (final String visitor : counts.keySet()) {
+                increasing.put(visitor, (long) increasing.size() + 1);
+            }
+            reversed.put(type, increasing);
+        });
+        adaptive.setVisitorHitCounts(reversed);
+        assertNotEquals(new ArrayList<>(fixed.getVisitorHitCounts().get(MessageType.METAR).keySet()),
+                new ArrayList<>(adaptive.getVisitorHitCounts().get(MessageType.METAR).keySet()));
+
+        for (final TestCorpus.Message message : corpus) {
+            assertSameLexemes(message.name, fixed.lexMessage(message.tac, message.hints).getLexemes(),
+                    adaptive.lexMessage(message.tac, message.hints).getLexemes());
+        }
+    }
+
+    @Test
+    public void testReorderingDoesNotChangeLexemes() {
+        final AviMessageLexerImpl fixed = (AviMessageLexerImpl) new Lexing().aviMessageLexer();
+        final AviMessageLexerImpl adaptive = (AviMessageLexerImpl) new Lexing().aviMessageLexer();
+        adaptive.setAdaptiveOrdering(true);
+        for (int round = 0; round < 3; round++) {
+            for (final String message : MESSAGES) {
+                assertSameLexemes(message, fixed.lexMessage(message).getLexemes(), adaptive.lexMessage(message).getLexemes());
+            }
+            adaptive.setVisitorHitCounts(adaptive.getVisitorHitCounts());
+        }
+        assertTrue(adaptive.getVisitorHitCounts().get(MessageType.METAR).get(SurfaceWind.class.getName()) > 0);
+    }
+}
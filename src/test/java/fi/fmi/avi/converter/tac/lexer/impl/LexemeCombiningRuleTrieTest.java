@@ -0,0 +1,63 @@
+package fi.fmi.avi.converter.tac.lexer.impl;
+
+import static fi.fmi.avi.converter.tac.lexer.impl.LexemeCombiningRules.equalityMatcher;
+import static fi.fmi.avi.converter.tac.lexer.impl.LexemeCombiningRules.equalityRule;
+import static fi.fmi.avi.converter.tac.lexer.impl.LexemeCombiningRules.regexMatcher;
+import static fi.fmi.avi.converter.tac.lexer.impl.LexemeCombiningRules.regexRule;
+import static fi.fmi.avi.converter.tac.lexer.impl.LexemeCombiningRules.rule;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import fi.fmi.avi.converter.tac.lexer.Lexeme;
+
+public class LexemeCombiningRuleTrieTest {
+
+    private static List<String> tokens(final LexingFactoryImpl factory, final String tac) {
+        return factory.createLexemeSequence(tac, null).getLexemes().stream()//
+                .map(Lexeme::getTACToken)//
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    public void testFirstMatchingRuleWins() {
+        final LexemeCombiningRuleTrie trie = new LexemeCombiningRuleTrie(Arrays.asList(//
+                equalityRule("B", "C"), //
+                rule(regexMatcher("^[A-Z]$"), equalityMatcher("B"), equalityMatcher("C")), //
+                equalityRule("C")));
+        final LexingFactoryImpl factory = new LexingFactoryImpl();
+        final Lexeme tail = factory.createLexemeSequence("A B C", null).getLastLexeme();
+
+        final LexemeCombiningRuleTrie.Match first = trie.findFirstMatch(tail, 0);
+        assertEquals(0, first.getRuleIndex());
+        assertEquals("B", first.getStart().getTACToken());
+
+        final LexemeCombiningRuleTrie.Match second = trie.findFirstMatch(tail, 1);
+        assertEquals(1, second.getRuleIndex());
+        assertEquals("A", second.getStart().getTACToken());
+
+        final LexemeCombiningRuleTrie.Match third = trie.findFirstMatch(tail, 2);
+        assertEquals(2, third.getRuleIndex());
+        assertEquals("C", third.getStart().getTACToken());
+
+        assertNull(trie.findFirstMatch(tail, 3));
+    }
+
+    @Test
+    public void testRulesAreAppliedInOrderOnCombinedTail() {
+        final LexingFactoryImpl factory = new LexingFactoryImpl();
+        // Never applies, as the rule is tested before the rules producing the combined token:
+        factory.addTokenCombiningRule(equalityRule("X", "P 1 1/2SM"));
+        factory.addTokenCombiningRule(regexRule("^[0-9]+$", "^[0-9]+/[0-9]+SM$"));
+        factory.addTokenCombiningRule(equalityRule("P", "1 1/2SM"));
+        assertEquals(Arrays.asList("X", " ", "P 1 1/2SM", " ", "Y"), tokens(factory, "X P 1 1/2SM Y"));
+
+        factory.addTokenCombiningRule(equalityRule("X", "P 1 1/2SM"));
+        assertEquals(Arrays.asList("X P 1 1/2SM", " ", "Y"), tokens(factory, "X P 1 1/2SM Y"));
+    }
+}
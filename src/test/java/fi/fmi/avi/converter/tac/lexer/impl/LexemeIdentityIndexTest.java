@@ -0,0 +1,199 @@
+package fi.fmi.avi.converter.tac.lexer.impl;
+
+import static fi.fmi.avi.converter.tac.lexer.LexemeIdentity.AERODROME_DESIGNATOR;
+import static fi.fmi.avi.converter.tac.lexer.LexemeIdentity.HORIZONTAL_VISIBILITY;
+import static fi.fmi.avi.converter.tac.lexer.LexemeIdentity.REMARKS_START;
+import static fi.fmi.avi.converter.tac.lexer.LexemeIdentity.TAF_FORECAST_CHANGE_INDICATOR;
+import static fi.fmi.avi.converter.tac.lexer.LexemeIdentity.TAF_START;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import fi.fmi.avi.converter.tac.lexer.Lexeme;
+import fi.fmi.avi.converter.tac.lexer.LexemeIdentity;
+import fi.fmi.avi.converter.tac.lexer.LexemeSequence;
+
+public class LexemeIdentityIndexTest {
+
+    private LexingFactoryImpl factory;
+    private LexemeSequence sequence;
+    private List<Lexeme> lexemes;
+
+    @Before
+    public void setUp() {
+        factory = new LexingFactoryImpl();
+        sequence = factory.createLexemeSequence("TAF EFHK 9999 BECMG 4000 TEMPO 3000", null);
+        lexemes = sequence.getLexemes().stream()//
+                .filter(l -> !LexemeIdentity.WHITE_SPACE.equals(l.getIdentity()))//
+                .collect(Collectors.toList());
+        lexemes.get(0).identify(TAF_START);
+        lexemes.get(1).identify(AERODROME_DESIGNATOR);
+        lexemes.get(3).identify(TAF_FORECAST_CHANGE_INDICATOR);
+        lexemes.get(5).identify(TAF_FORECAST_CHANGE_INDICATOR);
+    }
+
+    @Test
+    public void testExistsPreviousLexeme() {
+        assertFalse(LexemeUtils.existsPreviousLexeme(lexemes.get(1), AERODROME_DESIGNATOR));
+        assertTrue(LexemeUtils.existsPreviousLexeme(lexemes.get(2), AERODROME_DESIGNATOR));
+        assertTrue(LexemeUtils.existsPreviousLexeme(lexemes.get(6), AERODROME_DESIGNATOR));
+        assertFalse(LexemeUtils.existsPreviousLexeme(lexemes.get(6), REMARKS_START));
+        assertTrue(LexemeUtils.existsPreviousLexeme(lexemes.get(6), TAF_FORECAST_CHANGE_INDICATOR, l -> l == lexemes.get(3)));
+        assertFalse(LexemeUtils.existsPreviousLexeme(lexemes.get(4), TAF_FORECAST_CHANGE_INDICATOR, l -> l == lexemes.get(5)));
+    }
+
+    @Test
+    public void testExistsPreviousLexemesWithinSameGroup() {
+        lexemes.get(2).identify(HORIZONTAL_VISIBILITY);
+        lexemes.get(4).identify(HORIZONTAL_VISIBILITY);
+        lexemes.get(6).identify(HORIZONTAL_VISIBILITY);
+        assertFalse(LexemeUtils.existsPreviousLexemesWithinSameGroup(lexemes.get(2), HORIZONTAL_VISIBILITY));
+        assertFalse(LexemeUtils.existsPreviousLexemesWithinSameGroup(lexemes.get(4), HORIZONTAL_VISIBILITY));
+        assertFalse(LexemeUtils.existsPreviousLexemesWithinSameGroup(lexemes.get(6), HORIZONTAL_VISIBILITY));
+
+        lexemes.get(5).identify(HORIZONTAL_VISIBILITY);
+        assertTrue(LexemeUtils.existsPreviousLexemesWithinSameGroup(lexemes.get(6), HORIZONTAL_VISIBILITY));
+        assertFalse(LexemeUtils.existsPreviousLexemesWithinSameGroup(lexemes.get(6), HORIZONTAL_VISIBILITY, l -> l == lexemes.get(2)));
+    }
+
+    @Test
+    public void testFindFirstPreviousLexeme() {
+        assertSame(lexemes.get(1),
+                LexemeUtils.findFirstPreviousLexeme(lexemes.get(6), new HashSet<>(Arrays.asList(TAF_FORECAST_CHANGE_INDICATOR, AERODROME_DESIGNATOR))));
+        assertSame(lexemes.get(3), LexemeUtils.findFirstPreviousLexeme(lexemes.get(6), new HashSet<>(Arrays.asList(TAF_FORECAST_CHANGE_INDICATOR))));
+        assertNull(LexemeUtils.findFirstPreviousLexeme(lexemes.get(3), new HashSet<>(Arrays.asList(TAF_FORECAST_CHANGE_INDICATOR))));
+    }
+
+    @Test
+    public void testOccurrences() {
+        assertEquals(Arrays.asList(lexemes.get(3), lexemes.get(5)), sequence.occurrencesOf(TAF_FORECAST_CHANGE_INDICATOR));
+        assertEquals(Optional.of(lexemes.get(0)), sequence.firstOf(TAF_START));
+        assertEquals(Optional.empty(), sequence.firstOf(REMARKS_START));
+        assertTrue(sequence.occurrencesOf(REMARKS_START).isEmpty());
+
+        lexemes.get(3).identify(TAF_FORECAST_CHANGE_INDICATOR, Lexeme.Status.SYNTAX_ERROR);
+        assertEquals(Collections.singletonList(lexemes.get(5)), sequence.occurrencesOf(TAF_FORECAST_CHANGE_INDICATOR));
+        assertEquals(Optional.of(lexemes.get(5)), sequence.firstOf(TAF_FORECAST_CHANGE_INDICATOR));
+    }
+
+    @Test
+    public void testDefaultOccurrencesMatchIndexed() {
+        final LexemeSequence unindexed = new DelegatingLexemeSequence(sequence);
+        lexemes.get(5).identify(TAF_FORECAST_CHANGE_INDICATOR, Lexeme.Status.WARNING);
+        lexemes.get(3).identify(TAF_FORECAST_CHANGE_INDICATOR, Lexeme.Status.SYNTAX_ERROR);
+        lexemes.get(1).setIgnored(true);
+        for (final LexemeIdentity id : Arrays.asList(TAF_START, AERODROME_DESIGNATOR, TAF_FORECAST_CHANGE_INDICATOR, REMARKS_START)) {
+            assertEquals(sequence.occurrencesOf(id), unindexed.occurrencesOf(id));
+            assertEquals(sequence.firstOf(id), unindexed.firstOf(id));
+        }
+    }
+
+    @Test
+    public void testFindNext() {
+        assertSame(lexemes.get(3), lexemes.get(0).findNext(TAF_FORECAST_CHANGE_INDICATOR));
+        assertSame(lexemes.get(5), lexemes.get(3).findNext(TAF_FORECAST_CHANGE_INDICATOR));
+        assertNull(lexemes.get(5).findNext(TAF_FORECAST_CHANGE_INDICATOR));
+        assertNull(lexemes.get(0).findNext(TAF_START));
+        assertSame(lexemes.get(2), lexemes.get(1).findNext(null));
+
+        lexemes.get(5).setIgnored(true);
+        assertNull(lexemes.get(3).findNext(TAF_FORECAST_CHANGE_INDICATOR));
+        lexemes.get(5).setIgnored(false);
+        lexemes.get(5).identify(TAF_FORECAST_CHANGE_INDICATOR, Lexeme.Status.WARNING);
+        assertSame(lexemes.get(5), lexemes.get(3).findNext(TAF_FORECAST_CHANGE_INDICATOR));
+        lexemes.get(5).identify(TAF_FORECAST_CHANGE_INDICATOR, Lexeme.Status.SYNTAX_ERROR);
+        assertNull(lexemes.get(3).findNext(TAF_FORECAST_CHANGE_INDICATOR));
+    }
+
+    @Test
+    public void testIndexFollowsIdentificationAndIgnoring() {
+        assertTrue(LexemeUtils.existsPreviousLexeme(lexemes.get(6), AERODROME_DESIGNATOR));
+        lexemes.get(1).setIgnored(true);
+        assertFalse(LexemeUtils.existsPreviousLexeme(lexemes.get(6), AERODROME_DESIGNATOR));
+        lexemes.get(1).setIgnored(false);
+        assertTrue(LexemeUtils.existsPreviousLexeme(lexemes.get(6), AERODROME_DESIGNATOR));
+
+        lexemes.get(1).identify(REMARKS_START);
+        assertFalse(LexemeUtils.existsPreviousLexeme(lexemes.get(6), AERODROME_DESIGNATOR));
+        assertTrue(LexemeUtils.existsPreviousLexeme(lexemes.get(6), REMARKS_START));
+    }
+
+    @Test
+    public void testIndexFollowsStructuralChanges() {
+        final LexingFactoryImpl.LexemeSequenceImpl seq = (LexingFactoryImpl.LexemeSequenceImpl) sequence;
+        assertTrue(LexemeUtils.existsPreviousLexeme(lexemes.get(6), AERODROME_DESIGNATOR));
+        seq.removeFirst();
+        seq.addAsFirst(factory.createLexeme("TAF", REMARKS_START));
+        final Lexeme last = sequence.getLastLexeme();
+        assertTrue(LexemeUtils.existsPreviousLexeme(last, REMARKS_START));
+        assertFalse(LexemeUtils.existsPreviousLexeme(last, TAF_START));
+
+        // Removed Lexemes are no longer part of the indexed sequence:
+        final Lexeme removed = seq.removeLast();
+        assertTrue(LexemeUtils.existsPreviousLexeme(removed, AERODROME_DESIGNATOR));
+        assertFalse(LexemeUtils.existsPreviousLexeme(sequence.getLastLexeme(), TAF_START));
+    }
+
+    /**
+     * Uses the default implementations of the optional methods.
+     */
+    private static final class DelegatingLexemeSequence implements LexemeSequence {
+        private final LexemeSequence delegate;
+
+        DelegatingLexemeSequence(final LexemeSequence delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public String getTAC() {
+            return delegate.getTAC();
+        }
+
+        @Override
+        public Lexeme getFirstLexeme() {
+            return delegate.getFirstLexeme();
+        }
+
+        @Override
+        public Lexeme getLastLexeme() {
+            return delegate.getLastLexeme();
+        }
+
+        @Override
+        public List<Lexeme> getLexemes() {
+            return delegate.getLexemes();
+        }
+
+        @Override
+        public List<Lexeme> getLexemes(final boolean acceptIgnored) {
+            return delegate.getLexemes(acceptIgnored);
+        }
+
+        @Override
+        public List<LexemeSequence> splitBy(final LexemeIdentity... ids) {
+            return delegate.splitBy(ids);
+        }
+
+        @Override
+        public List<LexemeSequence> splitBy(final boolean separatorStartsSequence, final LexemeIdentity... ids) {
+            return delegate.splitBy(separatorStartsSequence, ids);
+        }
+
+        @Override
+        public LexemeSequence trimWhiteSpace() {
+            return delegate.trimWhiteSpace();
+        }
+    }
+}
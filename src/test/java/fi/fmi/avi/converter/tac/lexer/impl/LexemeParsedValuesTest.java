@@ -0,0 +1,146 @@
+package fi.fmi.avi.converter.tac.lexer.impl;
+
+import static fi.fmi.avi.converter.tac.lexer.Lexeme.ParsedValueName.DAY1;
+import static fi.fmi.avi.converter.tac.lexer.Lexeme.ParsedValueName.HOUR1;
+import static fi.fmi.avi.converter.tac.lexer.Lexeme.ParsedValueName.MINUTE1;
+import static fi.fmi.avi.converter.tac.lexer.Lexeme.ParsedValueName.UNIT;
+import static fi.fmi.avi.converter.tac.lexer.Lexeme.ParsedValueName.VALUE;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import fi.fmi.avi.converter.tac.lexer.Lexeme;
+import fi.fmi.avi.converter.tac.lexer.LexemeIdentity;
+
+public class LexemeParsedValuesTest {
+
+    private LexingFactoryImpl factory;
+
+    @Before
+    public void setUp() {
+        factory = new LexingFactoryImpl();
+    }
+
+    @Test
+    public void testIntValuesAreVisibleAsObjects() {
+        final Lexeme lexeme = factory.createLexeme("0112/0118", LexemeIdentity.VALID_TIME);
+        lexeme.setParsedIntValue(DAY1, 1);
+        lexeme.setParsedIntValue(HOUR1, 12);
+        assertEquals(Integer.valueOf(1), lexeme.getParsedValue(DAY1, Integer.class));
+        assertEquals(12, lexeme.getParsedIntValue(HOUR1, -1));
+        assertEquals(-1, lexeme.getParsedIntValue(MINUTE1, -1));
+        assertNull(lexeme.getParsedValue(MINUTE1, Integer.class));
+
+        final Map<Lexeme.ParsedValueName, Object> expected = new EnumMap<>(Lexeme.ParsedValueName.class);
+        expected.put(DAY1, 1);
+        expected.put(HOUR1, 12);
+        assertEquals(expected, lexeme.getParsedValues());
+    }
+
+    @Test
+    public void testIntAndObjectValuesReplaceEachOther() {
+        final Lexeme lexeme = factory.createLexeme("1013", LexemeIdentity.AIR_PRESSURE_QNH);
+        lexeme.setParsedValue(VALUE, 1012);
+        assertEquals(1012, lexeme.getParsedIntValue(VALUE, -1));
+        lexeme.setParsedIntValue(VALUE, 1013);
+        assertEquals(Integer.valueOf(1013), lexeme.getParsedValue(VALUE, Integer.class));
+        assertEquals(1, lexeme.getParsedValues().size());
+
+        lexeme.setParsedValue(VALUE, null);
+        assertNull(lexeme.getParsedValue(VALUE, Integer.class));
+        assertEquals(-1, lexeme.getParsedIntValue(VALUE, -1));
+    }
+
+    @Test(expected = ClassCastException.class)
+    public void testNonIntegerValueAsInt() {
+        final Lexeme lexeme = factory.createLexeme("1013", LexemeIdentity.AIR_PRESSURE_QNH);
+        lexeme.setParsedValue(UNIT, "hPa");
+        lexeme.setParsedValue(VALUE, "1013");
+        lexeme.getParsedIntValue(VALUE, -1);
+    }
+
+    @Test
+    public void testParsedValuesAreSharedUntilModified() {
+        final Lexeme original = factory.createLexeme("1013", LexemeIdentity.AIR_PRESSURE_QNH);
+        original.setParsedValue(UNIT, "hPa");
+        final Map<Lexeme.ParsedValueName, Object> values = ((LexingFactoryImpl.LexemeImpl) original).getParsedValueMap();
+        final LexingFactoryImpl.LexemeImpl copy = (LexingFactoryImpl.LexemeImpl) factory.createLexemeSequenceBuilder()
+                .append(original)
+                .build()
+                .getFirstLexeme();
+        assertNotSame(original, copy);
+        assertSame(values, copy.getParsedValueMap());
+
+        copy.setParsedValue(UNIT, "mmHg");
+        assertNotSame(values, copy.getParsedValueMap());
+        assertEquals("hPa", original.getParsedValue(UNIT, String.class));
+        assertEquals("mmHg", copy.getParsedValue(UNIT, String.class));
+
+        // The original is the only owner left, so it modifies the map in place
+        original.setParsedValue(UNIT, "inHg");
+        assertSame(values, ((LexingFactoryImpl.LexemeImpl) original).getParsedValueMap());
+        assertEquals("mmHg", copy.getParsedValue(UNIT, String.class));
+    }
+
+    @Test
+    public void testCopiedLexemesDoNotShareModifications() {
+        final Lexeme original = factory.createLexeme("0112/0118", LexemeIdentity.VALID_TIME);
+        original.setParsedIntValue(DAY1, 1);
+        original.setParsedValue(HOUR1, 12);
+        final Lexeme copy = factory.createLexemeSequenceBuilder().append(original).build().getFirstLexeme();
+
+        copy.setParsedIntValue(DAY1, 2);
+        copy.setParsedValue(HOUR1, 13);
+        original.setParsedValue(MINUTE1, 30);
+
+        assertEquals(1, original.getParsedIntValue(DAY1, -1));
+        assertEquals(12, original.getParsedIntValue(HOUR1, -1));
+        assertEquals(2, copy.getParsedIntValue(DAY1, -1));
+        assertEquals(13, copy.getParsedIntValue(HOUR1, -1));
+        assertNull(copy.getParsedValue(MINUTE1, Integer.class));
+    }
+
+    @Test
+    public void testMergedValuesFollowModifications() {
+        final Lexeme lexeme = factory.createLexeme("0112/0118", LexemeIdentity.VALID_TIME);
+        lexeme.setParsedIntValue(DAY1, 1);
+        assertEquals(1, lexeme.getParsedValues().size());
+        lexeme.setParsedIntValue(HOUR1, 12);
+        assertEquals(Integer.valueOf(12), lexeme.getParsedValues().get(HOUR1));
+        lexeme.setParsedIntValue(HOUR1, 13);
+        assertEquals(Integer.valueOf(13), lexeme.getParsedValues().get(HOUR1));
+        lexeme.setParsedValue(DAY1, null);
+        assertNull(lexeme.getParsedValues().get(DAY1));
+    }
+
+    @Test
+    public void testIntAndObjectValuesHashEqually() {
+        final Lexeme unboxed = factory.createLexeme("0112/0118", LexemeIdentity.VALID_TIME);
+        unboxed.setParsedIntValue(DAY1, 1);
+        unboxed.setParsedIntValue(HOUR1, 1200);
+        final Lexeme boxed = factory.createLexeme("0112/0118", LexemeIdentity.VALID_TIME);
+        boxed.setParsedValue(DAY1, 1);
+        boxed.setParsedValue(HOUR1, 1200);
+        assertEquals(boxed.getParsedValues(), unboxed.getParsedValues());
+        assertEquals(boxed.hashCode(), unboxed.hashCode());
+    }
+
+    @Test
+    public void testCopyingDoesNotAffectTheOriginal() {
+        final Lexeme original = factory.createLexeme("0112/0118", LexemeIdentity.VALID_TIME);
+        original.setParsedValue(HOUR1, 12);
+        final Lexeme copy = factory.createLexemeSequenceBuilder().append(original).build().getFirstLexeme();
+        original.setParsedValue(HOUR1, 13);
+        copy.setParsedValue(MINUTE1, 30);
+        assertEquals(13, original.getParsedIntValue(HOUR1, -1));
+        assertNull(original.getParsedValue(MINUTE1, Integer.class));
+        assertEquals(12, copy.getParsedIntValue(HOUR1, -1));
+    }
+}
@@ -0,0 +1,88 @@
+package fi.fmi.avi.converter.tac.lexer.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import fi.fmi.avi.converter.tac.lexer.Lexeme;
+import fi.fmi.avi.converter.tac.lexer.LexemeIdentity;
+import fi.fmi.avi.converter.tac.lexer.LexemeSequence;
+import fi.fmi.avi.converter.tac.lexer.LexemeSequenceBuilder;
+
+public class LexemeSequenceBuilderTest {
+
+    private LexingFactoryImpl factory;
+
+    @Before
+    public void setUp() {
+        factory = new LexingFactoryImpl();
+    }
+
+    @Test
+    public void testCopyingBuilder() {
+        final Lexeme taf = factory.createLexeme("TAF", LexemeIdentity.TAF_START);
+        final LexemeSequence seq = factory.createLexemeSequenceBuilder().append(taf).build();
+        assertNotSame(taf, seq.getFirstLexeme());
+        assertEquals("TAF", seq.getTAC());
+    }
+
+    @Test
+    public void testMovingBuilder() {
+        final Lexeme taf = factory.createLexeme("TAF", LexemeIdentity.TAF_START);
+        final Lexeme space = factory.createLexeme(" ", LexemeIdentity.WHITE_SPACE);
+        final Lexeme aerodrome = factory.createLexeme("EFHK", LexemeIdentity.AERODROME_DESIGNATOR);
+        final LexemeSequenceBuilder builder = factory.createLexemeSequenceBuilder(true);
+        final LexemeSequence seq = builder.append(taf).append(space).append(aerodrome).build();
+
+        assertSame(taf, seq.getFirstLexeme());
+        assertSame(aerodrome, seq.getLastLexeme());
+        assertSame(aerodrome, taf.getNext());
+        assertSame(taf, aerodrome.getPrevious());
+        assertSame(taf, aerodrome.getFirst());
+        assertEquals("TAF EFHK", seq.getTAC());
+
+        // Appending a Lexeme already in the sequence again must not create a cycle:
+        builder.append(taf);
+        assertNotSame(taf, seq.getLastLexeme());
+        assertNull(seq.getLastLexeme().getNext());
+        assertEquals("TAF EFHKTAF", seq.getTAC());
+    }
+
+    @Test
+    public void testMovingFromAnotherSequence() {
+        final LexemeSequence source = factory.createLexemeSequence("TAF EFHK", null);
+        final List<Lexeme> lexemes = source.getLexemes();
+        final LexemeSequence seq = factory.createLexemeSequenceBuilder(true).appendAll(lexemes).build();
+        assertSame(lexemes.get(0), seq.getFirstLexeme());
+        assertSame(lexemes.get(2), seq.getLastLexeme());
+        assertEquals("TAF EFHK", seq.getTAC());
+    }
+
+    @Test
+    public void testEmptyBuilder() {
+        final LexemeSequenceBuilder builder = factory.createLexemeSequenceBuilder(true);
+        assertTrue(builder.isEmpty());
+        builder.removeLast();
+        assertTrue(builder.isEmpty());
+        builder.append(factory.createLexeme("TAF")).removeLast();
+        assertTrue(builder.isEmpty());
+        assertNull(builder.build().getLastLexeme());
+    }
+
+    @Test
+    public void testTrimWhiteSpace() {
+        final LexemeSequence seq = factory.createLexemeSequence(" \nTAF EFHK  \r\n", null);
+        final LexemeSequence trimmed = seq.trimWhiteSpace();
+        assertEquals("TAF EFHK", trimmed.getTAC());
+        assertEquals(3, trimmed.getLexemes().size());
+        assertNotSame(seq.getLexemes().get(2), trimmed.getFirstLexeme());
+        assertEquals("", factory.createLexemeSequence("  ", null).trimWhiteSpace().getTAC());
+    }
+}
@@ -0,0 +1,73 @@
+package fi.fmi.avi.converter.tac.lexer.impl;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import fi.fmi.avi.converter.tac.lexer.impl.PrioritizedLexemeVisitor.OccurrenceFrequency;
+import fi.fmi.avi.converter.tac.lexer.impl.token.CAVOK;
+import fi.fmi.avi.converter.tac.lexer.impl.token.CloudLayer;
+import fi.fmi.avi.converter.tac.lexer.impl.token.ICAOCode;
+import fi.fmi.avi.converter.tac.lexer.impl.token.MetricHorizontalVisibility;
+import fi.fmi.avi.converter.tac.lexer.impl.token.SurfaceWind;
+
+public class LexemeVisitorDispatchIndexTest {
+
+    private static String bounds(final String regex) {
+        return RegexLengthBounds.of(Pattern.compile(regex)).toString();
+    }
+
+    private static List<Class<?>> candidates(final LexemeVisitorDispatchIndex index, final String token) {
+        return Arrays.stream(index.getCandidates(token))//
+                .filter(candidate -> candidate.acceptsLength(token.length()))//
+                .map(candidate -> candidate.getVisitor().getClass())//
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    public void testLengthBounds() {
+        assertEquals("[4, *]", bounds("^[A-Z]{4,}$"));
+        assertEquals("[4, 7]", bounds("^([0-9]{4})([NS][EW]?|[EW]|NDV)?$"));
+        assertEquals("[7, 15]", bounds("^(VRB|[0-9]{3})(P?[0-9]{2,3})(GP?[0-9]{2,3})?(KT|MPS|KMH)$"));
+        assertEquals("[4, 4]", bounds("^SIG[CWE]$"));
+        assertEquals("[3, 9]", bounds("^(?<iscloud>(?<amount>[A-Z]{3}|VV|/{3})(?<height>[0-9]{3}|/{3})(?<type>CB|TCU|/{3})?)|(?<nocloud>SKC|NSC|NCD|CLR)$"));
+        assertEquals("[4, 4]", bounds("^DTG\\:$"));
+        assertEquals("[1, 1]", bounds("^[]a]$"));
+        assertEquals("[3, 3]", bounds("^(?=A)\\QA+B\\E$"));
+        assertEquals("[4, 4]", bounds("^A\\QB|C"));
+        assertEquals("[2, 5]", bounds("^A{2}+\\x{1F600}?\\u00C4?$"));
+    }
+
+    @Test
+    public void testUnsupportedSyntaxIsNotBounded() {
+        assertEquals("[0, *]", bounds("^(A)\\1$"));
+        assertEquals("[0, *]", bounds("(?x) A B C"));
+        assertEquals("[0, *]", bounds("^(?<a>A)\\k<a>$"));
+        assertEquals("[0, *]", bounds("^A\\0101$"));
+        assertEquals("[0, *]", RegexLengthBounds.of(Pattern.compile("ABC", Pattern.CASE_INSENSITIVE)).toString());
+    }
+
+    @Test
+    public void testCandidatesByFirstCharacterAndLength() {
+        final LexemeVisitorDispatchIndex index = new LexemeVisitorDispatchIndex(Arrays.asList(//
+                new SurfaceWind(OccurrenceFrequency.FREQUENT), //
+                new MetricHorizontalVisibility(OccurrenceFrequency.FREQUENT), //
+                new CloudLayer(OccurrenceFrequency.FREQUENT), //
+                new ICAOCode(OccurrenceFrequency.AVERAGE), //
+                new CAVOK(OccurrenceFrequency.RARE)));
+
+        assertEquals(Arrays.asList(MetricHorizontalVisibility.class, CAVOK.class), candidates(index, "9999"));
+        assertEquals(Arrays.asList(SurfaceWind.class, MetricHorizontalVisibility.class, CAVOK.class), candidates(index, "24010KT"));
+        assertEquals(Arrays.asList(CloudLayer.class, ICAOCode.class, CAVOK.class), candidates(index, "BKN003"));
+        assertEquals(Arrays.asList(CloudLayer.class, ICAOCode.class, CAVOK.class), candidates(index, "EFHK"));
+        assertEquals(Arrays.asList(MetricHorizontalVisibility.class, CAVOK.class), candidates(index, "1/2SM"));
+        assertEquals(Arrays.asList(CloudLayer.class, ICAOCode.class, CAVOK.class), candidates(index, "CAVOK"));
+        assertEquals(Arrays.asList(CAVOK.class), candidates(index, "Å"));
+        assertEquals(Arrays.asList(CAVOK.class), candidates(index, ""));
+    }
+}
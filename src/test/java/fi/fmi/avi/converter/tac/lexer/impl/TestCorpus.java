@@ -0,0 +1,58 @@
+package fi.fmi.avi.converter.tac.lexer.impl;
+
+import java.io.InputStream;
+import java.lang.reflect.Constructor;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.core.type.filter.AssignableTypeFilter;
+import org.springframework.util.StreamUtils;
+
+import fi.fmi.avi.converter.ConversionHints;
+import fi.fmi.avi.converter.tac.AbstractAviMessageTest;
+
+/**
+ * The messages of the {@link AbstractAviMessageTest}s and the TAC test resources, for the differential lexer tests.
+ */
+final class TestCorpus {
+
+    private TestCorpus() {
+        throw new AssertionError();
+    }
+
+    static List<Message> load() throws Exception {
+        final List<Message> retval = new ArrayList<>();
+        final ClassPathScanningCandidateComponentProvider provider = new ClassPathScanningCandidateComponentProvider(false);
+        provider.addIncludeFilter(new AssignableTypeFilter(AbstractAviMessageTest.class));
+        for (final BeanDefinition definition : provider.findCandidateComponents("fi.fmi.avi.converter.tac")) {
+            final Constructor<?> constructor = Class.forName(definition.getBeanClassName()).getDeclaredConstructor();
+            constructor.setAccessible(true);
+            final AbstractAviMessageTest<?> test = (AbstractAviMessageTest<?>) constructor.newInstance();
+            retval.add(new Message(definition.getBeanClassName(), test.getMessage(), test.getLexerParsingHints()));
+        }
+        for (final Resource resource : new PathMatchingResourcePatternResolver().getResources("classpath*:fi/fmi/avi/converter/tac/**/*.tac")) {
+            try (final InputStream is = resource.getInputStream()) {
+                retval.add(new Message(resource.getFilename(), StreamUtils.copyToString(is, StandardCharsets.UTF_8), null));
+            }
+        }
+        return Collections.unmodifiableList(retval);
+    }
+
+    static final class Message {
+        final String name;
+        final String tac;
+        final ConversionHints hints;
+
+        Message(final String name, final String tac, final ConversionHints hints) {
+            this.name = name;
+            this.tac = tac;
+            this.hints = hints;
+        }
+    }
+}
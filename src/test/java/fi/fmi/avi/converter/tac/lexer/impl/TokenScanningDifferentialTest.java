@@ -0,0 +1,144 @@
+package fi.fmi.avi.converter.tac.lexer.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.MatchResult;
+import java.util.regex.Matcher;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import fi.fmi.avi.converter.tac.conf.Lexing;
+import fi.fmi.avi.converter.tac.lexer.Lexeme;
+import fi.fmi.avi.converter.tac.lexer.LexemeSequence;
+import fi.fmi.avi.converter.tac.lexer.impl.PrioritizedLexemeVisitor.OccurrenceFrequency;
+import fi.fmi.avi.converter.tac.lexer.impl.token.AirDewpointTemperature;
+import fi.fmi.avi.converter.tac.lexer.impl.token.AtmosphericPressureQNH;
+import fi.fmi.avi.converter.tac.lexer.impl.token.CloudLayer;
+import fi.fmi.avi.converter.tac.lexer.impl.token.IssueTime;
+import fi.fmi.avi.converter.tac.lexer.impl.token.MetricHorizontalVisibility;
+import fi.fmi.avi.converter.tac.lexer.impl.token.RunwayVisualRange;
+import fi.fmi.avi.converter.tac.lexer.impl.token.SurfaceWind;
+import fi.fmi.avi.converter.tac.lexer.impl.token.TAFChangeForecastTimeGroup;
+import fi.fmi.avi.converter.tac.lexer.impl.token.ValidTime;
+import fi.fmi.avi.converter.tac.lexer.impl.token.Weather;
+
+/**
+ * Runs the regular expression and the token scanning lexing modes over the messages of the test corpus and checks
+ * that they produce the same Lexemes.
+ */
+public class TokenScanningDifferentialTest {
+
+    private static final String[] EDGE_TOKENS = { "", "VV005", "VVV005", "VV////", "//////", "SCT020CB", "BKN///TCU", "FEW015///", "SKC", "NSCA",
+            "RE", "REA", "RESN", "+SHRASN", "-", "/////", "1801234KT", "VRB02KT", "36010GP99MPS", "00000KT1", "P49MPS", "0800NDV", "9999NE", "9999NX",
+            "M05/M07", "//////", "M/05", "Q////", "A2992", "Q10130", "0000Z", "120000Z", "120000", "1200ZZ", "1212/1312", "1212", "1212/13", "R22L/P1500VM0600UFT",
+            "R22/1500V0600", "R22R1500", "R22/1500VFT", "R22X/1500" };
+
+    private static List<TestCorpus.Message> corpus;
+
+    private static final List<ScanningLexemeVisitor> VISITORS = Arrays.asList(//
+            new SurfaceWind(OccurrenceFrequency.AVERAGE), //
+            new MetricHorizontalVisibility(OccurrenceFrequency.AVERAGE), //
+            new CloudLayer(OccurrenceFrequency.AVERAGE), //
+            new Weather(OccurrenceFrequency.AVERAGE), //
+            new AirDewpointTemperature(OccurrenceFrequency.AVERAGE), //
+            new AtmosphericPressureQNH(OccurrenceFrequency.AVERAGE), //
+            new IssueTime(OccurrenceFrequency.AVERAGE), //
+            new ValidTime(OccurrenceFrequency.AVERAGE), //
+            new TAFChangeForecastTimeGroup(OccurrenceFrequency.AVERAGE), //
+            new RunwayVisualRange(OccurrenceFrequency.AVERAGE));
+
+    @BeforeClass
+    public static void loadCorpus() throws Exception {
+        corpus = TestCorpus.load();
+        assertFalse(corpus.isEmpty());
+    }
+
+    private static void assertSameMatch(final ScanningLexemeVisitor visitor, final String token) {
+        final String description = visitor.getClass().getSimpleName() + " " + token;
+        final Matcher expected = visitor.getPattern().matcher(token);
+        final MatchResult actual = visitor.scan(token);
+        if (!expected.matches()) {
+            assertNull(description, actual);
+            return;
+        }
+        assertNotNull(description, actual);
+        assertEquals(description, expected.groupCount(), actual.groupCount());
+        for (int group = 0; group <= expected.groupCount(); group++) {
+            assertEquals(description + " group " + group, expected.group(group), actual.group(group));
+            assertEquals(description + " start " + group, expected.start(group), actual.start(group));
+            assertEquals(description + " end " + group, expected.end(group), actual.end(group));
+        }
+    }
+
+    private static AviMessageLexerImpl lexer(final boolean tokenScanning) {
+        final AviMessageLexerImpl lexer = (AviMessageLexerImpl) new Lexing().aviMessageLexer();
+        lexer.setTokenScanning(tokenScanning);
+        return lexer;
+    }
+
+    @Test
+    public void testScannersMatchPatterns() {
+        final Set<String> tokens = new LinkedHashSet<>(Arrays.asList(EDGE_TOKENS));
+        for (final TestCorpus.Message message : corpus) {
+            tokens.addAll(Arrays.asList(message.tac.split("\\s+")));
+        }
+        for (final String token : tokens) {
+            for (final ScanningLexemeVisitor visitor : VISITORS) {
+                assertSameMatch(visitor, token);
+            }
+        }
+    }
+
+    @Test
+    public void testLexingModesProduceSameLexemes() {
+        final AviMessageLexerImpl regexLexer = lexer(false);
+        final AviMessageLexerImpl scanningLexer = lexer(true);
+        assertTrue(scanningLexer.isTokenScanning());
+        for (final TestCorpus.Message message : corpus) {
+            final LexemeSequence expected = regexLexer.lexMessage(message.tac, message.hints);
+            final LexemeSequence actual = scanningLexer.lexMessage(message.tac, message.hints);
+            final List<Lexeme> expectedLexemes = expected.getLexemes();
+            final List<Lexeme> actualLexemes = actual.getLexemes();
+            assertEquals(message.name, expectedLexemes.size(), actualLexemes.size());
+            for (int i = 0; i < expectedLexemes.size(); i++) {
+                final Lexeme e = expectedLexemes.get(i);
+                final Lexeme a = actualLexemes.get(i);
+                final String description = message.name + " " + e.getTACToken();
+                assertEquals(description, e.getTACToken(), a.getTACToken());
+                assertEquals(description, e.getIdentity(), a.getIdentity());
+                assertEquals(description, e.getStatus(), a.getStatus());
+                assertEquals(description, e.getLexerMessage(), a.getLexerMessage());
+                assertEquals(description, e.getIdentificationCertainty(), a.getIdentificationCertainty(), 0.0);
+                assertEquals(description, e.isIgnored(), a.isIgnored());
+                assertEquals(description, e.getParsedValues(), a.getParsedValues());
+            }
+        }
+    }
+
+    @Test
+    public void testSettingAppliesToLexersAddedLater() {
+        final AviMessageLexerImpl lexer = new AviMessageLexerImpl();
+        lexer.setTokenScanning(true);
+        final RecognizingAviMessageTokenLexer tokenLexer = new RecognizingAviMessageTokenLexer();
+        final SurfaceWind before = new SurfaceWind(OccurrenceFrequency.AVERAGE);
+        tokenLexer.teach(before);
+        lexer.addTokenLexer(tokenLexer);
+        final SurfaceWind after = new SurfaceWind(OccurrenceFrequency.AVERAGE);
+        tokenLexer.teach(after);
+        assertTrue(before.isTokenScanning());
+        assertTrue(after.isTokenScanning());
+
+        lexer.setTokenScanning(false);
+        assertFalse(before.isTokenScanning());
+        assertFalse(after.isTokenScanning());
+    }
+}
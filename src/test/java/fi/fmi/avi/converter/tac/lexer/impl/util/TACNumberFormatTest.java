@@ -0,0 +1,90 @@
+package fi.fmi.avi.converter.tac.lexer.impl.util;
+
+import static org.junit.Assert.assertEquals;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Locale;
+
+import org.junit.Test;
+
+public class TACNumberFormatTest {
+
+    @Test
+    public void testZeroPaddedIntegersMatchFormatter() {
+        final long[] values = { 0, 1, 7, 9, 10, 99, 100, 360, 999, 1000, 9999, 12345, -1, -9, -10, -100, Long.MAX_VALUE, Long.MIN_VALUE };
+        for (final long value : values) {
+            for (int width = 1; width <= 6; width++) {
+                assertEquals(String.format(Locale.US, "%0" + width + "d", value), TACNumberFormat.zeroPadded(value, width));
+            }
+        }
+    }
+
+    @Test
+    public void testRoundedDoublesMatchFormatter() {
+        final double[] values = { 0.0, -0.0, 0.4, 0.49999999999999994, 0.5, 1.5, 2.5, 9.5, 99.5, 149.99, 350.0, 999.5, 9999.4, 12500.0, -0.3, -0.5, -1.5,
+                -12.7, 4503599627370495.5, 1.0E17, 1.0E19, Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY };
+        for (final double value : values) {
+            for (int width = 2; width <= 5; width++) {
+                assertEquals(String.format(Locale.US, "%0" + width + ".0f", value),
+                        TACNumberFormat.appendRoundedZeroPadded(new StringBuilder(), value, width).toString());
+            }
+        }
+    }
+
+    @Test
+    public void testCoordinatesMatchBigDecimalEncoding() {
+        for (int decimalPlaces = 0; decimalPlaces <= 5; decimalPlaces++) {
+            for (double coordinate = -180.0; coordinate <= 180.0; coordinate += 0.0137) {
+                assertCoordinate(BigDecimal.valueOf(coordinate).setScale(decimalPlaces, RoundingMode.HALF_UP));
+            }
+        }
+        final String[] boundaries = { "60.9916667", "60.99167", "0.0075", "0.00825", "0.00824", "0.0083", "-0.0083", "59.999", "60.1575", "0.16583",
+                "-24.99999", "5E+1", "12.345678901234567" };
+        for (final String boundary : boundaries) {
+            assertCoordinate(new BigDecimal(boundary));
+        }
+        assertEquals("N6000", TACNumberFormat.appendLatitude(new StringBuilder(), new BigDecimal("60.0"), true).toString());
+        assertEquals("W02430", TACNumberFormat.appendLongitude(new StringBuilder(), new BigDecimal("-24.5"), false).toString());
+    }
+
+    @Test
+    public void testClosestFractionMatchesSearch() {
+        for (int maxDenominator = 3; maxDenominator <= 16; maxDenominator++) {
+            for (double number = 0.001; number < 1.0; number += 0.001) {
+                assertEquals(searchClosestFraction(number, maxDenominator), TACNumberFormat.closestFraction(number, maxDenominator));
+            }
+            for (int denominator = 2; denominator <= 2 * maxDenominator; denominator++) {
+                for (int numerator = 1; numerator < denominator; numerator++) {
+                    final double number = (double) numerator / (double) denominator;
+                    assertEquals(searchClosestFraction(number, maxDenominator), TACNumberFormat.closestFraction(number, maxDenominator));
+                }
+            }
+        }
+    }
+
+    private static void assertCoordinate(final BigDecimal value) {
+        for (final boolean includeMinutesWhenZero : new boolean[] { false, true }) {
+            assertEquals(value.toPlainString(), TACNumberFormat.appendDegreesMinutesOfBigDecimal(new StringBuilder(), value, 'E', 'W', 3,
+                    includeMinutesWhenZero).toString(), TACNumberFormat.appendLongitude(new StringBuilder(), value, includeMinutesWhenZero).toString());
+        }
+    }
+
+    // The linear search formerly used for the statute mile fractions
+    private static String searchClosestFraction(final double number, final int maxDenominator) {
+        int bestNumerator = 0;
+        int bestDenominator = 0;
+        double bestDelta = Double.NaN;
+        for (int denominator = 2; denominator <= maxDenominator; denominator++) {
+            for (int numerator = 1; numerator < denominator; numerator++) {
+                final double delta = Math.abs(number - (double) numerator / (double) denominator);
+                if (Double.isNaN(bestDelta) || (delta < bestDelta && Math.abs(bestDelta - delta) > 0.00000001d)) {
+                    bestNumerator = numerator;
+                    bestDenominator = denominator;
+                    bestDelta = delta;
+                }
+            }
+        }
+        return bestNumerator + "/" + bestDenominator;
+    }
+}
@@ -0,0 +1,109 @@
+package fi.fmi.avi.converter.tac.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+import org.junit.Test;
+
+import fi.fmi.avi.converter.ConversionIssue;
+import fi.fmi.avi.converter.tac.conf.Lexing;
+import fi.fmi.avi.converter.tac.lexer.impl.AviMessageLexerImpl;
+import fi.fmi.avi.converter.tac.lexer.impl.token.SurfaceWind;
+import fi.fmi.avi.model.MessageType;
+
+public class HistogramConversionMetricsTest {
+
+    private static final String METAR = "METAR EFHK 111111Z 15008KT 0700 R04R/1500N SN VV006 M08/M10 Q1023=";
+
+    @Test
+    public void testHistogramPercentiles() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i * 1000L);
+        }
+        assertEquals(100, histogram.getCount());
+        assertEquals(100_000L, histogram.getMax());
+        assertEquals(50_500.0, histogram.getMean(), 0.0);
+        final long median = histogram.getValueAtPercentile(50.0);
+        assertTrue(median >= 50_000L && median <= 50_000L * 33 / 32);
+        assertEquals(100_000L, histogram.getValueAtPercentile(100.0));
+        assertEquals(1000L, histogram.getValueAtPercentile(0.0), 1000 / 32);
+    }
+
+    @Test
+    public void testHistogramBucketsCoverAllValues() {
+        for (long value = 0; value < 10_000; value++) {
+            assertBucketContains(value);
+        }
+        for (int shift = 6; shift < Long.SIZE - 1; shift++) {
+            assertBucketContains((1L << shift) - 1);
+            assertBucketContains(1L << shift);
+            assertBucketContains((1L << shift) + 1);
+        }
+        assertBucketContains(Long.MAX_VALUE);
+    }
+
+    private static void assertBucketContains(final long value) {
+        final int bucket = LatencyHistogram.bucketOf(value);
+        assertTrue(String.valueOf(value), LatencyHistogram.highestValueOf(bucket) >= value);
+        if (bucket > 0) {
+            assertTrue(String.valueOf(value), LatencyHistogram.highestValueOf(bucket - 1) < value);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidPercentile() {
+        new LatencyHistogram().getValueAtPercentile(101.0);
+    }
+
+    @Test
+    public void testEmptyHistogram() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0L, histogram.getValueAtPercentile(99.0));
+        assertEquals(0.0, histogram.getMean(), 0.0);
+    }
+
+    @Test
+    public void testConversionsAreRecordedByType() {
+        final HistogramConversionMetrics metrics = new HistogramConversionMetrics();
+        metrics.messageParsed(MessageType.METAR, 1000L,
+                Arrays.asList(new ConversionIssue(ConversionIssue.Type.SYNTAX, "a"), new ConversionIssue(ConversionIssue.Type.SYNTAX, "b")));
+        metrics.messageParsed(MessageType.METAR, 3000L, Collections.emptyList());
+        metrics.messageSerialized(null, 2000L, Collections.singletonList(new ConversionIssue(ConversionIssue.Type.MISSING_DATA, "c")));
+        metrics.tokensCombined(3);
+        metrics.tokensCombined(3);
+
+        assertEquals(2, metrics.getParsingTimes(MessageType.METAR).get().getCount());
+        assertEquals(3000L, metrics.getParsingTimes(MessageType.METAR).get().getMax());
+        assertFalse(metrics.getParsingTimes(MessageType.TAF).isPresent());
+        assertEquals(1, metrics.getSerializingTimes(MessageType.GENERIC).get().getCount());
+        assertEquals(Long.valueOf(2), metrics.getIssueCounts().get(ConversionIssue.Type.SYNTAX));
+        assertEquals(Long.valueOf(1), metrics.getIssueCounts().get(ConversionIssue.Type.MISSING_DATA));
+        assertEquals(Long.valueOf(0), metrics.getIssueCounts().get(ConversionIssue.Type.OTHER));
+        assertEquals(Collections.singletonMap(3, 2L), metrics.getCombiningRuleHitCounts());
+    }
+
+    @Test
+    public void testLexerReportsVisits() {
+        final HistogramConversionMetrics metrics = new HistogramConversionMetrics();
+        final AviMessageLexerImpl lexer = (AviMessageLexerImpl) new Lexing().aviMessageLexer();
+        assertSame(ConversionMetricsListener.NO_OP, lexer.getMetricsListener());
+        lexer.setMetricsListener(metrics);
+        lexer.lexMessage(METAR);
+        lexer.lexMessage(METAR);
+
+        assertEquals(2, metrics.getLexerPassCounts().getCount());
+        assertTrue(metrics.getLexerPassCounts().getMax() > 0);
+        final Map<Class<?>, Long> invocations = metrics.getVisitorInvocationCounts();
+        final Map<Class<?>, Long> matches = metrics.getVisitorMatchCounts();
+        assertTrue(matches.get(SurfaceWind.class) >= 2);
+        assertTrue(invocations.get(SurfaceWind.class) >= matches.get(SurfaceWind.class));
+    }
+}
@@ -550,6 +550,27 @@ public class SWXAmd79TACParserTest {
         }
     }
 
+    @Test
+    public void testInvalidHeaderTokenOrder() throws IOException {
+        final List<String> lines = new ArrayList<>(Arrays.asList(getInput("spacewx-A2-3.tac").split("\n")));
+        // DTG after SWXC
+        Collections.swap(lines, 2, 3);
+        final ConversionResult<SpaceWeatherAdvisoryAmd79> result = this.converter.convertMessage(String.join("\n", lines), TACConverter.TAC_TO_SWX_AMD79_POJO);
+        assertThat(result.getConversionIssues())
+                .anySatisfy(issue -> {
+                    assertThat(issue.getType()).isEqualTo(ConversionIssue.Type.SYNTAX);
+                    assertThat(issue.getMessage()).startsWith("Invalid token order: ")
+                            .contains("(DTG_ISSUE_TIME_LABEL,")
+                            .endsWith("was found after one of type SWX_CENTRE_LABEL");
+                })
+                .anySatisfy(issue -> {
+                    assertThat(issue.getType()).isEqualTo(ConversionIssue.Type.SYNTAX);
+                    assertThat(issue.getMessage()).startsWith("Invalid token order: ")
+                            .contains("(ISSUE_TIME,")
+                            .endsWith("was found after one of type SWX_CENTRE_LABEL");
+                });
+    }
+
     @Test
     public void testInvalidTokenOrder2() throws IOException {
         final String input = getInput("spacewx-invalid-token-order.tac");
@@ -1,6 +1,8 @@
 package fi.fmi.avi.converter.tac.taf;
 
 import fi.fmi.avi.converter.AviMessageConverter;
+import fi.fmi.avi.converter.AviMessageSpecificConverter;
+import fi.fmi.avi.converter.ConversionIssue;
 import fi.fmi.avi.converter.ConversionResult;
 import fi.fmi.avi.converter.tac.TACTestConfiguration;
 import fi.fmi.avi.converter.tac.conf.TACConverter;
@@ -18,6 +20,9 @@ import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 import org.springframework.test.context.support.AnnotationConfigContextLoader;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 import java.util.Optional;
 
 import static fi.fmi.avi.model.bulletin.MeteorologicalBulletinSpecialCharacter.CARRIAGE_RETURN;
@@ -32,6 +37,9 @@ public class TAFBulletinTACSerializationTest {
     @Autowired
     private AviMessageConverter converter;
 
+    @Autowired
+    private AviMessageSpecificConverter<TAFBulletin, String> tafBulletinTACSerializer;
+
     @Test
     public void testTokenizingAmendment() {
         final String tac = "TAF AMD EFKE 020532Z 0206/0215 05005KT 9999 -SHRA BKN004\r\n"//
@@ -187,6 +195,39 @@ public class TAFBulletinTACSerializationTest {
                 tacBulletin.get());
     }
 
+    @Test
+    public void testWritingBulletin() throws Exception {
+        final String tac = "TAF EFKE 020532Z 0206/0215 05005KT 9999 -SHRA BKN004\r\n"//
+                + "BECMG 0206/0208 FEW005 BKN020\r\n"//
+                + "TEMPO 0206/0215 4000 SHRA BKN010 SCT030CB=";
+        final ConversionResult<TAF> pojoResult = this.converter.convertMessage(tac, TACConverter.TAC_TO_TAF_POJO);
+        assertTrue(pojoResult.getConvertedMessage().isPresent());
+        final TAFBulletin bulletin = TAFBulletinImpl.builder()//
+                .setHeading(BulletinHeadingImpl.builder()//
+                        .setLocationIndicator("EFPP")//
+                        .setBulletinNumber(33)//
+                        .setGeographicalDesignator("FI")//
+                        .setDataTypeDesignatorT2(DataTypeDesignatorT2.ForecastsDataTypeDesignatorT2.FCT_AERODROME_VT_SHORT)
+                        .setIssueTime(PartialOrCompleteTimeInstant.createIssueTime("020500"))//
+                        .build())//
+                .addMessages(pojoResult.getConvertedMessage().get())//
+                .addMessages(pojoResult.getConvertedMessage().get())//
+                .build();
+        final String expected = converter.convertMessage(bulletin, TACConverter.TAF_BULLETIN_POJO_TO_TAC).getConvertedMessage().orElse(null);
+
+        final TAFBulletinTACSerializer serializer = (TAFBulletinTACSerializer) this.tafBulletinTACSerializer;
+        final StringBuilder sb = new StringBuilder();
+        List<ConversionIssue> issues = serializer.writeMessage(bulletin, sb, null);
+        assertTrue(issues.isEmpty());
+        assertEquals(expected, sb.toString());
+
+        final ByteBuffer buffer = ByteBuffer.allocate(1024);
+        issues = serializer.writeMessage(bulletin, buffer, null);
+        assertTrue(issues.isEmpty());
+        buffer.flip();
+        assertEquals(expected, StandardCharsets.US_ASCII.decode(buffer).toString());
+    }
+
     @Test
     public void testConvertingLongTAF() {
         final String tac = "TAF EFKE 020532Z 0206/0312 05005KT 9999 -SHRA BKN004\r\n"//